@@ -0,0 +1,14 @@
+package com.editor.app;
+
+import android.app.Application;
+
+import com.editor.app.api.WallpaperClient;
+
+public class EditorApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        WallpaperClient.init(this);
+    }
+}
@@ -1,22 +1,229 @@
 package com.editor.app;
 
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.PointF;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.Menu;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.FrameLayout;
 import android.widget.ImageButton;
+import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.fragment.app.DialogFragment;
+import androidx.fragment.app.Fragment;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+import com.editor.app.api.MediaUrls;
 import com.editor.app.api.models.Media;
+import com.editor.app.canvas.BackgroundLayer;
+import com.editor.app.canvas.Blend;
+import com.editor.app.canvas.Border;
+import com.editor.app.canvas.BorderLayer;
+import com.editor.app.canvas.Crop;
+import com.editor.app.canvas.CropShape;
+import com.editor.app.canvas.EditorCanvasView;
+import com.editor.app.canvas.EraseTool;
+import com.editor.app.canvas.Fill;
+import com.editor.app.canvas.ImageLayer;
+import com.editor.app.canvas.Layer;
+import com.editor.app.canvas.Shadow;
+import com.editor.app.canvas.TextLayer;
+import com.editor.app.export.ExportFormat;
+import com.editor.app.export.ExportVariant;
+import com.editor.app.export.Exporter;
+import com.editor.app.fonts.FontRegistry;
+import com.editor.app.history.EditHistory;
+import com.editor.app.history.PropertyCommand;
+import com.editor.app.imaging.AdjustmentRenderer;
+import com.editor.app.imaging.BackgroundScaler;
+import com.editor.app.imaging.BitmapPixels;
+import com.editor.app.imaging.TiledImage;
+import com.editor.app.metrics.FrameMonitor;
+import com.editor.app.metrics.MetricsOverlay;
+import com.editor.app.project.ProjectCodec;
 import com.editor.app.sheets.BackgroundEditBottomSheet;
+import com.editor.app.sheets.ColorPickerBottomSheet;
 import com.editor.app.sheets.EditTextOptionsSheet;
+import com.editor.app.sheets.FontBrowserSheet;
 import com.editor.app.sheets.ImageEditBottomSheet;
+import com.editor.app.sheets.SliderDispatcher;
+import com.editor.app.sheets.adapters.PickerStrip;
 import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.BlendMode;
+import com.editor.core.imaging.BlurEngine;
+import com.editor.core.imaging.ColorAdjustments;
+import com.editor.core.imaging.GradientType;
+import com.editor.core.imaging.PixelBuffer;
+import com.editor.core.imaging.ScaleLayout;
+import com.editor.core.project.ProjectAutosave;
+import com.editor.core.project.ProjectReader;
+import com.editor.core.project.ProjectRecord;
+import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity implements ImageEditBottomSheet.ImageEditListener,
         BackgroundEditBottomSheet.EditOptionsListener, EditTextOptionsSheet.TextEditListener {
+    private static final String TAG = "MainActivity";
+
+    // Design pixels per sp, the design is laid out like a 360dp wide screen
+    private static final float DESIGN_DENSITY = 3f;
+    private static final float NUDGE_STEP = 10f;
+    private static final int DEFAULT_TEXT_SIZE = 16;
+
+    // Design pixels a pattern tile is drawn at
+    private static final int PATTERN_TILE_SIZE = 400;
+    // Camera captures under cacheDir, shared through the FileProvider
+    private static final String PHOTO_DIR = "photos";
+    // The design in progress, under filesDir; photos it embeds are extracted under cacheDir
+    private static final String PROJECT_FILE = "autosave.qproj";
+    private static final String PROJECT_MEDIA_DIR = "project_media";
+    // Quiet time after an edit before the design is saved
+    private static final long AUTOSAVE_DELAY_MS = 1000;
+    // Finished exports under cacheDir, shared through the FileProvider
+    private static final String EXPORT_DIR = "exports";
+    // Longest edge of an export in pixels, 0 is the design size
+    private static final int[] EXPORT_SIZES = {0, 3840, 6000};
+    // Metric dumps under the external files dir
+    private static final String METRICS_DIR = "metrics";
+    // Rows of the export dialog
+    private static final int EXPORT_SINGLE = 0;
+    private static final int EXPORT_GRADIENTS = 1;
+    private static final int EXPORT_FONTS = 2;
+    private static final int EXPORT_SCALE_TYPES = 3;
+
+    private interface BitmapCallback {
+        void onBitmap(Bitmap bitmap);
+    }
+
+    private interface TiledImageCallback {
+        void onImage(TiledImage image);
+    }
+
+    // upgrade is true when a preview was delivered before this bitmap
+    private interface MediaCallback {
+        void onBitmap(Bitmap bitmap, boolean upgrade);
+    }
+
+    private EditorCanvasView canvasView;
+    private BackgroundLayer backgroundLayer;
+    private TextLayer textLayer;
+    private ImageLayer imageLayer;
+    private BorderLayer borderLayer;
+
+    // Border settings from the sheet, the layer only holds the border while it is on
+    private boolean borderOn;
+    private float borderWidth = 5 * DESIGN_DENSITY;
+    private Fill borderFill = Fill.color(Color.BLACK);
+    private int borderOpacity = 100;
+
+    // Layer the shared onOpacityChanged callback applies to
+    private Layer opacityTarget;
+    private boolean erasing;
+    // Mode of the next background blend, as selected in the sheet
+    private BlendMode blendMode = BlendMode.MULTIPLY;
+
+    private final EditHistory history = new EditHistory();
+    // Photos open for tiled decoding, each is released once neither the background
+    // nor the history holds it
+    private final Set<TiledImage> openImages = new HashSet<>();
+
+    private FontRegistry fontRegistry;
+    // Registry names of the typefaces in use, projects store fonts by name
+    private final Map<Typeface, String> fontNames = new WeakHashMap<>();
+
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService blurExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService adjustExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService scaleExecutor = Executors.newSingleThreadExecutor();
+    // Restores, encodes and writes the project, in that order
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor();
+    // Exports render one per thread, a batch runs its variants in parallel
+    private final ExecutorService exportExecutor = Executors.newFixedThreadPool(Exporter.poolSize());
+    private AdjustmentRenderer adjustmentRenderer;
+    // The image was adjusted during a drag and only has its proxy
+    private boolean adjustmentsPending;
+    private BackgroundScaler backgroundScaler;
+    // The background layout changed during a drag and isn't resampled yet
+    private boolean backgroundScalePending;
+
+    private BlurEngine<Bitmap> blurEngine;
+    private final Map<Bitmap, String> blurSourceIds = new WeakHashMap<>();
+    private int nextBlurSourceId;
+
+    private ProjectCodec projectCodec;
+    private ProjectAutosave autosave;
+    // Nothing is saved until the previous design has been restored
+    private boolean restoring = true;
+    private boolean projectDirty;
+    private final Runnable autosaveTask = this::saveProject;
+
+    private FrameMonitor frameMonitor;
+    private MetricsOverlay metricsOverlay;
+
+    private Exporter exporter;
+    private Exporter.Job exportJob;
+
+    private final ActivityResultLauncher<String> pickImage = registerForActivityResult(
+            new ActivityResultContracts.GetContent(), uri -> {
+                if (uri != null) decodeUri(uri, this::setImageBitmap);
+            });
+
+    private final ActivityResultLauncher<String> pickBackground = registerForActivityResult(
+            new ActivityResultContracts.GetContent(), uri -> {
+                if (uri != null) openTiledImage(uri, image -> setBackgroundFill(Fill.image(image)));
+            });
+
+    // Full resolution capture into a cache file, the preview contract only returns a thumbnail
+    private Uri photoUri;
+    private final ActivityResultLauncher<Uri> takeBackgroundPhoto = registerForActivityResult(
+            new ActivityResultContracts.TakePicture(), saved -> {
+                if (saved && photoUri != null) openTiledImage(photoUri, image -> setBackgroundFill(Fill.image(image)));
+            });
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -29,55 +236,927 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
             return insets;
         });
 
+        fontRegistry = FontRegistry.getInstance(this);
+        setupMetrics();
+        setupCanvas();
+        setupBlur();
+        setupAdjustments();
+        setupToolbarButtons();
+        setupHistory();
+        setupProject();
+        setupExport();
+    }
+
+    // Saves right away whatever the debounce is still holding
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (projectDirty) {
+            canvasView.removeCallbacks(autosaveTask);
+            saveProject();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        decodeExecutor.shutdownNow();
+        blurEngine.cancel();
+        blurExecutor.shutdownNow();
+        adjustmentRenderer.cancel();
+        adjustExecutor.shutdownNow();
+        backgroundScaler.cancel();
+        scaleExecutor.shutdownNow();
+        // After the pending save, which may still read them
+        for (TiledImage image : openImages) {
+            saveExecutor.execute(image::release);
+        }
+        openImages.clear();
+        // Lets a pending save finish
+        saveExecutor.shutdown();
+        if (exportJob != null) exportJob.cancel();
+        exportExecutor.shutdownNow();
+        frameMonitor.stop();
+        SliderDispatcher.getInstance().setDragListener(null);
+        PickerStrip.release(this);
+    }
+
+    // adb shell dumpsys activity com.editor.app
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        StringBuilder report = new StringBuilder();
+        frameMonitor.report(report);
+        writer.print(prefix);
+        writer.println("Metrics:");
+        writer.print(report);
+    }
+
+    // Frame times and edit latency are always recorded, the overlay is opt-in
+    private void setupMetrics() {
+        frameMonitor = new FrameMonitor(getWindow());
+        frameMonitor.start();
+    }
+
+    private void setMetricsOverlayVisible(boolean visible) {
+        if (visible && metricsOverlay == null) {
+            metricsOverlay = new MetricsOverlay(this, frameMonitor);
+            metricsOverlay.setOnLongClickListener(v -> {
+                dumpMetrics();
+                return true;
+            });
+            FrameLayout container = findViewById(R.id.canvasContainer);
+            container.addView(metricsOverlay, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.WRAP_CONTENT,
+                    FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.TOP | Gravity.START));
+        } else if (!visible && metricsOverlay != null) {
+            ((ViewGroup) metricsOverlay.getParent()).removeView(metricsOverlay);
+            metricsOverlay = null;
+        }
+    }
+
+    // Under the app's external files, adb pull works without root
+    private void dumpMetrics() {
+        StringBuilder report = new StringBuilder();
+        frameMonitor.report(report);
+        File dir = getExternalFilesDir(METRICS_DIR);
+        if (dir == null) dir = getFilesDir();
+        File file = new File(dir, "metrics_" + System.currentTimeMillis() + ".txt");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(report.toString().getBytes(StandardCharsets.UTF_8));
+            Toast.makeText(this, getString(R.string.metrics_saved, file.getPath()), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write metrics", e);
+        }
+    }
+
+    private void setupCanvas() {
+        canvasView = findViewById(R.id.editorCanvas);
+        int width = canvasView.getDesignWidth();
+        int height = canvasView.getDesignHeight();
+
+        backgroundLayer = new BackgroundLayer(width, height);
+        canvasView.addLayer(backgroundLayer);
+
+        textLayer = new TextLayer(getString(R.string.default_quote),
+                DEFAULT_TEXT_SIZE * DESIGN_DENSITY, width * 3 / 4);
+        canvasView.addLayer(textLayer);
+        canvasView.alignLayer(textLayer, Gravity.CENTER_HORIZONTAL);
+        canvasView.alignLayer(textLayer, Gravity.CENTER_VERTICAL);
+
+        // Above everything, images are inserted below the text
+        borderLayer = new BorderLayer(width, height);
+        canvasView.addLayer(borderLayer);
+    }
+
+    private void setupAdjustments() {
+        adjustmentRenderer = new AdjustmentRenderer(adjustExecutor, ContextCompat.getMainExecutor(this));
+        backgroundScaler = new BackgroundScaler(scaleExecutor, ContextCompat.getMainExecutor(this));
+    }
+
+    private void setupBlur() {
+        blurEngine = new BlurEngine<>(blurExecutor, ContextCompat.getMainExecutor(this),
+                new BlurEngine.Output<Bitmap>() {
+                    @Override
+                    public Bitmap wrap(PixelBuffer pixels) {
+                        return BitmapPixels.toBitmap(pixels);
+                    }
+
+                    @Override
+                    public long sizeOf(Bitmap value) {
+                        return value.getAllocationByteCount();
+                    }
+                }, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    private void setupToolbarButtons() {
+        ImageButton textButton = findViewById(R.id.edit_btn);
+        ImageButton imageButton = findViewById(R.id.image_edit_options);
+        ImageButton backgroundButton = findViewById(R.id.background_edit_options);
+
+        textButton.setOnClickListener(v -> showTextEditOptionsSheet());
+        imageButton.setOnClickListener(v -> {
+            if (imageLayer == null) {
+                pickImage.launch("image/*");
+            } else {
+                showImageOptionsBottomSheet();
+            }
+        });
+        backgroundButton.setOnClickListener(v -> showBackgroundEditOptionsBottomSheet());
+    }
+
+    private void setupHistory() {
+        MaterialToolbar toolbar = findViewById(R.id.toolbar);
+        Menu menu = toolbar.getMenu();
+        toolbar.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == R.id.action_undo) {
+                return history.undo();
+            } else if (item.getItemId() == R.id.action_redo) {
+                return history.redo();
+            } else if (item.getItemId() == R.id.action_metrics) {
+                item.setChecked(!item.isChecked());
+                setMetricsOverlayVisible(item.isChecked());
+                return true;
+            }
+            return false;
+        });
+
+        // Slider drags collapse into a single step
+        history.setMergeGate(SliderDispatcher.getInstance()::isDragging);
+        SliderDispatcher.getInstance().setDragListener(this::onSliderReleased);
+        history.setListener((canUndo, canRedo) -> {
+            menu.findItem(R.id.action_undo).setEnabled(canUndo);
+            menu.findItem(R.id.action_redo).setEnabled(canRedo);
+            releaseUnusedImages();
+            scheduleAutosave();
+        });
+        menu.findItem(R.id.action_undo).setEnabled(false);
+        menu.findItem(R.id.action_redo).setEnabled(false);
+    }
+
+    // Work deferred while a slider was dragged is finished here
+    private void onSliderReleased() {
+        // A later drag or click of the same property starts its own undo step
+        history.seal();
+        if (adjustmentsPending && imageLayer != null) renderAdjustments(imageLayer);
+        if (backgroundScalePending) requestBackgroundScale();
+    }
+
+    // A saved snapshot may still read a photo that just left, so the release
+    // waits for the saves already queued
+    private void releaseUnusedImages() {
+        if (openImages.isEmpty()) return;
+        TiledImage current = backgroundLayer.getFill().getImage();
+        Iterator<TiledImage> images = openImages.iterator();
+        while (images.hasNext()) {
+            TiledImage image = images.next();
+            if (image == current || history.holds(image)) continue;
+            images.remove();
+            saveExecutor.execute(() -> runOnUiThread(image::release));
+        }
+    }
+
+    // Opens the last design on the save thread: records straight from the mapped
+    // file, then only the blobs they use are decoded
+    private void setupProject() {
+        projectCodec = new ProjectCodec(getContentResolver(), new File(getCacheDir(), PROJECT_MEDIA_DIR));
+        File file = new File(getFilesDir(), PROJECT_FILE);
+        autosave = new ProjectAutosave(file);
+        int previewSize = Math.max(canvasView.getDesignWidth(), canvasView.getDesignHeight());
+        saveExecutor.execute(() -> {
+            ProjectCodec.Project project = null;
+            if (file.exists()) {
+                try (ProjectReader reader = ProjectReader.open(file)) {
+                    project = projectCodec.load(reader, previewSize);
+                    autosave.resume(reader);
+                } catch (IOException e) {
+                    // The next save writes a fresh file
+                    Log.e(TAG, "Can't restore " + file, e);
+                }
+            }
+            ProjectCodec.Project restored = project;
+            runOnUiThread(() -> {
+                if (restored != null) restoreProject(restored);
+                restoring = false;
+            });
+        });
+    }
+
+    // Applied directly, the restored design is where history starts
+    private void restoreProject(ProjectCodec.Project project) {
+        for (ProjectRecord record : project.getRecords()) {
+            switch (record.getType()) {
+                case ProjectCodec.TYPE_BACKGROUND:
+                    project.applyBackground(record, backgroundLayer);
+                    TiledImage image = backgroundLayer.getFill().getImage();
+                    if (image != null) openImages.add(image);
+                    break;
+                case ProjectCodec.TYPE_TEXT:
+                    project.applyText(record, textLayer);
+                    restoreFont(project.getFontName(record));
+                    break;
+                case ProjectCodec.TYPE_IMAGE:
+                    ImageLayer layer = project.createImage(record);
+                    if (layer != null && imageLayer == null) {
+                        imageLayer = layer;
+                        canvasView.addLayer(canvasView.getLayers().indexOf(textLayer), layer);
+                        renderAdjustments(layer);
+                    }
+                    break;
+                case ProjectCodec.TYPE_BORDER:
+                    project.applyBorder(record, borderLayer);
+                    Border border = borderLayer.getBorder();
+                    borderOn = border != null;
+                    if (border != null) {
+                        borderWidth = border.getWidth();
+                        borderFill = border.getFill();
+                        borderOpacity = border.getOpacity();
+                    }
+                    break;
+            }
+        }
+        requestBlur();
+        requestBackgroundScale();
+    }
+
+    private void restoreFont(@Nullable String fontName) {
+        FontRegistry.Font font = fontName != null ? fontRegistry.getFont(fontName) : null;
+        if (font == null) return;
+        fontRegistry.load(font, (loaded, typeface) -> {
+            if (typeface == null) return;
+            fontNames.put(typeface, loaded.getName());
+            textLayer.setTypeface(typeface);
+        });
+    }
+
+    private void scheduleAutosave() {
+        if (restoring) return;
+        projectDirty = true;
+        canvasView.removeCallbacks(autosaveTask);
+        canvasView.postDelayed(autosaveTask, AUTOSAVE_DELAY_MS);
+    }
+
+    // Snapshots the layers here, blobs are encoded and written on the save thread
+    private void saveProject() {
+        if (restoring) return;
+        projectDirty = false;
+        ProjectCodec.Snapshot snapshot = ProjectCodec.snapshot(canvasView.getLayers(), fontNames);
+        saveExecutor.execute(() -> {
+            try {
+                autosave.save(snapshot.getRecords(), projectCodec.encode(snapshot));
+            } catch (IOException e) {
+                Log.e(TAG, "Autosave failed", e);
+            }
+        });
+    }
+
+    private void setupExport() {
+        exporter = new Exporter(exportExecutor, ContextCompat.getMainExecutor(this));
+        MaterialToolbar toolbar = findViewById(R.id.toolbar);
+        View saveButton = toolbar.getMenu().findItem(R.id.action_custom_button).getActionView();
+        if (saveButton != null) saveButton.setOnClickListener(v -> showExportDialog());
+    }
+
+    // This design, or one image per preset gradient, font or scale type
+    private void showExportDialog() {
+        stopErasing();
+        String[] modes = {
+                getString(R.string.export_single),
+                getString(R.string.export_gradients),
+                getString(R.string.export_fonts),
+                getString(R.string.export_scale_types)
+        };
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.export)
+                .setItems(modes, (dialog, which) -> showExportSizeDialog(which))
+                .show();
+    }
+
+    private void showExportSizeDialog(int mode) {
+        String[] sizes = {
+                getString(R.string.export_size_design, Math.max(canvasView.getDesignWidth(), canvasView.getDesignHeight())),
+                getString(R.string.export_size_4k),
+                getString(R.string.export_size_print)
+        };
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.export_size)
+                .setItems(sizes, (dialog, which) -> showExportFormatDialog(mode, EXPORT_SIZES[which]))
+                .show();
+    }
+
+    private void showExportFormatDialog(int mode, int longestSide) {
+        ExportFormat[] formats = ExportFormat.values();
+        String[] labels = {getString(R.string.format_png), getString(R.string.format_jpeg), getString(R.string.format_webp)};
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.export_format)
+                .setItems(labels, (dialog, which) -> {
+                    int size = longestSide > 0 ? longestSide
+                            : Math.max(canvasView.getDesignWidth(), canvasView.getDesignHeight());
+                    if (mode == EXPORT_SINGLE) {
+                        exportDesign(formats[which], size);
+                    } else {
+                        exportVariants(createVariants(mode), formats[which], size);
+                    }
+                })
+                .show();
+    }
+
+    // Fonts are loaded through the registry one at a time as the export pool gets to
+    // them, the typeface LRU bounds how many are held
+    private Exporter.VariantSource createVariants(int mode) {
+        if (mode == EXPORT_FONTS) {
+            List<FontRegistry.Font> fonts = fontRegistry.getFonts();
+            return new Exporter.VariantSource() {
+                @Override
+                public int size() {
+                    return fonts.size();
+                }
+
+                @NonNull
+                @Override
+                public String getName(int index) {
+                    return fonts.get(index).getName();
+                }
+
+                @Override
+                public void create(int index, @NonNull Exporter.VariantCallback callback) {
+                    fontRegistry.load(fonts.get(index), (font, typeface) -> callback.onVariant(typeface == null
+                            ? null : ExportVariant.of(font.getName()).withTypeface(typeface)));
+                }
+            };
+        }
+
+        List<ExportVariant> variants = new ArrayList<>();
+        if (mode == EXPORT_GRADIENTS) {
+            for (GradientItem gradient : ColorPickerBottomSheet.createGradientList()) {
+                variants.add(ExportVariant.of(gradient.getName()).withGradient(gradient));
+            }
+        } else {
+            for (ScaleLayout.Type type : ScaleLayout.Type.values()) {
+                variants.add(ExportVariant.of(type.name().toLowerCase(Locale.ROOT)).withScaleType(type));
+            }
+        }
+        return Exporter.VariantSource.of(variants);
+    }
+
+    // Layers are recorded here, rendering and encoding happen on the export pool
+    private void exportDesign(ExportFormat format, int size) {
+        File dir = prepareExportDir();
+        if (dir == null) return;
+        File file = new File(dir, "quote_" + System.currentTimeMillis() + "." + format.getExtension());
+
+        LinearProgressIndicator progress = createExportProgress();
+        AlertDialog dialog = showExportProgress(progress);
+        exportJob = exporter.export(canvasView, format, size, file, new Exporter.Listener() {
+            @Override
+            public void onProgress(float value) {
+                progress.setProgressCompat(Math.round(value * 100), true);
+            }
+
+            @Override
+            public void onExported(@NonNull File result) {
+                exportJob = null;
+                dialog.dismiss();
+                shareExports(Collections.singletonList(result), format);
+            }
+
+            @Override
+            public void onFailed(@NonNull Exception e) {
+                exportJob = null;
+                dialog.dismiss();
+                Log.e(TAG, "Export failed", e);
+                Toast.makeText(MainActivity.this, R.string.export_failed, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Progress is the average over the items, each renders on its own pool thread
+    private void exportVariants(Exporter.VariantSource variants, ExportFormat format, int size) {
+        if (variants.size() == 0) return;
+        File dir = prepareExportDir();
+        if (dir == null) return;
+        long time = System.currentTimeMillis();
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < variants.size(); i++) {
+            String name = variants.getName(i).replaceAll("[^A-Za-z0-9]+", "_");
+            files.add(new File(dir, "quote_" + time + "_" + (i + 1) + "_" + name + "." + format.getExtension()));
+        }
+
+        LinearProgressIndicator progress = createExportProgress();
+        AlertDialog dialog = showExportProgress(progress);
+        float[] itemProgress = new float[variants.size()];
+        File[] exported = new File[variants.size()];
+        exportJob = exporter.exportBatch(canvasView, variants, format, size, files, new Exporter.BatchListener() {
+            @Override
+            public void onItemProgress(int index, float value) {
+                itemProgress[index] = value;
+                float sum = 0;
+                for (float item : itemProgress) sum += item;
+                progress.setProgressCompat(Math.round(sum * 100 / itemProgress.length), true);
+            }
+
+            @Override
+            public void onItemExported(int index, @NonNull File file) {
+                exported[index] = file;
+            }
+
+            @Override
+            public void onItemFailed(int index, @NonNull Exception e) {
+                itemProgress[index] = 1f;
+                Log.e(TAG, "Export of " + variants.getName(index) + " failed", e);
+            }
+
+            @Override
+            public void onBatchFinished() {
+                exportJob = null;
+                dialog.dismiss();
+                List<File> results = new ArrayList<>();
+                for (File file : exported) {
+                    if (file != null) results.add(file);
+                }
+                if (results.size() < exported.length) {
+                    Toast.makeText(MainActivity.this, R.string.export_failed, Toast.LENGTH_SHORT).show();
+                }
+                if (!results.isEmpty()) shareExports(results, format);
+            }
+        });
+    }
+
+    // Only the latest export is kept around for sharing
+    @Nullable
+    private File prepareExportDir() {
+        File dir = new File(getCacheDir(), EXPORT_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) return null;
+        File[] old = dir.listFiles();
+        if (old != null) {
+            for (File file : old) file.delete();
+        }
+        return dir;
+    }
+
+    private LinearProgressIndicator createExportProgress() {
+        LinearProgressIndicator progress = new LinearProgressIndicator(this);
+        progress.setMax(100);
+        int padding = Math.round(24 * getResources().getDisplayMetrics().density);
+        progress.setPadding(padding, padding, padding, 0);
+        return progress;
+    }
+
+    private AlertDialog showExportProgress(LinearProgressIndicator progress) {
+        return new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.exporting)
+                .setView(progress)
+                .setCancelable(false)
+                .setNegativeButton(R.string.cancel, (d, which) -> {
+                    if (exportJob != null) exportJob.cancel();
+                    exportJob = null;
+                })
+                .show();
+    }
+
+    private void shareExports(List<File> files, ExportFormat format) {
+        ArrayList<Uri> uris = new ArrayList<>();
+        for (File file : files) {
+            uris.add(FileProvider.getUriForFile(this, getPackageName() + ".files", file));
+        }
+        Intent intent = uris.size() == 1
+                ? new Intent(Intent.ACTION_SEND).putExtra(Intent.EXTRA_STREAM, uris.get(0))
+                : new Intent(Intent.ACTION_SEND_MULTIPLE).putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris);
+        intent.setType(format.getMimeType()).addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(intent, getString(R.string.save)));
     }
 
     private void showBackgroundEditOptionsBottomSheet() {
+        stopErasing();
+        opacityTarget = backgroundLayer;
         BackgroundEditBottomSheet bottomSheet = BackgroundEditBottomSheet.newInstance();
         bottomSheet.setListener(this);
         bottomSheet.show(getSupportFragmentManager(), BackgroundEditBottomSheet.TAG);
     }
 
     private void showTextEditOptionsSheet() {
+        stopErasing();
         EditTextOptionsSheet bottomSheet = EditTextOptionsSheet.newInstance(EditTextOptionsSheet.TextEditMode.EDIT);
-        bottomSheet.show(getSupportFragmentManager(), BackgroundEditBottomSheet.TAG);
+        bottomSheet.setListener(this);
+        bottomSheet.show(getSupportFragmentManager(), EditTextOptionsSheet.TAG);
     }
 
     private void showImageOptionsBottomSheet() {
+        stopErasing();
+        opacityTarget = imageLayer;
         ImageEditBottomSheet bottomSheet = ImageEditBottomSheet.newInstance(ImageEditBottomSheet.ImageEditMode.EDIT);
         bottomSheet.setListener(this);
         bottomSheet.show(getSupportFragmentManager(), ImageEditBottomSheet.TAG);
     }
 
+    private void showEditTextDialog() {
+        EditText input = new EditText(this);
+        input.setHint(R.string.enter_text);
+        input.setText(textLayer.getText());
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.add_text)
+                .setView(input)
+                .setNegativeButton(R.string.cancel, null)
+                .setPositiveButton(R.string.add, (dialog, which) -> {
+                    String text = input.getText().toString().trim();
+                    if (!text.isEmpty()) {
+                        edit(textLayer, "text", textLayer.getText(), text, textLayer::setText);
+                    }
+                })
+                .show();
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    // Every mutation goes through the history so it can be undone
+    private <T> void edit(Object target, String property, T before, T after, PropertyCommand.Setter<T> setter) {
+        frameMonitor.begin(property, SliderDispatcher.getInstance().getEventTime());
+        history.execute(PropertyCommand.of(target, property, before, after, setter));
+    }
+
+    // Refines the last edit of the same property instead of adding a step
+    private <T> void amend(Object target, String property, T before, T after, PropertyCommand.Setter<T> setter) {
+        frameMonitor.begin(property, SliderDispatcher.getInstance().getEventTime());
+        history.amend(PropertyCommand.of(target, property, before, after, setter));
+    }
+
+    // Records whatever position change the move makes (alignment, nudges)
+    private void editPosition(Layer layer, Runnable move) {
+        PointF before = new PointF(layer.getFrame().left, layer.getFrame().top);
+        move.run();
+        PointF after = new PointF(layer.getFrame().left, layer.getFrame().top);
+        edit(layer, "position", before, after, position -> layer.setPosition(position.x, position.y));
+    }
+
+    private void stopErasing() {
+        if (!erasing) return;
+        erasing = false;
+        canvasView.setStrokeListener(null);
+    }
+
+    private void setImageAdjustments(ColorAdjustments adjustments) {
+        ImageLayer layer = imageLayer;
+        edit(layer, "adjustments", layer.getAdjustments(), adjustments, value -> {
+            layer.setAdjustments(value);
+            renderAdjustments(layer);
+        });
+    }
+
+    // A low-res proxy right away, the full resolution render once the slider is released
+    private void renderAdjustments(ImageLayer layer) {
+        Bitmap source = layer.getBitmap();
+        ColorAdjustments adjustments = layer.getAdjustments();
+        if (source == null || adjustments.isIdentity()) {
+            adjustmentRenderer.cancel();
+            adjustmentsPending = false;
+            return;
+        }
+        layer.setAdjustedBitmap(source, adjustments, adjustmentRenderer.renderProxy(source, adjustments));
+        adjustmentsPending = SliderDispatcher.getInstance().isDragging();
+        if (!adjustmentsPending) {
+            adjustmentRenderer.render(source, adjustments, layer::setAdjustedBitmap);
+        }
+    }
+
+    private void setImageTint(@Nullable Fill tint) {
+        if (imageLayer != null) {
+            edit(imageLayer, "tint", imageLayer.getTint(), tint, imageLayer::setTint);
+        }
+    }
+
+    // The first change to a layer without a shadow starts from the default one
+    private static Shadow shadowOf(@Nullable Layer layer) {
+        Shadow shadow = layer != null ? layer.getShadow() : null;
+        return shadow != null ? shadow : Shadow.DEFAULT;
+    }
+
+    private void setShadow(@Nullable Layer layer, @Nullable Shadow shadow) {
+        if (layer != null) {
+            edit(layer, "shadow", layer.getShadow(), shadow, layer::setShadow);
+        }
+    }
+
+    private void setBackgroundFill(Fill fill) {
+        setBackgroundFill(fill, false);
+    }
+
+    private void setBackgroundFill(Fill fill, boolean upgrade) {
+        PropertyCommand.Setter<Fill> setter = value -> {
+            backgroundLayer.setFill(value);
+            requestBlur();
+            requestBackgroundScale();
+        };
+        if (upgrade) {
+            amend(backgroundLayer, "fill", backgroundLayer.getFill(), fill, setter);
+        } else {
+            edit(backgroundLayer, "fill", backgroundLayer.getFill(), fill, setter);
+        }
+    }
+
+    private void setBackgroundBlur(int radius) {
+        backgroundLayer.setBlurRadius(radius);
+        requestBlur();
+        requestBackgroundScale();
+    }
+
+    private void setBackgroundScaleType(ScaleLayout.Type scaleType) {
+        backgroundLayer.setScaleType(scaleType);
+        requestBackgroundScale();
+    }
+
+    private void setBackgroundScale(int scale) {
+        backgroundLayer.setScale(scale);
+        requestBackgroundScale();
+    }
+
+    // Resamples the settled layout once. While a slider drags, the layer draws the
+    // source through its matrix instead.
+    private void requestBackgroundScale() {
+        backgroundScalePending = SliderDispatcher.getInstance().isDragging();
+        if (backgroundScalePending) return;
+        Bitmap source = backgroundLayer.getScaleSource();
+        if (source == null) {
+            backgroundScaler.cancel();
+            return;
+        }
+        backgroundScaler.render(source, backgroundLayer.getScaleKey(), backgroundLayer.getScaleType(),
+                backgroundLayer.getScale(), Math.round(backgroundLayer.getWidth()),
+                Math.round(backgroundLayer.getHeight()), backgroundLayer::setScaledBitmap);
+    }
+
+    // Blurs the background bitmap at roughly the size it is drawn at
+    private void requestBlur() {
+        Bitmap source = backgroundLayer.getBitmap();
+        int radius = backgroundLayer.getBlurRadius();
+        if (source == null || radius == 0) {
+            blurEngine.cancel();
+            return;
+        }
+
+        float scale = Math.min(1f, Math.max(
+                (float) canvasView.getDesignWidth() / source.getWidth(),
+                (float) canvasView.getDesignHeight() / source.getHeight()));
+        int width = Math.max(1, Math.round(source.getWidth() * scale));
+        int height = Math.max(1, Math.round(source.getHeight() * scale));
+
+        String sourceId = blurSourceIds.get(source);
+        if (sourceId == null) {
+            sourceId = "background-" + nextBlurSourceId++;
+            blurSourceIds.put(source, sourceId);
+        }
+        blurEngine.setSource(sourceId, (w, h) -> BitmapPixels.read(source, w, h));
+        blurEngine.request(radius, width, height,
+                (blurred, blurRadius) -> {
+                    backgroundLayer.setBlurredBitmap(source, blurred);
+                    requestBackgroundScale();
+                });
+    }
+
+    private void setTextFill(Fill fill) {
+        setTextFill(fill, false);
+    }
+
+    private void setTextFill(Fill fill, boolean upgrade) {
+        if (upgrade) {
+            amend(textLayer, "fill", textLayer.getFill(), fill, textLayer::setFill);
+        } else {
+            edit(textLayer, "fill", textLayer.getFill(), fill, textLayer::setFill);
+        }
+    }
+
+    private void setImageBitmap(Bitmap bitmap) {
+        if (imageLayer == null) {
+            imageLayer = new ImageLayer();
+            imageLayer.setBitmap(bitmap, canvasView.getDesignWidth() / 2);
+            canvasView.addLayer(canvasView.getLayers().indexOf(textLayer), imageLayer);
+            canvasView.alignLayer(imageLayer, Gravity.CENTER_HORIZONTAL);
+            canvasView.alignLayer(imageLayer, Gravity.CENTER_VERTICAL);
+            // Not an undoable step, nothing else would save it
+            scheduleAutosave();
+            showImageOptionsBottomSheet();
+        } else {
+            ImageLayer layer = imageLayer;
+            edit(layer, "bitmap", layer.getBitmap(), bitmap, value -> {
+                layer.setBitmap(value, layer.getImageSize());
+                renderAdjustments(layer);
+            });
+        }
+    }
+
+    // Decodes off the main thread, sampled down to roughly the design size
+    private void decodeUri(Uri uri, BitmapCallback callback) {
+        int maxSize = Math.max(canvasView.getDesignWidth(), canvasView.getDesignHeight());
+        decodeExecutor.execute(() -> {
+            Bitmap bitmap = null;
+            try {
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inJustDecodeBounds = true;
+                try (InputStream in = getContentResolver().openInputStream(uri)) {
+                    BitmapFactory.decodeStream(in, null, options);
+                }
+                options.inSampleSize = 1;
+                while (Math.max(options.outWidth, options.outHeight) / (options.inSampleSize * 2) >= maxSize) {
+                    options.inSampleSize *= 2;
+                }
+                options.inJustDecodeBounds = false;
+                try (InputStream in = getContentResolver().openInputStream(uri)) {
+                    bitmap = BitmapFactory.decodeStream(in, null, options);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to decode " + uri, e);
+            }
+
+            Bitmap result = bitmap;
+            if (result != null) {
+                runOnUiThread(() -> callback.onBitmap(result));
+            }
+        });
+    }
+
+    // Photos are opened for tiled decoding instead of being decoded whole, only a
+    // preview about the design size is decoded up front
+    private void openTiledImage(Uri uri, TiledImageCallback callback) {
+        int previewSize = Math.max(canvasView.getDesignWidth(), canvasView.getDesignHeight());
+        decodeExecutor.execute(() -> {
+            try {
+                TiledImage image = TiledImage.open(getContentResolver(), uri, previewSize);
+                runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        image.release();
+                        return;
+                    }
+                    openImages.add(image);
+                    callback.onImage(image);
+                });
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to open " + uri, e);
+            }
+        });
+    }
+
+    // Shows the thumbnail the picker already cached right away, then swaps in the
+    // smallest tier that covers size pixels. Two separate requests, so the preview
+    // bitmap is never recycled by Glide while a layer still holds it. Software
+    // bitmaps, the exporter plays fills back on a software Canvas.
+    private void loadMedia(Media media, int size, MediaCallback callback) {
+        String url = MediaUrls.forWidth(media.getUrls(), size);
+        String thumbUrl = MediaUrls.thumb(media.getUrls());
+        if (url == null) return;
+
+        boolean[] delivered = new boolean[2];
+        if (thumbUrl != null && !thumbUrl.equals(url)) {
+            Glide.with(this)
+                    .asBitmap()
+                    .disallowHardwareConfig()
+                    .load(thumbUrl)
+                    .onlyRetrieveFromCache(true)
+                    .into(new BitmapTarget(size, bitmap -> {
+                        // Too late if the full image won the race
+                        if (delivered[1]) return;
+                        delivered[0] = true;
+                        callback.onBitmap(bitmap, false);
+                    }));
+        }
+        Glide.with(this)
+                .asBitmap()
+                .disallowHardwareConfig()
+                .load(url)
+                .into(new BitmapTarget(size, bitmap -> {
+                    delivered[1] = true;
+                    callback.onBitmap(bitmap, delivered[0]);
+                }));
+    }
+
+    private static class BitmapTarget extends CustomTarget<Bitmap> {
+        private final BitmapCallback callback;
+
+        BitmapTarget(int size, BitmapCallback callback) {
+            super(size, size);
+            this.callback = callback;
+        }
+
+        @Override
+        public void onResourceReady(@NonNull Bitmap resource, @Nullable Transition<? super Bitmap> transition) {
+            callback.onBitmap(resource);
+        }
+
+        @Override
+        public void onLoadCleared(@Nullable Drawable placeholder) {
+        }
+    }
+
+    private static int toGravity(String position) {
+        switch (position) {
+            case "VERTICAL_TOP":
+                return Gravity.TOP;
+            case "VERTICAL_BOTTOM":
+                return Gravity.BOTTOM;
+            case "VERTICAL_CENTER":
+                return Gravity.CENTER_VERTICAL;
+            case "HORIZONTAL_LEFT":
+                return Gravity.LEFT;
+            case "HORIZONTAL_RIGHT":
+                return Gravity.RIGHT;
+            default:
+                return Gravity.CENTER_HORIZONTAL;
+        }
+    }
+
     // IMAGE EDIT OPTIONS AND METHODS
 
     @Override
     public void onReplaceClicked() {
-
+        pickImage.launch("image/*");
     }
 
     @Override
     public void onEraseClicked() {
-
+        if (imageLayer == null) return;
+        // The sheet would cover the canvas, erasing ends when any sheet opens again
+        Fragment sheet = getSupportFragmentManager().findFragmentByTag(ImageEditBottomSheet.TAG);
+        if (sheet instanceof DialogFragment) {
+            ((DialogFragment) sheet).dismiss();
+        }
+        canvasView.setStrokeListener(new EraseTool(imageLayer, history::record));
+        erasing = true;
+        Toast.makeText(this, R.string.erase_hint, Toast.LENGTH_SHORT).show();
     }
 
     @Override
     public void onSizeChanged(int size) {
-
+        if (imageLayer != null) {
+            edit(imageLayer, "size", imageLayer.getImageSize(), size, imageLayer::setImageSize);
+        }
     }
 
+    // Aspect ratios offered by the crop dialog, 0 keeps the source aspect
+    private static final float[] CROP_ASPECTS = {0f, 1f, 4f / 5, 3f / 4, 2f / 3, 9f / 16, 16f / 9};
+    private static final String[] CROP_ASPECT_LABELS = {null, "1:1", "4:5", "3:4", "2:3", "9:16", "16:9"};
+
     @Override
     public void onAspectCropClicked() {
+        if (imageLayer == null) return;
+        String[] labels = CROP_ASPECT_LABELS.clone();
+        labels[0] = getString(R.string.crop_original);
 
+        ImageLayer layer = imageLayer;
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.aspect_crop)
+                .setItems(labels, (dialog, which) -> {
+                    Crop crop = layer.getCrop();
+                    edit(layer, "crop", crop, crop.withAspect(CROP_ASPECTS[which]), layer::setCrop);
+                })
+                .show();
     }
 
     @Override
     public void onShapeCropClicked() {
-
+        if (imageLayer == null) return;
+        CropShape[] shapes = {null, CropShape.CIRCLE, CropShape.ROUNDED_RECT, CropShape.STAR, CropShape.HEART};
+        String[] labels = {
+                getString(R.string.shape_none),
+                getString(R.string.shape_circle),
+                getString(R.string.shape_rounded),
+                getString(R.string.shape_star),
+                getString(R.string.shape_heart)
+        };
+
+        ImageLayer layer = imageLayer;
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.shape_crop)
+                .setItems(labels, (dialog, which) -> {
+                    Crop crop = layer.getCrop();
+                    edit(layer, "crop", crop, crop.withShape(shapes[which]), layer::setCrop);
+                })
+                .show();
     }
 
     @Override
     public void onColorSelected(int color) {
-
+        setImageTint(Fill.color(color));
     }
 
     @Override
@@ -89,41 +1168,77 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 //
 //            // Getters and Setters
 //        }
+        setImageTint(Fill.gradient(gradient));
     }
 
     @Override
     public void onRemoveColorClicked() {
-
+        setImageTint(null);
     }
 
     @Override
     public void onRemoveGradientClicked() {
+        setImageTint(null);
+    }
 
+    @Override
+    public void onEffectSelected(ImageEditBottomSheet.ImageEffect effect) {
+        if (imageLayer != null) {
+            setImageAdjustments(imageLayer.getAdjustments().withEffect(ColorAdjustments.Effect.valueOf(effect.name())));
+        }
     }
 
     @Override
-    public void onShadowAngleChanged(String direction) { // RIGHT, DOWN, UP, LEFT
+    public void onHueChanged(int hue) {
+        if (imageLayer != null) {
+            setImageAdjustments(imageLayer.getAdjustments().withHue(hue));
+        }
+    }
 
+    @Override
+    public void onSaturationChanged(int saturation) {
+        if (imageLayer != null) {
+            setImageAdjustments(imageLayer.getAdjustments().withSaturation(saturation));
+        }
     }
 
     @Override
-    public void onShadowBlurChanged(int blur) {
+    public void onBrightnessChanged(int brightness) {
+        if (imageLayer != null) {
+            setImageAdjustments(imageLayer.getAdjustments().withBrightness(brightness));
+        }
+    }
 
+    @Override
+    public void onContrastChanged(int contrast) {
+        if (imageLayer != null) {
+            setImageAdjustments(imageLayer.getAdjustments().withContrast(contrast));
+        }
     }
 
     @Override
-    public void onShadowColorSelected(int color) {
+    public void onShadowAngleChanged(String direction) { // RIGHT, DOWN, UP, LEFT
+        setShadow(imageLayer, shadowOf(imageLayer).withDirection(direction));
+    }
 
+    @Override
+    public void onShadowBlurChanged(int blur) {
+        setShadow(imageLayer, shadowOf(imageLayer).withBlur(blur));
     }
 
     @Override
-    public void onShadowOpacityChanged(int opacity) {
+    public void onShadowColorSelected(int color) {
+        setShadow(imageLayer, shadowOf(imageLayer).withColor(color));
+    }
 
+    @Override
+    public void onShadowOpacityChanged(int opacity) {
+        setShadow(imageLayer, shadowOf(imageLayer).withOpacity(opacity));
     }
 
     @Override
     public void onShadowOff() {
-
+        setShadow(imageLayer, null);
     }
 
     @Override
@@ -132,31 +1247,46 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 //            VERTICAL_TOP, VERTICAL_BOTTOM, VERTICAL_CENTER,
 //            HORIZONTAL_LEFT, HORIZONTAL_CENTER, HORIZONTAL_RIGHT
 //        }
+        if (imageLayer != null) {
+            editPosition(imageLayer, () -> canvasView.alignLayer(imageLayer, toGravity(imagePosition.name())));
+        }
     }
 
     @Override
     public void onZRotationChanged(float degrees) {
-
+        if (imageLayer != null) {
+            edit(imageLayer, "rotation", imageLayer.getRotation(), degrees, imageLayer::setRotation);
+        }
     }
 
     @Override
     public void onXRotationChanged(float degrees) {
-
+        if (imageLayer != null) {
+            edit(imageLayer, "rotationX", imageLayer.getRotationX(), degrees, imageLayer::setRotationX);
+        }
     }
 
     @Override
     public void onYRotationChanged(float degrees) {
-
+        if (imageLayer != null) {
+            edit(imageLayer, "rotationY", imageLayer.getRotationY(), degrees, imageLayer::setRotationY);
+        }
     }
 
     @Override
     public void onFlipHorizontal() {
-
+        if (imageLayer != null) {
+            boolean flipped = imageLayer.isFlipHorizontal();
+            edit(imageLayer, "flipHorizontal", flipped, !flipped, imageLayer::setFlipHorizontal);
+        }
     }
 
     @Override
     public void onFlipVertical() {
-
+        if (imageLayer != null) {
+            boolean flipped = imageLayer.isFlipVertical();
+            edit(imageLayer, "flipVertical", flipped, !flipped, imageLayer::setFlipVertical);
+        }
     }
 
     // END
@@ -165,129 +1295,132 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 
     @Override
     public void onBorderStateChanged(boolean isOn, int size, int opacity) {
-
+        borderOn = isOn;
+        borderWidth = size * DESIGN_DENSITY;
+        borderOpacity = opacity;
+        updateBorder();
     }
 
     @Override
     public void onBorderTypeChanged(BackgroundEditBottomSheet.BorderType type, int color) {
-//        public enum BorderType {
-//            OFF, SOLID, GRADIENT, PATTERN
-//        }
+        // Gradient and pattern borders wait for their first pick
+        if (type == BackgroundEditBottomSheet.BorderType.SOLID) {
+            borderFill = Fill.color(color);
+        }
+        borderOn = type != BackgroundEditBottomSheet.BorderType.OFF;
+        updateBorder();
     }
 
     @Override
     public void onSolidColorSelected(int color) {
-
+        borderFill = Fill.color(color);
+        updateBorder();
     }
 
     @Override
     public void onGradientSelected(GradientItem gradient) {
-
+        borderFill = Fill.gradient(gradient, GradientType.LINEAR, 45);
+        updateBorder();
     }
 
+    // Only one tile is decoded, the border repeats it
     @Override
     public void onTextureSelected(Media texture) {
-//        public class Media implements Serializable {
-//            private String id;
-//            private String slug;
-//            private String color;
-//            private Urls urls;
-//
-//            public static class Urls implements Serializable {
-//                private String raw;
-//                private String full;
-//                private String regular;
-//                private String small;
-//                private String thumb;
-//                private String small_s3;
-//
-//                // Getters
-//
-//                public String getRaw() {
-//                    return raw;
-//                }
-//
-//                public String getFull() {
-//                    return full;
-//                }
-//
-//                public String getRegular() {
-//                    return regular;
-//                }
-//
-//                public String getSmall() {
-//                    return small;
-//                }
-//
-//                public String getThumb() {
-//                    return thumb;
-//                }
-//
-//                public String getSmall_s3() {
-//                    return small_s3;
-//                }
-//            }
-//
-//            // Getters
-//
-//        }
+        loadMedia(texture, PATTERN_TILE_SIZE, (bitmap, upgrade) -> {
+            borderFill = Fill.bitmap(bitmap);
+            if (!borderOn) return;
+            Border border = Border.of(borderFill, borderWidth).withOpacity(borderOpacity);
+            if (upgrade) {
+                amend(borderLayer, "border", borderLayer.getBorder(), border, borderLayer::setBorder);
+            } else {
+                edit(borderLayer, "border", borderLayer.getBorder(), border, borderLayer::setBorder);
+            }
+        });
+    }
+
+    private void updateBorder() {
+        Border border = borderOn ? Border.of(borderFill, borderWidth).withOpacity(borderOpacity) : null;
+        edit(borderLayer, "border", borderLayer.getBorder(), border, borderLayer::setBorder);
     }
 
     @Override
     public void onOpacityChanged(int opacity) {
-
+        // Shared by the image and background sheets, applies to whichever is open
+        if (opacityTarget != null) {
+            Layer layer = opacityTarget;
+            edit(layer, "opacity", layer.getOpacity(), opacity, layer::setOpacity);
+        }
     }
 
     @Override
     public void onScaleChanged(int scale) {
-
+        edit(backgroundLayer, "scale", backgroundLayer.getScale(), scale, this::setBackgroundScale);
     }
 
     @Override
     public void onScaleTypeChanged(BackgroundEditBottomSheet.ScaleType scaleType) {
-//        public enum ScaleType {
-//            ASPECT_FILL, CENTER, TOP, BOTTOM, LEFT, RIGHT, FIT
-//        }
+        edit(backgroundLayer, "scaleType", backgroundLayer.getScaleType(),
+                ScaleLayout.Type.valueOf(scaleType.name()), this::setBackgroundScaleType);
     }
 
     @Override
     public void onBackgroundColorSelected(int color) {
-
+        setBackgroundFill(Fill.color(color));
     }
 
     @Override
     public void onBackgroundGradientSelected(GradientItem gradient) {
-
+        // Corner to corner, as the background has always been drawn
+        setBackgroundFill(Fill.gradient(gradient, GradientType.LINEAR, 45));
     }
 
     @Override
     public void onBackgroundTextureSelected(Media texture) {
-
+        int size = Math.max(canvasView.getDesignWidth(), canvasView.getDesignHeight());
+        loadMedia(texture, size, (bitmap, upgrade) -> setBackgroundFill(Fill.bitmap(bitmap), upgrade));
     }
 
     @Override
     public void onGalleryClicked() {
-
+        pickBackground.launch("image/*");
     }
 
     @Override
     public void onCameraClicked() {
-
+        File photos = new File(getCacheDir(), PHOTO_DIR);
+        if (!photos.isDirectory() && !photos.mkdirs()) return;
+        photoUri = FileProvider.getUriForFile(this, getPackageName() + ".files",
+                new File(photos, "photo_" + System.currentTimeMillis() + ".jpg"));
+        takeBackgroundPhoto.launch(photoUri);
     }
 
     @Override
     public void onBlurChanged(int blurRadius) {
-
+        edit(backgroundLayer, "blur", backgroundLayer.getBlurRadius(), blurRadius, this::setBackgroundBlur);
     }
 
     @Override
     public void onBlendColorSelected(int color) {
+        setBackgroundBlend(Blend.of(color, blendMode));
+    }
 
+    @Override
+    public void onBlendTypeSelected(BackgroundEditBottomSheet.BlendType blendType) {
+        // Without a blend the mode waits for the next color
+        blendMode = BlendMode.valueOf(blendType.name());
+        Blend blend = backgroundLayer.getBlend();
+        if (blend != null) {
+            setBackgroundBlend(blend.withMode(blendMode));
+        }
     }
 
     @Override
     public void onRemoveBlendClicked() {
+        setBackgroundBlend(null);
+    }
 
+    private void setBackgroundBlend(@Nullable Blend blend) {
+        edit(backgroundLayer, "blend", backgroundLayer.getBlend(), blend, backgroundLayer::setBlend);
     }
 
     // END
@@ -296,72 +1429,102 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 
     @Override
     public void onEditModeChanged(boolean isEditMode) {
-
+        if (isEditMode) {
+            showEditTextDialog();
+        }
     }
 
     @Override
     public void onCanvasPositionChanged(String direction) {
-
+        RectF frame = textLayer.getFrame();
+        PointF before = new PointF(frame.left, frame.top);
+        PointF after = new PointF(frame.left, frame.top);
+        switch (direction) {
+            case "LEFT":
+                after.x -= NUDGE_STEP;
+                break;
+            case "TOP":
+                after.y -= NUDGE_STEP;
+                break;
+            case "DOWN":
+                after.y += NUDGE_STEP;
+                break;
+            case "RIGHT":
+                after.x += NUDGE_STEP;
+                break;
+        }
+        edit(textLayer, "position", before, after, position -> textLayer.setPosition(position.x, position.y));
     }
 
     @Override
     public void onTextColorSelected(int color) {
-
+        setTextFill(Fill.color(color));
     }
 
     @Override
     public void onTextGradientSelected(GradientItem gradient) {
-
+        setTextFill(Fill.gradient(gradient));
     }
 
     @Override
     public void onTextPatternSelected(Media pattern) {
-
+        loadMedia(pattern, PATTERN_TILE_SIZE, (bitmap, upgrade) -> setTextFill(Fill.bitmap(bitmap), upgrade));
     }
 
     @Override
     public void onRemoveTextColorClicked() {
-
+        setTextFill(Fill.color(Color.BLACK));
     }
 
     @Override
     public void onTextSizeChanged(int size) {
-
+        edit(textLayer, "textSize", textLayer.getTextSize(), size * DESIGN_DENSITY, textLayer::setTextSize);
     }
 
     @Override
     public void onFontSelected(String fontName) {
-
+        FontRegistry.Font font = fontRegistry.getFont(fontName);
+        if (font == null) return;
+        fontRegistry.load(font, (loaded, typeface) -> {
+            if (typeface == null) {
+                Toast.makeText(this, getString(R.string.font_load_failed, loaded.getName()), Toast.LENGTH_SHORT).show();
+                return;
+            }
+            fontNames.put(typeface, loaded.getName());
+            edit(textLayer, "typeface", textLayer.getTypeface(), typeface, textLayer::setTypeface);
+        });
     }
 
     @Override
     public void onSeeAllFontsClicked() {
-
+        FontBrowserSheet sheet = FontBrowserSheet.newInstance();
+        sheet.setListener(this::onFontSelected);
+        sheet.show(getSupportFragmentManager(), FontBrowserSheet.TAG);
     }
 
     @Override
     public void onTextShadowAngleChanged(String direction) { // RIGHT, DOWN, UP, LEFT
-
+        setShadow(textLayer, shadowOf(textLayer).withDirection(direction));
     }
 
     @Override
     public void onTextShadowBlurChanged(int blur) {
-
+        setShadow(textLayer, shadowOf(textLayer).withBlur(blur));
     }
 
     @Override
     public void onTextShadowColorSelected(int color) {
-
+        setShadow(textLayer, shadowOf(textLayer).withColor(color));
     }
 
     @Override
     public void onTextShadowOpacityChanged(int opacity) {
-
+        setShadow(textLayer, shadowOf(textLayer).withOpacity(opacity));
     }
 
     @Override
     public void onTextShadowOff() {
-
+        setShadow(textLayer, null);
     }
 
     @Override
@@ -370,6 +1533,7 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 //            VERTICAL_TOP, VERTICAL_BOTTOM, VERTICAL_CENTER,
 //            HORIZONTAL_LEFT, HORIZONTAL_CENTER, HORIZONTAL_RIGHT
 //        }
+        editPosition(textLayer, () -> canvasView.alignLayer(textLayer, toGravity(position.name())));
     }
 
     @Override
@@ -377,6 +1541,7 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 //        public enum TextAlignment {
 //            LEFT, CENTER, RIGHT, JUSTIFY
 //        }
+        edit(textLayer, "alignment", textLayer.getAlignment(), alignment, textLayer::setAlignment);
     }
 
     @Override
@@ -384,50 +1549,51 @@ public class MainActivity extends AppCompatActivity implements ImageEditBottomSh
 //        public enum TextCase {
 //            NORMAL, UPPERCASE, LOWERCASE, CAPITALIZE
 //        }
+        edit(textLayer, "textCase", textLayer.getTextCase(), textCase, textLayer::setTextCase);
     }
 
     @Override
     public void onBoldToggled(boolean isBold) {
-
+        edit(textLayer, "bold", textLayer.isBold(), isBold, textLayer::setBold);
     }
 
     @Override
     public void onItalicToggled(boolean isItalic) {
-
+        edit(textLayer, "italic", textLayer.isItalic(), isItalic, textLayer::setItalic);
     }
 
     @Override
     public void onUnderlineToggled(boolean isUnderline) {
-
+        edit(textLayer, "underline", textLayer.isUnderline(), isUnderline, textLayer::setUnderline);
     }
 
     @Override
     public void onTextRotationChanged(float degrees) {
-
+        edit(textLayer, "rotation", textLayer.getRotation(), degrees, textLayer::setRotation);
     }
 
     @Override
     public void onTextCurveChanged(int curveAmount) {
-
+        edit(textLayer, "curve", textLayer.getCurve(), curveAmount, textLayer::setCurve);
     }
 
     @Override
     public void onAutoParagraphChanged(int paragraphWidth) {
-
+        edit(textLayer, "paragraphWidth", textLayer.getParagraphWidth(), paragraphWidth, textLayer::setParagraphWidth);
     }
 
     @Override
     public void onLineSpaceChanged(float lineSpacing) {
-
+        edit(textLayer, "lineSpacing", textLayer.getLineSpacing(), lineSpacing, textLayer::setLineSpacing);
     }
 
     @Override
     public void onLetterSpaceChanged(float letterSpacing) {
-
+        edit(textLayer, "letterSpacing", textLayer.getLetterSpacing(), letterSpacing, textLayer::setLetterSpacing);
     }
 
     @Override
     public void onTextOpacityChanged(int opacity) {
-
+        edit(textLayer, "opacity", textLayer.getOpacity(), opacity, textLayer::setOpacity);
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.editor.app.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.editor.app.api.models.Media;
+
+// Picks the smallest Unsplash size that still covers the pixels it is drawn at.
+// thumb is 200px wide, small 400px, regular 1080px, full is the original.
+public final class MediaUrls {
+    public static final int THUMB_WIDTH = 200;
+    public static final int SMALL_WIDTH = 400;
+    public static final int REGULAR_WIDTH = 1080;
+
+    private MediaUrls() {
+    }
+
+    @Nullable
+    public static String forWidth(@NonNull Media.Urls urls, int widthPx) {
+        String[] tiers = {urls.getThumb(), urls.getSmall(), urls.getRegular(), urls.getFull(), urls.getRaw()};
+        int first;
+        if (widthPx <= THUMB_WIDTH) {
+            first = 0;
+        } else if (widthPx <= SMALL_WIDTH) {
+            first = 1;
+        } else if (widthPx <= REGULAR_WIDTH) {
+            first = 2;
+        } else {
+            first = 3;
+        }
+
+        // Missing tiers fall back to the next larger one, then to anything smaller
+        for (int i = first; i < tiers.length; i++) {
+            if (tiers[i] != null) return tiers[i];
+        }
+        for (int i = first - 1; i >= 0; i--) {
+            if (tiers[i] != null) return tiers[i];
+        }
+        return null;
+    }
+
+    @Nullable
+    public static String thumb(@NonNull Media.Urls urls) {
+        return forWidth(urls, THUMB_WIDTH);
+    }
+}
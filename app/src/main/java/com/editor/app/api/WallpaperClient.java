@@ -1,16 +1,36 @@
 package com.editor.app.api;
 
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class WallpaperClient {
     private static final String BASE_URL = "https://unsplash.com/";
+    private static final long DISK_CACHE_SIZE = 20L * 1024 * 1024;
+    private static final int RESPONSE_MAX_AGE_HOURS = 6;
+
     private static Retrofit retrofit = null;
+    private static File cacheDirectory = null;
+
+    // Call once from Application.onCreate so responses are cached on disk
+    public static void init(@NonNull Context context) {
+        cacheDirectory = new File(context.getCacheDir(), "wallpaper_http");
+    }
 
     public static Retrofit getClient() {
         if (retrofit == null) {
             retrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
+                    .client(createHttpClient())
                     .addConverterFactory(GsonConverterFactory.create())
                     .build();
         }
@@ -20,4 +40,23 @@ public class WallpaperClient {
     public static WallpaperService getApi() {
         return getClient().create(WallpaperService.class);
     }
-}
\ No newline at end of file
+
+    private static OkHttpClient createHttpClient() {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        if (cacheDirectory != null) {
+            builder.cache(new Cache(cacheDirectory, DISK_CACHE_SIZE));
+            // Search results don't come with cache headers, keep them for a few hours.
+            // Errors and responses that set their own caching are left alone.
+            builder.addNetworkInterceptor(chain -> {
+                Response response = chain.proceed(chain.request());
+                if (!response.isSuccessful() || response.header("Cache-Control") != null) return response;
+                return response.newBuilder()
+                        .removeHeader("Pragma")
+                        .header("Cache-Control", "public, max-age="
+                                + TimeUnit.HOURS.toSeconds(RESPONSE_MAX_AGE_HOURS))
+                        .build();
+            });
+        }
+        return builder.build();
+    }
+}
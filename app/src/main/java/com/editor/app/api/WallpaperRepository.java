@@ -0,0 +1,155 @@
+package com.editor.app.api;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.api.models.SearchResponse;
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+// Caching front for WallpaperService. Results stay in memory for a while, identical
+// requests that overlap share one call, and anything older falls through to the
+// OkHttp disk cache before the network. Main thread only.
+public class WallpaperRepository {
+    private static final long MEMORY_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final int MAX_MEMORY_ENTRIES = 32;
+
+    // Textures used by every picker, shared so they hit the same cache entry
+    public static final String TEXTURE_TYPE = "illustrations";
+    public static final String TEXTURE_QUERY = "texture pattern";
+    public static final String TEXTURE_ORIENTATION = "squarish";
+    public static final int TEXTURES_PER_PAGE = 20;
+
+    public interface SearchCallback {
+        void onSuccess(@NonNull SearchResponse response);
+
+        void onFailure(@NonNull Throwable t);
+    }
+
+    private static WallpaperRepository instance;
+
+    private final WallpaperService service;
+    private final LruCache<SearchKey, CachedResponse> memoryCache =
+            Metrics.cache("wallpapers", new LruCache<>(MAX_MEMORY_ENTRIES, value -> 1));
+    private final Map<SearchKey, List<SearchCallback>> inFlight = new HashMap<>();
+
+    public static WallpaperRepository getInstance() {
+        if (instance == null) {
+            instance = new WallpaperRepository(WallpaperClient.getApi());
+        }
+        return instance;
+    }
+
+    private WallpaperRepository(WallpaperService service) {
+        this.service = service;
+    }
+
+    public void searchTextures(int page, @NonNull SearchCallback callback) {
+        search(TEXTURE_TYPE, page, TEXTURES_PER_PAGE, TEXTURE_ORIENTATION, TEXTURE_QUERY, callback);
+    }
+
+    public void search(String type, int page, int perPage, String orientation, String query,
+                       @NonNull SearchCallback callback) {
+        SearchKey key = new SearchKey(type, page, perPage, orientation, query);
+
+        CachedResponse cached = memoryCache.get(key);
+        if (cached != null) {
+            if (SystemClock.elapsedRealtime() - cached.timestamp < MEMORY_TTL_MS) {
+                callback.onSuccess(cached.response);
+                return;
+            }
+            memoryCache.remove(key);
+        }
+
+        List<SearchCallback> waiting = inFlight.get(key);
+        if (waiting != null) {
+            waiting.add(callback);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(callback);
+        inFlight.put(key, waiting);
+
+        service.getSearchMedia(type, page, perPage, orientation, query).enqueue(new Callback<>() {
+            @Override
+            public void onResponse(@NonNull Call<SearchResponse> call, @NonNull Response<SearchResponse> response) {
+                List<SearchCallback> callbacks = inFlight.remove(key);
+                SearchResponse body = response.body();
+                if (response.isSuccessful() && body != null) {
+                    memoryCache.put(key, new CachedResponse(body, SystemClock.elapsedRealtime()));
+                    for (SearchCallback waitingCallback : callbacks) {
+                        waitingCallback.onSuccess(body);
+                    }
+                } else {
+                    IOException error = new IOException("Search failed: " + response.code());
+                    for (SearchCallback waitingCallback : callbacks) {
+                        waitingCallback.onFailure(error);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<SearchResponse> call, @NonNull Throwable t) {
+                List<SearchCallback> callbacks = inFlight.remove(key);
+                for (SearchCallback waitingCallback : callbacks) {
+                    waitingCallback.onFailure(t);
+                }
+            }
+        });
+    }
+
+    private static final class CachedResponse {
+        final SearchResponse response;
+        final long timestamp;
+
+        CachedResponse(SearchResponse response, long timestamp) {
+            this.response = response;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class SearchKey {
+        final String type;
+        final int page;
+        final int perPage;
+        final String orientation;
+        final String query;
+
+        SearchKey(String type, int page, int perPage, String orientation, String query) {
+            this.type = type;
+            this.page = page;
+            this.perPage = perPage;
+            this.orientation = orientation;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SearchKey)) return false;
+            SearchKey other = (SearchKey) o;
+            return page == other.page && perPage == other.perPage
+                    && Objects.equals(type, other.type)
+                    && Objects.equals(orientation, other.orientation)
+                    && Objects.equals(query, other.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, page, perPage, orientation, query);
+        }
+    }
+}
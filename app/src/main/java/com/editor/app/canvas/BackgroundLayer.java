@@ -0,0 +1,350 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.BlendModeColorFilter;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.editor.app.imaging.TiledImage;
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.cache.LruCache;
+import com.editor.core.imaging.BlendKernel;
+import com.editor.core.imaging.BlendMode;
+import com.editor.core.imaging.ScaleLayout;
+import com.editor.core.metrics.Metrics;
+
+import java.util.Objects;
+
+public class BackgroundLayer extends Layer {
+    // A few settled layouts, so toggling between scale types reuses them
+    private static final long SCALED_CACHE_BYTES = 32L * 1024 * 1024;
+    // Blend mode color filters do the blend on the GPU as the fill is drawn
+    private static final boolean HARDWARE_BLEND = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Rect srcRect = new Rect();
+    private final RectF dstRect = new RectF();
+    private final Rect clipBounds = new Rect();
+    private final RectF clipRect = new RectF();
+    private final TiledImage.Listener tileListener = image -> invalidateContent();
+
+    private Fill fill = Fill.color(Color.WHITE);
+
+    // Bitmap fills can be blurred, the blurred copy is rendered off the main thread
+    // and may lag behind the radius while the slider moves
+    private int blurRadius;
+    private Bitmap blurredBitmap;
+
+    // Bitmap fills are placed by one matrix. While a layout is unsettled the source
+    // is drawn through the matrix, which the GPU samples without touching pixels;
+    // once settled it is resampled once and the result is drawn 1:1 from the cache.
+    private ScaleLayout.Type scaleType = ScaleLayout.Type.ASPECT_FILL;
+    private int scale = ScaleLayout.DEFAULT_SCALE;
+    private final ScaleLayout layout = new ScaleLayout();
+    private final Matrix drawMatrix = new Matrix();
+    private final float[] matrixValues = new float[9];
+    private final LruCache<String, Scaled> scaledCache =
+            Metrics.cache("background.scaled",
+                    new LruCache<>(SCALED_CACHE_BYTES, scaled -> scaled.bitmap.getAllocationByteCount()));
+
+    private final GradientShader gradientShader = new GradientShader();
+
+    // Applied at composite time: a color filter on the fill paints when the
+    // hardware supports it, otherwise SoftwareBlend over the drawn pixels
+    private Blend blend;
+    private final SoftwareBlend softwareBlend = new SoftwareBlend();
+    private Fill blendedGradient;
+
+    // A tiled photo fill drawn off the main thread, see detachTiles
+    public interface DetachedDraw {
+        // clip is in composition coordinates, scale is output pixels per composition pixel
+        void draw(@NonNull Canvas canvas, @NonNull RectF clip, float scale);
+    }
+
+    private static final class Scaled {
+        final Bitmap bitmap;
+        final int left;
+        final int top;
+
+        Scaled(Bitmap bitmap, int left, int top) {
+            this.bitmap = bitmap;
+            this.left = left;
+            this.top = top;
+        }
+    }
+
+    public BackgroundLayer(int width, int height) {
+        setFrame(0, 0, width, height);
+    }
+
+    public Fill getFill() {
+        return fill;
+    }
+
+    public void setFill(@NonNull Fill fill) {
+        if (fill.getBitmap() != this.fill.getBitmap()) {
+            blurredBitmap = null;
+            scaledCache.clear();
+        }
+        boolean imageChanged = fill.getImage() != this.fill.getImage();
+        if (imageChanged) {
+            if (this.fill.getImage() != null) this.fill.getImage().setListener(null);
+            if (fill.getImage() != null) fill.getImage().setListener(tileListener);
+        }
+        this.fill = fill;
+        blendedGradient = null;
+        if (imageChanged) updateTileFilter();
+        invalidateContent();
+    }
+
+    public void setColor(int color) {
+        setFill(Fill.color(color));
+    }
+
+    public void setGradient(@NonNull GradientItem gradient) {
+        setFill(Fill.gradient(gradient));
+    }
+
+    public void setBitmap(@NonNull Bitmap bitmap) {
+        setFill(Fill.bitmap(bitmap));
+    }
+
+    @Nullable
+    public Bitmap getBitmap() {
+        return fill.getBitmap();
+    }
+
+    public int getBlurRadius() {
+        return blurRadius;
+    }
+
+    public void setBlurRadius(int blurRadius) {
+        if (this.blurRadius == blurRadius) return;
+        this.blurRadius = blurRadius;
+        if (blurRadius == 0 && blurredBitmap != null) {
+            blurredBitmap = null;
+            scaledCache.clear();
+        }
+        invalidateContent();
+    }
+
+    // Ignored when the fill has changed since the blur was requested
+    public void setBlurredBitmap(@NonNull Bitmap source, @NonNull Bitmap blurred) {
+        if (source != fill.getBitmap() || blurRadius == 0) return;
+        blurredBitmap = blurred;
+        scaledCache.clear();
+        invalidateContent();
+    }
+
+    public ScaleLayout.Type getScaleType() {
+        return scaleType;
+    }
+
+    public void setScaleType(@NonNull ScaleLayout.Type scaleType) {
+        if (this.scaleType == scaleType) return;
+        this.scaleType = scaleType;
+        invalidateContent();
+    }
+
+    // Percent of the base scale of the type
+    public int getScale() {
+        return scale;
+    }
+
+    public void setScale(int scale) {
+        scale = Math.max(ScaleLayout.MIN_SCALE, Math.min(ScaleLayout.MAX_SCALE, scale));
+        if (this.scale == scale) return;
+        this.scale = scale;
+        invalidateContent();
+    }
+
+    // The bitmap the current layout should be resampled from, null when there is
+    // nothing to resample (no bitmap, tiled image, or already cached)
+    @Nullable
+    public Bitmap getScaleSource() {
+        if (fill.getType() != Fill.Type.BITMAP) return null;
+        if (blurredBitmap == null && fill.getImage() != null) return null;
+        if (scaledCache.get(getScaleKey()) != null) return null;
+        return blurredBitmap != null ? blurredBitmap : fill.getBitmap();
+    }
+
+    @NonNull
+    public String getScaleKey() {
+        return scaleType.name() + ':' + scale + ':' + Math.round(getWidth()) + 'x' + Math.round(getHeight());
+    }
+
+    // Ignored when the source was replaced while the layout was resampled
+    public void setScaledBitmap(@NonNull Bitmap source, @NonNull String key, @NonNull Bitmap scaled, int left, int top) {
+        Bitmap current = blurredBitmap != null ? blurredBitmap : fill.getBitmap();
+        if (source != current) return;
+        scaledCache.put(key, new Scaled(scaled, left, top));
+        if (key.equals(getScaleKey())) {
+            invalidateContent();
+        }
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        float width = getWidth();
+        float height = getHeight();
+
+        switch (fill.getType()) {
+            case COLOR:
+                // A single color is blended once, on every API level
+                canvas.drawColor(blend == null ? fill.getColor()
+                        : BlendKernel.blend(fill.getColor(), blend.getColor(), blend.getMode()));
+                break;
+            case GRADIENT:
+                fillPaint.setShader(gradientShader.update(gradientFill(), width, height));
+                canvas.drawRect(0, 0, width, height, fillPaint);
+                break;
+            case BITMAP:
+                drawBitmap(canvas, width, height);
+                break;
+        }
+    }
+
+    @Nullable
+    public Blend getBlend() {
+        return blend;
+    }
+
+    public void setBlend(@Nullable Blend blend) {
+        if (Objects.equals(this.blend, blend)) return;
+        this.blend = blend;
+        blendedGradient = null;
+        if (blend == null) softwareBlend.release();
+        if (HARDWARE_BLEND) {
+            BlendModeColorFilter filter = blend == null ? null : createBlendFilter(blend);
+            fillPaint.setColorFilter(filter);
+            bitmapPaint.setColorFilter(filter);
+        }
+        updateTileFilter();
+        invalidateContent();
+    }
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static BlendModeColorFilter createBlendFilter(Blend blend) {
+        return new BlendModeColorFilter(blend.getColor(), android.graphics.BlendMode.valueOf(blend.getMode().name()));
+    }
+
+    // Without color filters tiles are blended as they are decoded
+    private void updateTileFilter() {
+        TiledImage image = fill.getImage();
+        if (HARDWARE_BLEND || image == null) return;
+        Blend tileBlend = blend;
+        image.setFilter(tileBlend == null ? null : (tile, level, left, top) ->
+                BlendKernel.apply(tile, tile, tileBlend.getColor(), tileBlend.getMode()));
+    }
+
+    // Large photos are drawn from tiles at the resolution the screen needs, blurred
+    // ones from the blurred preview, which has the aspect of the photo
+    private void drawBitmap(Canvas canvas, float width, float height) {
+        TiledImage image = blurredBitmap == null ? fill.getImage() : null;
+        Bitmap bitmap = blurredBitmap != null ? blurredBitmap : fill.getBitmap();
+        int imageWidth = image != null ? image.getWidth() : bitmap.getWidth();
+        int imageHeight = image != null ? image.getHeight() : bitmap.getHeight();
+        layout.set(scaleType, scale, imageWidth, imageHeight, width, height);
+
+        if (image != null) {
+            drawTiles(canvas, image, imageWidth, imageHeight, width, height);
+            return;
+        }
+
+        Scaled scaled = scaledCache.get(getScaleKey());
+        if (scaled != null) {
+            canvas.drawBitmap(softwareBlend(scaled.bitmap), scaled.left, scaled.top, bitmapPaint);
+            return;
+        }
+        drawMatrix.setValues(layout.toMatrix(matrixValues));
+        canvas.drawBitmap(softwareBlend(bitmap), drawMatrix, bitmapPaint);
+    }
+
+    private Bitmap softwareBlend(Bitmap bitmap) {
+        return blend == null || HARDWARE_BLEND ? bitmap : softwareBlend.apply(bitmap, blend);
+    }
+
+    // The fill, or a copy with blended stops when the blend can't be a color filter.
+    // The shader interpolates between the table entries, 256 of them are plenty.
+    private Fill gradientFill() {
+        if (blend == null || HARDWARE_BLEND) return fill;
+        if (blendedGradient == null) {
+            GradientItem gradient = fill.getGradient();
+            blendedGradient = Fill.gradient(
+                    new GradientItem(SoftwareBlend.apply(GradientLuts.get(gradient), blend),
+                            gradient.getName()),
+                    fill.getGradientType(), fill.getGradientAngle());
+        }
+        return blendedGradient;
+    }
+
+    // Tiles are picked per visible rect, so the layout is expressed as src and dst rects
+    private void drawTiles(Canvas canvas, TiledImage image, int imageWidth, int imageHeight,
+                           float width, float height) {
+        if (!tileRects(imageWidth, imageHeight, width, height, srcRect, dstRect)) return;
+        if (!canvas.getClipBounds(clipBounds)) return;
+        clipRect.set(clipBounds);
+        image.draw(canvas, srcRect, dstRect, clipRect, bitmapPaint, layout.getScale() * getViewScale());
+    }
+
+    // False when the layout puts the image outside the layer
+    private boolean tileRects(int imageWidth, int imageHeight, float width, float height, Rect src, RectF dst) {
+        dst.set(Math.max(0, layout.getTranslateX()), Math.max(0, layout.getTranslateY()),
+                Math.min(width, layout.getTranslateX() + imageWidth * layout.getScale()),
+                Math.min(height, layout.getTranslateY() + imageHeight * layout.getScale()));
+        if (dst.isEmpty()) return false;
+        src.set(Math.round(layout.toSourceX(dst.left)), Math.round(layout.toSourceY(dst.top)),
+                Math.round(layout.toSourceX(dst.right)), Math.round(layout.toSourceY(dst.bottom)));
+        return true;
+    }
+
+    // A tiled photo fill as it is laid out now, for the exporter: tiles are decoded
+    // at the output scale on the drawing thread rather than at the screen's. Null
+    // for other fills, blurred photos (drawn from the blurred preview) and shadowed
+    // layers, those are recorded as usual. Main thread.
+    @Nullable
+    public DetachedDraw detachTiles() {
+        TiledImage image = fill.getType() == Fill.Type.BITMAP && blurredBitmap == null ? fill.getImage() : null;
+        if (image == null || getShadow() != null) return null;
+
+        float width = getWidth();
+        float height = getHeight();
+        layout.set(scaleType, scale, image.getWidth(), image.getHeight(), width, height);
+        Rect src = new Rect();
+        RectF dst = new RectF();
+        if (!tileRects(image.getWidth(), image.getHeight(), width, height, src, dst)) {
+            return (canvas, clip, outputScale) -> {
+            };
+        }
+        float sourceScale = layout.getScale();
+
+        Matrix matrix = new Matrix();
+        matrix.setTranslate(getFrame().left, getFrame().top);
+        matrix.preConcat(getLocalMatrix());
+        Matrix inverse = new Matrix();
+        if (!matrix.invert(inverse)) return null;
+        int alpha = Math.round(getOpacity() * 2.55f);
+        Paint paint = new Paint(bitmapPaint);
+
+        return (canvas, clip, outputScale) -> {
+            RectF localClip = new RectF(clip);
+            inverse.mapRect(localClip);
+            if (!localClip.intersect(dst)) return;
+            int save = canvas.save();
+            canvas.concat(matrix);
+            if (alpha < 255) canvas.saveLayerAlpha(0, 0, width, height, alpha);
+            image.drawDirect(canvas, src, dst, localClip, paint, sourceScale * outputScale);
+            canvas.restoreToCount(save);
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.editor.app.canvas;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.imaging.BlendMode;
+
+import java.util.Objects;
+
+// Immutable blend of a solid color over a layer. It is applied when the layer is
+// composited, the pixels of the fill are never changed.
+public final class Blend {
+    private final int color;
+    private final BlendMode mode;
+
+    private Blend(int color, @NonNull BlendMode mode) {
+        this.color = color;
+        this.mode = mode;
+    }
+
+    public static Blend of(int color, @NonNull BlendMode mode) {
+        return new Blend(color, mode);
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    @NonNull
+    public BlendMode getMode() {
+        return mode;
+    }
+
+    public Blend withColor(int color) {
+        return new Blend(color, mode);
+    }
+
+    public Blend withMode(@NonNull BlendMode mode) {
+        return new Blend(color, mode);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Blend)) return false;
+        Blend other = (Blend) o;
+        return color == other.color && mode == other.mode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(color, mode);
+    }
+}
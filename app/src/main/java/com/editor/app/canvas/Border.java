@@ -0,0 +1,65 @@
+package com.editor.app.canvas;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+// Immutable canvas border: a frame of the given width filled with a color, a
+// gradient or a repeated texture tile. Opacity becomes the border layer's alpha,
+// so one value covers everything the border sheet edits.
+public final class Border {
+    private final Fill fill;
+    private final float width;
+    private final int opacity;
+
+    private Border(@NonNull Fill fill, float width, int opacity) {
+        this.fill = fill;
+        this.width = Math.max(0, width);
+        this.opacity = Math.max(0, Math.min(100, opacity));
+    }
+
+    // Fully opaque
+    public static Border of(@NonNull Fill fill, float width) {
+        return new Border(fill, width, 100);
+    }
+
+    @NonNull
+    public Fill getFill() {
+        return fill;
+    }
+
+    // Design pixels
+    public float getWidth() {
+        return width;
+    }
+
+    // 0-100
+    public int getOpacity() {
+        return opacity;
+    }
+
+    public Border withFill(@NonNull Fill fill) {
+        return new Border(fill, width, opacity);
+    }
+
+    public Border withWidth(float width) {
+        return new Border(fill, width, opacity);
+    }
+
+    public Border withOpacity(int opacity) {
+        return new Border(fill, width, opacity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Border)) return false;
+        Border other = (Border) o;
+        return width == other.width && opacity == other.opacity && fill.equals(other.fill);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fill, width, opacity);
+    }
+}
@@ -0,0 +1,103 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Shader;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+// Frame around the canvas, drawn above every other layer. The frame path is built
+// once per (canvas size, border width) and only the paint changes with the fill.
+// Textures repeat a single small tile through a shader. Opacity is the layer
+// alpha, so the opacity slider never re-records the frame.
+public class BorderLayer extends Layer {
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final GradientShader gradientShader = new GradientShader();
+    private final Path path = new Path();
+    private float pathWidth = -1;
+    private float pathHeight = -1;
+    private float pathBorder = -1;
+
+    private Border border;
+
+    // Tile shader, rebuilt only when the tile changes
+    private Bitmap tile;
+    private BitmapShader tileShader;
+
+    public BorderLayer(int width, int height) {
+        setFrame(0, 0, width, height);
+        path.setFillType(Path.FillType.EVEN_ODD);
+    }
+
+    @Nullable
+    public Border getBorder() {
+        return border;
+    }
+
+    // null removes the border and keeps the opacity. An opacity-only change just
+    // sets the layer alpha, the frame is re-recorded for fill and width changes.
+    public void setBorder(@Nullable Border border) {
+        Border previous = this.border;
+        this.border = border;
+        if (border != null) setOpacity(border.getOpacity());
+        if (previous != null && border != null && previous.getWidth() == border.getWidth()
+                && previous.getFill().equals(border.getFill())) {
+            return;
+        }
+        if (border == null || border.getFill().getBitmap() != tile) {
+            tile = null;
+            tileShader = null;
+        }
+        invalidateContent();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        if (border == null || border.getWidth() <= 0) return;
+        float width = getWidth();
+        float height = getHeight();
+        updatePath(width, height, border.getWidth());
+
+        Fill fill = border.getFill();
+        switch (fill.getType()) {
+            case COLOR:
+                paint.setShader(null);
+                paint.setColor(fill.getColor());
+                break;
+            case GRADIENT:
+                paint.setColor(0xff000000);
+                paint.setShader(gradientShader.update(fill, width, height));
+                break;
+            case BITMAP:
+                paint.setColor(0xff000000);
+                paint.setShader(tileShader(fill.getBitmap()));
+                break;
+        }
+        canvas.drawPath(path, paint);
+    }
+
+    // Outer and inner rect, the even-odd rule leaves the inside empty
+    private void updatePath(float width, float height, float border) {
+        if (width == pathWidth && height == pathHeight && border == pathBorder) return;
+        pathWidth = width;
+        pathHeight = height;
+        pathBorder = border;
+
+        path.rewind();
+        path.addRect(0, 0, width, height, Path.Direction.CW);
+        float inset = Math.min(border, Math.min(width, height) / 2);
+        path.addRect(inset, inset, width - inset, height - inset, Path.Direction.CW);
+    }
+
+    private Shader tileShader(Bitmap bitmap) {
+        if (bitmap != tile) {
+            tile = bitmap;
+            tileShader = new BitmapShader(bitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+        }
+        return tileShader;
+    }
+}
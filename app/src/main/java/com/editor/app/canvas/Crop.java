@@ -0,0 +1,71 @@
+package com.editor.app.canvas;
+
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+// Immutable crop of an image layer: an aspect ratio that picks a centered
+// viewport of the source and an optional shape the viewport is masked to.
+// The source pixels are never copied, drawing reads the viewport directly.
+public final class Crop {
+    public static final Crop NONE = new Crop(0f, null);
+
+    // Width over height, 0 keeps the source aspect
+    private final float aspect;
+    private final CropShape shape;
+
+    private Crop(float aspect, CropShape shape) {
+        this.aspect = aspect;
+        this.shape = shape;
+    }
+
+    public float getAspect() {
+        return aspect;
+    }
+
+    @Nullable
+    public CropShape getShape() {
+        return shape;
+    }
+
+    public Crop withAspect(float aspect) {
+        return new Crop(Math.max(0f, aspect), shape);
+    }
+
+    public Crop withShape(@Nullable CropShape shape) {
+        return new Crop(aspect, shape);
+    }
+
+    // Largest centered rect of the crop aspect inside a width x height source
+    public void getViewport(int width, int height, @NonNull Rect out) {
+        if (aspect <= 0f) {
+            out.set(0, 0, width, height);
+            return;
+        }
+        int viewportWidth = width;
+        int viewportHeight = Math.round(width / aspect);
+        if (viewportHeight > height) {
+            viewportHeight = height;
+            viewportWidth = Math.round(height * aspect);
+        }
+        int left = (width - viewportWidth) / 2;
+        int top = (height - viewportHeight) / 2;
+        out.set(left, top, left + viewportWidth, top + viewportHeight);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Crop)) return false;
+        Crop other = (Crop) o;
+        return aspect == other.aspect && shape == other.shape;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(aspect, System.identityHashCode(shape));
+    }
+}
@@ -0,0 +1,102 @@
+package com.editor.app.canvas;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+// Vector outline an image can be cropped to. Outlines are built for the size they
+// are rasterized at, so corners and points keep their proportions on any aspect.
+// The id keys rasterized masks, two shapes with the same id must draw the same.
+public abstract class CropShape {
+
+    public static final CropShape CIRCLE = new CropShape("circle") {
+        @Override
+        protected void buildPath(@NonNull Path path, float width, float height) {
+            path.addOval(0, 0, width, height, Path.Direction.CW);
+        }
+    };
+
+    public static final CropShape ROUNDED_RECT = new CropShape("rounded") {
+        @Override
+        protected void buildPath(@NonNull Path path, float width, float height) {
+            float radius = Math.min(width, height) * 0.15f;
+            path.addRoundRect(0, 0, width, height, radius, radius, Path.Direction.CW);
+        }
+    };
+
+    public static final CropShape STAR = new CropShape("star") {
+        @Override
+        protected void buildPath(@NonNull Path path, float width, float height) {
+            float cx = width / 2f;
+            float cy = height / 2f;
+            for (int i = 0; i < 10; i++) {
+                // Outer and inner points alternate, the first one points up
+                double angle = Math.PI * i / 5 - Math.PI / 2;
+                float radius = i % 2 == 0 ? 1f : 0.4f;
+                float x = cx + (float) Math.cos(angle) * radius * width / 2f;
+                float y = cy + (float) Math.sin(angle) * radius * height / 2f + height * 0.05f;
+                if (i == 0) {
+                    path.moveTo(x, y);
+                } else {
+                    path.lineTo(x, y);
+                }
+            }
+            path.close();
+        }
+    };
+
+    public static final CropShape HEART = new CropShape("heart") {
+        @Override
+        protected void buildPath(@NonNull Path path, float width, float height) {
+            float w = width;
+            float h = height;
+            path.moveTo(w * 0.5f, h * 0.95f);
+            path.cubicTo(w * 0.1f, h * 0.65f, 0, h * 0.45f, 0, h * 0.28f);
+            path.cubicTo(0, h * 0.1f, w * 0.15f, 0, w * 0.28f, 0);
+            path.cubicTo(w * 0.4f, 0, w * 0.47f, h * 0.08f, w * 0.5f, h * 0.15f);
+            path.cubicTo(w * 0.53f, h * 0.08f, w * 0.6f, 0, w * 0.72f, 0);
+            path.cubicTo(w * 0.85f, 0, w, h * 0.1f, w, h * 0.28f);
+            path.cubicTo(w, h * 0.45f, w * 0.9f, h * 0.65f, w * 0.5f, h * 0.95f);
+            path.close();
+        }
+    };
+
+    private final String id;
+
+    protected CropShape(@NonNull String id) {
+        this.id = id;
+    }
+
+    // Any outline drawn in a unit square, scaled to the crop
+    @NonNull
+    public static CropShape custom(@NonNull String id, @NonNull Path unitPath) {
+        Path copy = new Path(unitPath);
+        return new CropShape("custom:" + id) {
+            private final Matrix matrix = new Matrix();
+
+            @Override
+            protected void buildPath(@NonNull Path path, float width, float height) {
+                matrix.setScale(width, height);
+                copy.transform(matrix, path);
+            }
+        };
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    // Fills path with the outline for a width x height crop, origin at the top left
+    protected abstract void buildPath(@NonNull Path path, float width, float height);
+
+    @NonNull
+    public Path getPath(@NonNull RectF bounds) {
+        Path path = new Path();
+        buildPath(path, bounds.width(), bounds.height());
+        path.offset(bounds.left, bounds.top);
+        return path;
+    }
+}
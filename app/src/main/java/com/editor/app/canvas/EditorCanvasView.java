@@ -0,0 +1,327 @@
+package com.editor.app.canvas;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class EditorCanvasView extends View implements Layer.Host {
+    private static final int DEFAULT_DESIGN_SIZE = 1080;
+
+    // Receives single pointer drags in design coordinates while a tool is active
+    public interface StrokeListener {
+        void onStrokeStart(float x, float y);
+
+        void onStrokeMove(float x, float y);
+
+        // After all samples of one touch event, the place to redraw
+        void onStrokeFrame();
+
+        void onStrokeEnd();
+    }
+
+    // Layers in z-order, the background is always first
+    private final List<Layer> layers = new ArrayList<>();
+
+    private int designWidth = DEFAULT_DESIGN_SIZE;
+    private int designHeight = DEFAULT_DESIGN_SIZE;
+
+    // Maps design coordinates to view coordinates (fit center)
+    private final Matrix designToView = new Matrix();
+    private float viewScale = 1f;
+
+    // Scratch objects, reused on every invalidation and frame
+    private final Rect layerBounds = new Rect();
+    private final Rect dirtyBounds = new Rect();
+    private final Rect clipBounds = new Rect();
+    private final RectF mappedRect = new RectF();
+    private final Matrix viewToDesign = new Matrix();
+    private final float[] touchPoint = new float[2];
+
+    private StrokeListener strokeListener;
+    private boolean stroking;
+
+    public EditorCanvasView(Context context) {
+        super(context);
+    }
+
+    public EditorCanvasView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    // ============================================================================
+    // SCENE
+    // ============================================================================
+
+    public void setDesignSize(int width, int height) {
+        if (designWidth == width && designHeight == height) return;
+        designWidth = width;
+        designHeight = height;
+        updateDesignMatrix();
+        invalidate();
+    }
+
+    public int getDesignWidth() {
+        return designWidth;
+    }
+
+    public int getDesignHeight() {
+        return designHeight;
+    }
+
+    public void addLayer(@NonNull Layer layer) {
+        addLayer(layers.size(), layer);
+    }
+
+    public void addLayer(int index, @NonNull Layer layer) {
+        layers.add(index, layer);
+        layer.attach(this);
+        layer.getBounds(layer.lastBounds);
+        invalidateDesignRect(layer.lastBounds);
+    }
+
+    public void removeLayer(@NonNull Layer layer) {
+        if (layers.remove(layer)) {
+            invalidateDesignRect(layer.lastBounds);
+            layer.detach();
+        }
+    }
+
+    public void moveLayer(@NonNull Layer layer, int index) {
+        if (layers.remove(layer)) {
+            layers.add(index, layer);
+            invalidateDesignRect(layer.lastBounds);
+        }
+    }
+
+    public List<Layer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    // Snaps a layer to an edge or the center of the design on one axis (Gravity constants)
+    public void alignLayer(@NonNull Layer layer, int gravity) {
+        RectF frame = layer.getFrame();
+        float left = frame.left;
+        float top = frame.top;
+
+        switch (gravity) {
+            case Gravity.TOP:
+                top = 0;
+                break;
+            case Gravity.BOTTOM:
+                top = designHeight - frame.height();
+                break;
+            case Gravity.CENTER_VERTICAL:
+                top = (designHeight - frame.height()) / 2f;
+                break;
+            case Gravity.LEFT:
+                left = 0;
+                break;
+            case Gravity.RIGHT:
+                left = designWidth - frame.width();
+                break;
+            case Gravity.CENTER_HORIZONTAL:
+                left = (designWidth - frame.width()) / 2f;
+                break;
+        }
+        layer.setPosition(left, top);
+    }
+
+    // ============================================================================
+    // TOUCH
+    // ============================================================================
+
+    // While a listener is set the canvas is a drawing surface, null ends the tool
+    public void setStrokeListener(@Nullable StrokeListener listener) {
+        if (stroking && strokeListener != null) {
+            strokeListener.onStrokeEnd();
+        }
+        stroking = false;
+        strokeListener = listener;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (strokeListener == null) return super.onTouchEvent(event);
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                designToView.invert(viewToDesign);
+                toDesign(event.getX(), event.getY());
+                stroking = true;
+                strokeListener.onStrokeStart(touchPoint[0], touchPoint[1]);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (!stroking) return true;
+                // Samples batched since the last frame keep fast strokes smooth
+                for (int i = 0; i < event.getHistorySize(); i++) {
+                    toDesign(event.getHistoricalX(i), event.getHistoricalY(i));
+                    strokeListener.onStrokeMove(touchPoint[0], touchPoint[1]);
+                }
+                toDesign(event.getX(), event.getY());
+                strokeListener.onStrokeMove(touchPoint[0], touchPoint[1]);
+                strokeListener.onStrokeFrame();
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (stroking) {
+                    stroking = false;
+                    strokeListener.onStrokeEnd();
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private void toDesign(float x, float y) {
+        touchPoint[0] = x;
+        touchPoint[1] = y;
+        viewToDesign.mapPoints(touchPoint);
+    }
+
+    // ============================================================================
+    // INVALIDATION
+    // ============================================================================
+
+    @Override
+    public void onLayerContentChanged(Layer layer) {
+        invalidateLayer(layer);
+    }
+
+    @Override
+    public void onLayerTransformChanged(Layer layer) {
+        invalidateLayer(layer);
+    }
+
+    @Override
+    public float getViewScale() {
+        return viewScale;
+    }
+
+    // Only the area the layer covered before the change plus what it covers now is redrawn
+    private void invalidateLayer(Layer layer) {
+        dirtyBounds.set(layer.lastBounds);
+        layer.getBounds(layerBounds);
+        dirtyBounds.union(layerBounds);
+        layer.lastBounds.set(layerBounds);
+        invalidateDesignRect(dirtyBounds);
+    }
+
+    private void invalidateDesignRect(Rect designRect) {
+        if (designRect.isEmpty()) return;
+        mappedRect.set(designRect);
+        designToView.mapRect(mappedRect);
+        postInvalidateOnAnimation(
+                (int) Math.floor(mappedRect.left),
+                (int) Math.floor(mappedRect.top),
+                (int) Math.ceil(mappedRect.right),
+                (int) Math.ceil(mappedRect.bottom));
+    }
+
+    // ============================================================================
+    // LAYOUT AND DRAWING
+    // ============================================================================
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateDesignMatrix();
+    }
+
+    private void updateDesignMatrix() {
+        float availableWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        float availableHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        designToView.reset();
+        if (availableWidth <= 0 || availableHeight <= 0) return;
+
+        float scale = Math.min(availableWidth / designWidth, availableHeight / designHeight);
+        float dx = getPaddingLeft() + (availableWidth - designWidth * scale) / 2f;
+        float dy = getPaddingTop() + (availableHeight - designHeight * scale) / 2f;
+        designToView.setScale(scale, scale);
+        designToView.postTranslate(dx, dy);
+
+        // Content that picks its resolution by the view scale is re-recorded
+        if (viewScale != scale) {
+            viewScale = scale;
+            for (Layer layer : layers) {
+                layer.contentDirty = true;
+            }
+        }
+    }
+
+    public Matrix getDesignToViewMatrix() {
+        return designToView;
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        int save = canvas.save();
+        canvas.concat(designToView);
+        canvas.clipRect(0, 0, designWidth, designHeight);
+
+        // With hardware acceleration the clip is the whole view, layers still skip
+        // re-recording unless their content changed
+        boolean useNodes = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && canvas.isHardwareAccelerated();
+        if (!canvas.getClipBounds(clipBounds)) {
+            canvas.restoreToCount(save);
+            return;
+        }
+
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (!layer.isVisible() || layer.getOpacity() == 0) continue;
+
+            layer.getBounds(layerBounds);
+            if (!Rect.intersects(clipBounds, layerBounds)) continue;
+
+            if (useNodes) {
+                drawWithNode(canvas, layer);
+            } else {
+                layer.draw(canvas);
+            }
+        }
+
+        canvas.restoreToCount(save);
+    }
+
+    private void drawWithNode(Canvas canvas, Layer layer) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            if (layer.node == null) {
+                layer.node = new LayerNode(layer.getClass().getSimpleName());
+            }
+            layer.node.draw(canvas, layer);
+        }
+    }
+
+    // Renders the whole composition in design coordinates, used by exports and thumbnails
+    public void drawComposition(@NonNull Canvas canvas) {
+        drawComposition(canvas, layers);
+    }
+
+    // The composition with some of its layers swapped out, as export variants draw it
+    public static void drawComposition(@NonNull Canvas canvas, @NonNull List<Layer> layers) {
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layer.isVisible() && layer.getOpacity() > 0) {
+                layer.draw(canvas);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.history.TileTarget;
+import com.editor.core.imaging.EraseMask;
+
+import java.nio.ByteBuffer;
+
+// Erase mask of an image layer with one ALPHA_8 bitmap per erased tile. A brush
+// dab refreshes only the bitmaps of the tiles it touched; tiles nobody erased
+// have neither mask bytes nor a bitmap. Undo goes through TileTarget, so a stroke
+// is stored as the diff of the tiles it changed. Main thread only.
+public final class EraseTiles implements TileTarget {
+    private final ImageLayer layer;
+    private final EraseMask mask;
+    private final Bitmap[] bitmaps;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF tileRect = new RectF();
+
+    EraseTiles(ImageLayer layer, int width, int height) {
+        this.layer = layer;
+        this.mask = new EraseMask(width, height);
+        this.bitmaps = new Bitmap[mask.getColumns() * mask.getRows()];
+        paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+    }
+
+    @NonNull
+    EraseMask getMask() {
+        return mask;
+    }
+
+    boolean isEmpty() {
+        return mask.isEmpty();
+    }
+
+    @Override
+    public int getTileSize() {
+        return EraseMask.TILE_SIZE;
+    }
+
+    @Override
+    public void readTile(int tileX, int tileY, int[] out) {
+        mask.readTile(tileX, tileY, out);
+    }
+
+    // Undo and redo of strokes land here
+    @Override
+    public void writeTile(int tileX, int tileY, int[] pixels) {
+        mask.writeTile(tileX, tileY, pixels);
+        upload(tileX, tileY);
+        layer.onEraseChanged(true);
+    }
+
+    // Copies the mask bytes of one tile into its bitmap
+    void upload(int tileX, int tileY) {
+        int index = tileY * mask.getColumns() + tileX;
+        byte[] tile = mask.getTile(tileX, tileY);
+        if (tile == null) {
+            bitmaps[index] = null;
+            return;
+        }
+        if (bitmaps[index] == null) {
+            bitmaps[index] = Bitmap.createBitmap(EraseMask.TILE_SIZE, EraseMask.TILE_SIZE, Bitmap.Config.ALPHA_8);
+        }
+        bitmaps[index].copyPixelsFromBuffer(ByteBuffer.wrap(tile));
+    }
+
+    // Cuts the erased tiles out of what was drawn into dst, inside a saved layer
+    void draw(@NonNull Canvas canvas, @NonNull RectF dst) {
+        float scaleX = dst.width() / mask.getWidth();
+        float scaleY = dst.height() / mask.getHeight();
+        float span = EraseMask.TILE_SIZE;
+        for (int tileY = 0; tileY < mask.getRows(); tileY++) {
+            for (int tileX = 0; tileX < mask.getColumns(); tileX++) {
+                Bitmap bitmap = bitmaps[tileY * mask.getColumns() + tileX];
+                if (bitmap == null) continue;
+                float left = dst.left + tileX * span * scaleX;
+                float top = dst.top + tileY * span * scaleY;
+                tileRect.set(left, top, left + span * scaleX, top + span * scaleY);
+                canvas.drawBitmap(bitmap, null, tileRect, paint);
+            }
+        }
+    }
+}
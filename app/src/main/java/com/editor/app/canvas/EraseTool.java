@@ -0,0 +1,110 @@
+package com.editor.app.canvas;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.history.TileDiffCommand;
+import com.editor.core.imaging.BrushStroke;
+import com.editor.core.imaging.EraseMask;
+
+// Erases an image layer with a round brush. Pointer samples are interpolated into
+// dabs, each dab snapshots the tiles it is about to change for undo and refreshes
+// only those tiles. The finished stroke becomes one TileDiffCommand.
+public final class EraseTool implements EditorCanvasView.StrokeListener {
+    // Design pixels
+    public static final float DEFAULT_RADIUS = 40f;
+    private static final float HARDNESS = 0.6f;
+    // Dab spacing as a fraction of the radius
+    private static final float SPACING = 0.25f;
+
+    public interface Callback {
+        // The stroke is already applied, the command only needs recording
+        void onStroke(@NonNull TileDiffCommand command);
+    }
+
+    private final ImageLayer layer;
+    private final Callback callback;
+    private final BrushStroke stroke = new BrushStroke(this::dab);
+    private final float[] point = new float[2];
+    private float radius = DEFAULT_RADIUS;
+
+    private EraseTiles tiles;
+    private TileDiffCommand.Recorder recorder;
+    // Design pixels to mask pixels for the current stroke, the mask matches the bitmap
+    private float maskScale;
+    private boolean changed;
+
+    private final EraseMask.TileObserver observer = new EraseMask.TileObserver() {
+        @Override
+        public void beforeWrite(int tileX, int tileY) {
+            recorder.touch(tileX, tileY);
+        }
+
+        @Override
+        public void afterWrite(int tileX, int tileY) {
+            tiles.upload(tileX, tileY);
+            changed = true;
+        }
+    };
+
+    public EraseTool(@NonNull ImageLayer layer, @NonNull Callback callback) {
+        this.layer = layer;
+        this.callback = callback;
+    }
+
+    public void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    @Override
+    public void onStrokeStart(float x, float y) {
+        tiles = layer.obtainEraseTiles();
+        if (tiles == null) return;
+        recorder = TileDiffCommand.record(tiles);
+        maskScale = layer.getBitmapScale();
+        if (!toMask(x, y)) return;
+        stroke.begin(point[0], point[1], radius * SPACING * maskScale);
+        flush(false);
+    }
+
+    @Override
+    public void onStrokeMove(float x, float y) {
+        if (recorder == null || !toMask(x, y)) return;
+        stroke.lineTo(point[0], point[1]);
+    }
+
+    // Called once per batch of moves, the layer is redrawn at most once per batch
+    @Override
+    public void onStrokeFrame() {
+        flush(false);
+    }
+
+    @Override
+    public void onStrokeEnd() {
+        if (recorder == null) return;
+        flush(true);
+        TileDiffCommand command = recorder.finish();
+        recorder = null;
+        if (command != null) callback.onStroke(command);
+    }
+
+    private void dab(float x, float y) {
+        tiles.getMask().dab(x, y, radius * maskScale, HARDNESS, observer);
+    }
+
+    private void flush(boolean done) {
+        if (changed || done) {
+            layer.onEraseChanged(done);
+            changed = false;
+        }
+    }
+
+    // Design coordinates to mask pixels through the crop viewport, false when the
+    // layer can't be inverted
+    private boolean toMask(float x, float y) {
+        point[0] = x;
+        point[1] = y;
+        if (!layer.mapToLocal(point)) return false;
+        layer.mapLocalToBitmap(point);
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.editor.app.history.Sized;
+import com.editor.app.imaging.TiledImage;
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.GradientType;
+
+import java.util.Objects;
+
+// Immutable paint source shared by layers: a solid color, a gradient or a bitmap
+public final class Fill implements Sized {
+
+    public enum Type {
+        COLOR, GRADIENT, BITMAP
+    }
+
+    private final Type type;
+    private final int color;
+    private final GradientItem gradient;
+    private final GradientType gradientType;
+    private final float gradientAngle;
+    private final Bitmap bitmap;
+    private final TiledImage image;
+
+    private Fill(Type type, int color, GradientItem gradient, GradientType gradientType, float gradientAngle,
+                 Bitmap bitmap, TiledImage image) {
+        this.type = type;
+        this.color = color;
+        this.gradient = gradient;
+        this.gradientType = gradientType;
+        this.gradientAngle = gradientAngle;
+        this.bitmap = bitmap;
+        this.image = image;
+    }
+
+    public static Fill color(int color) {
+        return new Fill(Type.COLOR, color, null, GradientType.LINEAR, 0, null, null);
+    }
+
+    // Left to right
+    public static Fill gradient(@NonNull GradientItem gradient) {
+        return gradient(gradient, GradientType.LINEAR, 0);
+    }
+
+    // Angle in degrees, clockwise from left to right
+    public static Fill gradient(@NonNull GradientItem gradient, @NonNull GradientType gradientType, float angle) {
+        return new Fill(Type.GRADIENT, 0, gradient, gradientType, angle, null, null);
+    }
+
+    public static Fill bitmap(@NonNull Bitmap bitmap) {
+        return new Fill(Type.BITMAP, 0, null, GradientType.LINEAR, 0, bitmap, null);
+    }
+
+    // A photo too large to decode whole, the bitmap is its preview
+    public static Fill image(@NonNull TiledImage image) {
+        return new Fill(Type.BITMAP, 0, null, GradientType.LINEAR, 0, image.getPreview(), image);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    @Nullable
+    public GradientItem getGradient() {
+        return gradient;
+    }
+
+    public GradientType getGradientType() {
+        return gradientType;
+    }
+
+    public float getGradientAngle() {
+        return gradientAngle;
+    }
+
+    @Nullable
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    @Nullable
+    public TiledImage getImage() {
+        return image;
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return bitmap != null ? bitmap.getAllocationByteCount() : 0;
+    }
+
+    @Override
+    public boolean holds(@NonNull Object resource) {
+        return resource == bitmap || resource == image;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Fill)) return false;
+        Fill other = (Fill) o;
+        return type == other.type && color == other.color
+                && gradient == other.gradient && gradientType == other.gradientType
+                && gradientAngle == other.gradientAngle && bitmap == other.bitmap && image == other.image;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, color, System.identityHashCode(gradient), gradientType, gradientAngle,
+                System.identityHashCode(bitmap), System.identityHashCode(image));
+    }
+}
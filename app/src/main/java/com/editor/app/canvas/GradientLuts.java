@@ -0,0 +1,38 @@
+package com.editor.app.canvas;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.GradientLut;
+
+import java.util.WeakHashMap;
+
+// Baked lookup tables of the gradients that are blended on the CPU, one per
+// gradient. Entries go away with their GradientItem. Main thread only.
+public final class GradientLuts {
+    private static final WeakHashMap<GradientItem, Entry> cache = new WeakHashMap<>();
+
+    private GradientLuts() {
+    }
+
+    @NonNull
+    public static GradientLut get(@NonNull GradientItem gradient) {
+        Entry entry = cache.get(gradient);
+        // Colors can be swapped on the item, the table follows them
+        if (entry == null || entry.colors != gradient.getColors()) {
+            entry = new Entry(gradient.getColors(), new GradientLut(gradient.getColors(), GradientLut.SIZE));
+            cache.put(gradient, entry);
+        }
+        return entry.lut;
+    }
+
+    private static final class Entry {
+        final int[] colors;
+        final GradientLut lut;
+
+        Entry(int[] colors, GradientLut lut) {
+            this.colors = colors;
+            this.lut = lut;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.editor.app.canvas;
+
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.GradientType;
+
+// Gradient shader of one layer. The shader is built once in unit space and mapped
+// onto the layer bounds with its local matrix, so resizing or dragging a layer
+// never allocates a new shader, only a gradient change does.
+final class GradientShader {
+    private final Matrix matrix = new Matrix();
+
+    private Shader shader;
+    private GradientItem gradient;
+    private int[] colors;
+    private GradientType type;
+    private float angle;
+    private float width = -1;
+    private float height = -1;
+
+    // The shader for a gradient fill spanning width x height, null for other fills
+    @Nullable
+    Shader update(@NonNull Fill fill, float width, float height) {
+        if (fill.getType() != Fill.Type.GRADIENT) {
+            release();
+            return null;
+        }
+
+        GradientItem gradient = fill.getGradient();
+        if (shader == null || gradient != this.gradient || gradient.getColors() != colors
+                || fill.getGradientType() != type) {
+            this.gradient = gradient;
+            colors = gradient.getColors();
+            type = fill.getGradientType();
+            shader = createUnitShader(colors, type);
+            this.width = -1;
+        }
+        if (width != this.width || height != this.height || fill.getGradientAngle() != angle) {
+            this.width = width;
+            this.height = height;
+            angle = fill.getGradientAngle();
+            mapToBounds(width, height);
+            shader.setLocalMatrix(matrix);
+        }
+        return shader;
+    }
+
+    void release() {
+        shader = null;
+        gradient = null;
+        colors = null;
+    }
+
+    // LINEAR and RADIAL span -0.5..0.5 and 0..1 around the origin, SWEEP turns around it
+    private static Shader createUnitShader(int[] colors, GradientType type) {
+        // Shaders need two colors at least
+        if (colors.length == 1) colors = new int[]{colors[0], colors[0]};
+        switch (type) {
+            case RADIAL:
+                return new RadialGradient(0, 0, 1, colors, null, Shader.TileMode.CLAMP);
+            case SWEEP:
+                return new SweepGradient(0, 0, colors, null);
+            default:
+                return new LinearGradient(-0.5f, 0, 0.5f, 0, colors, null, Shader.TileMode.CLAMP);
+        }
+    }
+
+    private void mapToBounds(float width, float height) {
+        switch (type) {
+            case RADIAL: {
+                // Reaches the corners
+                float radius = Math.max(1f, (float) Math.hypot(width, height) * 0.5f);
+                matrix.setScale(radius, radius);
+                break;
+            }
+            case SWEEP:
+                matrix.setRotate(angle);
+                break;
+            default: {
+                // Long enough for the ends to touch the corners at any angle
+                double radians = Math.toRadians(angle);
+                float length = Math.max(1f,
+                        (float) (Math.abs(width * Math.cos(radians)) + Math.abs(height * Math.sin(radians))));
+                matrix.setScale(length, length);
+                matrix.postRotate(angle);
+                break;
+            }
+        }
+        matrix.postTranslate(width * 0.5f, height * 0.5f);
+    }
+}
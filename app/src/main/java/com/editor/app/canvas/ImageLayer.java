@@ -0,0 +1,249 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.editor.app.history.TileTarget;
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.ColorAdjustments;
+import com.editor.core.imaging.EraseMask;
+
+public class ImageLayer extends Layer {
+    private static final int MIN_SIZE = 16;
+
+    private final Paint bitmapPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Paint tintPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint maskPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dstRect = new RectF();
+    private final Rect srcRect = new Rect();
+    private final RectF imageRect = new RectF();
+
+    private Bitmap bitmap;
+
+    // Crop viewport in bitmap pixels
+    private Crop crop = Crop.NONE;
+    private final Rect viewport = new Rect();
+
+    // Color adjustments are kept as settings, the bitmap is never modified. The
+    // adjusted copy is rendered elsewhere and may be a low-res proxy for a while.
+    private ColorAdjustments adjustments = ColorAdjustments.NONE;
+    private Bitmap adjustedBitmap;
+
+    // Erase mask, created on the first stroke at the bitmap resolution and kept
+    // across bitmap replacements, like a layer mask
+    private EraseTiles eraseTiles;
+
+    // Tint state, null when the image is drawn as is
+    private Fill tint;
+    private final GradientShader tintShader = new GradientShader();
+
+    public ImageLayer() {
+        tintPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_ATOP));
+        maskPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+    }
+
+    // Sets the bitmap and sizes the layer so its longest side is maxSize
+    public void setBitmap(@NonNull Bitmap bitmap, int maxSize) {
+        this.bitmap = bitmap;
+        adjustedBitmap = null;
+        crop.getViewport(bitmap.getWidth(), bitmap.getHeight(), viewport);
+        resizeToViewport(maxSize);
+        invalidateContent();
+    }
+
+    @Nullable
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    public int getImageSize() {
+        return Math.round(Math.max(getWidth(), getHeight()));
+    }
+
+    // Longest side in design pixels, aspect ratio is kept
+    public void setImageSize(int size) {
+        if (bitmap == null) return;
+        resizeToViewport(Math.max(MIN_SIZE, size));
+    }
+
+    @NonNull
+    public Crop getCrop() {
+        return crop;
+    }
+
+    // Only the viewport changes, the bitmap is drawn through it as is. The layer
+    // takes the crop aspect and keeps its longest side.
+    public void setCrop(@NonNull Crop crop) {
+        if (this.crop.equals(crop)) return;
+        this.crop = crop;
+        if (bitmap != null) {
+            crop.getViewport(bitmap.getWidth(), bitmap.getHeight(), viewport);
+            resizeToViewport(getImageSize());
+        }
+        invalidateContent();
+    }
+
+    // Maps local coordinates to bitmap pixels in place
+    void mapLocalToBitmap(@NonNull float[] point) {
+        float scale = viewport.width() / getWidth();
+        point[0] = viewport.left + point[0] * scale;
+        point[1] = viewport.top + point[1] * scale;
+    }
+
+    // Bitmap pixels per design pixel
+    float getBitmapScale() {
+        return viewport.width() / getWidth();
+    }
+
+    private void resizeToViewport(int size) {
+        float scale = (float) size / Math.max(viewport.width(), viewport.height());
+        setSize(viewport.width() * scale, viewport.height() * scale);
+    }
+
+    @NonNull
+    public ColorAdjustments getAdjustments() {
+        return adjustments;
+    }
+
+    // Keeps showing the previous rendering until setAdjustedBitmap delivers the new one
+    public void setAdjustments(@NonNull ColorAdjustments adjustments) {
+        if (this.adjustments.equals(adjustments)) return;
+        this.adjustments = adjustments;
+        if (adjustments.isIdentity() && adjustedBitmap != null) {
+            adjustedBitmap = null;
+            invalidateDrawing();
+        }
+    }
+
+    // Ignored when the bitmap or the adjustments changed since the render was requested
+    public void setAdjustedBitmap(@NonNull Bitmap source, @NonNull ColorAdjustments adjustments,
+                                  @NonNull Bitmap adjusted) {
+        if (source != bitmap || !adjustments.equals(this.adjustments) || adjustments.isIdentity()) return;
+        adjustedBitmap = adjusted;
+        // Colors only, the shadow mask stays valid
+        invalidateDrawing();
+    }
+
+    @Nullable
+    public Fill getTint() {
+        return tint;
+    }
+
+    // Color and gradient tints are supported, anything else clears the tint
+    public void setTint(@Nullable Fill tint) {
+        this.tint = tint;
+        if (tint != null && tint.getType() == Fill.Type.COLOR) {
+            bitmapPaint.setColorFilter(new PorterDuffColorFilter(tint.getColor(), PorterDuff.Mode.SRC_ATOP));
+        } else {
+            bitmapPaint.setColorFilter(null);
+        }
+        invalidateContent();
+    }
+
+    public void setTintColor(int color) {
+        setTint(Fill.color(color));
+    }
+
+    public void setTintGradient(@NonNull GradientItem gradient) {
+        setTint(Fill.gradient(gradient));
+    }
+
+    public void clearTint() {
+        setTint(null);
+    }
+
+    // Read-only use, null until the first stroke
+    @Nullable
+    public EraseMask getEraseMask() {
+        return eraseTiles != null ? eraseTiles.getMask() : null;
+    }
+
+    // Writes go through the tiles so their bitmaps follow, null without a bitmap
+    @Nullable
+    public TileTarget getEraseTarget() {
+        return obtainEraseTiles();
+    }
+
+    @Nullable
+    EraseTiles obtainEraseTiles() {
+        if (eraseTiles == null && bitmap != null) {
+            eraseTiles = new EraseTiles(this, bitmap.getWidth(), bitmap.getHeight());
+        }
+        return eraseTiles;
+    }
+
+    // The shadow is recaptured once the stroke is done, not for every dab
+    void onEraseChanged(boolean strokeDone) {
+        if (strokeDone) {
+            invalidateContent();
+        } else {
+            invalidateDrawing();
+        }
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        if (bitmap == null) return;
+        drawImage(canvas, adjustedBitmap != null ? adjustedBitmap : bitmap);
+    }
+
+    // The mask is captured on a software canvas, which can't read hardware bitmaps
+    @Override
+    protected void onDrawMask(@NonNull Canvas canvas) {
+        if (bitmap == null) return;
+
+        Bitmap source = bitmap;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && source.getConfig() == Bitmap.Config.HARDWARE) {
+            source = source.copy(Bitmap.Config.ARGB_8888, false);
+        }
+        drawImage(canvas, source);
+        if (source != bitmap) {
+            source.recycle();
+        }
+    }
+
+    // source is the bitmap or a scaled copy of it (adjusted proxy, software copy)
+    private void drawImage(Canvas canvas, Bitmap source) {
+        dstRect.set(0, 0, getWidth(), getHeight());
+        // Viewport of the scaled copy, and where the whole bitmap would land
+        float sourceScale = (float) source.getWidth() / bitmap.getWidth();
+        srcRect.set(Math.round(viewport.left * sourceScale), Math.round(viewport.top * sourceScale),
+                Math.round(viewport.right * sourceScale), Math.round(viewport.bottom * sourceScale));
+        float scale = dstRect.width() / viewport.width();
+        imageRect.set(-viewport.left * scale, -viewport.top * scale,
+                (bitmap.getWidth() - viewport.left) * scale, (bitmap.getHeight() - viewport.top) * scale);
+
+        boolean erased = eraseTiles != null && !eraseTiles.isEmpty();
+        CropShape shape = crop.getShape();
+        boolean gradientTint = tint != null && tint.getType() == Fill.Type.GRADIENT;
+        if (!erased && shape == null && !gradientTint) {
+            canvas.drawBitmap(source, srcRect, dstRect, bitmapPaint);
+            return;
+        }
+
+        int save = canvas.saveLayer(dstRect, null);
+        canvas.drawBitmap(source, srcRect, dstRect, bitmapPaint);
+        if (gradientTint) {
+            // Gradient tint keeps the image alpha: draw it on top with SRC_ATOP
+            tintPaint.setShader(tintShader.update(tint, dstRect.width(), dstRect.height()));
+            canvas.drawRect(dstRect, tintPaint);
+        }
+        if (erased) {
+            eraseTiles.draw(canvas, imageRect);
+        }
+        if (shape != null) {
+            canvas.drawBitmap(ShapeMasks.get(shape, dstRect.width(), dstRect.height()), null, dstRect, maskPaint);
+        }
+        canvas.restoreToCount(save);
+    }
+}
@@ -0,0 +1,324 @@
+package com.editor.app.canvas;
+
+import android.graphics.Camera;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+public abstract class Layer {
+
+    // Implemented by the view that owns the layer
+    public interface Host {
+        void onLayerContentChanged(Layer layer);
+
+        void onLayerTransformChanged(Layer layer);
+
+        // View pixels per design pixel
+        float getViewScale();
+    }
+
+    private static final Camera CAMERA = new Camera();
+
+    private Host host;
+
+    // Geometry in design coordinates
+    private final RectF frame = new RectF();
+    private float rotation;
+    private float rotationX;
+    private float rotationY;
+    private boolean flipHorizontal;
+    private boolean flipVertical;
+    private int opacity = 100;
+    private boolean visible = true;
+    private Shadow shadow;
+
+    // Render state (owned by EditorCanvasView)
+    private final Matrix localMatrix = new Matrix();
+    private final RectF scratchRect = new RectF();
+    private final Matrix inverseMatrix = new Matrix();
+    private boolean matrixDirty = true;
+    final Rect lastBounds = new Rect();
+    boolean contentDirty = true;
+    LayerNode node;
+    private LayerShadow layerShadow;
+
+    void attach(Host host) {
+        this.host = host;
+    }
+
+    void detach() {
+        this.host = null;
+        if (node != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            node.discard();
+        }
+        node = null;
+    }
+
+    // ============================================================================
+    // CONTENT
+    // ============================================================================
+
+    // Draws the layer content in local coordinates: (0, 0) - (width, height)
+    protected abstract void onDraw(@NonNull Canvas canvas);
+
+    // Coverage the shadow is cast from, the content itself unless a layer can
+    // draw it cheaper or needs a software friendly version
+    protected void onDrawMask(@NonNull Canvas canvas) {
+        onDraw(canvas);
+    }
+
+    // View pixels per design pixel, for content that picks its resolution by how
+    // large it shows up on screen
+    protected final float getViewScale() {
+        return host != null ? host.getViewScale() : 1f;
+    }
+
+    // Extra pixels painted outside the frame (strokes)
+    protected float getDrawingOutset() {
+        return 0f;
+    }
+
+    protected final void invalidateContent() {
+        if (layerShadow != null) {
+            layerShadow.invalidate();
+        }
+        invalidateDrawing();
+    }
+
+    // Re-records the content without touching the shadow mask, for changes the
+    // shadow can catch up with later (e.g. in the middle of a brush stroke)
+    protected final void invalidateDrawing() {
+        contentDirty = true;
+        if (host != null) {
+            host.onLayerContentChanged(this);
+        }
+    }
+
+    // Shadow first, then the content on top
+    final void drawContent(@NonNull Canvas canvas) {
+        if (shadow != null) {
+            if (layerShadow == null) {
+                layerShadow = new LayerShadow();
+            }
+            layerShadow.draw(canvas, this, shadow);
+        }
+        onDraw(canvas);
+    }
+
+    private float getPaintOutset() {
+        float outset = getDrawingOutset();
+        return shadow != null ? Math.max(outset, shadow.getOutset()) : outset;
+    }
+
+    // ============================================================================
+    // SHADOW
+    // ============================================================================
+
+    @Nullable
+    public Shadow getShadow() {
+        return shadow;
+    }
+
+    // The mask is kept across shadow changes, only a new blur radius is computed
+    public void setShadow(@Nullable Shadow shadow) {
+        if (Objects.equals(this.shadow, shadow)) return;
+        this.shadow = shadow;
+        if (shadow == null) {
+            layerShadow = null;
+        }
+        invalidateDrawing();
+    }
+
+    protected final void invalidateTransform() {
+        matrixDirty = true;
+        if (host != null) {
+            host.onLayerTransformChanged(this);
+        }
+    }
+
+    // ============================================================================
+    // GEOMETRY
+    // ============================================================================
+
+    public RectF getFrame() {
+        return frame;
+    }
+
+    public float getWidth() {
+        return frame.width();
+    }
+
+    public float getHeight() {
+        return frame.height();
+    }
+
+    public void setFrame(float left, float top, float right, float bottom) {
+        boolean resized = frame.width() != right - left || frame.height() != bottom - top;
+        frame.set(left, top, right, bottom);
+        if (resized) {
+            // Resizing changes what the content looks like, moving doesn't
+            matrixDirty = true;
+            invalidateContent();
+        } else {
+            invalidateTransform();
+        }
+    }
+
+    // Content driven layers (text) resize themselves around their center
+    protected final void setContentSize(float width, float height) {
+        float cx = frame.isEmpty() ? width / 2f : frame.centerX();
+        float cy = frame.isEmpty() ? height / 2f : frame.centerY();
+        frame.set(cx - width / 2f, cy - height / 2f, cx + width / 2f, cy + height / 2f);
+        matrixDirty = true;
+        invalidateContent();
+    }
+
+    public void setPosition(float left, float top) {
+        setFrame(left, top, left + frame.width(), top + frame.height());
+    }
+
+    public void setSize(float width, float height) {
+        float cx = frame.centerX();
+        float cy = frame.centerY();
+        setFrame(cx - width / 2f, cy - height / 2f, cx + width / 2f, cy + height / 2f);
+    }
+
+    public float getRotation() {
+        return rotation;
+    }
+
+    public void setRotation(float degrees) {
+        if (rotation == degrees) return;
+        rotation = degrees;
+        invalidateTransform();
+    }
+
+    public float getRotationX() {
+        return rotationX;
+    }
+
+    public void setRotationX(float degrees) {
+        if (rotationX == degrees) return;
+        rotationX = degrees;
+        invalidateTransform();
+    }
+
+    public float getRotationY() {
+        return rotationY;
+    }
+
+    public void setRotationY(float degrees) {
+        if (rotationY == degrees) return;
+        rotationY = degrees;
+        invalidateTransform();
+    }
+
+    public boolean isFlipHorizontal() {
+        return flipHorizontal;
+    }
+
+    public void setFlipHorizontal(boolean flip) {
+        if (flipHorizontal == flip) return;
+        flipHorizontal = flip;
+        invalidateTransform();
+    }
+
+    public boolean isFlipVertical() {
+        return flipVertical;
+    }
+
+    public void setFlipVertical(boolean flip) {
+        if (flipVertical == flip) return;
+        flipVertical = flip;
+        invalidateTransform();
+    }
+
+    public int getOpacity() {
+        return opacity;
+    }
+
+    // Opacity is applied as layer alpha, the content is never re-rendered for it
+    public void setOpacity(int opacity) {
+        opacity = Math.max(0, Math.min(100, opacity));
+        if (this.opacity == opacity) return;
+        this.opacity = opacity;
+        invalidateTransform();
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        if (this.visible == visible) return;
+        this.visible = visible;
+        invalidateTransform();
+    }
+
+    // Local transform around the frame center; the frame offset is applied separately
+    Matrix getLocalMatrix() {
+        if (matrixDirty) {
+            float pivotX = frame.width() / 2f;
+            float pivotY = frame.height() / 2f;
+
+            localMatrix.reset();
+            synchronized (CAMERA) {
+                CAMERA.save();
+                CAMERA.rotate(rotationX, rotationY, -rotation);
+                CAMERA.getMatrix(localMatrix);
+                CAMERA.restore();
+            }
+            localMatrix.preScale(flipHorizontal ? -1f : 1f, flipVertical ? -1f : 1f);
+            localMatrix.preTranslate(-pivotX, -pivotY);
+            localMatrix.postTranslate(pivotX, pivotY);
+            matrixDirty = false;
+        }
+        return localMatrix;
+    }
+
+    // Maps a point in design coordinates into local coordinates in place, false when
+    // the transform can't be inverted (e.g. rotated edge-on)
+    public boolean mapToLocal(@NonNull float[] point) {
+        point[0] -= frame.left;
+        point[1] -= frame.top;
+        if (!getLocalMatrix().invert(inverseMatrix)) return false;
+        inverseMatrix.mapPoints(point);
+        return true;
+    }
+
+    // Device-independent bounds of everything this layer paints, in design coordinates
+    public void getBounds(@NonNull Rect out) {
+        float outset = getPaintOutset();
+        scratchRect.set(-outset, -outset, frame.width() + outset, frame.height() + outset);
+        getLocalMatrix().mapRect(scratchRect);
+        scratchRect.offset(frame.left, frame.top);
+        scratchRect.roundOut(out);
+        // Anti-aliased edges can touch one extra pixel
+        out.inset(-1, -1);
+    }
+
+    // ============================================================================
+    // DRAWING
+    // ============================================================================
+
+    // Software path: everything is drawn directly into the canvas
+    void draw(@NonNull Canvas canvas) {
+        int save = canvas.save();
+        canvas.translate(frame.left, frame.top);
+        canvas.concat(getLocalMatrix());
+        if (opacity < 100) {
+            float outset = getPaintOutset();
+            scratchRect.set(-outset, -outset, frame.width() + outset, frame.height() + outset);
+            canvas.saveLayerAlpha(scratchRect, Math.round(opacity * 2.55f));
+        }
+        drawContent(canvas);
+        canvas.restoreToCount(save);
+    }
+}
@@ -0,0 +1,51 @@
+package com.editor.app.canvas;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+// Hardware path: each layer keeps its own display list. Transform and opacity
+// changes only update node properties, content changes re-record this layer alone.
+@RequiresApi(Build.VERSION_CODES.Q)
+final class LayerNode {
+    private final RenderNode renderNode;
+    private final Matrix matrix = new Matrix();
+
+    LayerNode(String name) {
+        renderNode = new RenderNode(name);
+        renderNode.setClipToBounds(false);
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull Layer layer) {
+        int width = (int) Math.ceil(layer.getWidth());
+        int height = (int) Math.ceil(layer.getHeight());
+
+        if (layer.contentDirty || !renderNode.hasDisplayList()
+                || renderNode.getWidth() != width || renderNode.getHeight() != height) {
+            renderNode.setPosition(0, 0, width, height);
+            RecordingCanvas recordingCanvas = renderNode.beginRecording(width, height);
+            try {
+                layer.drawContent(recordingCanvas);
+            } finally {
+                renderNode.endRecording();
+            }
+            layer.contentDirty = false;
+        }
+
+        matrix.set(layer.getLocalMatrix());
+        matrix.postTranslate(layer.getFrame().left, layer.getFrame().top);
+        renderNode.setAnimationMatrix(matrix);
+        renderNode.setAlpha(layer.getOpacity() / 100f);
+
+        canvas.drawRenderNode(renderNode);
+    }
+
+    void discard() {
+        renderNode.discardDisplayList();
+    }
+}
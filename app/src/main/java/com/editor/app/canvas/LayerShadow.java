@@ -0,0 +1,83 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.imaging.BitmapPixels;
+import com.editor.core.imaging.ShadowMask;
+
+// Shadow of one layer. The layer's coverage is captured into an alpha mask once
+// per content change and each blur radius is blurred once, so dragging the
+// color, opacity or direction controls only redraws the cached mask with a
+// different paint and offset.
+final class LayerShadow {
+    // Longest side of the captured mask, shadows are soft enough to be upscaled
+    private static final int MAX_MASK_SIZE = 1024;
+    private static final long CACHE_BYTES = 4L * 1024 * 1024;
+
+    private static final ShadowMask.Output<Bitmap> OUTPUT = new ShadowMask.Output<Bitmap>() {
+        @Override
+        public Bitmap wrap(byte[] alpha, int width, int height) {
+            return BitmapPixels.toAlphaBitmap(alpha, width, height);
+        }
+
+        @Override
+        public long sizeOf(Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private ShadowMask<Bitmap> mask;
+    // Mask pixels per design pixel
+    private float maskScale;
+
+    // The layer content changed, the next draw captures a new mask
+    void invalidate() {
+        mask = null;
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull Layer layer, @NonNull Shadow shadow) {
+        if (shadow.getOpacity() == 0) return;
+        if (mask == null) {
+            mask = capture(layer);
+            if (mask == null) return;
+        }
+
+        ShadowMask.Blurred<Bitmap> blurred = mask.get(Math.round(shadow.getBlur() * maskScale));
+        int color = shadow.getColor();
+        paint.setColor(Color.argb(Math.round(Color.alpha(color) * shadow.getOpacity() / 100f),
+                Color.red(color), Color.green(color), Color.blue(color)));
+
+        int save = canvas.save();
+        canvas.translate(shadow.getDx() - Shadow.MAX_BLUR, shadow.getDy() - Shadow.MAX_BLUR);
+        canvas.scale(blurred.scaleX / maskScale, blurred.scaleY / maskScale);
+        canvas.drawBitmap(blurred.mask, 0, 0, paint);
+        canvas.restoreToCount(save);
+    }
+
+    // Draws the layer into an ALPHA_8 bitmap padded by the largest blur radius
+    private ShadowMask<Bitmap> capture(@NonNull Layer layer) {
+        float paddedWidth = layer.getWidth() + Shadow.MAX_BLUR * 2;
+        float paddedHeight = layer.getHeight() + Shadow.MAX_BLUR * 2;
+        maskScale = Math.min(1f, MAX_MASK_SIZE / Math.max(paddedWidth, paddedHeight));
+        int width = (int) Math.ceil(paddedWidth * maskScale);
+        int height = (int) Math.ceil(paddedHeight * maskScale);
+        if (width < 1 || height < 1) return null;
+
+        Bitmap coverage = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(coverage);
+        canvas.scale(maskScale, maskScale);
+        canvas.translate(Shadow.MAX_BLUR, Shadow.MAX_BLUR);
+        layer.onDrawMask(canvas);
+
+        byte[] alpha = BitmapPixels.readAlpha(coverage);
+        coverage.recycle();
+        return new ShadowMask<>(width, height, alpha, OUTPUT, CACHE_BYTES);
+    }
+}
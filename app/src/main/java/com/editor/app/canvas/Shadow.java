@@ -0,0 +1,102 @@
+package com.editor.app.canvas;
+
+import android.graphics.Color;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+// Immutable drop shadow settings. Only blur needs a new blurred mask, color,
+// opacity and direction are applied when the cached mask is drawn.
+public final class Shadow {
+    // Largest blur radius in design pixels, also the padding around the mask
+    public static final int MAX_BLUR = 50;
+    // Distance of the shadow from the layer, in design pixels
+    private static final float DISTANCE = 12f;
+
+    public static final Shadow DEFAULT = new Shadow(Color.BLACK, 50, 10, 0, DISTANCE);
+
+    private final int color;
+    private final int opacity;
+    private final int blur;
+    private final float dx;
+    private final float dy;
+
+    private Shadow(int color, int opacity, int blur, float dx, float dy) {
+        this.color = color;
+        this.opacity = Math.max(0, Math.min(100, opacity));
+        this.blur = Math.max(0, Math.min(MAX_BLUR, blur));
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    // Any offset, for restoring saved settings
+    public static Shadow of(int color, int opacity, int blur, float dx, float dy) {
+        return new Shadow(color, opacity, blur, dx, dy);
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public int getOpacity() {
+        return opacity;
+    }
+
+    public int getBlur() {
+        return blur;
+    }
+
+    public float getDx() {
+        return dx;
+    }
+
+    public float getDy() {
+        return dy;
+    }
+
+    public Shadow withColor(int color) {
+        return new Shadow(color, opacity, blur, dx, dy);
+    }
+
+    public Shadow withOpacity(int opacity) {
+        return new Shadow(color, opacity, blur, dx, dy);
+    }
+
+    public Shadow withBlur(int blur) {
+        return new Shadow(color, opacity, blur, dx, dy);
+    }
+
+    // LEFT, UP, DOWN or RIGHT
+    public Shadow withDirection(@NonNull String direction) {
+        switch (direction) {
+            case "LEFT":
+                return new Shadow(color, opacity, blur, -DISTANCE, 0);
+            case "UP":
+                return new Shadow(color, opacity, blur, 0, -DISTANCE);
+            case "RIGHT":
+                return new Shadow(color, opacity, blur, DISTANCE, 0);
+            default:
+                return new Shadow(color, opacity, blur, 0, DISTANCE);
+        }
+    }
+
+    // How far the shadow reaches past the layer frame
+    float getOutset() {
+        return blur + Math.max(Math.abs(dx), Math.abs(dy));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Shadow)) return false;
+        Shadow other = (Shadow) o;
+        return color == other.color && opacity == other.opacity && blur == other.blur
+                && dx == other.dx && dy == other.dy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(color, opacity, blur, dx, dy);
+    }
+}
@@ -0,0 +1,50 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+
+// Rasterized crop shapes shared by every layer, keyed by (shape, size). Sizes are
+// rounded up to a step so resizing a layer reuses the mask until it grows past
+// the next step, the mask is drawn scaled to the exact size. Main thread only.
+final class ShapeMasks {
+    private static final int SIZE_STEP = 32;
+    private static final long CACHE_BYTES = 8L * 1024 * 1024;
+
+    private static final LruCache<String, Bitmap> MASKS =
+            Metrics.cache("crop.shapes", new LruCache<>(CACHE_BYTES, Bitmap::getAllocationByteCount));
+    private static final Paint PAINT = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private static final RectF BOUNDS = new RectF();
+
+    private ShapeMasks() {
+    }
+
+    // ALPHA_8 coverage of the shape at about width x height
+    @NonNull
+    static Bitmap get(@NonNull CropShape shape, float width, float height) {
+        int maskWidth = roundUp(width);
+        int maskHeight = roundUp(height);
+        String key = shape.getId() + ':' + maskWidth + 'x' + maskHeight;
+        Bitmap mask = MASKS.get(key);
+        if (mask == null) {
+            mask = Bitmap.createBitmap(maskWidth, maskHeight, Bitmap.Config.ALPHA_8);
+            BOUNDS.set(0, 0, maskWidth, maskHeight);
+            Path path = shape.getPath(BOUNDS);
+            new Canvas(mask).drawPath(path, PAINT);
+            MASKS.put(key, mask);
+        }
+        return mask;
+    }
+
+    private static int roundUp(float size) {
+        int value = Math.max(1, (int) Math.ceil(size));
+        return (value + SIZE_STEP - 1) / SIZE_STEP * SIZE_STEP;
+    }
+}
@@ -0,0 +1,60 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.imaging.BitmapPixels;
+import com.editor.core.imaging.BlendKernel;
+import com.editor.core.imaging.GradientLut;
+import com.editor.core.imaging.PixelBuffer;
+
+// Blend fallback below API 29, which has no blend mode color filters. The pixels
+// of the last blended bitmap are kept, so a new blend color or mode is a single
+// kernel pass over them and one upload. Main thread only.
+final class SoftwareBlend {
+    private Bitmap input;
+    private PixelBuffer pixels;
+    private PixelBuffer output;
+    private Bitmap result;
+    private Blend applied;
+
+    // The returned bitmap is reused by the next call
+    @NonNull
+    Bitmap apply(@NonNull Bitmap bitmap, @NonNull Blend blend) {
+        if (bitmap != input) {
+            pixels = BitmapPixels.read(bitmap, bitmap.getWidth(), bitmap.getHeight());
+            output = new PixelBuffer(pixels.width, pixels.height);
+            result = Bitmap.createBitmap(pixels.width, pixels.height, Bitmap.Config.ARGB_8888);
+            input = bitmap;
+            applied = null;
+        }
+        if (!blend.equals(applied)) {
+            BlendKernel.apply(pixels, output, blend.getColor(), blend.getMode());
+            result.setPixels(output.pixels, 0, output.width, 0, 0, output.width, output.height);
+            applied = blend;
+        }
+        return result;
+    }
+
+    // Gradients are blended over their baked table rather than their stops, so
+    // the non-separable modes are right between the stops too. The result is
+    // used as the stops of the blended shader.
+    @NonNull
+    static int[] apply(@NonNull GradientLut lut, @NonNull Blend blend) {
+        int[] table = lut.table();
+        int[] blended = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            blended[i] = BlendKernel.blend(table[i], blend.getColor(), blend.getMode());
+        }
+        return blended;
+    }
+
+    void release() {
+        input = null;
+        pixels = null;
+        output = null;
+        result = null;
+        applied = null;
+    }
+}
@@ -0,0 +1,437 @@
+package com.editor.app.canvas;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Shader;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+
+import com.editor.app.sheets.EditTextOptionsSheet.TextAlignment;
+import com.editor.app.sheets.EditTextOptionsSheet.TextCase;
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.text.ArcLayout;
+import com.editor.core.text.ParagraphLayout;
+import com.editor.core.text.ShapedText;
+
+import java.text.Bidi;
+import java.util.Locale;
+
+public class TextLayer extends Layer {
+    private final TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private String text;
+    private Fill fill = Fill.color(Color.BLACK);
+    private Typeface typeface = Typeface.DEFAULT;
+    private boolean bold;
+    private boolean italic;
+    private TextAlignment alignment = TextAlignment.CENTER;
+    private TextCase textCase = TextCase.NORMAL;
+    private float lineSpacing = 1f;
+    private int paragraphWidth;
+
+    // Measured once per text or font change, spacing, width and alignment changes
+    // reuse the measurements. Right-to-left text goes through StaticLayout, which
+    // handles bidi ordering.
+    private final ParagraphLayout paragraph = new ParagraphLayout();
+    private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+    private String displayText;
+    private boolean bidi;
+    private StaticLayout bidiLayout;
+
+    // Curved text is shaped once per relayout, curve changes only move the clusters
+    private int curve;
+    private ShapedText shape;
+    private float[] placements = new float[0];
+    private final float[] curveBounds = new float[4];
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final GradientShader gradientShader = new GradientShader();
+    private BitmapShader patternShader;
+    private Bitmap patternBitmap;
+
+    public TextLayer(@NonNull String text, float textSize, int paragraphWidth) {
+        this.text = text;
+        this.paragraphWidth = paragraphWidth;
+        paint.setTextSize(textSize);
+        paint.setColor(Color.BLACK);
+        fillPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_IN));
+        paragraph.setWidth(paragraphWidth);
+        paragraph.setAlignment(toParagraphAlignment(alignment));
+        remeasure();
+    }
+
+    // ============================================================================
+    // PROPERTIES
+    // ============================================================================
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(@NonNull String text) {
+        this.text = text;
+        remeasure();
+    }
+
+    public void setTextSize(float size) {
+        paint.setTextSize(size);
+        remeasure();
+    }
+
+    public float getTextSize() {
+        return paint.getTextSize();
+    }
+
+    public Fill getFill() {
+        return fill;
+    }
+
+    public void setFill(@NonNull Fill fill) {
+        this.fill = fill;
+        paint.setColor(fill.getType() == Fill.Type.COLOR ? fill.getColor() : Color.BLACK);
+        updateShader();
+        invalidateContent();
+    }
+
+    public void setColor(int color) {
+        setFill(Fill.color(color));
+    }
+
+    public void setGradient(@NonNull GradientItem gradient) {
+        setFill(Fill.gradient(gradient));
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+
+    public boolean isItalic() {
+        return italic;
+    }
+
+    public boolean isUnderline() {
+        return paint.isUnderlineText();
+    }
+
+    public TextAlignment getAlignment() {
+        return alignment;
+    }
+
+    public TextCase getTextCase() {
+        return textCase;
+    }
+
+    public float getLetterSpacing() {
+        return paint.getLetterSpacing();
+    }
+
+    public float getLineSpacing() {
+        return lineSpacing;
+    }
+
+    public int getParagraphWidth() {
+        return paragraphWidth;
+    }
+
+    // Without the bold and italic styles
+    public Typeface getTypeface() {
+        return typeface;
+    }
+
+    public void setTypeface(@NonNull Typeface typeface) {
+        this.typeface = typeface;
+        updateTypeface();
+        remeasure();
+    }
+
+    public void setBold(boolean bold) {
+        this.bold = bold;
+        updateTypeface();
+        remeasure();
+    }
+
+    public void setItalic(boolean italic) {
+        this.italic = italic;
+        updateTypeface();
+        remeasure();
+    }
+
+    public void setUnderline(boolean underline) {
+        paint.setUnderlineText(underline);
+        invalidateContent();
+    }
+
+    public void setAlignment(@NonNull TextAlignment alignment) {
+        this.alignment = alignment;
+        paragraph.setAlignment(toParagraphAlignment(alignment));
+        reflow();
+    }
+
+    public void setTextCase(@NonNull TextCase textCase) {
+        this.textCase = textCase;
+        remeasure();
+    }
+
+    public void setLetterSpacing(float letterSpacing) {
+        paint.setLetterSpacing(letterSpacing);
+        paragraph.setLetterSpacing(letterSpacing);
+        reflow();
+    }
+
+    public void setLineSpacing(float lineSpacing) {
+        this.lineSpacing = lineSpacing;
+        paragraph.setLineSpacing(lineSpacing);
+        reflow();
+    }
+
+    public void setParagraphWidth(int paragraphWidth) {
+        this.paragraphWidth = paragraphWidth;
+        paragraph.setWidth(paragraphWidth);
+        reflow();
+    }
+
+    public int getCurve() {
+        return curve;
+    }
+
+    // -100 to 100, see ArcLayout
+    public void setCurve(int curve) {
+        curve = Math.max(-ArcLayout.MAX_CURVE, Math.min(ArcLayout.MAX_CURVE, curve));
+        if (this.curve == curve) return;
+        this.curve = curve;
+        updateContentSize();
+        updateShader();
+    }
+
+    private void updateTypeface() {
+        int style = (bold ? Typeface.BOLD : 0) | (italic ? Typeface.ITALIC : 0);
+        paint.setTypeface(Typeface.create(typeface, style));
+    }
+
+    // ============================================================================
+    // LAYOUT
+    // ============================================================================
+
+    // Text, case or font changed: words have to be measured (mostly cache hits)
+    private void remeasure() {
+        displayText = applyCase(text, textCase);
+        bidi = Bidi.requiresBidi(displayText.toCharArray(), 0, displayText.length());
+        paint.getFontMetrics(fontMetrics);
+        paragraph.setText(displayText, TextShaper.words(paint), paint.getTextSize(),
+                fontMetrics.ascent, fontMetrics.descent);
+        reflow();
+    }
+
+    // Everything else only re-runs the stages of the paragraph layout it affects
+    private void reflow() {
+        bidiLayout = bidi ? buildBidiLayout() : null;
+        shape = null;
+        updateContentSize();
+        updateShader();
+    }
+
+    private StaticLayout buildBidiLayout() {
+        StaticLayout.Builder builder = StaticLayout.Builder
+                .obtain(displayText, 0, displayText.length(), paint, paragraphWidth)
+                .setAlignment(toLayoutAlignment(alignment))
+                .setLineSpacing(0f, lineSpacing)
+                .setIncludePad(false);
+        if (alignment == TextAlignment.JUSTIFY && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            builder.setJustificationMode(Layout.JUSTIFICATION_MODE_INTER_WORD);
+        }
+        return builder.build();
+    }
+
+    private void updateContentSize() {
+        if (curve == 0) {
+            float height = bidiLayout != null ? bidiLayout.getHeight() : paragraph.getHeight();
+            setContentSize(paragraphWidth, (float) Math.ceil(height));
+            return;
+        }
+        if (shape == null) {
+            shape = TextShaper.shape(paragraph, paint);
+            int size = shape.getClusterCount() * ArcLayout.STRIDE;
+            if (placements.length < size) placements = new float[size];
+        }
+        ArcLayout.layout(shape, curve, placements, curveBounds);
+        setContentSize(curveBounds[2] - curveBounds[0], curveBounds[3] - curveBounds[1]);
+    }
+
+    // Runs on every relayout, shaders are only rebuilt when the fill itself changes
+    private void updateShader() {
+        switch (fill.getType()) {
+            case GRADIENT:
+                paint.setShader(gradientShader.update(fill, getWidth(), getHeight()));
+                break;
+            case BITMAP:
+                // Patterns tile across the glyphs
+                if (patternShader == null || fill.getBitmap() != patternBitmap) {
+                    patternBitmap = fill.getBitmap();
+                    patternShader = new BitmapShader(patternBitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+                }
+                paint.setShader(patternShader);
+                break;
+            default:
+                paint.setShader(null);
+                break;
+        }
+        if (fill.getType() != Fill.Type.GRADIENT) gradientShader.release();
+        if (fill.getType() != Fill.Type.BITMAP) {
+            patternShader = null;
+            patternBitmap = null;
+        }
+    }
+
+    private static ParagraphLayout.Alignment toParagraphAlignment(TextAlignment alignment) {
+        switch (alignment) {
+            case LEFT:
+                return ParagraphLayout.Alignment.LEFT;
+            case RIGHT:
+                return ParagraphLayout.Alignment.RIGHT;
+            case JUSTIFY:
+                return ParagraphLayout.Alignment.JUSTIFY;
+            default:
+                return ParagraphLayout.Alignment.CENTER;
+        }
+    }
+
+    private static Layout.Alignment toLayoutAlignment(TextAlignment alignment) {
+        switch (alignment) {
+            case LEFT:
+            case JUSTIFY:
+                return Layout.Alignment.ALIGN_NORMAL;
+            case RIGHT:
+                return Layout.Alignment.ALIGN_OPPOSITE;
+            default:
+                return Layout.Alignment.ALIGN_CENTER;
+        }
+    }
+
+    static String applyCase(String text, TextCase textCase) {
+        switch (textCase) {
+            case UPPERCASE:
+                return text.toUpperCase(Locale.getDefault());
+            case LOWERCASE:
+                return text.toLowerCase(Locale.getDefault());
+            case CAPITALIZE:
+                StringBuilder builder = new StringBuilder(text.length());
+                boolean startOfWord = true;
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    builder.append(startOfWord ? Character.toTitleCase(c) : c);
+                    startOfWord = Character.isWhitespace(c);
+                }
+                return builder.toString();
+            default:
+                return text;
+        }
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        if (curve == 0) {
+            if (bidiLayout != null) {
+                bidiLayout.draw(canvas);
+            } else {
+                drawParagraph(canvas);
+            }
+            return;
+        }
+
+        // Glyphs are rotated one by one, a shader would rotate with them. Draw plain
+        // glyphs and fill them with the shader in layer space instead.
+        Shader shader = paint.getShader();
+        int save = shader != null ? canvas.saveLayer(0, 0, getWidth(), getHeight(), null) : -1;
+        paint.setShader(null);
+        drawCurved(canvas);
+        if (shader != null) {
+            paint.setShader(shader);
+            fillPaint.setShader(shader);
+            canvas.drawRect(0, 0, getWidth(), getHeight(), fillPaint);
+            canvas.restoreToCount(save);
+        }
+    }
+
+    // Glyph coverage is all the shadow needs, the fill shader is left out
+    @Override
+    protected void onDrawMask(@NonNull Canvas canvas) {
+        Shader shader = paint.getShader();
+        paint.setShader(null);
+        if (curve != 0) {
+            drawCurved(canvas);
+        } else if (bidiLayout != null) {
+            bidiLayout.draw(canvas);
+        } else {
+            drawParagraph(canvas);
+        }
+        paint.setShader(shader);
+    }
+
+    // One run per line, so the underline spans the spaces. Justified lines stretch
+    // their gaps: the words are drawn one by one and the underline under the line.
+    private void drawParagraph(Canvas canvas) {
+        boolean justify = alignment == TextAlignment.JUSTIFY;
+        boolean underline = justify && paint.isUnderlineText();
+        if (underline) paint.setUnderlineText(false);
+        for (int line = 0; line < paragraph.getLineCount(); line++) {
+            float baseline = paragraph.getLineBaseline(line);
+            if (!justify) {
+                int start = paragraph.getLineStart(line);
+                int end = paragraph.getLineVisibleEnd(line);
+                if (start < end) canvas.drawText(displayText, start, end, paragraph.getLineLeft(line), baseline, paint);
+                continue;
+            }
+
+            float right = paragraph.getLineLeft(line);
+            for (int word = paragraph.getLineFirstWord(line); word < paragraph.getLineEndWord(line); word++) {
+                int start = paragraph.getWordStart(word);
+                int end = paragraph.getWordEnd(word);
+                if (start == end) continue;
+                float x = paragraph.getWordX(word);
+                canvas.drawText(displayText, start, end, x, baseline, paint);
+                if (underline) right = x + paint.measureText(displayText, start, end);
+            }
+            if (underline) drawUnderline(canvas, paragraph.getLineLeft(line), right, baseline);
+        }
+        if (underline) paint.setUnderlineText(true);
+    }
+
+    // Where the platform would put it, the Skia defaults before Q
+    private void drawUnderline(Canvas canvas, float left, float right, float baseline) {
+        if (right <= left) return;
+        float position;
+        float thickness;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            position = paint.getUnderlinePosition();
+            thickness = paint.getUnderlineThickness();
+        } else {
+            position = paint.getTextSize() / 9f;
+            thickness = paint.getTextSize() / 18f;
+        }
+        canvas.drawRect(left, baseline + position, right, baseline + position + thickness, paint);
+    }
+
+    private void drawCurved(Canvas canvas) {
+        float left = curveBounds[0];
+        float top = curveBounds[1];
+        for (int i = 0; i < shape.getClusterCount(); i++) {
+            int o = i * ArcLayout.STRIDE;
+            canvas.save();
+            canvas.translate(placements[o] - left, placements[o + 1] - top);
+            canvas.rotate(placements[o + 2]);
+            canvas.drawText(displayText, shape.clusterStarts[i], shape.clusterEnds[i],
+                    -shape.advances[i] * 0.5f, 0, paint);
+            canvas.restore();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.editor.app.canvas;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+import com.editor.core.text.ParagraphLayout;
+import com.editor.core.text.ShapedText;
+
+import java.text.BreakIterator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+// Measures text for the layouts. Words (for ParagraphLayout, without letter
+// spacing) and grapheme clusters (for curved text) are cached per font: typeface
+// with its style, size and letter spacing. Switching back to a font, changing the
+// case or editing a few words measures only what hasn't been seen before.
+// Main thread only.
+final class TextShaper {
+    private static final int MAX_FONTS = 8;
+
+    private static final LruCache<FontKey, HashMap<String, Float>> advances =
+            Metrics.cache("text.advances", new LruCache<>(MAX_FONTS, value -> 1));
+
+    private TextShaper() {
+    }
+
+    @NonNull
+    static ParagraphLayout.Measurer words(@NonNull TextPaint paint) {
+        HashMap<String, Float> cache = advancesFor(paint.getTypeface(), paint.getTextSize(), 0);
+        return (text, start, end) -> {
+            String word = text.substring(start, end);
+            Float advance = cache.get(word);
+            if (advance == null) {
+                float letterSpacing = paint.getLetterSpacing();
+                paint.setLetterSpacing(0);
+                advance = paint.measureText(word);
+                paint.setLetterSpacing(letterSpacing);
+                cache.put(word, advance);
+            }
+            return advance;
+        };
+    }
+
+    @NonNull
+    static ShapedText shape(@NonNull ParagraphLayout layout, @NonNull TextPaint paint) {
+        String text = layout.getText();
+        HashMap<String, Float> cache = advancesFor(paint.getTypeface(), paint.getTextSize(), paint.getLetterSpacing());
+        BreakIterator clusters = BreakIterator.getCharacterInstance();
+        clusters.setText(text);
+
+        int lineCount = layout.getLineCount();
+        int[] lineStarts = new int[lineCount + 1];
+        float[] lineLefts = new float[lineCount];
+        float[] baselines = new float[lineCount];
+        int[] starts = new int[text.length()];
+        int[] ends = new int[text.length()];
+        float[] widths = new float[text.length()];
+        int count = 0;
+
+        for (int line = 0; line < lineCount; line++) {
+            lineStarts[line] = count;
+            lineLefts[line] = layout.getLineLeft(line);
+            baselines[line] = layout.getLineBaseline(line);
+
+            int end = layout.getLineVisibleEnd(line);
+            int start = layout.getLineStart(line);
+            while (start < end) {
+                int next = Math.min(end, clusters.following(start));
+                String cluster = text.substring(start, next);
+                Float advance = cache.get(cluster);
+                if (advance == null) {
+                    advance = paint.measureText(cluster);
+                    cache.put(cluster, advance);
+                }
+                starts[count] = start;
+                ends[count] = next;
+                widths[count] = advance;
+                count++;
+                start = next;
+            }
+        }
+        lineStarts[lineCount] = count;
+
+        Paint.FontMetrics metrics = paint.getFontMetrics();
+        return new ShapedText(trim(starts, count), trim(ends, count), trim(widths, count), lineStarts,
+                lineLefts, baselines, metrics.ascent, metrics.descent, layout.getWidth());
+    }
+
+    private static HashMap<String, Float> advancesFor(Typeface typeface, float size, float letterSpacing) {
+        FontKey key = new FontKey(typeface, size, letterSpacing);
+        HashMap<String, Float> cache = advances.get(key);
+        if (cache == null) {
+            cache = new HashMap<>();
+            advances.put(key, cache);
+        }
+        return cache;
+    }
+
+    private static int[] trim(int[] values, int count) {
+        return values.length == count ? values : Arrays.copyOf(values, count);
+    }
+
+    private static float[] trim(float[] values, int count) {
+        return values.length == count ? values : Arrays.copyOf(values, count);
+    }
+
+    private static final class FontKey {
+        final Typeface typeface;
+        final float size;
+        final float letterSpacing;
+
+        FontKey(Typeface typeface, float size, float letterSpacing) {
+            this.typeface = typeface;
+            this.size = size;
+            this.letterSpacing = letterSpacing;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FontKey)) return false;
+            FontKey other = (FontKey) o;
+            return typeface == other.typeface && size == other.size && letterSpacing == other.letterSpacing;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(typeface), size, letterSpacing);
+        }
+    }
+}
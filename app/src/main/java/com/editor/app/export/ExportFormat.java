@@ -0,0 +1,33 @@
+package com.editor.app.export;
+
+import androidx.annotation.NonNull;
+
+// Output formats. PNG and JPEG are encoded band by band; WebP has no streaming
+// encoder on Android and is compressed from one full frame, which caps its size.
+public enum ExportFormat {
+    PNG("png", "image/png"),
+    JPEG("jpg", "image/jpeg"),
+    WEBP("webp", "image/webp");
+
+    private final String extension;
+    private final String mimeType;
+
+    ExportFormat(String extension, String mimeType) {
+        this.extension = extension;
+        this.mimeType = mimeType;
+    }
+
+    @NonNull
+    public String getExtension() {
+        return extension;
+    }
+
+    @NonNull
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public boolean isStreaming() {
+        return this != WEBP;
+    }
+}
@@ -0,0 +1,65 @@
+package com.editor.app.export;
+
+import android.graphics.Typeface;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.ScaleLayout;
+
+// Property overrides for one image of a batch export, null keeps the design's value.
+// The name goes into the file name.
+public final class ExportVariant {
+    private final String name;
+    private final GradientItem gradient;
+    private final Typeface typeface;
+    private final ScaleLayout.Type scaleType;
+
+    private ExportVariant(String name, GradientItem gradient, Typeface typeface, ScaleLayout.Type scaleType) {
+        this.name = name;
+        this.gradient = gradient;
+        this.typeface = typeface;
+        this.scaleType = scaleType;
+    }
+
+    // The design as it is
+    public static ExportVariant of(@NonNull String name) {
+        return new ExportVariant(name, null, null, null);
+    }
+
+    // Background gradient, replaces whatever fill the background has
+    public ExportVariant withGradient(@Nullable GradientItem gradient) {
+        return new ExportVariant(name, gradient, typeface, scaleType);
+    }
+
+    // Typeface of every text layer
+    public ExportVariant withTypeface(@Nullable Typeface typeface) {
+        return new ExportVariant(name, gradient, typeface, scaleType);
+    }
+
+    // Scale type of the background image
+    public ExportVariant withScaleType(@Nullable ScaleLayout.Type scaleType) {
+        return new ExportVariant(name, gradient, typeface, scaleType);
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public GradientItem getGradient() {
+        return gradient;
+    }
+
+    @Nullable
+    public Typeface getTypeface() {
+        return typeface;
+    }
+
+    @Nullable
+    public ScaleLayout.Type getScaleType() {
+        return scaleType;
+    }
+}
@@ -0,0 +1,422 @@
+package com.editor.app.export;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Picture;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.editor.app.canvas.BackgroundLayer;
+import com.editor.app.canvas.EditorCanvasView;
+import com.editor.app.canvas.Fill;
+import com.editor.app.canvas.Layer;
+import com.editor.app.canvas.TextLayer;
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.export.BandEncoder;
+import com.editor.core.export.JpegBandEncoder;
+import com.editor.core.export.PngBandEncoder;
+import com.editor.core.imaging.ScaleLayout;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+// Renders the composition at export size in horizontal bands. The layers are
+// recorded into a Picture on the main thread, then the worker plays it back into
+// one band bitmap at a time and hands the rows to a streaming encoder, so memory
+// is bounded by the band, not the image: a 6000x6000 PNG needs about 8 MB.
+// A tiled photo background stays out of the Picture, its tiles are decoded per
+// band at the export scale instead of replaying the screen's. Batches render one
+// variant per pool thread; a variant is created and recorded only once a thread
+// is free for it, so a batch of hundreds holds as many Pictures as there are threads.
+public final class Exporter {
+    // Pixels of one band, as a bitmap and again as the int[] the encoder reads
+    private static final int BAND_BYTES = 4 * 1024 * 1024;
+    // JPEG works in 16 row MCUs, bands are kept a multiple of that
+    private static final int BAND_ALIGN = 16;
+    private static final int JPEG_QUALITY = 95;
+    private static final int WEBP_QUALITY = 95;
+    private static final int PNG_LEVEL = 6;
+    private static final int OUTPUT_BUFFER = 64 * 1024;
+    // Held by each export thread: the band twice and the encoder
+    private static final long WORKER_BYTES = 2L * BAND_BYTES + 1024 * 1024;
+    // A WebP frame is the whole image, only one is rendered at a time
+    private static final Object FRAME_LOCK = new Object();
+
+    public interface Listener {
+        // 0 to 1, on the callback executor like the other callbacks
+        void onProgress(float progress);
+
+        void onExported(@NonNull File file);
+
+        void onFailed(@NonNull Exception e);
+    }
+
+    // Per item of a batch, index is the position in the variant list
+    public interface BatchListener {
+        void onItemProgress(int index, float progress);
+
+        void onItemExported(int index, @NonNull File file);
+
+        void onItemFailed(int index, @NonNull Exception e);
+
+        // After the last item has exported or failed
+        void onBatchFinished();
+    }
+
+    // The variants of a batch, created one at a time as the pool frees up. Main thread.
+    public interface VariantSource {
+        int size();
+
+        // Goes into the file name, known before the variant is created
+        @NonNull
+        String getName(int index);
+
+        // May load what the variant needs (e.g. a typeface) before calling back on the main thread
+        void create(int index, @NonNull VariantCallback callback);
+
+        static VariantSource of(@NonNull List<ExportVariant> variants) {
+            return new VariantSource() {
+                @Override
+                public int size() {
+                    return variants.size();
+                }
+
+                @NonNull
+                @Override
+                public String getName(int index) {
+                    return variants.get(index).getName();
+                }
+
+                @Override
+                public void create(int index, @NonNull VariantCallback callback) {
+                    callback.onVariant(variants.get(index));
+                }
+            };
+        }
+    }
+
+    public interface VariantCallback {
+        // null when the variant can't be created, the item fails
+        void onVariant(@Nullable ExportVariant variant);
+    }
+
+    // A running export. Cancelling stops it at the next band, deletes the partial
+    // file and nothing more is delivered.
+    public static final class Job {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // The layers as recorded, the background drawn separately when it is detached
+    private static final class Recording {
+        final Picture picture;
+        @Nullable
+        final BackgroundLayer.DetachedDraw background;
+
+        Recording(Picture picture, @Nullable BackgroundLayer.DetachedDraw background) {
+            this.picture = picture;
+            this.background = background;
+        }
+    }
+
+    private final Executor worker;
+    private final Executor callbackExecutor;
+
+    public Exporter(@NonNull Executor worker, @NonNull Executor callbackExecutor) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    // Threads for the export pool: one per core, fewer when the heap can't hold a
+    // band for each of them
+    public static int poolSize() {
+        long threads = Runtime.getRuntime().maxMemory() / 4 / WORKER_BYTES;
+        return (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), threads));
+    }
+
+    // Main thread. longestSide is the size of the longer image edge in pixels.
+    @NonNull
+    public Job export(@NonNull EditorCanvasView canvasView, @NonNull ExportFormat format, int longestSide,
+                      @NonNull File file, @NonNull Listener listener) {
+        Job job = new Job();
+        submit(canvasView, record(canvasView, null), format, longestSide, file, job, listener);
+        return job;
+    }
+
+    // Main thread. Variant i is written to files[i]; one job cancels the whole batch.
+    // The design must not change until the batch has finished.
+    @NonNull
+    public Job exportBatch(@NonNull EditorCanvasView canvasView, @NonNull VariantSource variants,
+                           @NonNull ExportFormat format, int longestSide, @NonNull List<File> files,
+                           @NonNull BatchListener listener) {
+        Job job = new Job();
+        Batch batch = new Batch(canvasView, variants, format, longestSide, files, job, listener);
+        for (int i = Math.min(poolSize(), variants.size()); i > 0; i--) {
+            batch.next();
+        }
+        return job;
+    }
+
+    private void submit(EditorCanvasView canvasView, Recording recording, ExportFormat format, int longestSide,
+                        File file, Job job, Listener listener) {
+        int designWidth = canvasView.getDesignWidth();
+        int designHeight = canvasView.getDesignHeight();
+        float scale = (float) longestSide / Math.max(designWidth, designHeight);
+        int width = Math.max(1, Math.round(designWidth * scale));
+        int height = Math.max(1, Math.round(designHeight * scale));
+
+        worker.execute(() -> {
+            File partial = new File(file.getPath() + ".part");
+            try {
+                render(recording, scale, width, height, format, partial, job, listener);
+                if (!partial.renameTo(file)) throw new IOException("Can't write " + file);
+                deliver(job, () -> listener.onExported(file));
+            } catch (CancellationException e) {
+                partial.delete();
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                partial.delete();
+                Exception error = e instanceof Exception ? (Exception) e : new IOException("Out of memory", e);
+                deliver(job, () -> listener.onFailed(error));
+            }
+        });
+    }
+
+    // Starts the next variant whenever one finishes. Main thread only.
+    private final class Batch {
+        private final EditorCanvasView canvasView;
+        private final VariantSource variants;
+        private final ExportFormat format;
+        private final int longestSide;
+        private final List<File> files;
+        private final Job job;
+        private final BatchListener listener;
+        private int next;
+        private int remaining;
+
+        Batch(EditorCanvasView canvasView, VariantSource variants, ExportFormat format, int longestSide,
+              List<File> files, Job job, BatchListener listener) {
+            this.canvasView = canvasView;
+            this.variants = variants;
+            this.format = format;
+            this.longestSide = longestSide;
+            this.files = files;
+            this.job = job;
+            this.listener = listener;
+            this.remaining = variants.size();
+        }
+
+        void next() {
+            if (job.isCancelled() || next == variants.size()) return;
+            int index = next++;
+            variants.create(index, variant -> {
+                if (job.isCancelled()) return;
+                if (variant == null) {
+                    finished(() -> listener.onItemFailed(index,
+                            new IOException("Can't create " + variants.getName(index))));
+                    return;
+                }
+                submit(canvasView, record(canvasView, variant), format, longestSide, files.get(index), job,
+                        new Listener() {
+                            @Override
+                            public void onProgress(float progress) {
+                                listener.onItemProgress(index, progress);
+                            }
+
+                            @Override
+                            public void onExported(@NonNull File file) {
+                                finished(() -> listener.onItemExported(index, file));
+                            }
+
+                            @Override
+                            public void onFailed(@NonNull Exception e) {
+                                finished(() -> listener.onItemFailed(index, e));
+                            }
+                        });
+            });
+        }
+
+        private void finished(Runnable report) {
+            report.run();
+            if (--remaining == 0) {
+                listener.onBatchFinished();
+            } else {
+                next();
+            }
+        }
+    }
+
+    // ============================================================================
+    // RECORDING
+    // ============================================================================
+
+    // The composition with the variant's overrides, or as it is without a variant
+    private static Recording record(EditorCanvasView canvasView, @Nullable ExportVariant variant) {
+        Picture picture = new Picture();
+        Canvas canvas = picture.beginRecording(canvasView.getDesignWidth(), canvasView.getDesignHeight());
+        List<Layer> layers = new ArrayList<>(canvasView.getLayers());
+        List<Runnable> restores = new ArrayList<>();
+        BackgroundLayer.DetachedDraw background = null;
+        try {
+            if (variant != null) {
+                for (int i = 0; i < layers.size(); i++) {
+                    layers.set(i, apply(layers.get(i), variant, restores));
+                }
+            }
+            // Only the bottom layer can be drawn ahead of the Picture
+            if (!layers.isEmpty() && layers.get(0) instanceof BackgroundLayer
+                    && layers.get(0).isVisible() && layers.get(0).getOpacity() > 0) {
+                background = ((BackgroundLayer) layers.get(0)).detachTiles();
+                if (background != null) layers.remove(0);
+            }
+            EditorCanvasView.drawComposition(canvas, layers);
+        } finally {
+            for (int i = restores.size() - 1; i >= 0; i--) {
+                restores.get(i).run();
+            }
+        }
+        picture.endRecording();
+        return new Recording(picture, background);
+    }
+
+    // Typeface and scale type are set on the layer and put back once recorded, the
+    // layer keeps its caches for both. A new fill would drop the background's blurred
+    // and resampled bitmaps, so a gradient is drawn by a stand-in layer instead.
+    private static Layer apply(Layer layer, ExportVariant variant, List<Runnable> restores) {
+        if (layer instanceof BackgroundLayer) {
+            BackgroundLayer background = (BackgroundLayer) layer;
+            if (variant.getGradient() != null) {
+                return gradientBackground(background, variant.getGradient());
+            }
+            ScaleLayout.Type scaleType = background.getScaleType();
+            if (variant.getScaleType() != null && variant.getScaleType() != scaleType) {
+                background.setScaleType(variant.getScaleType());
+                restores.add(() -> background.setScaleType(scaleType));
+            }
+        } else if (layer instanceof TextLayer && variant.getTypeface() != null) {
+            TextLayer text = (TextLayer) layer;
+            Typeface typeface = text.getTypeface();
+            if (variant.getTypeface() != typeface) {
+                text.setTypeface(variant.getTypeface());
+                restores.add(() -> text.setTypeface(typeface));
+            }
+        }
+        return layer;
+    }
+
+    // Keeps the gradient type and angle when the background already is a gradient
+    private static BackgroundLayer gradientBackground(BackgroundLayer background, GradientItem gradient) {
+        Fill fill = background.getFill();
+        BackgroundLayer layer = new BackgroundLayer(Math.round(background.getWidth()), Math.round(background.getHeight()));
+        layer.setFill(fill.getType() == Fill.Type.GRADIENT
+                ? Fill.gradient(gradient, fill.getGradientType(), fill.getGradientAngle())
+                : Fill.gradient(gradient));
+        layer.setBlend(background.getBlend());
+        layer.setOpacity(background.getOpacity());
+        layer.setVisible(background.isVisible());
+        return layer;
+    }
+
+    // ============================================================================
+    // RENDERING
+    // ============================================================================
+
+    private void render(Recording recording, float scale, int width, int height, ExportFormat format, File file,
+                        Job job, Listener listener) throws IOException {
+        if (!format.isStreaming()) {
+            renderFrame(recording, scale, width, height, file, job);
+            return;
+        }
+
+        int bandHeight = Math.max(BAND_ALIGN, BAND_BYTES / (width * 4) / BAND_ALIGN * BAND_ALIGN);
+        bandHeight = Math.min(bandHeight, height);
+        Bitmap band = Bitmap.createBitmap(width, bandHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(band);
+        int[] pixels = new int[width * bandHeight];
+        // JPEG has no alpha, transparent areas come out white instead of black
+        int background = format == ExportFormat.JPEG ? Color.WHITE : Color.TRANSPARENT;
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), OUTPUT_BUFFER);
+             BandEncoder encoder = format == ExportFormat.JPEG
+                     ? new JpegBandEncoder(out, width, height, JPEG_QUALITY)
+                     : new PngBandEncoder(out, width, height, true, PNG_LEVEL)) {
+            for (int top = 0; top < height; top += bandHeight) {
+                if (job.isCancelled()) throw new CancellationException();
+                int rows = Math.min(bandHeight, height - top);
+                drawBand(canvas, band, recording, scale, top, rows, background);
+                band.getPixels(pixels, 0, width, 0, 0, width, rows);
+                encoder.writeRows(pixels, 0, rows);
+
+                float progress = (float) (top + rows) / height;
+                deliver(job, () -> listener.onProgress(progress));
+            }
+            encoder.finish();
+        } finally {
+            band.recycle();
+        }
+    }
+
+    // WebP: one bitmap for the whole image, refused when it would take a third of the heap
+    private void renderFrame(Recording recording, float scale, int width, int height, File file, Job job)
+            throws IOException {
+        if ((long) width * height * 4 > Runtime.getRuntime().maxMemory() / 3) {
+            throw new IOException("Too large for WebP: " + width + "x" + height);
+        }
+        synchronized (FRAME_LOCK) {
+            if (job.isCancelled()) throw new CancellationException();
+            Bitmap frame = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), OUTPUT_BUFFER)) {
+                drawBand(new Canvas(frame), frame, recording, scale, 0, height, Color.TRANSPARENT);
+                if (job.isCancelled()) throw new CancellationException();
+                if (!frame.compress(webpFormat(), WEBP_QUALITY, out)) throw new IOException("Can't encode WebP");
+            } finally {
+                frame.recycle();
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+    }
+
+    // Rows top to top + rows of the scaled composition
+    private static void drawBand(Canvas canvas, Bitmap band, Recording recording, float scale, int top, int rows,
+                                 int background) {
+        band.eraseColor(background);
+        int save = canvas.save();
+        canvas.translate(0, -top);
+        canvas.scale(scale, scale);
+        if (recording.background != null) {
+            RectF clip = new RectF(0, top / scale, band.getWidth() / scale, (top + rows) / scale);
+            recording.background.draw(canvas, clip, scale);
+        }
+        canvas.drawPicture(recording.picture);
+        canvas.restoreToCount(save);
+    }
+
+    private void deliver(Job job, Runnable callback) {
+        callbackExecutor.execute(() -> {
+            if (!job.isCancelled()) callback.run();
+        });
+    }
+}
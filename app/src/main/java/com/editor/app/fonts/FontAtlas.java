@@ -0,0 +1,225 @@
+package com.editor.app.fonts;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Font names rendered in their own typeface, ROWS_PER_PAGE fonts to a page. A
+// page is rendered once, stored in the cache dir and read back as raw alpha
+// pixels afterwards, so browsing fonts never needs their typefaces. Pages are
+// alpha only and take the color of the paint they are drawn with.
+public final class FontAtlas {
+    private static final String TAG = "FontAtlas";
+    private static final String CACHE_DIR = "font_atlas";
+
+    public static final int ROWS_PER_PAGE = 32;
+    public static final int ROW_WIDTH = 512;
+    public static final int ROW_HEIGHT = 64;
+    private static final float TEXT_SIZE = ROW_HEIGHT * 0.55f;
+    private static final int PADDING = 8;
+    // 1 MB per page
+    private static final int MAX_PAGES_IN_MEMORY = 4;
+
+    private static FontAtlas instance;
+
+    private final FontRegistry registry;
+    private final File cacheDir;
+    private final Executor mainExecutor;
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor();
+    private final LruCache<String, Bitmap> pages =
+            Metrics.cache("font.atlas", new LruCache<>(MAX_PAGES_IN_MEMORY, bitmap -> 1));
+
+    // Main thread only
+    private final Set<String> pending = new HashSet<>();
+    private final List<PendingCallback> callbacks = new ArrayList<>();
+
+    public static synchronized FontAtlas getInstance(@NonNull Context context) {
+        if (instance == null) {
+            Context app = context.getApplicationContext();
+            instance = new FontAtlas(app, FontRegistry.getInstance(app));
+        }
+        return instance;
+    }
+
+    private FontAtlas(Context context, FontRegistry registry) {
+        this.registry = registry;
+        this.cacheDir = new File(context.getCacheDir(), CACHE_DIR);
+        this.mainExecutor = ContextCompat.getMainExecutor(context);
+    }
+
+    public static int pageOf(int index) {
+        return index / ROWS_PER_PAGE;
+    }
+
+    // Where the font at index is drawn in its page
+    public static void rowBounds(int index, @NonNull Rect out) {
+        int top = (index % ROWS_PER_PAGE) * ROW_HEIGHT;
+        out.set(0, top, ROW_WIDTH, top + ROW_HEIGHT);
+    }
+
+    // The page if it is in memory, null otherwise
+    @Nullable
+    public Bitmap peekPage(int page) {
+        List<FontRegistry.Font> fonts = fontsOf(page);
+        return fonts.isEmpty() ? null : pages.get(pageKey(page, fonts));
+    }
+
+    // Loads or renders the page off the main thread and calls back on it
+    public void requestPage(int page, @NonNull Runnable onReady) {
+        List<FontRegistry.Font> fonts = fontsOf(page);
+        if (fonts.isEmpty()) return;
+        String key = pageKey(page, fonts);
+        if (pages.get(key) != null) {
+            onReady.run();
+            return;
+        }
+
+        callbacks.add(new PendingCallback(key, onReady));
+        if (!pending.add(key)) return;
+
+        renderer.execute(() -> {
+            Bitmap bitmap = readPage(key);
+            if (bitmap == null) {
+                bitmap = renderPage(fonts);
+                writePage(key, bitmap);
+            }
+            pages.put(key, bitmap);
+            mainExecutor.execute(() -> deliver(key));
+        });
+    }
+
+    private void deliver(String key) {
+        pending.remove(key);
+        for (int i = callbacks.size() - 1; i >= 0; i--) {
+            PendingCallback callback = callbacks.get(i);
+            if (callback.key.equals(key)) {
+                callbacks.remove(i);
+                callback.onReady.run();
+            }
+        }
+    }
+
+    private List<FontRegistry.Font> fontsOf(int page) {
+        List<FontRegistry.Font> fonts = registry.getFonts();
+        int start = page * ROWS_PER_PAGE;
+        if (page < 0 || start >= fonts.size()) return new ArrayList<>();
+        return fonts.subList(start, Math.min(fonts.size(), start + ROWS_PER_PAGE));
+    }
+
+    // Changes whenever a font on the page is added, removed or replaced
+    private static String pageKey(int page, List<FontRegistry.Font> fonts) {
+        int hash = 1;
+        for (FontRegistry.Font font : fonts) {
+            hash = 31 * hash + font.getVersionKey().hashCode();
+        }
+        return page + "_" + Integer.toHexString(hash);
+    }
+
+    // ============================================================================
+    // RENDERING (background thread)
+    // ============================================================================
+
+    private Bitmap renderPage(List<FontRegistry.Font> fonts) {
+        Bitmap bitmap = Bitmap.createBitmap(ROW_WIDTH, ROW_HEIGHT * ROWS_PER_PAGE, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.BLACK);
+        Paint.FontMetrics metrics = new Paint.FontMetrics();
+
+        for (int row = 0; row < fonts.size(); row++) {
+            FontRegistry.Font font = fonts.get(row);
+            // Decoded for this row only, the typeface cache is left alone
+            Typeface typeface = registry.decode(font);
+            paint.setTypeface(typeface != null ? typeface : Typeface.DEFAULT);
+            paint.setTextSize(TEXT_SIZE);
+
+            // Long names shrink to fit the row
+            float width = paint.measureText(font.getName());
+            float available = ROW_WIDTH - PADDING * 2;
+            if (width > available) {
+                paint.setTextSize(TEXT_SIZE * available / width);
+            }
+            paint.getFontMetrics(metrics);
+            float baseline = row * ROW_HEIGHT + (ROW_HEIGHT - metrics.ascent - metrics.descent) / 2f;
+            canvas.drawText(font.getName(), PADDING, baseline, paint);
+        }
+        return bitmap;
+    }
+
+    @Nullable
+    private Bitmap readPage(String key) {
+        File file = new File(cacheDir, key);
+        int size = ROW_WIDTH * ROW_HEIGHT * ROWS_PER_PAGE;
+        if (file.length() != size) return null;
+
+        byte[] bytes = new byte[size];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < size) {
+                int count = in.read(bytes, read, size - read);
+                if (count < 0) return null;
+                read += count;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Can't read atlas page " + key, e);
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(ROW_WIDTH, ROW_HEIGHT * ROWS_PER_PAGE, Bitmap.Config.ALPHA_8);
+        bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(bytes));
+        return bitmap;
+    }
+
+    private void writePage(String key, Bitmap bitmap) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) return;
+        // Older renders of the same page are stale now
+        String prefix = key.substring(0, key.indexOf('_') + 1);
+        File[] old = cacheDir.listFiles((dir, name) -> name.startsWith(prefix));
+        if (old != null) {
+            for (File file : old) {
+                file.delete();
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(buffer);
+        try (FileOutputStream out = new FileOutputStream(new File(cacheDir, key))) {
+            out.write(buffer.array());
+        } catch (IOException e) {
+            Log.w(TAG, "Can't write atlas page " + key, e);
+        }
+    }
+
+    private static final class PendingCallback {
+        final String key;
+        final Runnable onReady;
+
+        PendingCallback(String key, Runnable onReady) {
+            this.key = key;
+            this.onReady = onReady;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.editor.app.fonts;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+// One row of a FontAtlas page, drawn in the given color and scaled to the height
+// of its bounds. Empty until a page is set.
+public class FontPreviewDrawable extends Drawable {
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Rect src = new Rect();
+    private final Rect visibleSrc = new Rect();
+    private final RectF dst = new RectF();
+    private Bitmap page;
+
+    public FontPreviewDrawable(int color) {
+        paint.setColor(color);
+    }
+
+    public void setRow(@Nullable Bitmap page, int index) {
+        this.page = page;
+        FontAtlas.rowBounds(index, src);
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (page == null) return;
+        Rect bounds = getBounds();
+        float scale = (float) bounds.height() / src.height();
+        // Rows are left aligned, keep the text start visible and crop on the right
+        float width = Math.min(bounds.width(), src.width() * scale);
+        dst.set(bounds.left, bounds.top, bounds.left + width, bounds.bottom);
+        visibleSrc.set(src.left, src.top, src.left + Math.round(width / scale), src.bottom);
+        canvas.drawBitmap(page, visibleSrc, dst, paint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,180 @@
+package com.editor.app.fonts;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import androidx.annotation.FontRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.core.content.res.ResourcesCompat;
+
+import com.editor.app.R;
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Every font the editor can use: the ones bundled in res/font and downloaded font
+// files in files/fonts. Indexing only lists names, typefaces are decoded on a
+// background thread the first time a font is used and kept in a small LRU.
+public final class FontRegistry {
+    private static final String TAG = "FontRegistry";
+    public static final String DOWNLOADED_DIR = "fonts";
+    private static final int MAX_TYPEFACES = 16;
+
+    @FontRes
+    private static final int[] BUNDLED = {R.font.blackcherry, R.font.nunitosemibold};
+
+    public interface Callback {
+        // typeface is null when the font can't be decoded
+        void onTypeface(@NonNull Font font, @Nullable Typeface typeface);
+    }
+
+    // An indexed font, nothing is loaded until it is used
+    public static final class Font {
+        private final String name;
+        @FontRes
+        private final int resId;
+        private final File file;
+        // Position in getFonts(), set when indexing
+        private int index;
+
+        Font(String name, int resId, File file) {
+            this.name = name;
+            this.resId = resId;
+            this.file = file;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        // Changes when the font file does, previews rendered for it are keyed on this
+        String getVersionKey() {
+            return file != null ? name + ':' + file.length() + ':' + file.lastModified() : name + ":res" + resId;
+        }
+    }
+
+    private static FontRegistry instance;
+
+    private final Context context;
+    private final Executor mainExecutor;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private final LruCache<String, Typeface> typefaces =
+            Metrics.cache("typefaces", new LruCache<>(MAX_TYPEFACES, typeface -> 1));
+
+    private List<Font> fonts = Collections.emptyList();
+    private Map<String, Font> fontsByName = Collections.emptyMap();
+
+    public static synchronized FontRegistry getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new FontRegistry(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private FontRegistry(Context context) {
+        this.context = context;
+        this.mainExecutor = ContextCompat.getMainExecutor(context);
+        refresh();
+    }
+
+    // Re-reads the downloaded fonts folder, call after a download finishes
+    public void refresh() {
+        List<Font> list = new ArrayList<>();
+        for (int resId : BUNDLED) {
+            list.add(new Font(displayName(context.getResources().getResourceEntryName(resId)), resId, null));
+        }
+        File[] files = new File(context.getFilesDir(), DOWNLOADED_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String fileName = file.getName();
+                String lower = fileName.toLowerCase(Locale.ROOT);
+                if (!lower.endsWith(".ttf") && !lower.endsWith(".otf")) continue;
+                list.add(new Font(displayName(fileName.substring(0, fileName.length() - 4)), 0, file));
+            }
+        }
+        Collections.sort(list, (a, b) -> a.name.compareToIgnoreCase(b.name));
+
+        Map<String, Font> byName = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Font font = list.get(i);
+            font.index = i;
+            byName.put(font.name, font);
+        }
+        fonts = Collections.unmodifiableList(list);
+        fontsByName = byName;
+    }
+
+    public List<Font> getFonts() {
+        return fonts;
+    }
+
+    @Nullable
+    public Font getFont(@NonNull String name) {
+        return fontsByName.get(name);
+    }
+
+    // Cached typeface or null, never decodes
+    @Nullable
+    public Typeface peek(@NonNull Font font) {
+        return typefaces.get(font.name);
+    }
+
+    // Calls back on the main thread, right away when the typeface is cached
+    public void load(@NonNull Font font, @NonNull Callback callback) {
+        Typeface cached = typefaces.get(font.name);
+        if (cached != null) {
+            callback.onTypeface(font, cached);
+            return;
+        }
+        loader.execute(() -> {
+            Typeface typeface = decode(font);
+            if (typeface != null) {
+                typefaces.put(font.name, typeface);
+            }
+            mainExecutor.execute(() -> callback.onTypeface(font, typeface));
+        });
+    }
+
+    // Decodes without touching the cache, for one-off uses like rendering previews
+    @Nullable
+    Typeface decode(@NonNull Font font) {
+        try {
+            if (font.file != null) {
+                return Typeface.createFromFile(font.file);
+            }
+            return ResourcesCompat.getFont(context, font.resId);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Can't decode font " + font.name, e);
+            return null;
+        }
+    }
+
+    // nunito_semibold -> Nunito Semibold
+    private static String displayName(String raw) {
+        String[] words = raw.replace('_', ' ').replace('-', ' ').trim().split("\\s+");
+        StringBuilder builder = new StringBuilder();
+        for (String word : words) {
+            if (word.isEmpty()) continue;
+            if (builder.length() > 0) builder.append(' ');
+            builder.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return builder.toString();
+    }
+}
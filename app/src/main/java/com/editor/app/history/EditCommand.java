@@ -0,0 +1,21 @@
+package com.editor.app.history;
+
+import androidx.annotation.NonNull;
+
+// A single reversible edit. Undo and redo must each cost the same no matter how
+// long the history is.
+public interface EditCommand {
+    void undo();
+
+    void redo();
+
+    // Approximate heap retained by this command, used for the history budget
+    long getRetainedBytes();
+
+    // Folds a later command into this one (e.g. consecutive slider ticks), returns
+    // false when the two can't be merged
+    boolean mergeWith(@NonNull EditCommand next);
+
+    // Whether undoing or redoing can bring back the resource (e.g. an open photo)
+    boolean holds(@NonNull Object resource);
+}
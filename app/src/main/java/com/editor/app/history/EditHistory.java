@@ -0,0 +1,193 @@
+package com.editor.app.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.function.BooleanSupplier;
+
+// Undo/redo journal. Every step is a small command, so undo and redo cost the same
+// regardless of history length. The oldest steps are dropped once the step cap or
+// the byte budget is exceeded. Main thread only.
+public final class EditHistory {
+    public static final int DEFAULT_MAX_STEPS = 500;
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    public interface Listener {
+        void onHistoryChanged(boolean canUndo, boolean canRedo);
+    }
+
+    private final ArrayDeque<EditCommand> undoStack = new ArrayDeque<>();
+    private final ArrayDeque<EditCommand> redoStack = new ArrayDeque<>();
+    private final int maxSteps;
+    private final long maxBytes;
+
+    private long undoBytes;
+    private long redoBytes;
+
+    // While the gate is open (e.g. a slider is being dragged) consecutive changes of
+    // the same property fold into the newest entry
+    private BooleanSupplier mergeGate = () -> false;
+    private boolean topSealed = true;
+    private boolean replaying;
+
+    private Listener listener;
+
+    public EditHistory() {
+        this(DEFAULT_MAX_STEPS, Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 8));
+    }
+
+    public EditHistory(int maxSteps, long maxBytes) {
+        this.maxSteps = maxSteps;
+        this.maxBytes = maxBytes;
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setMergeGate(@NonNull BooleanSupplier mergeGate) {
+        this.mergeGate = mergeGate;
+    }
+
+    // Applies the command and records it
+    public void execute(@NonNull EditCommand command) {
+        if (command instanceof PropertyCommand && ((PropertyCommand<?>) command).isNoOp()) return;
+        command.redo();
+        record(command);
+    }
+
+    // Records a command whose effect has already been applied
+    public void record(@NonNull EditCommand command) {
+        if (replaying) return;
+
+        redoStack.clear();
+        redoBytes = 0;
+
+        EditCommand top = undoStack.peekLast();
+        boolean merging = mergeGate.getAsBoolean();
+        if (top != null && !topSealed) {
+            long before = top.getRetainedBytes();
+            if (top.mergeWith(command)) {
+                undoBytes += top.getRetainedBytes() - before;
+                topSealed = !merging;
+                trim();
+                notifyChanged();
+                return;
+            }
+        }
+
+        undoStack.addLast(command);
+        undoBytes += command.getRetainedBytes();
+        topSealed = !merging;
+        trim();
+        notifyChanged();
+    }
+
+    // Applies a refinement of the newest step (e.g. a preview image replaced by the
+    // full one) without adding a step of its own when the newest step can absorb it
+    public void amend(@NonNull EditCommand command) {
+        command.redo();
+        if (replaying) return;
+
+        EditCommand top = undoStack.peekLast();
+        if (top != null && redoStack.isEmpty()) {
+            long before = top.getRetainedBytes();
+            if (top.mergeWith(command)) {
+                undoBytes += top.getRetainedBytes() - before;
+                trim();
+                return;
+            }
+        }
+        record(command);
+    }
+
+    // Stops the newest entry from absorbing further changes
+    public void seal() {
+        topSealed = true;
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public boolean undo() {
+        EditCommand command = undoStack.pollLast();
+        if (command == null) return false;
+
+        long size = command.getRetainedBytes();
+        undoBytes -= size;
+        replay(command, true);
+        redoStack.addLast(command);
+        redoBytes += size;
+        topSealed = true;
+        notifyChanged();
+        return true;
+    }
+
+    public boolean redo() {
+        EditCommand command = redoStack.pollLast();
+        if (command == null) return false;
+
+        long size = command.getRetainedBytes();
+        redoBytes -= size;
+        replay(command, false);
+        undoStack.addLast(command);
+        undoBytes += size;
+        topSealed = true;
+        notifyChanged();
+        return true;
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        undoBytes = 0;
+        redoBytes = 0;
+        topSealed = true;
+        notifyChanged();
+    }
+
+    public long getRetainedBytes() {
+        return undoBytes + redoBytes;
+    }
+
+    // Whether any step can still bring the resource back
+    public boolean holds(@NonNull Object resource) {
+        for (EditCommand command : undoStack) {
+            if (command.holds(resource)) return true;
+        }
+        for (EditCommand command : redoStack) {
+            if (command.holds(resource)) return true;
+        }
+        return false;
+    }
+
+    private void replay(EditCommand command, boolean undo) {
+        replaying = true;
+        try {
+            if (undo) {
+                command.undo();
+            } else {
+                command.redo();
+            }
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private void trim() {
+        while (!undoStack.isEmpty()
+                && (undoStack.size() > maxSteps || undoBytes + redoBytes > maxBytes)) {
+            undoBytes -= undoStack.pollFirst().getRetainedBytes();
+        }
+    }
+
+    private void notifyChanged() {
+        if (listener != null) listener.onHistoryChanged(canUndo(), canRedo());
+    }
+}
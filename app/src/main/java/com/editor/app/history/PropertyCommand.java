@@ -0,0 +1,79 @@
+package com.editor.app.history;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+// Typed before/after delta of one property on one target
+public final class PropertyCommand<T> implements EditCommand {
+    private static final long BASE_BYTES = 48;
+
+    public interface Setter<T> {
+        void set(T value);
+    }
+
+    private final Object target;
+    private final String property;
+    private final Setter<T> setter;
+    private final T before;
+    private T after;
+
+    private PropertyCommand(Object target, String property, T before, T after, Setter<T> setter) {
+        this.target = target;
+        this.property = property;
+        this.before = before;
+        this.after = after;
+        this.setter = setter;
+    }
+
+    public static <T> PropertyCommand<T> of(@NonNull Object target, @NonNull String property,
+                                            T before, T after, @NonNull Setter<T> setter) {
+        return new PropertyCommand<>(target, property, before, after, setter);
+    }
+
+    public boolean isNoOp() {
+        return Objects.equals(before, after);
+    }
+
+    @Override
+    public void undo() {
+        setter.set(before);
+    }
+
+    @Override
+    public void redo() {
+        setter.set(after);
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return BASE_BYTES + sizeOf(before) + sizeOf(after);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean mergeWith(@NonNull EditCommand next) {
+        if (!(next instanceof PropertyCommand)) return false;
+        PropertyCommand<?> other = (PropertyCommand<?>) next;
+        if (other.target != target || !other.property.equals(property)) return false;
+        after = ((PropertyCommand<T>) other).after;
+        return true;
+    }
+
+    @Override
+    public boolean holds(@NonNull Object resource) {
+        return holds(before, resource) || holds(after, resource);
+    }
+
+    private static boolean holds(Object value, Object resource) {
+        return value == resource || value instanceof Sized && ((Sized) value).holds(resource);
+    }
+
+    private static long sizeOf(Object value) {
+        if (value instanceof Sized) return ((Sized) value).getRetainedBytes();
+        if (value instanceof Bitmap) return ((Bitmap) value).getAllocationByteCount();
+        return 0;
+    }
+}
@@ -0,0 +1,10 @@
+package com.editor.app.history;
+
+import androidx.annotation.NonNull;
+
+// Values that hold on to large objects (bitmaps) report their size to the history
+public interface Sized {
+    long getRetainedBytes();
+
+    boolean holds(@NonNull Object resource);
+}
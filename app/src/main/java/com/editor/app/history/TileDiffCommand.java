@@ -0,0 +1,180 @@
+package com.editor.app.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pixel edit stored as a per-tile XOR of before and after. Untouched pixels XOR to
+// zero and are run-length encoded away, so a brush stroke over a 12 MP image keeps
+// only what it painted. Applying the same delta again flips between the two states,
+// undo and redo are the same operation.
+public final class TileDiffCommand implements EditCommand {
+    private static final long BASE_BYTES = 48;
+    private static final long TILE_BYTES = 32;
+
+    // Shared scratch tile, commands only run on the main thread
+    private static int[] scratch;
+
+    private final TileTarget target;
+    private final List<TileDelta> deltas;
+    private final long retainedBytes;
+
+    private TileDiffCommand(TileTarget target, List<TileDelta> deltas) {
+        this.target = target;
+        this.deltas = deltas;
+        long bytes = BASE_BYTES;
+        for (TileDelta delta : deltas) {
+            bytes += TILE_BYTES + delta.runs.length * 4L;
+        }
+        this.retainedBytes = bytes;
+    }
+
+    // Snapshot tiles with touch() before writing to them, then finish() once the edit is done
+    public static Recorder record(@NonNull TileTarget target) {
+        return new Recorder(target);
+    }
+
+    @Override
+    public void undo() {
+        apply();
+    }
+
+    @Override
+    public void redo() {
+        apply();
+    }
+
+    private void apply() {
+        int tileSize = target.getTileSize();
+        int[] pixels = obtainScratch(tileSize * tileSize);
+        for (TileDelta delta : deltas) {
+            target.readTile(delta.tileX, delta.tileY, pixels);
+            delta.xorInto(pixels);
+            target.writeTile(delta.tileX, delta.tileY, pixels);
+        }
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    @Override
+    public boolean mergeWith(@NonNull EditCommand next) {
+        return false;
+    }
+
+    @Override
+    public boolean holds(@NonNull Object resource) {
+        return false;
+    }
+
+    private static int[] obtainScratch(int length) {
+        if (scratch == null || scratch.length < length) {
+            scratch = new int[length];
+        }
+        return scratch;
+    }
+
+    public static final class Recorder {
+        private final TileTarget target;
+        private final Map<Long, int[]> before = new HashMap<>();
+
+        private Recorder(TileTarget target) {
+            this.target = target;
+        }
+
+        // Captures the tile the first time it is touched by this edit
+        public void touch(int tileX, int tileY) {
+            long key = ((long) tileX << 32) | (tileY & 0xffffffffL);
+            if (before.containsKey(key)) return;
+            int tileSize = target.getTileSize();
+            int[] pixels = new int[tileSize * tileSize];
+            target.readTile(tileX, tileY, pixels);
+            before.put(key, pixels);
+        }
+
+        // Captures every tile overlapping the pixel rectangle
+        public void touch(int left, int top, int right, int bottom) {
+            int tileSize = target.getTileSize();
+            for (int ty = Math.max(0, top) / tileSize; ty <= (bottom - 1) / tileSize; ty++) {
+                for (int tx = Math.max(0, left) / tileSize; tx <= (right - 1) / tileSize; tx++) {
+                    touch(tx, ty);
+                }
+            }
+        }
+
+        // Returns null when nothing actually changed
+        @Nullable
+        public TileDiffCommand finish() {
+            int tileSize = target.getTileSize();
+            int[] current = obtainScratch(tileSize * tileSize);
+            List<TileDelta> deltas = new ArrayList<>(before.size());
+            for (Map.Entry<Long, int[]> entry : before.entrySet()) {
+                long key = entry.getKey();
+                int tileX = (int) (key >> 32);
+                int tileY = (int) key;
+                target.readTile(tileX, tileY, current);
+                TileDelta delta = TileDelta.encode(tileX, tileY, entry.getValue(), current, tileSize * tileSize);
+                if (delta != null) deltas.add(delta);
+            }
+            before.clear();
+            return deltas.isEmpty() ? null : new TileDiffCommand(target, deltas);
+        }
+    }
+
+    // Runs of [zero count, literal count, literals...] over the XOR of two tiles
+    private static final class TileDelta {
+        final int tileX;
+        final int tileY;
+        final int[] runs;
+
+        private TileDelta(int tileX, int tileY, int[] runs) {
+            this.tileX = tileX;
+            this.tileY = tileY;
+            this.runs = runs;
+        }
+
+        @Nullable
+        static TileDelta encode(int tileX, int tileY, int[] before, int[] after, int length) {
+            int[] out = new int[64];
+            int size = 0;
+            int i = 0;
+            while (i < length) {
+                int skipStart = i;
+                while (i < length && before[i] == after[i]) i++;
+                if (i == length) break;
+                int literalStart = i;
+                while (i < length && before[i] != after[i]) i++;
+                int count = i - literalStart;
+
+                if (size + 2 + count > out.length) {
+                    out = Arrays.copyOf(out, Math.max(out.length * 2, size + 2 + count));
+                }
+                out[size++] = literalStart - skipStart;
+                out[size++] = count;
+                for (int j = literalStart; j < i; j++) {
+                    out[size++] = before[j] ^ after[j];
+                }
+            }
+            return size == 0 ? null : new TileDelta(tileX, tileY, Arrays.copyOf(out, size));
+        }
+
+        void xorInto(int[] pixels) {
+            int position = 0;
+            int i = 0;
+            while (i < runs.length) {
+                position += runs[i++];
+                int count = runs[i++];
+                for (int j = 0; j < count; j++) {
+                    pixels[position++] ^= runs[i++];
+                }
+            }
+        }
+    }
+}
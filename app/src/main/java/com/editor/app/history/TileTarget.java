@@ -0,0 +1,11 @@
+package com.editor.app.history;
+
+// Pixel surface split into square tiles. Edge tiles are padded to the full tile
+// size, the padding is ignored on write.
+public interface TileTarget {
+    int getTileSize();
+
+    void readTile(int tileX, int tileY, int[] out);
+
+    void writeTile(int tileX, int tileY, int[] pixels);
+}
@@ -0,0 +1,80 @@
+package com.editor.app.imaging;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.imaging.ColorAdjustments;
+import com.editor.core.imaging.ColorMatrices;
+import com.editor.core.imaging.ColorMatrixKernel;
+import com.editor.core.imaging.PixelBuffer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Renders the color adjustments of an image. The adjustment stack is fused into
+// one matrix, so every render is a single pass over the pixels. A small proxy is
+// rendered synchronously for immediate feedback while a slider moves; the full
+// resolution render runs on the worker and only the newest request is delivered.
+public final class AdjustmentRenderer {
+    // Longest side of the proxy
+    private static final int PROXY_SIZE = 512;
+
+    public interface Callback {
+        void onRendered(@NonNull Bitmap source, @NonNull ColorAdjustments adjustments, @NonNull Bitmap result);
+    }
+
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // Proxy state, main thread only
+    private final float[] proxyMatrix = new float[ColorMatrices.LENGTH];
+    private Bitmap proxySource;
+    private PixelBuffer proxyPixels;
+    private PixelBuffer proxyOutput;
+    private Bitmap proxyBitmap;
+
+    public AdjustmentRenderer(@NonNull Executor worker, @NonNull Executor callbackExecutor) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    // Main thread. The returned bitmap is reused by the next proxy render.
+    @NonNull
+    public Bitmap renderProxy(@NonNull Bitmap source, @NonNull ColorAdjustments adjustments) {
+        if (source != proxySource) {
+            // read() halves down to twice the target at most, aim for PROXY_SIZE
+            float scale = Math.min(1f, PROXY_SIZE / 2f / Math.max(source.getWidth(), source.getHeight()));
+            proxyPixels = BitmapPixels.read(source, Math.max(1, Math.round(source.getWidth() * scale)),
+                    Math.max(1, Math.round(source.getHeight() * scale)));
+            proxyOutput = new PixelBuffer(proxyPixels.width, proxyPixels.height);
+            proxyBitmap = Bitmap.createBitmap(proxyPixels.width, proxyPixels.height, Bitmap.Config.ARGB_8888);
+            proxySource = source;
+        }
+        ColorMatrixKernel.apply(proxyPixels, proxyOutput, adjustments.toMatrix(proxyMatrix));
+        proxyBitmap.setPixels(proxyOutput.pixels, 0, proxyOutput.width, 0, 0, proxyOutput.width, proxyOutput.height);
+        return proxyBitmap;
+    }
+
+    // Supersedes any render still pending. The callback runs on the callback executor.
+    public void render(@NonNull Bitmap source, @NonNull ColorAdjustments adjustments, @NonNull Callback callback) {
+        int requestGeneration = generation.incrementAndGet();
+        worker.execute(() -> {
+            if (generation.get() != requestGeneration) return;
+            PixelBuffer pixels = BitmapPixels.read(source, source.getWidth(), source.getHeight());
+            if (generation.get() != requestGeneration) return;
+            ColorMatrixKernel.apply(pixels, pixels, adjustments.toMatrix(new float[ColorMatrices.LENGTH]));
+            Bitmap result = BitmapPixels.toBitmap(pixels);
+            callbackExecutor.execute(() -> {
+                if (generation.get() == requestGeneration) {
+                    callback.onRendered(source, adjustments, result);
+                }
+            });
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+}
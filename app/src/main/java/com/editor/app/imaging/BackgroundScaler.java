@@ -0,0 +1,86 @@
+package com.editor.app.imaging;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.imaging.PixelBuffer;
+import com.editor.core.imaging.Resampler;
+import com.editor.core.imaging.ScaleLayout;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Resamples a background image once for a scale layout, so the settled layout is
+// drawn 1:1 instead of being filtered from a much larger bitmap on every frame.
+// Only the part of the image that lands on the canvas is produced. Runs on the
+// worker and only the newest request is delivered.
+public final class BackgroundScaler {
+
+    public interface Callback {
+        // result covers the canvas rect starting at left, top
+        void onScaled(@NonNull Bitmap source, @NonNull String key, @NonNull Bitmap result, int left, int top);
+    }
+
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final AtomicInteger generation = new AtomicInteger();
+    // Worker thread only
+    private final Resampler resampler = new Resampler();
+
+    public BackgroundScaler(@NonNull Executor worker, @NonNull Executor callbackExecutor) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    // Supersedes any render still pending. The callback runs on the callback executor.
+    public void render(@NonNull Bitmap source, @NonNull String key, @NonNull ScaleLayout.Type type, int scale,
+                       int width, int height, @NonNull Callback callback) {
+        int requestGeneration = generation.incrementAndGet();
+        worker.execute(() -> {
+            if (generation.get() != requestGeneration) return;
+            ScaleLayout layout = new ScaleLayout().set(type, scale, source.getWidth(), source.getHeight(), width, height);
+            int[] bounds = new int[4];
+            layout.getVisibleBounds(width, height, bounds);
+            if (bounds[2] <= bounds[0] || bounds[3] <= bounds[1]) return;
+
+            // read() halves large sources first, map the bounds into what it returned
+            PixelBuffer pixels = BitmapPixels.read(source,
+                    Math.max(1, Math.round(source.getWidth() * layout.getScale())),
+                    Math.max(1, Math.round(source.getHeight() * layout.getScale())));
+            if (generation.get() != requestGeneration) return;
+            float factor = (float) pixels.width / source.getWidth();
+            PixelBuffer region = crop(pixels,
+                    layout.toSourceX(bounds[0]) * factor, layout.toSourceY(bounds[1]) * factor,
+                    layout.toSourceX(bounds[2]) * factor, layout.toSourceY(bounds[3]) * factor);
+
+            PixelBuffer scaled = new PixelBuffer(bounds[2] - bounds[0], bounds[3] - bounds[1]);
+            resampler.resize(region, scaled);
+            Bitmap result = BitmapPixels.toBitmap(scaled);
+            callbackExecutor.execute(() -> {
+                if (generation.get() == requestGeneration) {
+                    callback.onScaled(source, key, result, bounds[0], bounds[1]);
+                }
+            });
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    // Rounded out to whole pixels and clamped to the buffer
+    private static PixelBuffer crop(PixelBuffer pixels, float left, float top, float right, float bottom) {
+        int x0 = Math.min(pixels.width - 1, Math.max(0, (int) Math.floor(left)));
+        int y0 = Math.min(pixels.height - 1, Math.max(0, (int) Math.floor(top)));
+        int x1 = Math.min(pixels.width, Math.max(x0 + 1, (int) Math.ceil(right)));
+        int y1 = Math.min(pixels.height, Math.max(y0 + 1, (int) Math.ceil(bottom)));
+        if (x0 == 0 && y0 == 0 && x1 == pixels.width && y1 == pixels.height) return pixels;
+
+        PixelBuffer region = new PixelBuffer(x1 - x0, y1 - y0);
+        for (int y = y0; y < y1; y++) {
+            System.arraycopy(pixels.pixels, y * pixels.width + x0, region.pixels, (y - y0) * region.width, region.width);
+        }
+        return region;
+    }
+}
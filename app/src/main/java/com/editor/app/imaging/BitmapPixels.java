@@ -0,0 +1,57 @@
+package com.editor.app.imaging;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.imaging.PixelBuffer;
+
+import java.nio.ByteBuffer;
+
+// Moves pixels between Bitmaps and the plain Java kernels in :core
+public final class BitmapPixels {
+
+    private BitmapPixels() {
+    }
+
+    // Reads the bitmap, scaled down first when it is much larger than needed so the
+    // kernels never walk a full 12 MP image for a screen sized result
+    public static PixelBuffer read(@NonNull Bitmap bitmap, int targetWidth, int targetHeight) {
+        Bitmap source = bitmap;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && source.getConfig() == Bitmap.Config.HARDWARE) {
+            source = source.copy(Bitmap.Config.ARGB_8888, false);
+        }
+        if (source.getWidth() > targetWidth * 2 && source.getHeight() > targetHeight * 2) {
+            Bitmap scaled = Bitmap.createScaledBitmap(source, targetWidth * 2, targetHeight * 2, true);
+            if (source != bitmap) {
+                source.recycle();
+            }
+            source = scaled;
+        }
+
+        PixelBuffer buffer = new PixelBuffer(source.getWidth(), source.getHeight());
+        source.getPixels(buffer.pixels, 0, buffer.width, 0, 0, buffer.width, buffer.height);
+        if (source != bitmap) {
+            source.recycle();
+        }
+        return buffer;
+    }
+
+    public static Bitmap toBitmap(@NonNull PixelBuffer buffer) {
+        return Bitmap.createBitmap(buffer.pixels, buffer.width, buffer.height, Bitmap.Config.ARGB_8888);
+    }
+
+    // ALPHA_8 rows are tightly packed, one byte per pixel
+    public static byte[] readAlpha(@NonNull Bitmap bitmap) {
+        byte[] alpha = new byte[bitmap.getWidth() * bitmap.getHeight()];
+        bitmap.copyPixelsToBuffer(ByteBuffer.wrap(alpha));
+        return alpha;
+    }
+
+    public static Bitmap toAlphaBitmap(@NonNull byte[] alpha, int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(alpha, 0, width * height));
+        return bitmap;
+    }
+}
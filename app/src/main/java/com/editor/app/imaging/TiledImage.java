@@ -0,0 +1,316 @@
+package com.editor.app.imaging;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.editor.core.cache.LruCache;
+import com.editor.core.imaging.PixelBuffer;
+import com.editor.core.imaging.TileFilter;
+import com.editor.core.imaging.TileGrid;
+import com.editor.core.metrics.Metrics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A photo too large to decode whole (12-50 MP). The file is kept open behind a
+// BitmapRegionDecoder and read in tiles of the mip pyramid described by TileGrid:
+// only the tiles a draw actually needs at its scale are decoded. A small preview
+// covers everything until they arrive, and is all that is ever decoded while the
+// image is shown at or below preview resolution. Tiles of every image share one
+// LRU with a fixed byte budget, so the heap use doesn't depend on the photo size.
+// Drawing and filter changes happen on the main thread.
+public final class TiledImage {
+    private static final String TAG = "TiledImage";
+    public static final int TILE_SIZE = 512;
+    private static final long TILE_BUDGET = Math.min(48L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 8);
+
+    // Keys are (image id, filter generation, tile key), see tileKey
+    private static final LruCache<Long, Bitmap> TILES =
+            Metrics.cache("tiles", new LruCache<>(TILE_BUDGET, Bitmap::getAllocationByteCount));
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    public interface Listener {
+        // New tiles are ready, the owner should redraw
+        void onTilesLoaded(@NonNull TiledImage image);
+    }
+
+    private final int id = NEXT_ID.incrementAndGet() & 0xffff;
+    private final ParcelFileDescriptor file;
+    private final BitmapRegionDecoder decoder;
+    private final TileGrid grid;
+    private final Bitmap preview;
+    // Source pixels per preview pixel
+    private final int previewSample;
+
+    private Listener listener;
+    private final Set<Long> pending = new HashSet<>();
+    private volatile TileFilter filter;
+    private volatile int generation;
+    private volatile boolean released;
+
+    // Scratch for draw, main thread only
+    private final Rect tileSrc = new Rect();
+    private final Rect tileVisible = new Rect();
+    private final RectF tileDst = new RectF();
+    private boolean missing;
+
+    private TiledImage(ParcelFileDescriptor file, BitmapRegionDecoder decoder, Bitmap preview, int previewSample) {
+        this.file = file;
+        this.decoder = decoder;
+        this.grid = new TileGrid(decoder.getWidth(), decoder.getHeight(), TILE_SIZE);
+        this.preview = preview;
+        this.previewSample = previewSample;
+    }
+
+    // Opens the file and decodes a preview whose longest side is at least
+    // previewSize, or the whole image when it is smaller than that
+    @WorkerThread
+    @NonNull
+    @SuppressWarnings("deprecation")
+    public static TiledImage open(@NonNull ContentResolver resolver, @NonNull Uri uri, int previewSize)
+            throws IOException {
+        ParcelFileDescriptor file = resolver.openFileDescriptor(uri, "r");
+        if (file == null) throw new IOException("Can't open " + uri);
+        try {
+            BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(file.getFileDescriptor(), false);
+            if (decoder == null) throw new IOException("Unsupported image " + uri);
+
+            int sample = 1;
+            while (Math.max(decoder.getWidth(), decoder.getHeight()) / (sample * 2) >= previewSize) {
+                sample *= 2;
+            }
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = sample;
+            Bitmap preview = decoder.decodeRegion(new Rect(0, 0, decoder.getWidth(), decoder.getHeight()), options);
+            if (preview == null) throw new IOException("Can't decode " + uri);
+            return new TiledImage(file, decoder, preview, sample);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return grid.getWidth();
+    }
+
+    public int getHeight() {
+        return grid.getHeight();
+    }
+
+    // Whole image at reduced resolution, always in memory
+    @NonNull
+    public Bitmap getPreview() {
+        return preview;
+    }
+
+    // The encoded file, for embedding the full image elsewhere. Reads through a
+    // duplicate descriptor at absolute offsets, the decoder's file is left alone.
+    @WorkerThread
+    @NonNull
+    public byte[] readSource() throws IOException {
+        try (FileInputStream in = new ParcelFileDescriptor.AutoCloseInputStream(file.dup())) {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Image too large: " + size);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) throw new IOException("Image truncated");
+            }
+            return buffer.array();
+        }
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    // Edits are applied per tile as tiles are decoded. Tiles decoded with the
+    // previous filter are left to age out of the cache.
+    public void setFilter(@Nullable TileFilter filter) {
+        this.filter = filter;
+        generation = (generation + 1) & 0xff;
+        pending.clear();
+        if (listener != null) listener.onTilesLoaded(this);
+    }
+
+    // Draws the src rect (source pixels) of the image into dst. scale is device
+    // pixels per source pixel and picks the pyramid level; clip, in dst space, limits
+    // which tiles are needed.
+    public void draw(@NonNull Canvas canvas, @NonNull Rect src, @NonNull RectF dst, @NonNull RectF clip,
+                     @NonNull Paint paint, float scale) {
+        int level = grid.levelFor(scale);
+        // The preview already has enough pixels, nothing else to decode
+        if (previewSample <= 1 << level) {
+            drawPreview(canvas, src, dst, paint);
+            return;
+        }
+
+        float sx = dst.width() / src.width();
+        float sy = dst.height() / src.height();
+        if (!visibleSource(src, dst, clip, tileVisible)) return;
+        int left = tileVisible.left;
+        int top = tileVisible.top;
+        int right = tileVisible.right;
+        int bottom = tileVisible.bottom;
+
+        // Missing tiles are requested, the preview shows through until they arrive
+        missing = false;
+        grid.visit(level, left, top, right, bottom, (lvl, column, row, l, t, r, b) -> {
+            long key = tileKey(lvl, column, row);
+            if (TILES.get(key) == null) {
+                missing = true;
+                request(key, lvl, l, t, r, b);
+            }
+        });
+        if (missing) {
+            drawPreview(canvas, src, dst, paint);
+        }
+
+        canvas.save();
+        canvas.clipRect(dst);
+        grid.visit(level, left, top, right, bottom, (lvl, column, row, l, t, r, b) -> {
+            Bitmap tile = TILES.get(tileKey(lvl, column, row));
+            if (tile == null) return;
+            tileDst.set(dst.left + (l - src.left) * sx, dst.top + (t - src.top) * sy,
+                    dst.left + (r - src.left) * sx, dst.top + (b - src.top) * sy);
+            canvas.drawBitmap(tile, null, tileDst, paint);
+        });
+        canvas.restore();
+    }
+
+    // Same as draw, for a one-off render at a scale the screen never shows (export).
+    // Tiles are decoded right here and dropped after drawing, the shared cache is
+    // left alone; a tile that can't be decoded leaves the preview showing.
+    @WorkerThread
+    public void drawDirect(@NonNull Canvas canvas, @NonNull Rect src, @NonNull RectF dst, @NonNull RectF clip,
+                           @NonNull Paint paint, float scale) {
+        Rect previewSrc = new Rect(src.left / previewSample, src.top / previewSample,
+                Math.min(preview.getWidth(), src.right / previewSample),
+                Math.min(preview.getHeight(), src.bottom / previewSample));
+        canvas.drawBitmap(preview, previewSrc, dst, paint);
+
+        int level = grid.levelFor(scale);
+        if (previewSample <= 1 << level) return;
+        Rect visible = new Rect();
+        if (!visibleSource(src, dst, clip, visible)) return;
+
+        float sx = dst.width() / src.width();
+        float sy = dst.height() / src.height();
+        TileFilter tileFilter = filter;
+        RectF target = new RectF();
+        canvas.save();
+        canvas.clipRect(dst);
+        grid.visit(level, visible.left, visible.top, visible.right, visible.bottom,
+                (lvl, column, row, l, t, r, b) -> {
+                    if (released) return;
+                    Bitmap tile = decode(lvl, l, t, r, b, tileFilter);
+                    if (tile == null) return;
+                    target.set(dst.left + (l - src.left) * sx, dst.top + (t - src.top) * sy,
+                            dst.left + (r - src.left) * sx, dst.top + (b - src.top) * sy);
+                    canvas.drawBitmap(tile, null, target, paint);
+                    tile.recycle();
+                });
+        canvas.restore();
+    }
+
+    // Closes the file, cached tiles age out of the shared cache
+    public void release() {
+        released = true;
+        listener = null;
+        pending.clear();
+        DECODER.execute(() -> {
+            decoder.recycle();
+            try {
+                file.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Can't close image", e);
+            }
+        });
+    }
+
+    private void drawPreview(Canvas canvas, Rect src, RectF dst, Paint paint) {
+        tileSrc.set(src.left / previewSample, src.top / previewSample,
+                Math.min(preview.getWidth(), src.right / previewSample),
+                Math.min(preview.getHeight(), src.bottom / previewSample));
+        canvas.drawBitmap(preview, tileSrc, dst, paint);
+    }
+
+    // Source pixels under clip (dst space), false when nothing of src is visible
+    private static boolean visibleSource(Rect src, RectF dst, RectF clip, Rect out) {
+        float sx = dst.width() / src.width();
+        float sy = dst.height() / src.height();
+        int left = Math.max(src.left, (int) Math.floor(src.left + (clip.left - dst.left) / sx));
+        int top = Math.max(src.top, (int) Math.floor(src.top + (clip.top - dst.top) / sy));
+        int right = Math.min(src.right, (int) Math.ceil(src.left + (clip.right - dst.left) / sx));
+        int bottom = Math.min(src.bottom, (int) Math.ceil(src.top + (clip.bottom - dst.top) / sy));
+        out.set(left, top, right, bottom);
+        return left < right && top < bottom;
+    }
+
+    private long tileKey(int level, int column, int row) {
+        return (long) id << 40 | (long) generation << 32 | (TileGrid.key(level, column, row) & 0xffffffffL);
+    }
+
+    private void request(long key, int level, int left, int top, int right, int bottom) {
+        if (released || !pending.add(key)) return;
+        int requestGeneration = generation;
+        TileFilter tileFilter = filter;
+        DECODER.execute(() -> {
+            // Superseded by a filter change or released while queued
+            if (released || requestGeneration != generation) return;
+            Bitmap tile = decode(level, left, top, right, bottom, tileFilter);
+            MAIN.post(() -> {
+                if (!pending.remove(key) || tile == null) return;
+                TILES.put(key, tile);
+                if (listener != null) listener.onTilesLoaded(this);
+            });
+        });
+    }
+
+    @WorkerThread
+    @Nullable
+    private Bitmap decode(int level, int left, int top, int right, int bottom, @Nullable TileFilter tileFilter) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = 1 << level;
+        options.inMutable = tileFilter != null;
+        Bitmap tile;
+        try {
+            tile = decoder.decodeRegion(new Rect(left, top, right, bottom), options);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Log.w(TAG, "Can't decode tile", e);
+            return null;
+        }
+        if (tile == null || tileFilter == null) return tile;
+
+        PixelBuffer pixels = new PixelBuffer(tile.getWidth(), tile.getHeight());
+        tile.getPixels(pixels.pixels, 0, pixels.width, 0, 0, pixels.width, pixels.height);
+        tileFilter.apply(pixels, level, left, top);
+        tile.setPixels(pixels.pixels, 0, pixels.width, 0, 0, pixels.width, pixels.height);
+        return tile;
+    }
+}
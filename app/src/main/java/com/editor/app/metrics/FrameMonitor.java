@@ -0,0 +1,134 @@
+package com.editor.app.metrics;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+
+import com.editor.core.metrics.LatencyHistogram;
+import com.editor.core.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Frame times of a window, and how long an edit takes to reach the screen. An
+// edit is a probe that starts at the input event, is marked drawn by the next
+// view traversal and completes with the first frame that ends after that draw,
+// which is exact to within one frame. Recording doesn't allocate once a probe
+// name has been seen. Main thread only.
+public final class FrameMonitor {
+    private static final String FRAME = "frame";
+    private static final String LATENCY_PREFIX = "latency.";
+
+    private static final class Probe {
+        final LatencyHistogram histogram;
+        // 0 while idle; the earliest event not yet on screen
+        long startNanos;
+        // 0 until a traversal after the event has drawn
+        long drawnNanos;
+
+        Probe(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+    }
+
+    private final Window window;
+    private final LatencyHistogram frames = Metrics.histogram(FRAME);
+    private final Map<String, Probe> probesByName = new HashMap<>();
+    private final List<Probe> probes = new ArrayList<>();
+    private int pendingProbes;
+    // Frames longer than this missed a vsync
+    private final long frameBudgetMicros;
+    private boolean started;
+
+    private final Window.OnFrameMetricsAvailableListener frameListener = (w, metrics, dropped) -> onFrame(metrics);
+
+    private final ViewTreeObserver.OnDrawListener drawListener = () -> {
+        if (pendingProbes == 0) return;
+        long now = System.nanoTime();
+        for (int i = 0; i < probes.size(); i++) {
+            Probe probe = probes.get(i);
+            if (probe.startNanos != 0 && probe.drawnNanos == 0) probe.drawnNanos = now;
+        }
+    };
+
+    @SuppressWarnings("deprecation")
+    public FrameMonitor(@NonNull Window window) {
+        this.window = window;
+        float refreshRate = window.getWindowManager().getDefaultDisplay().getRefreshRate();
+        frameBudgetMicros = Math.round(1_000_000 / (refreshRate > 0 ? refreshRate : 60f));
+    }
+
+    public void start() {
+        if (started) return;
+        started = true;
+        window.addOnFrameMetricsAvailableListener(frameListener, new Handler(Looper.getMainLooper()));
+        window.getDecorView().getViewTreeObserver().addOnDrawListener(drawListener);
+    }
+
+    public void stop() {
+        if (!started) return;
+        started = false;
+        window.removeOnFrameMetricsAvailableListener(frameListener);
+        window.getDecorView().getViewTreeObserver().removeOnDrawListener(drawListener);
+    }
+
+    // eventNanos is the System.nanoTime of the input behind the edit, 0 for now.
+    // Edits arriving before the previous one is on screen keep its start.
+    public void begin(@NonNull String name, long eventNanos) {
+        if (!started) return;
+        Probe probe = probesByName.get(name);
+        if (probe == null) {
+            probe = new Probe(Metrics.histogram(LATENCY_PREFIX + name));
+            probesByName.put(name, probe);
+            probes.add(probe);
+        }
+        if (probe.startNanos != 0) return;
+        probe.startNanos = eventNanos != 0 ? eventNanos : System.nanoTime();
+        probe.drawnNanos = 0;
+        pendingProbes++;
+        // Nothing may be invalidated by the edit, a frame still has to come
+        window.getDecorView().invalidate();
+    }
+
+    public long getFrameBudgetMicros() {
+        return frameBudgetMicros;
+    }
+
+    private void onFrame(FrameMetrics metrics) {
+        long total = metrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        frames.recordNanos(total);
+        if (pendingProbes == 0) return;
+
+        // Before API 26 there is no vsync stamp, the callback time is a close upper bound
+        long end = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? metrics.getMetric(FrameMetrics.INTENDED_VSYNC_TIMESTAMP) + total
+                : System.nanoTime();
+        for (int i = 0; i < probes.size(); i++) {
+            Probe probe = probes.get(i);
+            if (probe.drawnNanos == 0 || end < probe.drawnNanos) continue;
+            probe.histogram.recordNanos(end - probe.startNanos);
+            probe.startNanos = 0;
+            probe.drawnNanos = 0;
+            pendingProbes--;
+        }
+    }
+
+    // Frame lines ahead of Metrics.report
+    public void report(@NonNull StringBuilder out) {
+        long count = frames.getCount();
+        long janky = frames.countAbove(frameBudgetMicros);
+        out.append("janky=").append(janky).append('/').append(count)
+                .append(" (").append(count == 0 ? 0 : janky * 100 / count).append("%) over ");
+        Metrics.appendMillis(out, frameBudgetMicros);
+        out.append(" ms\n");
+        Metrics.report(out);
+    }
+}
@@ -0,0 +1,50 @@
+package com.editor.app.metrics;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.widget.AppCompatTextView;
+
+// Debug readout of the frame monitor, refreshed twice a second while attached.
+// The report builder is reused, the text itself is copied on every refresh.
+public final class MetricsOverlay extends AppCompatTextView {
+    private static final long REFRESH_MS = 500;
+
+    private final FrameMonitor monitor;
+    private final StringBuilder report = new StringBuilder();
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            report.setLength(0);
+            monitor.report(report);
+            setText(report);
+            postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    public MetricsOverlay(@NonNull Context context, @NonNull FrameMonitor monitor) {
+        super(context);
+        this.monitor = monitor;
+        setTypeface(Typeface.MONOSPACE);
+        setTextSize(TypedValue.COMPLEX_UNIT_SP, 9);
+        setTextColor(Color.WHITE);
+        setBackgroundColor(0xaa000000);
+        int padding = Math.round(4 * getResources().getDisplayMetrics().density);
+        setPadding(padding, padding, padding, padding);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        post(refresh);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(refresh);
+    }
+}
@@ -0,0 +1,639 @@
+package com.editor.app.project;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.net.Uri;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.editor.app.canvas.BackgroundLayer;
+import com.editor.app.canvas.Blend;
+import com.editor.app.canvas.Border;
+import com.editor.app.canvas.BorderLayer;
+import com.editor.app.canvas.Crop;
+import com.editor.app.canvas.CropShape;
+import com.editor.app.canvas.Fill;
+import com.editor.app.canvas.ImageLayer;
+import com.editor.app.canvas.Layer;
+import com.editor.app.canvas.Shadow;
+import com.editor.app.canvas.TextLayer;
+import com.editor.app.history.TileTarget;
+import com.editor.app.imaging.TiledImage;
+import com.editor.app.sheets.EditTextOptionsSheet.TextAlignment;
+import com.editor.app.sheets.EditTextOptionsSheet.TextCase;
+import com.editor.app.sheets.models.GradientItem;
+import com.editor.core.imaging.BlendMode;
+import com.editor.core.imaging.ColorAdjustments;
+import com.editor.core.imaging.EraseMask;
+import com.editor.core.imaging.GradientType;
+import com.editor.core.imaging.ScaleLayout;
+import com.editor.core.project.ProjectBlob;
+import com.editor.core.project.ProjectReader;
+import com.editor.core.project.ProjectRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Maps editor layers to project records and back. A snapshot is taken on the main
+// thread and only copies settings and references; bitmaps are encoded on the save
+// thread, once per bitmap: the blob is kept for as long as the bitmap is alive, and
+// bitmaps decoded from a project keep the blob they came from, so saving an opened
+// project never re-encodes anything. Photos are embedded as their original file.
+// Enums are stored by ordinal, new constants go at the end.
+public final class ProjectCodec {
+    public static final int TYPE_BACKGROUND = 1;
+    public static final int TYPE_TEXT = 2;
+    public static final int TYPE_IMAGE = 3;
+    public static final int TYPE_BORDER = 4;
+
+    // Slots every layer has
+    private static final int SLOT_LEFT = 0;
+    private static final int SLOT_TOP = 1;
+    private static final int SLOT_RIGHT = 2;
+    private static final int SLOT_BOTTOM = 3;
+    private static final int SLOT_ROTATION = 4;
+    private static final int SLOT_ROTATION_X = 5;
+    private static final int SLOT_ROTATION_Y = 6;
+    private static final int SLOT_OPACITY = 7;
+    private static final int SLOT_FLAGS = 8;
+    private static final int SLOT_SHADOW_COLOR = 9;
+    private static final int SLOT_SHADOW_OPACITY = 10;
+    private static final int SLOT_SHADOW_BLUR = 11;
+    private static final int SLOT_SHADOW_DX = 12;
+    private static final int SLOT_SHADOW_DY = 13;
+    // The layer fill, the image tint or the border fill
+    private static final int SLOT_FILL_TYPE = 14;
+    private static final int SLOT_FILL_COLOR = 15;
+    private static final int SLOT_GRADIENT_TYPE = 16;
+    private static final int SLOT_GRADIENT_ANGLE = 17;
+    // Background
+    private static final int SLOT_BLUR = 18;
+    private static final int SLOT_SCALE_TYPE = 19;
+    private static final int SLOT_SCALE = 20;
+    private static final int SLOT_BLEND_MODE = 21;
+    private static final int SLOT_BLEND_COLOR = 22;
+    // Text
+    private static final int SLOT_TEXT_SIZE = 18;
+    private static final int SLOT_PARAGRAPH_WIDTH = 19;
+    private static final int SLOT_LETTER_SPACING = 20;
+    private static final int SLOT_LINE_SPACING = 21;
+    private static final int SLOT_CURVE = 22;
+    private static final int SLOT_ALIGNMENT = 23;
+    private static final int SLOT_TEXT_CASE = 24;
+    // Image
+    private static final int SLOT_CROP_ASPECT = 18;
+    private static final int SLOT_CROP_SHAPE = 19;
+    private static final int SLOT_EFFECT = 20;
+    private static final int SLOT_HUE = 21;
+    private static final int SLOT_SATURATION = 22;
+    private static final int SLOT_BRIGHTNESS = 23;
+    private static final int SLOT_CONTRAST = 24;
+    // Border
+    private static final int SLOT_BORDER_WIDTH = 18;
+
+    // Bits of SLOT_FLAGS
+    private static final int FLAG_FLIP_HORIZONTAL = 0;
+    private static final int FLAG_FLIP_VERTICAL = 1;
+    private static final int FLAG_HIDDEN = 2;
+    private static final int FLAG_SHADOW = 3;
+    private static final int FLAG_BOLD = 4;
+    private static final int FLAG_ITALIC = 5;
+    private static final int FLAG_UNDERLINE = 6;
+
+    private static final int FILL_NONE = 0;
+    private static final int FILL_COLOR = 1;
+    private static final int FILL_GRADIENT = 2;
+    private static final int FILL_BITMAP = 3;
+    private static final int FILL_PHOTO = 4;
+
+    // Gradient colors, a bitmap or a photo file
+    private static final int BLOB_FILL = 0;
+    // The text or the image bitmap
+    private static final int BLOB_CONTENT = 1;
+    // Font name of a text layer, erase mask of an image layer
+    private static final int BLOB_FONT = 2;
+    private static final int BLOB_ERASE = 2;
+
+    // Built-in crop shapes by their stored number, custom shapes aren't saved
+    private static final CropShape[] CROP_SHAPES = {
+            CropShape.CIRCLE, CropShape.ROUNDED_RECT, CropShape.STAR, CropShape.HEART
+    };
+    private static final int JPEG_QUALITY = 95;
+    // Main thread only, the last copy of each mask and the generation it was taken at
+    private static final Map<EraseMask, ErasedTiles> erasedCopies = new WeakHashMap<>();
+
+    private final ContentResolver resolver;
+    // Photos are extracted here to be opened for tiled decoding
+    private final File mediaDir;
+    // Save thread only, keyed on Bitmap and TiledImage identity
+    private final Map<Object, ProjectBlob> blobs = new WeakHashMap<>();
+
+    public ProjectCodec(@NonNull ContentResolver resolver, @NonNull File mediaDir) {
+        this.resolver = resolver;
+        this.mediaDir = mediaDir;
+    }
+
+    // What a save needs from the layers. Records reference blobs by their index in
+    // sources, which holds byte arrays, bitmaps and tiled images.
+    public static final class Snapshot {
+        private final List<ProjectRecord> records = new ArrayList<>();
+        private final List<Object> sources = new ArrayList<>();
+
+        @NonNull
+        public List<ProjectRecord> getRecords() {
+            return records;
+        }
+
+        private int add(Object source) {
+            sources.add(source);
+            return sources.size() - 1;
+        }
+    }
+
+    // ============================================================================
+    // SAVING
+    // ============================================================================
+
+    // Main thread. fontNames maps typefaces to their FontRegistry name, text set
+    // in a typeface without a name is saved in the default one.
+    @NonNull
+    public static Snapshot snapshot(@NonNull List<Layer> layers, @NonNull Map<Typeface, String> fontNames) {
+        Snapshot snapshot = new Snapshot();
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            ProjectRecord record;
+            if (layer instanceof BackgroundLayer) {
+                record = new ProjectRecord(TYPE_BACKGROUND, i);
+                writeBackground(record, (BackgroundLayer) layer, snapshot);
+            } else if (layer instanceof TextLayer) {
+                record = new ProjectRecord(TYPE_TEXT, i);
+                writeText(record, (TextLayer) layer, fontNames, snapshot);
+            } else if (layer instanceof ImageLayer) {
+                if (((ImageLayer) layer).getBitmap() == null) continue;
+                record = new ProjectRecord(TYPE_IMAGE, i);
+                writeImage(record, (ImageLayer) layer, snapshot);
+            } else if (layer instanceof BorderLayer) {
+                record = new ProjectRecord(TYPE_BORDER, i);
+                writeBorder(record, (BorderLayer) layer, snapshot);
+            } else {
+                continue;
+            }
+            writeCommon(record, layer);
+            snapshot.records.add(record);
+        }
+        return snapshot;
+    }
+
+    // Save thread. Blob i of the result belongs to source i of the snapshot.
+    @WorkerThread
+    @NonNull
+    public List<ProjectBlob> encode(@NonNull Snapshot snapshot) throws IOException {
+        List<ProjectBlob> encoded = new ArrayList<>(snapshot.sources.size());
+        for (Object source : snapshot.sources) {
+            if (source instanceof byte[]) {
+                encoded.add(ProjectBlob.of((byte[]) source));
+                continue;
+            }
+            ProjectBlob blob = blobs.get(source);
+            if (blob == null) {
+                blob = ProjectBlob.of(source instanceof Bitmap
+                        ? compress((Bitmap) source)
+                        : ((TiledImage) source).readSource());
+                blobs.put(source, blob);
+            }
+            encoded.add(blob);
+        }
+        return encoded;
+    }
+
+    private static void writeCommon(ProjectRecord record, Layer layer) {
+        RectF frame = layer.getFrame();
+        record.putFloat(SLOT_LEFT, frame.left)
+                .putFloat(SLOT_TOP, frame.top)
+                .putFloat(SLOT_RIGHT, frame.right)
+                .putFloat(SLOT_BOTTOM, frame.bottom)
+                .putFloat(SLOT_ROTATION, layer.getRotation())
+                .putFloat(SLOT_ROTATION_X, layer.getRotationX())
+                .putFloat(SLOT_ROTATION_Y, layer.getRotationY())
+                .putInt(SLOT_OPACITY, layer.getOpacity())
+                .putFlag(SLOT_FLAGS, FLAG_FLIP_HORIZONTAL, layer.isFlipHorizontal())
+                .putFlag(SLOT_FLAGS, FLAG_FLIP_VERTICAL, layer.isFlipVertical())
+                .putFlag(SLOT_FLAGS, FLAG_HIDDEN, !layer.isVisible());
+
+        Shadow shadow = layer.getShadow();
+        if (shadow != null) {
+            record.putFlag(SLOT_FLAGS, FLAG_SHADOW, true)
+                    .putInt(SLOT_SHADOW_COLOR, shadow.getColor())
+                    .putInt(SLOT_SHADOW_OPACITY, shadow.getOpacity())
+                    .putInt(SLOT_SHADOW_BLUR, shadow.getBlur())
+                    .putFloat(SLOT_SHADOW_DX, shadow.getDx())
+                    .putFloat(SLOT_SHADOW_DY, shadow.getDy());
+        }
+    }
+
+    private static void writeFill(ProjectRecord record, @Nullable Fill fill, Snapshot snapshot) {
+        if (fill == null) {
+            record.putInt(SLOT_FILL_TYPE, FILL_NONE);
+            return;
+        }
+        switch (fill.getType()) {
+            case COLOR:
+                record.putInt(SLOT_FILL_TYPE, FILL_COLOR).putInt(SLOT_FILL_COLOR, fill.getColor());
+                break;
+            case GRADIENT:
+                int[] colors = fill.getGradient().getColors();
+                ByteBuffer bytes = ByteBuffer.allocate(colors.length * 4);
+                bytes.asIntBuffer().put(colors);
+                record.putInt(SLOT_FILL_TYPE, FILL_GRADIENT)
+                        .putInt(SLOT_GRADIENT_TYPE, fill.getGradientType().ordinal())
+                        .putFloat(SLOT_GRADIENT_ANGLE, fill.getGradientAngle())
+                        .putBlob(BLOB_FILL, snapshot.add(bytes.array()));
+                break;
+            case BITMAP:
+                if (fill.getImage() != null) {
+                    record.putInt(SLOT_FILL_TYPE, FILL_PHOTO).putBlob(BLOB_FILL, snapshot.add(fill.getImage()));
+                } else {
+                    record.putInt(SLOT_FILL_TYPE, FILL_BITMAP).putBlob(BLOB_FILL, snapshot.add(fill.getBitmap()));
+                }
+                break;
+        }
+    }
+
+    private static void writeBackground(ProjectRecord record, BackgroundLayer layer, Snapshot snapshot) {
+        writeFill(record, layer.getFill(), snapshot);
+        record.putInt(SLOT_BLUR, layer.getBlurRadius())
+                .putInt(SLOT_SCALE_TYPE, layer.getScaleType().ordinal())
+                .putInt(SLOT_SCALE, layer.getScale());
+        Blend blend = layer.getBlend();
+        record.putInt(SLOT_BLEND_MODE, blend != null ? blend.getMode().ordinal() : -1)
+                .putInt(SLOT_BLEND_COLOR, blend != null ? blend.getColor() : 0);
+    }
+
+    private static void writeText(ProjectRecord record, TextLayer layer, Map<Typeface, String> fontNames,
+                                  Snapshot snapshot) {
+        writeFill(record, layer.getFill(), snapshot);
+        record.putBlob(BLOB_CONTENT, snapshot.add(layer.getText().getBytes(StandardCharsets.UTF_8)));
+        String fontName = fontNames.get(layer.getTypeface());
+        if (fontName != null) {
+            record.putBlob(BLOB_FONT, snapshot.add(fontName.getBytes(StandardCharsets.UTF_8)));
+        }
+        record.putFloat(SLOT_TEXT_SIZE, layer.getTextSize())
+                .putInt(SLOT_PARAGRAPH_WIDTH, layer.getParagraphWidth())
+                .putFloat(SLOT_LETTER_SPACING, layer.getLetterSpacing())
+                .putFloat(SLOT_LINE_SPACING, layer.getLineSpacing())
+                .putInt(SLOT_CURVE, layer.getCurve())
+                .putInt(SLOT_ALIGNMENT, layer.getAlignment().ordinal())
+                .putInt(SLOT_TEXT_CASE, layer.getTextCase().ordinal())
+                .putFlag(SLOT_FLAGS, FLAG_BOLD, layer.isBold())
+                .putFlag(SLOT_FLAGS, FLAG_ITALIC, layer.isItalic())
+                .putFlag(SLOT_FLAGS, FLAG_UNDERLINE, layer.isUnderline());
+    }
+
+    private static void writeImage(ProjectRecord record, ImageLayer layer, Snapshot snapshot) {
+        writeFill(record, layer.getTint(), snapshot);
+        record.putBlob(BLOB_CONTENT, snapshot.add(layer.getBitmap()));
+
+        EraseMask mask = layer.getEraseMask();
+        if (mask != null && !mask.isEmpty()) {
+            record.putBlob(BLOB_ERASE, snapshot.add(erasedTiles(mask)));
+        }
+
+        Crop crop = layer.getCrop();
+        int shape = -1;
+        for (int i = 0; i < CROP_SHAPES.length; i++) {
+            if (CROP_SHAPES[i] == crop.getShape()) shape = i;
+        }
+        ColorAdjustments adjustments = layer.getAdjustments();
+        record.putFloat(SLOT_CROP_ASPECT, crop.getAspect())
+                .putInt(SLOT_CROP_SHAPE, shape)
+                .putInt(SLOT_EFFECT, adjustments.getEffect().ordinal())
+                .putInt(SLOT_HUE, adjustments.getHue())
+                .putInt(SLOT_SATURATION, adjustments.getSaturation())
+                .putInt(SLOT_BRIGHTNESS, adjustments.getBrightness())
+                .putInt(SLOT_CONTRAST, adjustments.getContrast());
+    }
+
+    private static void writeBorder(ProjectRecord record, BorderLayer layer, Snapshot snapshot) {
+        Border border = layer.getBorder();
+        writeFill(record, border != null ? border.getFill() : null, snapshot);
+        record.putFloat(SLOT_BORDER_WIDTH, border != null ? border.getWidth() : 0);
+    }
+
+    // Strokes keep changing the tiles in place, so the mask is copied on the main
+    // thread; only once per change, autosaves of an unchanged mask reuse the copy
+    private static byte[] erasedTiles(EraseMask mask) {
+        ErasedTiles copy = erasedCopies.get(mask);
+        if (copy == null || copy.generation != mask.getGeneration()) {
+            copy = new ErasedTiles(mask.getGeneration(), copyErasedTiles(mask));
+            erasedCopies.put(mask, copy);
+        }
+        return copy.bytes;
+    }
+
+    private static final class ErasedTiles {
+        final int generation;
+        final byte[] bytes;
+
+        ErasedTiles(int generation, byte[] bytes) {
+            this.generation = generation;
+            this.bytes = bytes;
+        }
+    }
+
+    // Tile x, tile y and the tile bytes for every erased tile
+    private static byte[] copyErasedTiles(EraseMask mask) {
+        int tileBytes = EraseMask.TILE_SIZE * EraseMask.TILE_SIZE;
+        List<int[]> erased = new ArrayList<>();
+        for (int tileY = 0; tileY < mask.getRows(); tileY++) {
+            for (int tileX = 0; tileX < mask.getColumns(); tileX++) {
+                if (mask.getTile(tileX, tileY) != null) erased.add(new int[]{tileX, tileY});
+            }
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(erased.size() * (8 + tileBytes));
+        for (int[] tile : erased) {
+            bytes.putInt(tile[0]).putInt(tile[1]).put(mask.getTile(tile[0], tile[1]));
+        }
+        return bytes.array();
+    }
+
+    // Lossless for anything with alpha, photos and textures as high quality JPEG
+    private static byte[] compress(Bitmap bitmap) throws IOException {
+        Bitmap source = bitmap;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && source.getConfig() == Bitmap.Config.HARDWARE) {
+            source = source.copy(Bitmap.Config.ARGB_8888, false);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(source.getWidth() * source.getHeight());
+        boolean compressed = source.hasAlpha()
+                ? source.compress(Bitmap.CompressFormat.PNG, 100, out)
+                : source.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        if (source != bitmap) {
+            source.recycle();
+        }
+        if (!compressed) throw new IOException("Can't encode bitmap");
+        return out.toByteArray();
+    }
+
+    // ============================================================================
+    // LOADING
+    // ============================================================================
+
+    // Save thread, before any save. Decodes the blobs the records use; photo
+    // previews are decoded at previewSize.
+    @WorkerThread
+    @NonNull
+    public Project load(@NonNull ProjectReader reader, int previewSize) throws IOException {
+        Project project = new Project();
+        for (int i = 0; i < reader.getLayerCount(); i++) {
+            ProjectRecord record = reader.readRecord(i, new ProjectRecord());
+            project.records.add(record);
+
+            switch (record.getInt(SLOT_FILL_TYPE)) {
+                case FILL_GRADIENT:
+                    project.decodeGradient(reader, record.getBlob(BLOB_FILL));
+                    break;
+                case FILL_BITMAP:
+                    project.decodeBitmap(reader, record.getBlob(BLOB_FILL));
+                    break;
+                case FILL_PHOTO:
+                    project.openPhoto(reader, record.getBlob(BLOB_FILL), previewSize);
+                    break;
+            }
+            switch (record.getType()) {
+                case TYPE_TEXT:
+                    project.decodeString(reader, record.getBlob(BLOB_CONTENT));
+                    project.decodeString(reader, record.getBlob(BLOB_FONT));
+                    break;
+                case TYPE_IMAGE:
+                    project.decodeBitmap(reader, record.getBlob(BLOB_CONTENT));
+                    project.decodeErasedTiles(reader, record.getBlob(BLOB_ERASE));
+                    break;
+            }
+        }
+        return project;
+    }
+
+    // A loaded project, applied to the layers on the main thread
+    public final class Project {
+        private final List<ProjectRecord> records = new ArrayList<>();
+        // Decoded blob by its index in the file
+        private final Map<Integer, Object> decoded = new HashMap<>();
+
+        @NonNull
+        public List<ProjectRecord> getRecords() {
+            return Collections.unmodifiableList(records);
+        }
+
+        public void applyBackground(@NonNull ProjectRecord record, @NonNull BackgroundLayer layer) {
+            applyCommon(record, layer);
+            Fill fill = readFill(record);
+            if (fill != null) layer.setFill(fill);
+            layer.setBlurRadius(record.getInt(SLOT_BLUR));
+            layer.setScaleType(valueAt(ScaleLayout.Type.values(), record.getInt(SLOT_SCALE_TYPE),
+                    ScaleLayout.Type.ASPECT_FILL));
+            layer.setScale(record.getInt(SLOT_SCALE));
+            int blendMode = record.getInt(SLOT_BLEND_MODE);
+            layer.setBlend(blendMode < 0 ? null
+                    : Blend.of(record.getInt(SLOT_BLEND_COLOR), valueAt(BlendMode.values(), blendMode, BlendMode.MULTIPLY)));
+        }
+
+        // The font is applied by the caller, see getFontName
+        public void applyText(@NonNull ProjectRecord record, @NonNull TextLayer layer) {
+            Object text = decoded.get(record.getBlob(BLOB_CONTENT));
+            if (text instanceof String) layer.setText((String) text);
+            Fill fill = readFill(record);
+            if (fill != null) layer.setFill(fill);
+            layer.setTextSize(record.getFloat(SLOT_TEXT_SIZE));
+            layer.setParagraphWidth(record.getInt(SLOT_PARAGRAPH_WIDTH));
+            layer.setLetterSpacing(record.getFloat(SLOT_LETTER_SPACING));
+            layer.setLineSpacing(record.getFloat(SLOT_LINE_SPACING));
+            layer.setCurve(record.getInt(SLOT_CURVE));
+            layer.setAlignment(valueAt(TextAlignment.values(), record.getInt(SLOT_ALIGNMENT), TextAlignment.CENTER));
+            layer.setTextCase(valueAt(TextCase.values(), record.getInt(SLOT_TEXT_CASE), TextCase.NORMAL));
+            layer.setBold(record.getFlag(SLOT_FLAGS, FLAG_BOLD));
+            layer.setItalic(record.getFlag(SLOT_FLAGS, FLAG_ITALIC));
+            layer.setUnderline(record.getFlag(SLOT_FLAGS, FLAG_UNDERLINE));
+            // Text lays itself out, only its position is restored
+            applyCommon(record, layer);
+            layer.setPosition(record.getFloat(SLOT_LEFT), record.getFloat(SLOT_TOP));
+        }
+
+        @Nullable
+        public String getFontName(@NonNull ProjectRecord record) {
+            Object name = decoded.get(record.getBlob(BLOB_FONT));
+            return name instanceof String ? (String) name : null;
+        }
+
+        // Null when the bitmap couldn't be decoded
+        @Nullable
+        public ImageLayer createImage(@NonNull ProjectRecord record) {
+            Object bitmap = decoded.get(record.getBlob(BLOB_CONTENT));
+            if (!(bitmap instanceof Bitmap)) return null;
+
+            ImageLayer layer = new ImageLayer();
+            int shape = record.getInt(SLOT_CROP_SHAPE);
+            layer.setCrop(Crop.NONE.withAspect(record.getFloat(SLOT_CROP_ASPECT))
+                    .withShape(shape >= 0 && shape < CROP_SHAPES.length ? CROP_SHAPES[shape] : null));
+            float left = record.getFloat(SLOT_LEFT);
+            float top = record.getFloat(SLOT_TOP);
+            float right = record.getFloat(SLOT_RIGHT);
+            float bottom = record.getFloat(SLOT_BOTTOM);
+            layer.setBitmap((Bitmap) bitmap, Math.round(Math.max(right - left, bottom - top)));
+            layer.setFrame(left, top, right, bottom);
+            applyCommon(record, layer);
+            layer.setTint(readFill(record));
+            layer.setAdjustments(ColorAdjustments.NONE
+                    .withEffect(valueAt(ColorAdjustments.Effect.values(), record.getInt(SLOT_EFFECT),
+                            ColorAdjustments.Effect.NONE))
+                    .withHue(record.getInt(SLOT_HUE))
+                    .withSaturation(record.getInt(SLOT_SATURATION))
+                    .withBrightness(record.getInt(SLOT_BRIGHTNESS))
+                    .withContrast(record.getInt(SLOT_CONTRAST)));
+
+            Object erased = decoded.get(record.getBlob(BLOB_ERASE));
+            TileTarget target = erased instanceof ByteBuffer ? layer.getEraseTarget() : null;
+            if (target != null) {
+                restoreErasedTiles((ByteBuffer) erased, target);
+            }
+            return layer;
+        }
+
+        public void applyBorder(@NonNull ProjectRecord record, @NonNull BorderLayer layer) {
+            applyCommon(record, layer);
+            Fill fill = readFill(record);
+            // The opacity was stored as the layer's
+            layer.setBorder(fill != null
+                    ? Border.of(fill, record.getFloat(SLOT_BORDER_WIDTH)).withOpacity(layer.getOpacity()) : null);
+        }
+
+        private void applyCommon(ProjectRecord record, Layer layer) {
+            layer.setRotation(record.getFloat(SLOT_ROTATION));
+            layer.setRotationX(record.getFloat(SLOT_ROTATION_X));
+            layer.setRotationY(record.getFloat(SLOT_ROTATION_Y));
+            layer.setOpacity(record.getInt(SLOT_OPACITY));
+            layer.setFlipHorizontal(record.getFlag(SLOT_FLAGS, FLAG_FLIP_HORIZONTAL));
+            layer.setFlipVertical(record.getFlag(SLOT_FLAGS, FLAG_FLIP_VERTICAL));
+            layer.setVisible(!record.getFlag(SLOT_FLAGS, FLAG_HIDDEN));
+            layer.setShadow(!record.getFlag(SLOT_FLAGS, FLAG_SHADOW) ? null
+                    : Shadow.of(record.getInt(SLOT_SHADOW_COLOR), record.getInt(SLOT_SHADOW_OPACITY),
+                    record.getInt(SLOT_SHADOW_BLUR), record.getFloat(SLOT_SHADOW_DX),
+                    record.getFloat(SLOT_SHADOW_DY)));
+        }
+
+        // Null for no fill and for a fill whose blob couldn't be decoded
+        @Nullable
+        private Fill readFill(ProjectRecord record) {
+            Object source = decoded.get(record.getBlob(BLOB_FILL));
+            switch (record.getInt(SLOT_FILL_TYPE)) {
+                case FILL_COLOR:
+                    return Fill.color(record.getInt(SLOT_FILL_COLOR));
+                case FILL_GRADIENT:
+                    if (!(source instanceof int[])) return null;
+                    return Fill.gradient(new GradientItem((int[]) source, ""),
+                            valueAt(GradientType.values(), record.getInt(SLOT_GRADIENT_TYPE), GradientType.LINEAR),
+                            record.getFloat(SLOT_GRADIENT_ANGLE));
+                case FILL_BITMAP:
+                    return source instanceof Bitmap ? Fill.bitmap((Bitmap) source) : null;
+                case FILL_PHOTO:
+                    return source instanceof TiledImage ? Fill.image((TiledImage) source) : null;
+                default:
+                    return null;
+            }
+        }
+
+        private void decodeGradient(ProjectReader reader, int index) {
+            if (index == ProjectRecord.NO_BLOB || decoded.containsKey(index)) return;
+            ByteBuffer bytes = reader.getBlob(index);
+            int[] colors = new int[bytes.remaining() / 4];
+            bytes.asIntBuffer().get(colors);
+            decoded.put(index, colors);
+        }
+
+        private void decodeString(ProjectReader reader, int index) {
+            if (index == ProjectRecord.NO_BLOB || decoded.containsKey(index)) return;
+            ByteBuffer bytes = reader.getBlob(index);
+            decoded.put(index, StandardCharsets.UTF_8.decode(bytes).toString());
+        }
+
+        // Kept as the mapped view, written into the mask on the main thread
+        private void decodeErasedTiles(ProjectReader reader, int index) {
+            if (index == ProjectRecord.NO_BLOB) return;
+            decoded.put(index, reader.getBlob(index));
+        }
+
+        private void decodeBitmap(ProjectReader reader, int index) throws IOException {
+            if (index == ProjectRecord.NO_BLOB || decoded.containsKey(index)) return;
+            ByteBuffer data = reader.getBlob(index);
+            Bitmap bitmap;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                // Straight from the mapping, software so the kernels can read it
+                bitmap = ImageDecoder.decodeBitmap(ImageDecoder.createSource(data),
+                        (decoder, info, source) -> decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE));
+            } else {
+                byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+                if (bitmap == null) throw new IOException("Can't decode image blob " + index);
+            }
+            decoded.put(index, bitmap);
+            blobs.put(bitmap, ProjectBlob.of(reader, index));
+        }
+
+        // The region decoder needs a file, the photo is extracted once per digest
+        private void openPhoto(ProjectReader reader, int index, int previewSize) throws IOException {
+            if (index == ProjectRecord.NO_BLOB || decoded.containsKey(index)) return;
+            ProjectBlob blob = ProjectBlob.of(reader, index);
+            File file = new File(mediaDir, blob.getKey());
+            if (!file.exists()) {
+                if (!mediaDir.isDirectory() && !mediaDir.mkdirs()) throw new IOException("Can't create " + mediaDir);
+                File temp = new File(mediaDir, blob.getKey() + ".tmp");
+                try (FileOutputStream out = new FileOutputStream(temp)) {
+                    FileChannel channel = out.getChannel();
+                    ByteBuffer data = blob.getData();
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                }
+                if (!temp.renameTo(file)) throw new IOException("Can't extract " + file);
+            }
+            TiledImage image = TiledImage.open(resolver, Uri.fromFile(file), previewSize);
+            decoded.put(index, image);
+            blobs.put(image, blob);
+        }
+    }
+
+    private static void restoreErasedTiles(ByteBuffer erased, TileTarget target) {
+        int tileBytes = EraseMask.TILE_SIZE * EraseMask.TILE_SIZE;
+        int[] values = new int[tileBytes];
+        ByteBuffer tiles = erased.duplicate();
+        while (tiles.remaining() >= 8 + tileBytes) {
+            int tileX = tiles.getInt();
+            int tileY = tiles.getInt();
+            for (int i = 0; i < tileBytes; i++) {
+                values[i] = tiles.get() & 0xff;
+            }
+            target.writeTile(tileX, tileY, values);
+        }
+    }
+
+    private static <T> T valueAt(T[] values, int ordinal, T fallback) {
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : fallback;
+    }
+}
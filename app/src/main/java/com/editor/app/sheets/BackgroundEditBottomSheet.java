@@ -8,16 +8,16 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.editor.app.R;
 import com.editor.app.api.models.Media;
-import com.editor.app.sheets.adapters.ColorViewBinder;
+import com.editor.app.sheets.adapters.PickerStrip;
 import com.editor.app.sheets.background.BorderOptionsView;
 import com.editor.app.sheets.background.EditOptionsView;
 import com.editor.app.sheets.background.OpacityOptionsView;
@@ -65,6 +65,7 @@ public class BackgroundEditBottomSheet extends BottomSheetDialogFragment {
 
         // Blend mode
         void onBlendColorSelected(int color);
+        void onBlendTypeSelected(BlendType blendType);
         void onRemoveBlendClicked();
     }
 
@@ -81,6 +82,10 @@ public class BackgroundEditBottomSheet extends BottomSheetDialogFragment {
         ASPECT_FILL, CENTER, TOP, BOTTOM, LEFT, RIGHT, FIT
     }
 
+    public enum BlendType {
+        MULTIPLY, SCREEN, OVERLAY, SOFT_LIGHT, COLOR, HUE
+    }
+
     private EditOptionsListener listener;
     private ChipGroup chipGroup;
     private ViewGroup contentContainer;
@@ -419,8 +424,10 @@ public class BackgroundEditBottomSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int blurValue = (int) value;
             valueText.setText(blurValue + "px");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onBlurChanged(blurValue);
+                listener.onBlurChanged((int) value);
             }
         });
     }
@@ -432,12 +439,34 @@ public class BackgroundEditBottomSheet extends BottomSheetDialogFragment {
     private void showBlendOptions() {
         if (blendOptionsView == null) {
             blendOptionsView = LayoutInflater.from(getContext())
-                    .inflate(R.layout.border_content_solid, contentContainer, false);
+                    .inflate(R.layout.background_content_blend, contentContainer, false);
+            setupBlendTypeChips();
             setupBlendColorPickers();
         }
         contentContainer.addView(blendOptionsView);
     }
 
+    private void setupBlendTypeChips() {
+        ChipGroup blendChipGroup = blendOptionsView.findViewById(R.id.blendModeChipGroup);
+        String[] titles = {"Multiply", "Screen", "Overlay", "Soft Light", "Color", "Hue"};
+        BlendType[] types = BlendType.values();
+
+        for (int i = 0; i < types.length; i++) {
+            Chip chip = (Chip) LayoutInflater.from(getContext())
+                    .inflate(R.layout.item_filter_chip, blendChipGroup, false);
+            chip.setText(titles[i]);
+            chip.setCheckable(true);
+            chip.setId(View.generateViewId());
+            chip.setChecked(types[i] == BlendType.MULTIPLY);
+
+            final BlendType type = types[i];
+            chip.setOnClickListener(v -> {
+                if (listener != null) listener.onBlendTypeSelected(type);
+            });
+            blendChipGroup.addView(chip);
+        }
+    }
+
     private void setupBlendColorPickers() {
         MaterialCardView gradientPickerCard = blendOptionsView.findViewById(R.id.gradientPickerCard);
         MaterialCardView eyedropperCard = blendOptionsView.findViewById(R.id.eyedropperCard);
@@ -447,9 +476,9 @@ public class BackgroundEditBottomSheet extends BottomSheetDialogFragment {
         removeColorCard.setVisibility(View.VISIBLE);
 
         List<ColorItem> colors = createColorList();
-        LinearLayout colorsContainer = blendOptionsView.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = blendOptionsView.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             currentBlendColor = color;
             if (listener != null) {
                 listener.onBlendColorSelected(color);
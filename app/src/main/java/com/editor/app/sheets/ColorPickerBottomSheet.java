@@ -6,19 +6,16 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.editor.app.R;
-import com.editor.app.api.WallpaperClient;
 import com.editor.app.api.models.Media;
-import com.editor.app.api.models.SearchResponse;
-import com.editor.app.sheets.adapters.ColorViewBinder;
-import com.editor.app.sheets.adapters.GradientViewBinder;
-import com.editor.app.sheets.adapters.TextureViewBinder;
+import com.editor.app.sheets.adapters.PickerStrip;
+import com.editor.app.sheets.adapters.TextureFeed;
 import com.editor.app.sheets.models.ColorItem;
 import com.editor.app.sheets.models.GradientItem;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
@@ -30,10 +27,6 @@ import com.google.android.material.chip.ChipGroup;
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class ColorPickerBottomSheet extends BottomSheetDialogFragment {
     public static final String TAG = "ColorPickerBottomSheet";
     private static final String ARG_SELECTED_MODE = "selected_mode";
@@ -70,7 +63,7 @@ public class ColorPickerBottomSheet extends BottomSheetDialogFragment {
     private View colorContent, gradientContent, patternContent, chooseContent;
 
     // Texture data
-    private TextureViewBinder textureBinder;
+    private TextureFeed textureFeed;
 
     public static ColorPickerBottomSheet newInstance(ColorPickerMode selectedMode) {
         ColorPickerBottomSheet sheet = new ColorPickerBottomSheet();
@@ -185,9 +178,9 @@ public class ColorPickerBottomSheet extends BottomSheetDialogFragment {
 
         List<ColorItem> colors = createColorList();
 
-        LinearLayout colorsContainer = colorContent.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = colorContent.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             if (listener != null) {
                 listener.onColorSelected(color);
             }
@@ -220,9 +213,9 @@ public class ColorPickerBottomSheet extends BottomSheetDialogFragment {
         MaterialCardView gradientPickerCard = gradientContent.findViewById(R.id.gradientPickerCard);
         List<GradientItem> gradients = createGradientList();
 
-        LinearLayout gradientsContainer = gradientContent.findViewById(R.id.gradientsContainer);
+        RecyclerView gradientsList = gradientContent.findViewById(R.id.gradientsList);
 
-        new GradientViewBinder(gradientsContainer, gradients, (gradient, position) -> {
+        PickerStrip.gradients(gradientsList, gradients, (gradient, position) -> {
             if (listener != null) {
                 listener.onGradientSelected(gradient);
             }
@@ -254,49 +247,18 @@ public class ColorPickerBottomSheet extends BottomSheetDialogFragment {
     private void setupPatternPickers() {
         MaterialCardView seeAllCard = patternContent.findViewById(R.id.seeAllPatternsCard);
 
-        LinearLayout texturesContainer = patternContent.findViewById(R.id.texturesContainer);
+        RecyclerView texturesList = patternContent.findViewById(R.id.texturesList);
 
-        textureBinder = new TextureViewBinder(texturesContainer, new ArrayList<>(), (texture, position) -> {
+        textureFeed = new TextureFeed(texturesList, (texture, position) -> {
             if (listener != null) {
                 listener.onTextureSelected(texture);
             }
         });
+        textureFeed.setOnLoadFailedListener(t ->
+                Toast.makeText(getContext(), "Failed to load images", Toast.LENGTH_SHORT).show());
 
         // Load textures from Unsplash
-        loadTexturesFromUnsplash();
-    }
-
-    private void loadTexturesFromUnsplash() {
-        // Use different search query based on mode
-        String searchQuery = "texture pattern";
-
-        WallpaperClient.getApi().getSearchMedia(
-                "illustrations",
-                1,
-                20,
-                "landscape",
-                searchQuery
-        ).enqueue(new Callback<>() {
-            @Override
-            public void onResponse(@NonNull Call<SearchResponse> call, @NonNull Response<SearchResponse> response) {
-
-                if (response.isSuccessful() && response.body() != null) {
-                    SearchResponse searchResponse = response.body();
-                    List<Media> newTextures = searchResponse.getResults();
-
-                    if (newTextures != null && !newTextures.isEmpty()) {
-                        if (textureBinder != null) {
-                            textureBinder.addTextures(newTextures);
-                        }
-                    }
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<SearchResponse> call, @NonNull Throwable t) {
-                Toast.makeText(getContext(), "Failed to load images", Toast.LENGTH_SHORT).show();
-            }
-        });
+        textureFeed.start();
     }
 
     private void showChooseContent() {
@@ -354,7 +316,8 @@ public class ColorPickerBottomSheet extends BottomSheetDialogFragment {
         return colors;
     }
 
-    private List<GradientItem> createGradientList() {
+    // Also the gradients a batch export renders variants with
+    public static List<GradientItem> createGradientList() {
         List<GradientItem> gradients = new ArrayList<>();
 
         gradients.add(new GradientItem(
@@ -9,17 +9,17 @@ import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.editor.app.R;
 import com.editor.app.api.models.Media;
-import com.editor.app.sheets.adapters.ColorViewBinder;
-import com.editor.app.sheets.adapters.GradientViewBinder;
+import com.editor.app.sheets.adapters.PickerStrip;
+import com.editor.app.sheets.adapters.TextureFeed;
 import com.editor.app.sheets.models.ColorItem;
 import com.editor.app.sheets.models.GradientItem;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
@@ -377,9 +377,9 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         removeColorCard.setVisibility(View.VISIBLE);
 
         List<ColorItem> colors = createColorList();
-        LinearLayout colorsContainer = colorSolidContent.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = colorSolidContent.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             currentTextColor = color;
             if (listener != null) {
                 listener.onTextColorSelected(color);
@@ -418,9 +418,9 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         removeGradientCard.setVisibility(View.VISIBLE);
 
         List<GradientItem> gradients = createGradientList();
-        LinearLayout gradientsContainer = colorGradientContent.findViewById(R.id.gradientsContainer);
+        RecyclerView gradientsList = colorGradientContent.findViewById(R.id.gradientsList);
 
-        new GradientViewBinder(gradientsContainer, gradients, (gradient, position) -> {
+        PickerStrip.gradients(gradientsList, gradients, (gradient, position) -> {
             currentGradient = gradient;
             if (listener != null) {
                 listener.onTextGradientSelected(gradient);
@@ -449,13 +449,14 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
     }
 
     private void setupPatternPickers() {
-//        MaterialButton seeAllButton = colorPatternContent.findViewById(R.id.seeAllButton);
-//
-//        seeAllButton.setOnClickListener(v -> {
-//            Toast.makeText(getContext(), "Pattern gallery coming soon!", Toast.LENGTH_SHORT).show();
-//        });
+        RecyclerView texturesList = colorPatternContent.findViewById(R.id.texturesList);
 
-        // TODO: Wire up pattern selection
+        TextureFeed textureFeed = new TextureFeed(texturesList, (texture, position) -> {
+            if (listener != null) {
+                listener.onTextPatternSelected(texture);
+            }
+        });
+        textureFeed.start();
     }
 
     // ============================================================================
@@ -485,8 +486,10 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int sizeValue = (int) value;
             valueText.setText(sizeValue + "sp");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onTextSizeChanged(sizeValue);
+                listener.onTextSizeChanged((int) value);
             }
         });
     }
@@ -496,25 +499,29 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
     // ============================================================================
 
     private void showFontsContent() {
-//        if (fontsContent == null) {
-//            fontsContent = LayoutInflater.from(getContext())
-//                    .inflate(R.layout.text_fonts_content, contentContainer, false);
-//            setupFontButtons();
-//        }
-//        contentContainer.addView(fontsContent);
+        if (fontsContent == null) {
+            fontsContent = LayoutInflater.from(getContext())
+                    .inflate(R.layout.text_fonts_content, contentContainer, false);
+            setupFontButtons();
+        }
+        contentContainer.addView(fontsContent);
     }
 
     private void setupFontButtons() {
-//        MaterialButton seeAllFontsButton = fontsContent.findViewById(R.id.seeAllFontsButton);
-//
-//        seeAllFontsButton.setOnClickListener(v -> {
-//            if (listener != null) {
-//                listener.onSeeAllFontsClicked();
-//            }
-//        });
+        MaterialCardView seeAllFontsCard = fontsContent.findViewById(R.id.seeAllFontsCard);
+        RecyclerView fontsList = fontsContent.findViewById(R.id.fontsList);
 
-        // TODO: Setup font preview grid
-        // Add font cards in horizontal RecyclerView
+        seeAllFontsCard.setOnClickListener(v -> {
+            if (listener != null) {
+                listener.onSeeAllFontsClicked();
+            }
+        });
+
+        PickerStrip.fonts(fontsList, (font, position) -> {
+            if (listener != null) {
+                listener.onFontSelected(font.getName());
+            }
+        });
     }
 
     // ============================================================================
@@ -608,8 +615,10 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int blurValue = (int) value;
             valueText.setText(blurValue + "px");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onTextShadowBlurChanged(blurValue);
+                listener.onTextShadowBlurChanged((int) value);
             }
         });
     }
@@ -629,9 +638,9 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         removeCard.setVisibility(View.GONE);
 
         List<ColorItem> colors = createColorList();
-        LinearLayout colorsContainer = shadowColorContent.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = shadowColorContent.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             if (listener != null) {
                 listener.onTextShadowColorSelected(color);
             }
@@ -655,8 +664,10 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int opacityValue = (int) value;
             valueText.setText(opacityValue + "%");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onTextShadowOpacityChanged(opacityValue);
+                listener.onTextShadowOpacityChanged((int) value);
             }
         });
     }
@@ -801,6 +812,8 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
 
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             valueText.setText(String.format("%.0f°", value));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
                 listener.onTextRotationChanged(value);
             }
@@ -835,8 +848,10 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int curveValue = (int) value;
             valueText.setText(String.valueOf(curveValue));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onTextCurveChanged(curveValue);
+                listener.onTextCurveChanged((int) value);
             }
         });
     }
@@ -861,8 +876,10 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int widthValue = (int) value;
             valueText.setText(widthValue + "px");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onAutoParagraphChanged(widthValue);
+                listener.onAutoParagraphChanged((int) value);
             }
         });
     }
@@ -889,6 +906,8 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
 
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             valueText.setText(String.format("%.1f", value));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
                 listener.onLineSpaceChanged(value);
             }
@@ -914,6 +933,8 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
 
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             valueText.setText(String.format("%.2f", value));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
                 listener.onLetterSpaceChanged(value);
             }
@@ -940,8 +961,10 @@ public class EditTextOptionsSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int opacityValue = (int) value;
             valueText.setText(opacityValue + "%");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onTextOpacityChanged(opacityValue);
+                listener.onTextOpacityChanged((int) value);
             }
         });
     }
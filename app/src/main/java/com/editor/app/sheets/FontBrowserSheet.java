@@ -0,0 +1,60 @@
+package com.editor.app.sheets;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.editor.app.R;
+import com.editor.app.sheets.adapters.PickerStrip;
+import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
+
+// Every indexed font. Rows show pre-rendered previews from the font atlas, no
+// typeface is loaded until a font is picked.
+public class FontBrowserSheet extends BottomSheetDialogFragment {
+    public static final String TAG = "FontBrowserSheet";
+    private static final int SPAN_COUNT = 2;
+
+    public interface FontBrowserListener {
+        void onFontSelected(String fontName);
+    }
+
+    private FontBrowserListener listener;
+
+    public static FontBrowserSheet newInstance() {
+        return new FontBrowserSheet();
+    }
+
+    public void setListener(FontBrowserListener listener) {
+        this.listener = listener;
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.font_browser_sheet, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        ImageButton backButton = view.findViewById(R.id.backButton);
+        backButton.setOnClickListener(v -> dismiss());
+
+        RecyclerView grid = view.findViewById(R.id.fontGrid);
+        grid.setLayoutManager(new GridLayoutManager(getContext(), SPAN_COUNT));
+        PickerStrip.fontGrid(grid, (font, position) -> {
+            if (listener != null) {
+                listener.onFontSelected(font.getName());
+            }
+        });
+    }
+}
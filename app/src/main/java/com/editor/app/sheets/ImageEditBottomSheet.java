@@ -9,16 +9,15 @@ import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.editor.app.R;
-import com.editor.app.sheets.adapters.ColorViewBinder;
-import com.editor.app.sheets.adapters.GradientViewBinder;
+import com.editor.app.sheets.adapters.PickerStrip;
 import com.editor.app.sheets.models.ColorItem;
 import com.editor.app.sheets.models.GradientItem;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
@@ -54,6 +53,15 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         void onRemoveColorClicked();
         void onRemoveGradientClicked();
 
+        // Effects mode
+        void onEffectSelected(ImageEffect effect);
+
+        // Hue mode
+        void onHueChanged(int hue);
+        void onSaturationChanged(int saturation);
+        void onBrightnessChanged(int brightness);
+        void onContrastChanged(int contrast);
+
         // Shadow mode
         void onShadowAngleChanged(String direction); // LEFT, UP, DOWN, RIGHT
         void onShadowBlurChanged(int blur);
@@ -81,6 +89,10 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         POSITION, ROTATION, OPACITY
     }
 
+    public enum ImageEffect {
+        NONE, MONO, SEPIA, VINTAGE, COOL, WARM, FADE
+    }
+
     public enum ImagePosition {
         VERTICAL_TOP, VERTICAL_BOTTOM, VERTICAL_CENTER,
         HORIZONTAL_LEFT, HORIZONTAL_CENTER, HORIZONTAL_RIGHT
@@ -147,13 +159,15 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
     }
 
     private void setupDynamicChips() {
-        String[] chipTitles = {"Edit", "Size", "Crop", "Color", "Shadow",
+        String[] chipTitles = {"Edit", "Size", "Crop", "Color", "Effects", "Hue", "Shadow",
                 "Position", "Rotation", "Opacity"};
         ImageEditMode[] modes = {
                 ImageEditMode.EDIT,
                 ImageEditMode.SIZE,
                 ImageEditMode.CROP,
                 ImageEditMode.COLOR,
+                ImageEditMode.EFFECTS,
+                ImageEditMode.HUE,
                 ImageEditMode.SHADOW,
                 ImageEditMode.POSITION,
                 ImageEditMode.ROTATION,
@@ -201,6 +215,12 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
             case COLOR:
                 showColorContent();
                 break;
+            case EFFECTS:
+                showEffectsContent();
+                break;
+            case HUE:
+                showHueContent();
+                break;
             case SHADOW:
                 showShadowContent();
                 break;
@@ -268,8 +288,10 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         sizeSlider.addOnChangeListener((slider, value, fromUser) -> {
             int sizeValue = (int) value;
             sizeValueText.setText(sizeValue + "px");
+        });
+        SliderDispatcher.bind(sizeSlider, value -> {
             if (listener != null) {
-                listener.onSizeChanged(sizeValue);
+                listener.onSizeChanged((int) value);
             }
         });
     }
@@ -350,9 +372,9 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         removeColorCard.setVisibility(View.VISIBLE);
 
         List<ColorItem> colors = createColorList();
-        LinearLayout colorsContainer = colorSolidContent.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = colorSolidContent.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             currentColor = color;
             if (listener != null) {
                 listener.onColorSelected(color);
@@ -391,9 +413,9 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         removeGradientCard.setVisibility(View.VISIBLE);
 
         List<GradientItem> gradients = createGradientList();
-        LinearLayout gradientsContainer = contentView.findViewById(R.id.gradientsContainer);
+        RecyclerView gradientsList = contentView.findViewById(R.id.gradientsList);
 
-        new GradientViewBinder(gradientsContainer, gradients, (gradient, position) -> {
+        PickerStrip.gradients(gradientsList, gradients, (gradient, position) -> {
             currentGradient = gradient;
             if (listener != null) {
                 listener.onColorGradientSelected(gradient);
@@ -411,6 +433,80 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         });
     }
 
+    // ============================================================================
+    // EFFECTS MODE
+    // ============================================================================
+
+    private void showEffectsContent() {
+        if (effectsContent == null) {
+            effectsContent = LayoutInflater.from(getContext())
+                    .inflate(R.layout.image_edit_content_effects, contentContainer, false);
+            setupEffectChips();
+        }
+        contentContainer.addView(effectsContent);
+    }
+
+    private void setupEffectChips() {
+        ChipGroup effectsChipGroup = effectsContent.findViewById(R.id.effectsChipGroup);
+        String[] titles = {"None", "Mono", "Sepia", "Vintage", "Cool", "Warm", "Fade"};
+        ImageEffect[] effects = ImageEffect.values();
+
+        for (int i = 0; i < effects.length; i++) {
+            Chip chip = (Chip) LayoutInflater.from(getContext())
+                    .inflate(R.layout.item_filter_chip, effectsChipGroup, false);
+            chip.setText(titles[i]);
+            chip.setCheckable(true);
+            chip.setId(View.generateViewId());
+            chip.setChecked(effects[i] == ImageEffect.NONE);
+
+            final ImageEffect effect = effects[i];
+            chip.setOnClickListener(v -> {
+                if (listener != null) listener.onEffectSelected(effect);
+            });
+            effectsChipGroup.addView(chip);
+        }
+    }
+
+    // ============================================================================
+    // HUE MODE
+    // ============================================================================
+
+    private void showHueContent() {
+        if (hueContent == null) {
+            hueContent = LayoutInflater.from(getContext())
+                    .inflate(R.layout.image_edit_content_hue, contentContainer, false);
+            setupHueSliders();
+        }
+        contentContainer.addView(hueContent);
+    }
+
+    private void setupHueSliders() {
+        bindAdjustmentSlider(R.id.hueSlider, R.id.hueValue, value -> {
+            if (listener != null) listener.onHueChanged(value);
+        });
+        bindAdjustmentSlider(R.id.saturationSlider, R.id.saturationValue, value -> {
+            if (listener != null) listener.onSaturationChanged(value);
+        });
+        bindAdjustmentSlider(R.id.brightnessSlider, R.id.brightnessValue, value -> {
+            if (listener != null) listener.onBrightnessChanged(value);
+        });
+        bindAdjustmentSlider(R.id.contrastSlider, R.id.contrastValue, value -> {
+            if (listener != null) listener.onContrastChanged(value);
+        });
+    }
+
+    private interface AdjustmentCallback {
+        void onChanged(int value);
+    }
+
+    private void bindAdjustmentSlider(int sliderId, int valueId, AdjustmentCallback callback) {
+        Slider slider = hueContent.findViewById(sliderId);
+        TextView valueText = hueContent.findViewById(valueId);
+
+        slider.addOnChangeListener((sliderView, value, fromUser) -> valueText.setText(String.valueOf((int) value)));
+        SliderDispatcher.bind(slider, value -> callback.onChanged((int) value));
+    }
+
     private void showShadowContent() {
         if (shadowContent == null) {
             shadowContent = LayoutInflater.from(getContext())
@@ -499,8 +595,10 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int blurValue = (int) value;
             valueText.setText(blurValue + "px");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onShadowBlurChanged(blurValue);
+                listener.onShadowBlurChanged((int) value);
             }
         });
     }
@@ -524,9 +622,9 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         removeCard.setVisibility(View.GONE);
 
         List<ColorItem> colors = createColorList();
-        LinearLayout colorsContainer = shadowColorContent.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = shadowColorContent.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             if (listener != null) {
                 listener.onShadowColorSelected(color);
             }
@@ -558,8 +656,10 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int opacityValue = (int) value;
             valueText.setText(opacityValue + "%");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onShadowOpacityChanged(opacityValue);
+                listener.onShadowOpacityChanged((int) value);
             }
         });
     }
@@ -651,6 +751,8 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
 
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             valueText.setText(String.format("%.0f°", value));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
                 listener.onZRotationChanged(value);
             }
@@ -678,6 +780,8 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
 
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             valueText.setText(String.format("%.0f°", value));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
                 listener.onXRotationChanged(value);
             }
@@ -705,6 +809,8 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
 
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             valueText.setText(String.format("%.0f°", value));
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
                 listener.onYRotationChanged(value);
             }
@@ -764,8 +870,10 @@ public class ImageEditBottomSheet extends BottomSheetDialogFragment {
         slider.addOnChangeListener((sliderView, value, fromUser) -> {
             int opacityValue = (int) value;
             valueText.setText(opacityValue + "%");
+        });
+        SliderDispatcher.bind(slider, value -> {
             if (listener != null) {
-                listener.onOpacityChanged(opacityValue);
+                listener.onOpacityChanged((int) value);
             }
         });
     }
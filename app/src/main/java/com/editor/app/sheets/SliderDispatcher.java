@@ -0,0 +1,174 @@
+package com.editor.app.sheets;
+
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.material.slider.Slider;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Coalesces slider ticks so listeners see at most one value per property per frame.
+// Intermediate values that are superseded before the next vsync are dropped, the
+// value at release is always delivered. Main thread only.
+public final class SliderDispatcher implements Choreographer.FrameCallback {
+
+    public interface ValueListener {
+        void onValueChanged(float value);
+    }
+
+    // Called once the last finger leaves the sliders, after the release value
+    // (if it differs from the last delivered one) has been delivered
+    public interface DragListener {
+        void onDragEnded();
+    }
+
+    private static SliderDispatcher instance;
+
+    private final List<Channel> pending = new ArrayList<>();
+    private boolean frameScheduled;
+    // Sliders with a finger on them. A slider that leaves the window mid-drag
+    // (sheet dismissed, content swapped) gets no stop, detaching ends its drag.
+    private final Set<Slider> dragging = new HashSet<>();
+    // Set while a channel delivers
+    private long eventNanos;
+    private DragListener dragListener;
+
+    public static SliderDispatcher getInstance() {
+        if (instance == null) {
+            instance = new SliderDispatcher();
+        }
+        return instance;
+    }
+
+    private SliderDispatcher() {
+    }
+
+    // Routes the slider's value changes through the dispatcher
+    public static void bind(@NonNull Slider slider, @NonNull ValueListener listener) {
+        Channel channel = getInstance().channel(listener);
+
+        slider.addOnChangeListener((sliderView, value, fromUser) -> channel.post(value));
+        slider.addOnSliderTouchListener(new Slider.OnSliderTouchListener() {
+            @Override
+            public void onStartTrackingTouch(@NonNull Slider sliderView) {
+                getInstance().dragging.add(sliderView);
+            }
+
+            @Override
+            public void onStopTrackingTouch(@NonNull Slider sliderView) {
+                SliderDispatcher dispatcher = getInstance();
+                boolean ended = dispatcher.dragging.remove(sliderView);
+                channel.post(sliderView.getValue());
+                channel.flush();
+                // The release value is usually the last one sent during the drag and
+                // delivers nothing, so drag end has its own callback
+                if (ended) dispatcher.onDragEnded();
+            }
+        });
+        slider.addOnAttachStateChangeListener(new View.OnAttachStateChangeListener() {
+            @Override
+            public void onViewAttachedToWindow(@NonNull View view) {
+            }
+
+            @Override
+            public void onViewDetachedFromWindow(@NonNull View view) {
+                SliderDispatcher dispatcher = getInstance();
+                if (dispatcher.dragging.remove(slider)) dispatcher.onDragEnded();
+            }
+        });
+    }
+
+    public Channel channel(@NonNull ValueListener listener) {
+        return new Channel(this, listener);
+    }
+
+    // The dispatcher outlives activities, clear the listener when its owner goes
+    public void setDragListener(@Nullable DragListener listener) {
+        dragListener = listener;
+    }
+
+    // True while the user has a finger on any bound slider
+    public boolean isDragging() {
+        return !dragging.isEmpty();
+    }
+
+    // System.nanoTime of the oldest tick behind the value being delivered, 0 outside
+    // a delivery. Latency measurements start here rather than at the frame.
+    public long getEventTime() {
+        return eventNanos;
+    }
+
+    private void onDragEnded() {
+        if (dragging.isEmpty() && dragListener != null) {
+            dragListener.onDragEnded();
+        }
+    }
+
+    private void schedule(Channel channel) {
+        pending.add(channel);
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        // Listeners may post again while we dispatch, those land in the next frame
+        int count = pending.size();
+        for (int i = 0; i < count; i++) {
+            pending.get(i).dispatch();
+        }
+        pending.subList(0, count).clear();
+    }
+
+    public static final class Channel {
+        private final SliderDispatcher dispatcher;
+        private final ValueListener listener;
+
+        private float latestValue;
+        private float dispatchedValue = Float.NaN;
+        private boolean scheduled;
+        private long postedNanos;
+
+        private Channel(SliderDispatcher dispatcher, ValueListener listener) {
+            this.dispatcher = dispatcher;
+            this.listener = listener;
+        }
+
+        // Keeps only the latest value until the next frame
+        public void post(float value) {
+            latestValue = value;
+            if (!scheduled) {
+                scheduled = true;
+                postedNanos = System.nanoTime();
+                dispatcher.schedule(this);
+            }
+        }
+
+        // Delivers the latest value now instead of waiting for the frame
+        public void flush() {
+            dispatch();
+        }
+
+        private void dispatch() {
+            if (!scheduled) return;
+            scheduled = false;
+            if (latestValue == dispatchedValue) return;
+            dispatchedValue = latestValue;
+            dispatcher.eventNanos = postedNanos;
+            try {
+                listener.onValueChanged(latestValue);
+            } finally {
+                dispatcher.eventNanos = 0;
+            }
+        }
+    }
+}
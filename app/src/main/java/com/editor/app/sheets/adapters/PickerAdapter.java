@@ -0,0 +1,170 @@
+package com.editor.app.sheets.adapters;
+
+import android.graphics.Color;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.material.card.MaterialCardView;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Adapter behind every picker strip. What an item looks like comes from an
+// ItemBinder; selection changes only restyle the two affected cards.
+public class PickerAdapter<T> extends RecyclerView.Adapter<PickerAdapter.ItemHolder> {
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    public interface OnItemSelectedListener<T> {
+        void onItemSelected(T item, int position);
+    }
+
+    public interface ItemBinder<T> {
+        // Also the view type, strips with the same layout share recycled views
+        @LayoutRes
+        int getLayout();
+
+        int getSelectedStrokeWidth();
+
+        void bind(@NonNull ItemHolder holder, @NonNull T item);
+
+        // Releases whatever the holder loaded (images)
+        default void unbind(@NonNull ItemHolder holder) {
+        }
+    }
+
+    private final List<T> items;
+    private final ItemBinder<T> binder;
+    private final OnItemSelectedListener<T> listener;
+    private int selectedPosition = RecyclerView.NO_POSITION;
+
+    // Items keep their id for as long as the adapter lives
+    private final Map<T, Long> ids = new IdentityHashMap<>();
+    private long nextId;
+
+    public PickerAdapter(List<T> items, ItemBinder<T> binder, OnItemSelectedListener<T> listener) {
+        this.items = items;
+        this.binder = binder;
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public ItemHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(viewType, parent, false);
+        return new ItemHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemHolder holder, int position) {
+        binder.bind(holder, items.get(position));
+        updateSelection(holder, position == selectedPosition);
+
+        // The position is read at click time, the holder may have moved since binding
+        holder.card.setOnClickListener(v -> {
+            int current = holder.getBindingAdapterPosition();
+            if (current == RecyclerView.NO_POSITION) return;
+            setSelectedPosition(current);
+            if (listener != null) {
+                listener.onItemSelected(items.get(current), current);
+            }
+        });
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && allSelection(payloads)) {
+            updateSelection(holder, position == selectedPosition);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ItemHolder holder) {
+        binder.unbind(holder);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return binder.getLayout();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        T item = items.get(position);
+        Long id = ids.get(item);
+        if (id == null) {
+            id = nextId++;
+            ids.put(item, id);
+        }
+        return id;
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    public T getItem(int position) {
+        return items.get(position);
+    }
+
+    public void setSelectedPosition(int position) {
+        int previousPosition = selectedPosition;
+        selectedPosition = position;
+
+        if (previousPosition != RecyclerView.NO_POSITION) {
+            notifyItemChanged(previousPosition, PAYLOAD_SELECTION);
+        }
+        if (selectedPosition != RecyclerView.NO_POSITION) {
+            notifyItemChanged(selectedPosition, PAYLOAD_SELECTION);
+        }
+    }
+
+    public void clearSelection() {
+        setSelectedPosition(RecyclerView.NO_POSITION);
+    }
+
+    public void addItems(List<T> newItems) {
+        int startPosition = items.size();
+        items.addAll(newItems);
+        notifyItemRangeInserted(startPosition, newItems.size());
+    }
+
+    private void updateSelection(ItemHolder holder, boolean isSelected) {
+        if (isSelected) {
+            holder.card.setStrokeWidth(binder.getSelectedStrokeWidth());
+            holder.card.setStrokeColor(Color.WHITE);
+            holder.card.setCardElevation(8f);
+        } else {
+            holder.card.setStrokeWidth(0);
+            holder.card.setCardElevation(2f);
+        }
+    }
+
+    private static boolean allSelection(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SELECTION) return false;
+        }
+        return true;
+    }
+
+    // Every picker item is a card with one content view
+    public static class ItemHolder extends RecyclerView.ViewHolder {
+        public final MaterialCardView card;
+        public final View content;
+
+        ItemHolder(@NonNull View itemView) {
+            super(itemView);
+            card = (MaterialCardView) itemView;
+            content = card.getChildAt(0);
+        }
+    }
+}
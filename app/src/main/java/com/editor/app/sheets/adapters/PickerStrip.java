@@ -0,0 +1,273 @@
+package com.editor.app.sheets.adapters;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.graphics.Bitmap;
+import android.graphics.drawable.GradientDrawable;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
+import com.google.android.material.color.MaterialColors;
+import com.editor.app.R;
+import com.editor.app.api.MediaUrls;
+import com.editor.app.api.models.Media;
+import com.editor.app.fonts.FontAtlas;
+import com.editor.app.fonts.FontPreviewDrawable;
+import com.editor.app.fonts.FontRegistry;
+import com.editor.app.sheets.models.ColorItem;
+import com.editor.app.sheets.models.GradientItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sets up the horizontal color, gradient, texture and font strips used by every sheet.
+// Only the cards on screen are inflated, and all strips in an activity draw from
+// one pool of recycled cards.
+public final class PickerStrip {
+    private static final int MAX_RECYCLED_PER_TYPE = 16;
+    private static final float CORNER_RADIUS = 12f;
+
+    public interface OnColorSelectedListener {
+        void onColorSelected(int color, int position);
+    }
+
+    public interface OnGradientSelectedListener {
+        void onGradientSelected(GradientItem gradient, int position);
+    }
+
+    // Pooled cards hold their activity's context, so a weak map would never drop
+    // them; the activity removes its pool with release()
+    private static final Map<Activity, RecyclerView.RecycledViewPool> POOLS = new HashMap<>();
+
+    private PickerStrip() {
+    }
+
+    public static PickerAdapter<ColorItem> colors(@NonNull RecyclerView recyclerView, @NonNull List<ColorItem> colors,
+                                                  @NonNull OnColorSelectedListener listener) {
+        PickerAdapter<ColorItem> adapter = new PickerAdapter<>(colors, COLOR_BINDER,
+                (item, position) -> listener.onColorSelected(item.getColor(), position));
+        attach(recyclerView, adapter);
+        return adapter;
+    }
+
+    public static PickerAdapter<GradientItem> gradients(@NonNull RecyclerView recyclerView,
+                                                        @NonNull List<GradientItem> gradients,
+                                                        @NonNull OnGradientSelectedListener listener) {
+        PickerAdapter<GradientItem> adapter = new PickerAdapter<>(gradients, GRADIENT_BINDER,
+                listener::onGradientSelected);
+        attach(recyclerView, adapter);
+        return adapter;
+    }
+
+    // Starts empty, pages are appended with addItems()
+    public static PickerAdapter<Media> textures(@NonNull RecyclerView recyclerView,
+                                                @NonNull PickerAdapter.OnItemSelectedListener<Media> listener) {
+        PickerAdapter<Media> adapter = new PickerAdapter<>(new ArrayList<>(), TEXTURE_BINDER, listener);
+        attach(recyclerView, adapter);
+        return adapter;
+    }
+
+    // Every indexed font, previews come from the font atlas
+    public static PickerAdapter<FontRegistry.Font> fonts(@NonNull RecyclerView recyclerView,
+                                                         @NonNull PickerAdapter.OnItemSelectedListener<FontRegistry.Font> listener) {
+        List<FontRegistry.Font> fonts = FontRegistry.getInstance(recyclerView.getContext()).getFonts();
+        PickerAdapter<FontRegistry.Font> adapter = new PickerAdapter<>(new ArrayList<>(fonts), FONT_BINDER, listener);
+        attach(recyclerView, adapter);
+        return adapter;
+    }
+
+    // Same previews as a vertical grid, for the font browser
+    public static PickerAdapter<FontRegistry.Font> fontGrid(@NonNull RecyclerView recyclerView,
+                                                            @NonNull PickerAdapter.OnItemSelectedListener<FontRegistry.Font> listener) {
+        List<FontRegistry.Font> fonts = FontRegistry.getInstance(recyclerView.getContext()).getFonts();
+        PickerAdapter<FontRegistry.Font> adapter = new PickerAdapter<>(new ArrayList<>(fonts), FONT_ROW_BINDER, listener);
+        recyclerView.setRecycledViewPool(sharedPool(recyclerView.getContext()));
+        recyclerView.setAdapter(adapter);
+        return adapter;
+    }
+
+    // Drops the activity's recycled cards, from onDestroy
+    public static void release(@NonNull Activity activity) {
+        RecyclerView.RecycledViewPool pool = POOLS.remove(activity);
+        if (pool != null) pool.clear();
+    }
+
+    private static void attach(RecyclerView recyclerView, PickerAdapter<?> adapter) {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(
+                recyclerView.getContext(), RecyclerView.HORIZONTAL, false);
+        // Cards go back to the shared pool when the sheet closes
+        layoutManager.setRecycleChildrenOnDetach(true);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setRecycledViewPool(sharedPool(recyclerView.getContext()));
+        recyclerView.setAdapter(adapter);
+    }
+
+    private static RecyclerView.RecycledViewPool sharedPool(Context context) {
+        Activity activity = findActivity(context);
+        if (activity == null) {
+            return new RecyclerView.RecycledViewPool();
+        }
+        RecyclerView.RecycledViewPool pool = POOLS.get(activity);
+        if (pool == null) {
+            pool = new RecyclerView.RecycledViewPool();
+            pool.setMaxRecycledViews(R.layout.item_color, MAX_RECYCLED_PER_TYPE);
+            pool.setMaxRecycledViews(R.layout.item_gradient, MAX_RECYCLED_PER_TYPE);
+            pool.setMaxRecycledViews(R.layout.item_texture, MAX_RECYCLED_PER_TYPE);
+            pool.setMaxRecycledViews(R.layout.item_font, MAX_RECYCLED_PER_TYPE);
+            pool.setMaxRecycledViews(R.layout.item_font_row, MAX_RECYCLED_PER_TYPE);
+            POOLS.put(activity, pool);
+        }
+        return pool;
+    }
+
+    private static Activity findActivity(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    // ============================================================================
+    // ITEM BINDERS
+    // ============================================================================
+
+    // Each card keeps its drawable, rebinding only changes its colors
+    private static GradientDrawable obtainDrawable(PickerAdapter.ItemHolder holder) {
+        if (holder.content.getBackground() instanceof GradientDrawable) {
+            return (GradientDrawable) holder.content.getBackground();
+        }
+        GradientDrawable drawable = new GradientDrawable();
+        drawable.setShape(GradientDrawable.RECTANGLE);
+        drawable.setCornerRadius(CORNER_RADIUS);
+        holder.content.setBackground(drawable);
+        return drawable;
+    }
+
+    private static final PickerAdapter.ItemBinder<ColorItem> COLOR_BINDER = new PickerAdapter.ItemBinder<>() {
+        @Override
+        public int getLayout() {
+            return R.layout.item_color;
+        }
+
+        @Override
+        public int getSelectedStrokeWidth() {
+            return 8;
+        }
+
+        @Override
+        public void bind(@NonNull PickerAdapter.ItemHolder holder, @NonNull ColorItem item) {
+            obtainDrawable(holder).setColor(item.getColor());
+        }
+    };
+
+    private static final PickerAdapter.ItemBinder<GradientItem> GRADIENT_BINDER = new PickerAdapter.ItemBinder<>() {
+        @Override
+        public int getLayout() {
+            return R.layout.item_gradient;
+        }
+
+        @Override
+        public int getSelectedStrokeWidth() {
+            return 6;
+        }
+
+        @Override
+        public void bind(@NonNull PickerAdapter.ItemHolder holder, @NonNull GradientItem item) {
+            GradientDrawable drawable = obtainDrawable(holder);
+            drawable.setOrientation(GradientDrawable.Orientation.LEFT_RIGHT);
+            drawable.setColors(item.getColors());
+        }
+    };
+
+    private static final PickerAdapter.ItemBinder<Media> TEXTURE_BINDER = new PickerAdapter.ItemBinder<>() {
+        @Override
+        public int getLayout() {
+            return R.layout.item_texture;
+        }
+
+        @Override
+        public int getSelectedStrokeWidth() {
+            return 6;
+        }
+
+        @Override
+        public void bind(@NonNull PickerAdapter.ItemHolder holder, @NonNull Media item) {
+            // The card size is fixed, so the tier is known before layout
+            int size = holder.card.getLayoutParams().width;
+            Glide.with(holder.content)
+                    .load(MediaUrls.forWidth(item.getUrls(), size))
+                    .placeholder(R.drawable.image_24px)
+                    .transition(DrawableTransitionOptions.withCrossFade())
+                    .centerCrop()
+                    .into((ImageView) holder.content);
+        }
+
+        @Override
+        public void unbind(@NonNull PickerAdapter.ItemHolder holder) {
+            Glide.with(holder.content).clear(holder.content);
+        }
+    };
+
+    private static final PickerAdapter.ItemBinder<FontRegistry.Font> FONT_BINDER = new FontBinder(R.layout.item_font);
+    private static final PickerAdapter.ItemBinder<FontRegistry.Font> FONT_ROW_BINDER = new FontBinder(R.layout.item_font_row);
+
+    // The atlas page is requested when a card needs it. The card may be showing
+    // another font by the time the page is ready, the tag tells.
+    private static final class FontBinder implements PickerAdapter.ItemBinder<FontRegistry.Font> {
+        private final int layout;
+
+        FontBinder(int layout) {
+            this.layout = layout;
+        }
+
+        @Override
+        public int getLayout() {
+            return layout;
+        }
+
+        @Override
+        public int getSelectedStrokeWidth() {
+            return 4;
+        }
+
+        @Override
+        public void bind(@NonNull PickerAdapter.ItemHolder holder, @NonNull FontRegistry.Font item) {
+            ImageView view = (ImageView) holder.content;
+            FontPreviewDrawable drawable;
+            if (view.getDrawable() instanceof FontPreviewDrawable) {
+                drawable = (FontPreviewDrawable) view.getDrawable();
+            } else {
+                drawable = new FontPreviewDrawable(MaterialColors.getColor(view,
+                        com.google.android.material.R.attr.colorOnSurface));
+                view.setImageDrawable(drawable);
+            }
+            view.setContentDescription(item.getName());
+            view.setTag(item);
+
+            FontAtlas atlas = FontAtlas.getInstance(view.getContext());
+            int index = item.getIndex();
+            int page = FontAtlas.pageOf(index);
+            Bitmap bitmap = atlas.peekPage(page);
+            drawable.setRow(bitmap, index);
+            if (bitmap == null) {
+                atlas.requestPage(page, () -> {
+                    if (view.getTag() == item) drawable.setRow(atlas.peekPage(page), index);
+                });
+            }
+        }
+
+        @Override
+        public void unbind(@NonNull PickerAdapter.ItemHolder holder) {
+            holder.content.setTag(null);
+        }
+    }
+}
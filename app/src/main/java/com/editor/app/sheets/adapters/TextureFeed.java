@@ -0,0 +1,111 @@
+package com.editor.app.sheets.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.editor.app.api.WallpaperRepository;
+import com.editor.app.api.models.Media;
+import com.editor.app.api.models.SearchResponse;
+
+import java.util.List;
+
+// Endless texture strip. Pages are requested one at a time when the user scrolls
+// within PREFETCH_DISTANCE items of the end, and stop at the last page the search
+// reports. Item views are recycled, so only what is on screen is ever bound.
+public class TextureFeed {
+    private static final int PREFETCH_DISTANCE = 6;
+    private static final int VIEW_CACHE_SIZE = 4;
+
+    public interface OnLoadFailedListener {
+        void onLoadFailed(Throwable t);
+    }
+
+    private final RecyclerView recyclerView;
+    private final LinearLayoutManager layoutManager;
+    private final PickerAdapter<Media> adapter;
+    private OnLoadFailedListener failedListener;
+
+    private int loadedPages;
+    private int totalPages = Integer.MAX_VALUE;
+    private boolean loading;
+    // Scrolling doesn't retry a failed page, start() does
+    private boolean failed;
+
+    public TextureFeed(@NonNull RecyclerView recyclerView,
+                       @NonNull PickerAdapter.OnItemSelectedListener<Media> listener) {
+        this.recyclerView = recyclerView;
+        this.adapter = PickerStrip.textures(recyclerView, listener);
+        this.layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+
+        recyclerView.setItemViewCacheSize(VIEW_CACHE_SIZE);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                loadMoreIfNeeded();
+            }
+        });
+    }
+
+    public void setOnLoadFailedListener(@Nullable OnLoadFailedListener failedListener) {
+        this.failedListener = failedListener;
+    }
+
+    // Loads the first page, later pages follow the scroll position
+    public void start() {
+        failed = false;
+        if (loadedPages == 0) {
+            loadNextPage();
+        } else {
+            loadMoreIfNeeded();
+        }
+    }
+
+    public void clearSelection() {
+        adapter.clearSelection();
+    }
+
+    private void loadMoreIfNeeded() {
+        if (failed) return;
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible != RecyclerView.NO_POSITION
+                && lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
+
+    private void loadNextPage() {
+        if (loading || loadedPages >= totalPages) return;
+        loading = true;
+
+        int page = loadedPages + 1;
+        WallpaperRepository.getInstance().searchTextures(page, new WallpaperRepository.SearchCallback() {
+            @Override
+            public void onSuccess(@NonNull SearchResponse response) {
+                loading = false;
+                loadedPages = page;
+                totalPages = response.getTotal_pages();
+
+                List<Media> textures = response.getResults();
+                if (textures == null || textures.isEmpty()) {
+                    totalPages = loadedPages;
+                    return;
+                }
+                adapter.addItems(textures);
+
+                // A short first page may not fill the strip, keep going until it scrolls
+                recyclerView.post(TextureFeed.this::loadMoreIfNeeded);
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                loading = false;
+                failed = true;
+                if (failedListener != null) {
+                    failedListener.onLoadFailed(t);
+                }
+            }
+        });
+    }
+}
@@ -13,17 +13,15 @@ import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.editor.app.R;
-import com.editor.app.api.WallpaperClient;
 import com.editor.app.api.models.Media;
-import com.editor.app.api.models.SearchResponse;
 import com.editor.app.sheets.BackgroundEditBottomSheet.BorderType;
-import com.editor.app.sheets.adapters.ColorViewBinder;
-import com.editor.app.sheets.adapters.GradientViewBinder;
-import com.editor.app.sheets.adapters.TextureViewBinder;
+import com.editor.app.sheets.SliderDispatcher;
+import com.editor.app.sheets.adapters.PickerStrip;
+import com.editor.app.sheets.adapters.TextureFeed;
 import com.editor.app.sheets.models.ColorItem;
 import com.editor.app.sheets.models.GradientItem;
 import com.google.android.material.button.MaterialButton;
@@ -35,10 +33,6 @@ import com.google.android.material.slider.Slider;
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class BorderOptionsView extends LinearLayout {
     private static final String TAG = "BorderOptionsView";
 
@@ -79,7 +73,7 @@ public class BorderOptionsView extends LinearLayout {
     private View offContent, sizeContent, solidContent, gradientContent, patternContent, opacityContent;
 
     // Texture data
-    private TextureViewBinder textureBinder;
+    private TextureFeed textureFeed;
 
     public BorderOptionsView(Context context) {
         super(context);
@@ -198,9 +192,9 @@ public class BorderOptionsView extends LinearLayout {
                 if (fromUser) {
                     currentSize = (int) value;
                     sizeValue.setText(currentSize + "px");
-                    notifyBorderStateChanged();
                 }
             });
+            SliderDispatcher.bind(sizeSlider, value -> notifyBorderStateChanged());
         }
         contentContainer.addView(sizeContent);
     }
@@ -221,9 +215,9 @@ public class BorderOptionsView extends LinearLayout {
 
         List<ColorItem> colors = createColorList();
 
-        LinearLayout colorsContainer = solidContent.findViewById(R.id.colorsContainer);
+        RecyclerView colorsList = solidContent.findViewById(R.id.colorsList);
 
-        new ColorViewBinder(colorsContainer, colors, (color, position) -> {
+        PickerStrip.colors(colorsList, colors, (color, position) -> {
             currentColor = color;
             if (listener != null) {
                 listener.onSolidColorSelected(color);
@@ -259,9 +253,9 @@ public class BorderOptionsView extends LinearLayout {
         // Setup RecyclerView
         List<GradientItem> gradients = createGradientList();
 
-        LinearLayout gradientsContainer = gradientContent.findViewById(R.id.gradientsContainer);
+        RecyclerView gradientsList = gradientContent.findViewById(R.id.gradientsList);
 
-        new GradientViewBinder(gradientsContainer, gradients, (gradient, position) -> {
+        PickerStrip.gradients(gradientsList, gradients, (gradient, position) -> {
             if (listener != null) {
                 listener.onGradientSelected(gradient);
             }
@@ -287,14 +281,15 @@ public class BorderOptionsView extends LinearLayout {
 
     private void setupPatternPickers() {
         MaterialCardView seeAllCard = patternContent.findViewById(R.id.seeAllPatternsCard);
-        LinearLayout texturesContainer = patternContent.findViewById(R.id.texturesContainer);
+        RecyclerView texturesList = patternContent.findViewById(R.id.texturesList);
         MaterialCardView removeCard = patternContent.findViewById(R.id.removePatternCard);
 
-        textureBinder = new TextureViewBinder(texturesContainer, new ArrayList<>(), (texture, position) -> {
+        textureFeed = new TextureFeed(texturesList, (texture, position) -> {
             if (listener != null) {
                 listener.onTextureSelected(texture);
             }
         });
+        textureFeed.setOnLoadFailedListener(t -> Log.e(TAG, "Error loading textures", t));
 
         // Setup See All button
         seeAllCard.setVisibility(View.VISIBLE);
@@ -307,40 +302,11 @@ public class BorderOptionsView extends LinearLayout {
         // Setup Remove button
         removeCard.setOnClickListener(v -> {
             // Remove selected texture
+            textureFeed.clearSelection();
         });
 
         // Load textures from Unsplash
-        loadTexturesFromUnsplash();
-    }
-
-    private void loadTexturesFromUnsplash() {
-        WallpaperClient.getApi().getSearchMedia(
-                "illustrations",
-                1,
-                20,
-                "portrait",
-                "texture pattern"
-        ).enqueue(new Callback<>() {
-            @Override
-            public void onResponse(@NonNull Call<SearchResponse> call, @NonNull Response<SearchResponse> response) {
-
-                if (response.isSuccessful() && response.body() != null) {
-                    SearchResponse searchResponse = response.body();
-                    List<Media> newTextures = searchResponse.getResults();
-
-                    if (newTextures != null && !newTextures.isEmpty()) {
-                        textureBinder.addTextures(newTextures);
-                    }
-                } else {
-                    Log.e(TAG, "Failed to load textures: " + response.code());
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<SearchResponse> call, @NonNull Throwable t) {
-                Log.e(TAG, "Error loading textures", t);
-            }
-        });
+        textureFeed.start();
     }
 
     @SuppressLint("SetTextI18n")
@@ -359,9 +325,9 @@ public class BorderOptionsView extends LinearLayout {
                 if (fromUser) {
                     currentOpacity = (int) value;
                     opacityValue.setText(currentOpacity + "%");
-                    notifyBorderStateChanged();
                 }
             });
+            SliderDispatcher.bind(opacitySlider, value -> notifyBorderStateChanged());
         }
         contentContainer.addView(opacityContent);
     }
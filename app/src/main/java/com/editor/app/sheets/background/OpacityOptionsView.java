@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.editor.app.R;
+import com.editor.app.sheets.SliderDispatcher;
 import com.google.android.material.slider.Slider;
 
 public class OpacityOptionsView extends LinearLayout {
@@ -47,8 +48,8 @@ public class OpacityOptionsView extends LinearLayout {
     private void setupViews() {
         opacitySlider = findViewById(R.id.opacitySlider);
 
-        opacitySlider.addOnChangeListener((slider, value, fromUser) -> {
-            if (fromUser && listener != null) {
+        SliderDispatcher.bind(opacitySlider, value -> {
+            if (listener != null) {
                 listener.onOpacityChanged((int) value);
             }
         });
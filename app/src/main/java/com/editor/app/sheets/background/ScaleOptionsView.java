@@ -12,7 +12,9 @@ import androidx.annotation.Nullable;
 
 import com.editor.app.R;
 import com.editor.app.sheets.BackgroundEditBottomSheet.ScaleType;
+import com.editor.app.sheets.SliderDispatcher;
 import com.google.android.material.card.MaterialCardView;
+import com.google.android.material.slider.Slider;
 
 public class ScaleOptionsView extends LinearLayout {
 
@@ -23,6 +25,7 @@ public class ScaleOptionsView extends LinearLayout {
 
     private ScaleOptionsViewListener listener;
     private LinearLayout scaleTypesContainer;
+    private TextView scaleValue;
     private ScaleType currentScaleType = ScaleType.ASPECT_FILL;
 
     public ScaleOptionsView(Context context) {
@@ -50,6 +53,15 @@ public class ScaleOptionsView extends LinearLayout {
         scaleTypesContainer = findViewById(R.id.scaleTypesContainer);
         // Setup scale type buttons
         setupScaleTypeButtons();
+
+        scaleValue = findViewById(R.id.scaleValue);
+        Slider scaleSlider = findViewById(R.id.scaleSlider);
+        SliderDispatcher.bind(scaleSlider, value -> {
+            scaleValue.setText((int) value + "%");
+            if (listener != null) {
+                listener.onScaleChanged((int) value);
+            }
+        });
     }
 
     private void setupScaleTypeButtons() {
@@ -0,0 +1,201 @@
+package com.editor.app.history;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EditHistoryTest {
+
+    private final Object target = new Object();
+    private final int[] value = new int[1];
+    private final PropertyCommand.Setter<Integer> setter = v -> value[0] = v;
+
+    private PropertyCommand<Integer> set(String property, int after) {
+        return PropertyCommand.of(target, property, value[0], after, setter);
+    }
+
+    @Test
+    public void undoAndRedoReplayEachStep() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        history.execute(set("opacity", 1));
+        history.execute(set("opacity", 2));
+        assertEquals(2, value[0]);
+
+        assertTrue(history.undo());
+        assertEquals(1, value[0]);
+        assertTrue(history.undo());
+        assertEquals(0, value[0]);
+        assertFalse(history.undo());
+
+        assertTrue(history.redo());
+        assertTrue(history.redo());
+        assertEquals(2, value[0]);
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    public void noOpEditsAreNotRecorded() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        history.execute(set("opacity", 0));
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void ticksMergeWhileTheGateIsOpen() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        boolean[] dragging = {true};
+        history.setMergeGate(() -> dragging[0]);
+
+        for (int v = 1; v <= 20; v++) {
+            history.execute(set("opacity", v));
+        }
+        dragging[0] = false;
+        history.execute(set("opacity", 30));
+
+        // The drag and the release fold into one step back to the start
+        assertTrue(history.undo());
+        assertEquals(0, value[0]);
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void sealEndsTheMergedStep() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        history.setMergeGate(() -> true);
+
+        history.execute(set("opacity", 1));
+        history.execute(set("opacity", 2));
+        history.seal();
+        history.execute(set("opacity", 3));
+
+        history.undo();
+        assertEquals(2, value[0]);
+        history.undo();
+        assertEquals(0, value[0]);
+    }
+
+    @Test
+    public void differentPropertiesDontMerge() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        history.setMergeGate(() -> true);
+
+        history.execute(set("opacity", 1));
+        history.execute(set("rotation", 2));
+
+        history.undo();
+        assertEquals(1, value[0]);
+    }
+
+    @Test
+    public void undoSealsTheTop() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        history.setMergeGate(() -> true);
+
+        history.execute(set("opacity", 1));
+        history.execute(set("rotation", 2));
+        history.undo();
+        history.execute(set("opacity", 3));
+
+        history.undo();
+        assertEquals(1, value[0]);
+    }
+
+    @Test
+    public void newEditClearsRedo() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        history.execute(set("opacity", 1));
+        history.undo();
+        history.execute(set("opacity", 2));
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    public void oldestStepsAreDroppedPastTheStepCap() {
+        EditHistory history = new EditHistory(3, 1 << 20);
+        for (int v = 1; v <= 5; v++) {
+            history.execute(set("opacity", v));
+        }
+
+        int undone = 0;
+        while (history.undo()) undone++;
+        assertEquals(3, undone);
+        assertEquals(2, value[0]);
+    }
+
+    @Test
+    public void oldestStepsAreDroppedPastTheByteBudget() {
+        EditHistory history = new EditHistory(100, 1000);
+        for (int i = 0; i < 5; i++) {
+            history.execute(new SizedCommand(400));
+        }
+        assertTrue(history.getRetainedBytes() <= 1000);
+
+        int undone = 0;
+        while (history.undo()) undone++;
+        assertEquals(2, undone);
+    }
+
+    @Test
+    public void listenerSeesUndoAndRedoAvailability() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        List<String> states = new ArrayList<>();
+        history.setListener((canUndo, canRedo) -> states.add(canUndo + "/" + canRedo));
+
+        history.execute(set("opacity", 1));
+        history.undo();
+        history.redo();
+        assertEquals(List.of("true/false", "false/true", "true/false"), states);
+    }
+
+    @Test
+    public void holdsResourcesOnBothStacks() {
+        EditHistory history = new EditHistory(10, 1 << 20);
+        Object photo = new Object();
+        Object[] fill = {null};
+        PropertyCommand.Setter<Object> fillSetter = v -> fill[0] = v;
+        history.execute(PropertyCommand.of(target, "fill", null, photo, fillSetter));
+        assertTrue(history.holds(photo));
+
+        history.undo();
+        assertTrue(history.holds(photo));
+
+        history.execute(set("opacity", 1));
+        assertFalse(history.holds(photo));
+    }
+
+    private static final class SizedCommand implements EditCommand {
+        private final long bytes;
+
+        SizedCommand(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void undo() {
+        }
+
+        @Override
+        public void redo() {
+        }
+
+        @Override
+        public long getRetainedBytes() {
+            return bytes;
+        }
+
+        @Override
+        public boolean mergeWith(EditCommand next) {
+            return false;
+        }
+
+        @Override
+        public boolean holds(Object resource) {
+            return false;
+        }
+    }
+}
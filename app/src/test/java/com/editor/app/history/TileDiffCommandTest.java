@@ -0,0 +1,107 @@
+package com.editor.app.history;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TileDiffCommandTest {
+
+    // 3x2 tiles of 4x4 pixels
+    private static final class Surface implements TileTarget {
+        static final int TILE = 4;
+        final int width = 12;
+        final int height = 8;
+        final int[] pixels = new int[width * height];
+
+        @Override
+        public int getTileSize() {
+            return TILE;
+        }
+
+        @Override
+        public void readTile(int tileX, int tileY, int[] out) {
+            for (int y = 0; y < TILE; y++) {
+                System.arraycopy(pixels, (tileY * TILE + y) * width + tileX * TILE, out, y * TILE, TILE);
+            }
+        }
+
+        @Override
+        public void writeTile(int tileX, int tileY, int[] in) {
+            for (int y = 0; y < TILE; y++) {
+                System.arraycopy(in, y * TILE, pixels, (tileY * TILE + y) * width + tileX * TILE, TILE);
+            }
+        }
+    }
+
+    private static Surface filled() {
+        Surface surface = new Surface();
+        for (int i = 0; i < surface.pixels.length; i++) {
+            surface.pixels[i] = 0xff000000 | i * 0x010203;
+        }
+        return surface;
+    }
+
+    @Test
+    public void undoAndRedoRoundTrip() {
+        Surface surface = filled();
+        int[] before = surface.pixels.clone();
+
+        TileDiffCommand.Recorder recorder = TileDiffCommand.record(surface);
+        recorder.touch(3, 2, 6, 5);
+        for (int y = 2; y < 5; y++) {
+            for (int x = 3; x < 6; x++) {
+                surface.pixels[y * surface.width + x] = 0;
+            }
+        }
+        int[] after = surface.pixels.clone();
+        TileDiffCommand command = recorder.finish();
+        assertNotNull(command);
+
+        command.undo();
+        assertArrayEquals(before, surface.pixels);
+        command.redo();
+        assertArrayEquals(after, surface.pixels);
+        command.undo();
+        assertArrayEquals(before, surface.pixels);
+    }
+
+    @Test
+    public void untouchedTilesAreLeftAlone() {
+        Surface surface = filled();
+        TileDiffCommand.Recorder recorder = TileDiffCommand.record(surface);
+        recorder.touch(0, 0);
+        surface.pixels[0] = 0;
+        TileDiffCommand command = recorder.finish();
+        assertNotNull(command);
+
+        // A change outside the recorded tiles survives undo
+        surface.pixels[surface.width - 1] = 7;
+        command.undo();
+        assertEquals(0xff000000, surface.pixels[0]);
+        assertEquals(7, surface.pixels[surface.width - 1]);
+    }
+
+    @Test
+    public void nothingChangedGivesNoCommand() {
+        Surface surface = filled();
+        TileDiffCommand.Recorder recorder = TileDiffCommand.record(surface);
+        recorder.touch(0, 0, surface.width, surface.height);
+        assertNull(recorder.finish());
+    }
+
+    @Test
+    public void sparseEditsRetainLessThanTheTile() {
+        Surface surface = new Surface();
+        TileDiffCommand.Recorder recorder = TileDiffCommand.record(surface);
+        recorder.touch(0, 0, surface.width, surface.height);
+        surface.pixels[5] = 1;
+        TileDiffCommand command = recorder.finish();
+        assertNotNull(command);
+
+        assertTrue(command.getRetainedBytes() < surface.pixels.length * 4L);
+    }
+}
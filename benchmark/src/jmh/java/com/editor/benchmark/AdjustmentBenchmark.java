@@ -0,0 +1,63 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.ColorAdjustments;
+import com.editor.core.imaging.ColorMatrices;
+import com.editor.core.imaging.ColorMatrixKernel;
+import com.editor.core.imaging.PixelBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AdjustmentBenchmark {
+    @Param({Images.SIZE_1080P, Images.SIZE_12MP})
+    public String size;
+
+    private PixelBuffer source;
+    private PixelBuffer target;
+    private ColorAdjustments stack;
+    private ColorAdjustments[] steps;
+    private final float[] matrix = new float[ColorMatrices.LENGTH];
+
+    @Setup
+    public void setup() {
+        source = Images.photo(size);
+        target = new PixelBuffer(source.width, source.height);
+        stack = ColorAdjustments.NONE.withEffect(ColorAdjustments.Effect.WARM)
+                .withHue(30).withSaturation(20).withBrightness(10).withContrast(15);
+        steps = new ColorAdjustments[]{
+                ColorAdjustments.NONE.withEffect(ColorAdjustments.Effect.WARM),
+                ColorAdjustments.NONE.withHue(30),
+                ColorAdjustments.NONE.withSaturation(20),
+                ColorAdjustments.NONE.withBrightness(10),
+                ColorAdjustments.NONE.withContrast(15)
+        };
+    }
+
+    // Five adjustments folded into one matrix, one pass
+    @Benchmark
+    public int[] fused() {
+        ColorMatrixKernel.apply(source, target, stack.toMatrix(matrix));
+        return target.pixels;
+    }
+
+    // The same five applied one after another
+    @Benchmark
+    public int[] sequential() {
+        ColorMatrixKernel.apply(source, target, steps[0].toMatrix(matrix));
+        for (int i = 1; i < steps.length; i++) {
+            ColorMatrixKernel.apply(target, target, steps[i].toMatrix(matrix));
+        }
+        return target.pixels;
+    }
+}
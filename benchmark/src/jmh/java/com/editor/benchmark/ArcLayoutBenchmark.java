@@ -0,0 +1,77 @@
+package com.editor.benchmark;
+
+import com.editor.core.text.ArcLayout;
+import com.editor.core.text.ShapedText;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One curve slider tick: repositioning an already shaped quote
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArcLayoutBenchmark {
+    private static final float TEXT_SIZE = 48;
+    private static final float WIDTH = 900;
+
+    @Param({"40", "300", "1000"})
+    public int length;
+
+    private ShapedText text;
+    private float[] placements;
+    private final float[] bounds = new float[4];
+    private int curve;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int[] starts = new int[length];
+        int[] ends = new int[length];
+        float[] advances = new float[length];
+        int[] lineStarts = new int[length + 1];
+        float[] lineLefts = new float[length];
+        float[] baselines = new float[length];
+
+        // Greedy line breaking over random advances, like a quote in a paragraph
+        int lines = 0;
+        float x = WIDTH;
+        for (int i = 0; i < length; i++) {
+            starts[i] = i;
+            ends[i] = i + 1;
+            advances[i] = TEXT_SIZE * (0.3f + random.nextFloat() * 0.4f);
+            if (x + advances[i] > WIDTH) {
+                lineStarts[lines] = i;
+                lineLefts[lines] = 0;
+                baselines[lines] = (lines + 1) * TEXT_SIZE * 1.2f;
+                lines++;
+                x = 0;
+            }
+            x += advances[i];
+        }
+        lineStarts[lines] = length;
+
+        text = new ShapedText(starts, ends, advances, Arrays.copyOf(lineStarts, lines + 1),
+                Arrays.copyOf(lineLefts, lines), Arrays.copyOf(baselines, lines),
+                -TEXT_SIZE * 0.9f, TEXT_SIZE * 0.25f, WIDTH);
+        placements = new float[length * ArcLayout.STRIDE];
+    }
+
+    @Benchmark
+    public float[] layout() {
+        // Walk the slider range so no two calls see the same curve
+        curve = curve >= ArcLayout.MAX_CURVE ? -ArcLayout.MAX_CURVE : curve + 1;
+        if (curve == 0) curve = 1;
+        ArcLayout.layout(text, curve, placements, bounds);
+        return placements;
+    }
+}
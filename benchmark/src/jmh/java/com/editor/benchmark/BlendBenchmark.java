@@ -0,0 +1,46 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.BlendKernel;
+import com.editor.core.imaging.BlendMode;
+import com.editor.core.imaging.PixelBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlendBenchmark {
+    private static final int COLOR = 0xff3366cc;
+
+    @Param({Images.SIZE_1080P})
+    public String size;
+
+    // Separable modes run from lookup tables, COLOR and HUE per pixel
+    @Param({"MULTIPLY", "SOFT_LIGHT", "HUE"})
+    public BlendMode mode;
+
+    private PixelBuffer source;
+    private PixelBuffer target;
+
+    @Setup
+    public void setup() {
+        source = Images.photo(size);
+        target = new PixelBuffer(source.width, source.height);
+    }
+
+    // What a blend color change costs over the cached pixels
+    @Benchmark
+    public int[] blend() {
+        BlendKernel.apply(source, target, COLOR, mode);
+        return target.pixels;
+    }
+}
@@ -0,0 +1,69 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.BlurEngine;
+import com.editor.core.imaging.PixelBuffer;
+import com.editor.core.imaging.StackBlur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlurBenchmark {
+
+    @Param({Images.SIZE_1080P, Images.SIZE_4K, Images.SIZE_12MP})
+    public String size;
+
+    @Param({"5", "25"})
+    public int radius;
+
+    private PixelBuffer source;
+    private PixelBuffer target;
+    private StackBlur stackBlur;
+    private BlurEngine<PixelBuffer> engine;
+
+    @Setup
+    public void setup() {
+        source = Images.photo(size);
+        target = new PixelBuffer(source.width, source.height);
+        stackBlur = new StackBlur();
+
+        // Synchronous engine without a cache, every call recomputes
+        engine = new BlurEngine<>(Runnable::run, Runnable::run, new BlurEngine.Output<PixelBuffer>() {
+            @Override
+            public PixelBuffer wrap(PixelBuffer pixels) {
+                return pixels;
+            }
+
+            @Override
+            public long sizeOf(PixelBuffer value) {
+                return value.getByteCount();
+            }
+        }, 0);
+        engine.setSource(size, (width, height) -> source);
+    }
+
+    // The naive path the engine avoids: blurring every pixel at full resolution
+    @Benchmark
+    public int[] fullResolution() {
+        System.arraycopy(source.pixels, 0, target.pixels, 0, source.pixels.length);
+        stackBlur.blur(target, radius);
+        return target.pixels;
+    }
+
+    // What a slider tick costs on a cache miss
+    @Benchmark
+    public void engine(Blackhole blackhole) {
+        engine.request(radius, source.width, source.height, (result, r) -> blackhole.consume(result));
+    }
+}
@@ -0,0 +1,43 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.BrushStroke;
+import com.editor.core.imaging.EraseMask;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EraseBenchmark {
+    @Param({Images.SIZE_1080P, Images.SIZE_12MP})
+    public String size;
+
+    @Param({"20", "80"})
+    public float radius;
+
+    private EraseMask mask;
+    private BrushStroke stroke;
+
+    @Setup
+    public void setup() {
+        mask = new EraseMask(Images.width(size), Images.height(size));
+        stroke = new BrushStroke((x, y) -> mask.dab(x, y, radius, 0.6f, null));
+    }
+
+    // One frame of a fast swipe: a 200px segment, dabs every quarter radius
+    @Benchmark
+    public EraseMask segment() {
+        stroke.begin(100, 100, radius / 4);
+        stroke.lineTo(300, 180);
+        return mask;
+    }
+}
@@ -0,0 +1,84 @@
+package com.editor.benchmark;
+
+import com.editor.core.export.BandEncoder;
+import com.editor.core.export.JpegBandEncoder;
+import com.editor.core.export.PngBandEncoder;
+import com.editor.core.imaging.PixelBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Encodes a whole image in bands the size the exporter renders, into a sink that
+// only counts bytes, so the numbers are the encoders alone
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportBenchmark {
+    private static final int BAND_ROWS = 256;
+
+    @Param({Images.SIZE_1080P, Images.SIZE_4K})
+    public String size;
+
+    private PixelBuffer source;
+    private CountingStream out;
+
+    @Setup
+    public void setup() {
+        source = Images.photo(size);
+        out = new CountingStream();
+    }
+
+    @Benchmark
+    public long png() throws IOException {
+        return encode(new PngBandEncoder(out, source.width, source.height, false, 6));
+    }
+
+    @Benchmark
+    public long jpeg() throws IOException {
+        return encode(new JpegBandEncoder(out, source.width, source.height, 95));
+    }
+
+    // One encoder per core, as a batch export runs them; scaling shows in the
+    // per-operation time staying close to png()
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long pngBatch() throws IOException {
+        return png();
+    }
+
+    private long encode(BandEncoder encoder) throws IOException {
+        out.count = 0;
+        try (BandEncoder closing = encoder) {
+            for (int top = 0; top < source.height; top += BAND_ROWS) {
+                closing.writeRows(source.pixels, top * source.width, Math.min(BAND_ROWS, source.height - top));
+            }
+            closing.finish();
+        }
+        return out.count;
+    }
+
+    private static final class CountingStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
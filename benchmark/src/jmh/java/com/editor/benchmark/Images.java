@@ -0,0 +1,45 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.PixelBuffer;
+
+import java.util.Random;
+
+// Deterministic test images so runs stay comparable
+final class Images {
+    // Sizes every pixel benchmark runs at: 1080p, 4K and a 12 MP photo
+    static final String SIZE_1080P = "1920x1080";
+    static final String SIZE_4K = "3840x2160";
+    static final String SIZE_12MP = "4000x3000";
+
+    private Images() {
+    }
+
+    static int width(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    static int height(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+
+    // Smooth gradients with noise on top, closer to a photo than pure noise
+    static PixelBuffer photo(String size) {
+        int width = width(size);
+        int height = height(size);
+        PixelBuffer buffer = new PixelBuffer(width, height);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = clamp(x * 255 / width + random.nextInt(32) - 16);
+                int g = clamp(y * 255 / height + random.nextInt(32) - 16);
+                int b = clamp((x + y) * 255 / (width + height) + random.nextInt(32) - 16);
+                buffer.pixels[y * width + x] = 0xff000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        return buffer;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,46 @@
+package com.editor.benchmark;
+
+import com.editor.core.metrics.LatencyHistogram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one sample on the frame path; run with -prof gc to check it stays at
+// zero bytes allocated per operation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+    private final long[] samples = new long[1024];
+    private LatencyHistogram histogram;
+    private int next;
+
+    @Setup
+    public void setup() {
+        histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        for (int i = 0; i < samples.length; i++) {
+            // Frame-like durations, 4 to 64 ms with a long tail
+            samples[i] = (long) (Math.exp(random.nextGaussian() * 0.5 + 9.5) * 1000);
+        }
+    }
+
+    @Benchmark
+    public long record() {
+        histogram.recordNanos(samples[next++ & (samples.length - 1)]);
+        return histogram.getCount();
+    }
+
+    @Benchmark
+    public long percentile() {
+        return histogram.getPercentile(99);
+    }
+}
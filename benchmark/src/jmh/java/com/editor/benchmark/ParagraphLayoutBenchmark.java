@@ -0,0 +1,68 @@
+package com.editor.benchmark;
+
+import com.editor.core.text.ParagraphLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Slider ticks on the text options: each changes one input and reads the result
+// back, as drawing does
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParagraphLayoutBenchmark {
+    private static final float TEXT_SIZE = 96;
+    private static final String[] WORDS = {"the", "only", "way", "to", "do", "great", "work", "is",
+            "love", "what", "you", "imagination", "stay", "hungry", "foolish"};
+
+    @Param({"300", "3000"})
+    public int length;
+
+    private ParagraphLayout layout;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            if (text.length() > 0) text.append(' ');
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+
+        layout = new ParagraphLayout();
+        layout.setWidth(900);
+        layout.setAlignment(ParagraphLayout.Alignment.JUSTIFY);
+        // Roughly proportional widths, the real measurer is the platform's
+        layout.setText(text.toString(), (s, start, end) -> (end - start) * TEXT_SIZE * 0.5f,
+                TEXT_SIZE, -TEXT_SIZE * 0.9f, TEXT_SIZE * 0.25f);
+        layout.getHeight();
+    }
+
+    @Benchmark
+    public float width() {
+        layout.setWidth(600 + (tick++ & 255));
+        return layout.getWordX(0) + layout.getHeight();
+    }
+
+    @Benchmark
+    public float letterSpacing() {
+        layout.setLetterSpacing((tick++ & 63) / 100f);
+        return layout.getWordX(0) + layout.getHeight();
+    }
+
+    @Benchmark
+    public float lineSpacing() {
+        layout.setLineSpacing(1 + (tick++ & 63) / 32f);
+        return layout.getLineBaseline(layout.getLineCount() - 1) + layout.getHeight();
+    }
+}
@@ -0,0 +1,95 @@
+package com.editor.benchmark;
+
+import com.editor.core.project.ProjectAutosave;
+import com.editor.core.project.ProjectBlob;
+import com.editor.core.project.ProjectReader;
+import com.editor.core.project.ProjectRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectBenchmark {
+    // Size of an embedded photo
+    private static final int BLOB_SIZE = 4 * 1024 * 1024;
+
+    @Param({"50"})
+    public int layers;
+
+    // Photos embedded in the design
+    @Param({"4"})
+    public int photos;
+
+    private File file;
+    private ProjectAutosave autosave;
+    private List<ProjectRecord> records;
+    private List<ProjectBlob> blobs;
+    private int edit;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("project", ".qproj");
+        Random random = new Random(42);
+        blobs = new ArrayList<>();
+        for (int i = 0; i < photos; i++) {
+            byte[] data = new byte[BLOB_SIZE];
+            random.nextBytes(data);
+            blobs.add(ProjectBlob.of(data));
+        }
+        records = new ArrayList<>();
+        for (int i = 0; i < layers; i++) {
+            ProjectRecord record = new ProjectRecord(1 + i % 4, i);
+            for (int slot = 0; slot < ProjectRecord.SLOTS; slot++) {
+                record.putInt(slot, random.nextInt());
+            }
+            if (i < photos) record.putBlob(0, i);
+            records.add(record);
+        }
+        autosave = new ProjectAutosave(file);
+        autosave.save(records, blobs);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    // Reopening a design: map, header, journal and every record, blobs untouched
+    @Benchmark
+    public int open() throws IOException {
+        int sum = 0;
+        ProjectRecord record = new ProjectRecord();
+        try (ProjectReader reader = ProjectReader.open(file)) {
+            for (int i = 0; i < reader.getLayerCount(); i++) {
+                sum += reader.readRecord(i, record).getInt(0);
+            }
+            for (int i = 0; i < reader.getBlobCount(); i++) {
+                sum += reader.getBlob(i).remaining();
+            }
+        }
+        return sum;
+    }
+
+    // One slider step: a single changed record appended to the journal
+    @Benchmark
+    public void autosaveEdit() throws IOException {
+        records.get(edit++ % layers).putFloat(4, edit);
+        autosave.save(records, blobs);
+    }
+}
@@ -0,0 +1,50 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.PixelBuffer;
+import com.editor.core.imaging.Resampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResampleBenchmark {
+
+    @Param({Images.SIZE_1080P, Images.SIZE_4K, Images.SIZE_12MP})
+    public String size;
+
+    private PixelBuffer source;
+    private PixelBuffer quarter;
+    private PixelBuffer restored;
+    private Resampler resampler;
+
+    @Setup
+    public void setup() {
+        source = Images.photo(size);
+        quarter = new PixelBuffer(source.width / 4, source.height / 4);
+        restored = new PixelBuffer(source.width, source.height);
+        resampler = new Resampler();
+        resampler.downsample(source, quarter);
+    }
+
+    @Benchmark
+    public int[] downsample() {
+        resampler.downsample(source, quarter);
+        return quarter.pixels;
+    }
+
+    @Benchmark
+    public int[] upsample() {
+        resampler.bilinear(quarter, restored);
+        return restored.pixels;
+    }
+}
@@ -0,0 +1,70 @@
+package com.editor.benchmark;
+
+import com.editor.core.imaging.AlphaBlur;
+import com.editor.core.imaging.ShadowMask;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ShadowBenchmark {
+    // Largest mask LayerShadow captures
+    private static final int SIZE = 1024;
+
+    private static final ShadowMask.Output<byte[]> BYTES = new ShadowMask.Output<byte[]>() {
+        @Override
+        public byte[] wrap(byte[] alpha, int width, int height) {
+            return alpha;
+        }
+
+        @Override
+        public long sizeOf(byte[] value) {
+            return value.length;
+        }
+    };
+
+    @Param({"2", "10", "50"})
+    public int radius;
+
+    private byte[] coverage;
+    private byte[] working;
+    private final AlphaBlur alphaBlur = new AlphaBlur();
+
+    @Setup
+    public void setup() {
+        // A rounded card in the middle of the padded mask
+        coverage = new byte[SIZE * SIZE];
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                float dx = Math.max(0, Math.abs(x - SIZE / 2f) - SIZE / 3f);
+                float dy = Math.max(0, Math.abs(y - SIZE / 2f) - SIZE / 3f);
+                coverage[y * SIZE + x] = dx * dx + dy * dy < 400 ? (byte) 255 : 0;
+            }
+        }
+        working = new byte[coverage.length];
+    }
+
+    // Full resolution blur, what every shadow change would cost without the mask cache
+    @Benchmark
+    public byte[] blurFull() {
+        System.arraycopy(coverage, 0, working, 0, coverage.length);
+        alphaBlur.blur(working, SIZE, SIZE, radius);
+        return working;
+    }
+
+    // First request for a radius: downsample and blur
+    @Benchmark
+    public Object blurCold() {
+        return new ShadowMask<>(SIZE, SIZE, coverage, BYTES, 16L * 1024 * 1024).get(radius);
+    }
+}
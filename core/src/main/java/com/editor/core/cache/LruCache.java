@@ -0,0 +1,86 @@
+package com.editor.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Least-recently-used cache bounded by the total size of its values. Thread safe.
+public class LruCache<K, V> {
+
+    public interface Sizer<V> {
+        long sizeOf(V value);
+    }
+
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final Sizer<V> sizer;
+    private final long maxSize;
+    private long size;
+
+    private long hits;
+    private long misses;
+
+    public LruCache(long maxSize, Sizer<V> sizer) {
+        this.maxSize = maxSize;
+        this.sizer = sizer;
+    }
+
+    public synchronized V get(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long valueSize = sizer.sizeOf(value);
+        if (valueSize > maxSize) return;
+
+        V previous = map.put(key, value);
+        size += valueSize;
+        if (previous != null) {
+            size -= sizer.sizeOf(previous);
+        }
+        trimTo(maxSize);
+    }
+
+    public synchronized V remove(K key) {
+        V value = map.remove(key);
+        if (value != null) {
+            size -= sizer.sizeOf(value);
+        }
+        return value;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        size = 0;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    private void trimTo(long limit) {
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        while (size > limit && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            size -= sizer.sizeOf(eldest.getValue());
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.editor.core.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Encodes an image top to bottom as bands of rows arrive, so only one band of
+// pixels is held at a time whatever the image size. Rows are width ARGB pixels,
+// not premultiplied, as Bitmap.getPixels returns them. Close the encoder whether
+// or not it finished, which frees what it holds outside the heap.
+public interface BandEncoder extends Closeable {
+
+    // rows may be any count, the total over all calls must be the image height
+    void writeRows(int[] argb, int offset, int rows) throws IOException;
+
+    // Writes the trailer and flushes, the stream is left open
+    void finish() throws IOException;
+
+    // Never throws, the stream is left open
+    @Override
+    void close();
+}
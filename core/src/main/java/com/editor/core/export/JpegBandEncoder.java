@@ -0,0 +1,422 @@
+package com.editor.core.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Streaming baseline JPEG writer: YCbCr with 4:2:0 chroma, the standard tables of
+// ITU T.81 Annex K scaled for quality. Rows are collected until a full 16-row MCU
+// row is there, which is transformed (float AAN DCT), quantized and Huffman coded
+// right away; only 16 rows of samples are ever buffered. Alpha is ignored, draw
+// over an opaque background first.
+public final class JpegBandEncoder implements BandEncoder {
+    private static final int MCU_SIZE = 16;
+
+    // Natural index of every zigzag position
+    private static final int[] ZIGZAG = {
+            0, 1, 8, 16, 9, 2, 3, 10, 17, 24, 32, 25, 18, 11, 4, 5,
+            12, 19, 26, 33, 40, 48, 41, 34, 27, 20, 13, 6, 7, 14, 21, 28,
+            35, 42, 49, 56, 57, 50, 43, 36, 29, 22, 15, 23, 30, 37, 44, 51,
+            58, 59, 52, 45, 38, 31, 39, 46, 53, 60, 61, 54, 47, 55, 62, 63
+    };
+
+    private static final int[] LUMA_QUANT = {
+            16, 11, 10, 16, 24, 40, 51, 61,
+            12, 12, 14, 19, 26, 58, 60, 55,
+            14, 13, 16, 24, 40, 57, 69, 56,
+            14, 17, 22, 29, 51, 87, 80, 62,
+            18, 22, 37, 56, 68, 109, 103, 77,
+            24, 35, 55, 64, 81, 104, 113, 92,
+            49, 64, 78, 87, 103, 121, 120, 101,
+            72, 92, 95, 98, 112, 100, 103, 99
+    };
+
+    private static final int[] CHROMA_QUANT = {
+            17, 18, 24, 47, 99, 99, 99, 99,
+            18, 21, 26, 66, 99, 99, 99, 99,
+            24, 26, 56, 99, 99, 99, 99, 99,
+            47, 66, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99
+    };
+
+    // Huffman tables: code counts per length 1-16, then the symbols
+    private static final int[] DC_LUMA_BITS = {0, 1, 5, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0};
+    private static final int[] DC_CHROMA_BITS = {0, 3, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0};
+    private static final int[] DC_VALUES = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+    private static final int[] AC_LUMA_BITS = {0, 2, 1, 3, 3, 2, 4, 3, 5, 5, 4, 4, 0, 0, 1, 0x7d};
+    private static final int[] AC_LUMA_VALUES = {
+            0x01, 0x02, 0x03, 0x00, 0x04, 0x11, 0x05, 0x12, 0x21, 0x31, 0x41, 0x06, 0x13, 0x51, 0x61, 0x07,
+            0x22, 0x71, 0x14, 0x32, 0x81, 0x91, 0xa1, 0x08, 0x23, 0x42, 0xb1, 0xc1, 0x15, 0x52, 0xd1, 0xf0,
+            0x24, 0x33, 0x62, 0x72, 0x82, 0x09, 0x0a, 0x16, 0x17, 0x18, 0x19, 0x1a, 0x25, 0x26, 0x27, 0x28,
+            0x29, 0x2a, 0x34, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48, 0x49,
+            0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69,
+            0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x83, 0x84, 0x85, 0x86, 0x87, 0x88, 0x89,
+            0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5, 0xa6, 0xa7,
+            0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3, 0xc4, 0xc5,
+            0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda, 0xe1, 0xe2,
+            0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf1, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+            0xf9, 0xfa
+    };
+    private static final int[] AC_CHROMA_BITS = {0, 2, 1, 2, 4, 4, 3, 4, 7, 5, 4, 4, 0, 1, 2, 0x77};
+    private static final int[] AC_CHROMA_VALUES = {
+            0x00, 0x01, 0x02, 0x03, 0x11, 0x04, 0x05, 0x21, 0x31, 0x06, 0x12, 0x41, 0x51, 0x07, 0x61, 0x71,
+            0x13, 0x22, 0x32, 0x81, 0x08, 0x14, 0x42, 0x91, 0xa1, 0xb1, 0xc1, 0x09, 0x23, 0x33, 0x52, 0xf0,
+            0x15, 0x62, 0x72, 0xd1, 0x0a, 0x16, 0x24, 0x34, 0xe1, 0x25, 0xf1, 0x17, 0x18, 0x19, 0x1a, 0x26,
+            0x27, 0x28, 0x29, 0x2a, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48,
+            0x49, 0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68,
+            0x69, 0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x82, 0x83, 0x84, 0x85, 0x86, 0x87,
+            0x88, 0x89, 0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5,
+            0xa6, 0xa7, 0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3,
+            0xc4, 0xc5, 0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda,
+            0xe2, 0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+            0xf9, 0xfa
+    };
+
+    // AAN scale factors, folded into the quantization divisors
+    private static final double[] AAN_SCALE = {
+            1.0, 1.387039845, 1.306562965, 1.175875602, 1.0, 0.785694958, 0.541196100, 0.275899379
+    };
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    // Width rounded up to whole MCUs
+    private final int paddedWidth;
+
+    // Quantization tables in zigzag order as written to the file, and the
+    // reciprocal divisors in natural order as the DCT output needs them
+    private final int[] lumaTable = new int[64];
+    private final int[] chromaTable = new int[64];
+    private final float[] lumaDivisors = new float[64];
+    private final float[] chromaDivisors = new float[64];
+
+    // Huffman codes and code lengths by symbol
+    private final int[] dcLumaCodes = new int[256];
+    private final int[] dcLumaSizes = new int[256];
+    private final int[] dcChromaCodes = new int[256];
+    private final int[] dcChromaSizes = new int[256];
+    private final int[] acLumaCodes = new int[256];
+    private final int[] acLumaSizes = new int[256];
+    private final int[] acChromaCodes = new int[256];
+    private final int[] acChromaSizes = new int[256];
+
+    // One MCU row of level shifted samples, chroma at full resolution
+    private final float[] lumaRows;
+    private final float[] cbRows;
+    private final float[] crRows;
+    private int bufferedRows;
+    private int rowsWritten;
+
+    private final float[] block = new float[64];
+    private final int[] quantized = new int[64];
+    private int lastDcY;
+    private int lastDcCb;
+    private int lastDcCr;
+
+    private final byte[] buffer = new byte[16 * 1024];
+    private int bufferLength;
+    private int bitBuffer;
+    private int bitCount;
+
+    // quality 1-100, as in libjpeg
+    public JpegBandEncoder(OutputStream out, int width, int height, int quality) throws IOException {
+        if (width > 0xffff || height > 0xffff) throw new IllegalArgumentException("JPEG is limited to 65535 pixels");
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.paddedWidth = (width + MCU_SIZE - 1) / MCU_SIZE * MCU_SIZE;
+        lumaRows = new float[MCU_SIZE * paddedWidth];
+        cbRows = new float[MCU_SIZE * paddedWidth];
+        crRows = new float[MCU_SIZE * paddedWidth];
+
+        int scale = quality < 50 ? 5000 / Math.max(1, quality) : 200 - Math.min(100, quality) * 2;
+        scaleTable(LUMA_QUANT, scale, lumaTable, lumaDivisors);
+        scaleTable(CHROMA_QUANT, scale, chromaTable, chromaDivisors);
+        buildCodes(DC_LUMA_BITS, DC_VALUES, dcLumaCodes, dcLumaSizes);
+        buildCodes(DC_CHROMA_BITS, DC_VALUES, dcChromaCodes, dcChromaSizes);
+        buildCodes(AC_LUMA_BITS, AC_LUMA_VALUES, acLumaCodes, acLumaSizes);
+        buildCodes(AC_CHROMA_BITS, AC_CHROMA_VALUES, acChromaCodes, acChromaSizes);
+        writeHeaders();
+    }
+
+    @Override
+    public void writeRows(int[] argb, int offset, int rows) throws IOException {
+        if (rowsWritten + rows > height) throw new IllegalArgumentException("More rows than the image height");
+        for (int row = 0; row < rows; row++, offset += width) {
+            convertRow(argb, offset, bufferedRows * paddedWidth);
+            if (++bufferedRows == MCU_SIZE) {
+                encodeMcuRow();
+                bufferedRows = 0;
+            }
+        }
+        rowsWritten += rows;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rowsWritten != height) throw new IllegalStateException(rowsWritten + " of " + height + " rows written");
+        if (bufferedRows > 0) {
+            // The last MCU row repeats the last image row
+            int last = (bufferedRows - 1) * paddedWidth;
+            for (int row = bufferedRows; row < MCU_SIZE; row++) {
+                System.arraycopy(lumaRows, last, lumaRows, row * paddedWidth, paddedWidth);
+                System.arraycopy(cbRows, last, cbRows, row * paddedWidth, paddedWidth);
+                System.arraycopy(crRows, last, crRows, row * paddedWidth, paddedWidth);
+            }
+            encodeMcuRow();
+            bufferedRows = 0;
+        }
+        // Pad the last byte with ones, then EOI
+        if (bitCount > 0) {
+            writeBits(0xff, 8 - bitCount);
+        }
+        writeByte(0xff);
+        writeByte(0xd9);
+        flushBuffer();
+        out.flush();
+    }
+
+    // Everything lives on the heap
+    @Override
+    public void close() {
+    }
+
+    // ============================================================================
+    // SAMPLES
+    // ============================================================================
+
+    // JFIF YCbCr, level shifted by -128; columns past the image repeat the last one
+    private void convertRow(int[] argb, int offset, int target) {
+        for (int x = 0; x < paddedWidth; x++) {
+            int color = argb[offset + Math.min(x, width - 1)];
+            float r = (color >> 16) & 0xff;
+            float g = (color >> 8) & 0xff;
+            float b = color & 0xff;
+            lumaRows[target + x] = 0.299f * r + 0.587f * g + 0.114f * b - 128f;
+            cbRows[target + x] = -0.168736f * r - 0.331264f * g + 0.5f * b;
+            crRows[target + x] = 0.5f * r - 0.418688f * g - 0.081312f * b;
+        }
+    }
+
+    // Four luma blocks, then one Cb and one Cr block averaged over 2x2 samples
+    private void encodeMcuRow() throws IOException {
+        for (int mcuX = 0; mcuX < paddedWidth; mcuX += MCU_SIZE) {
+            for (int blockY = 0; blockY < MCU_SIZE; blockY += 8) {
+                for (int blockX = 0; blockX < MCU_SIZE; blockX += 8) {
+                    for (int y = 0; y < 8; y++) {
+                        System.arraycopy(lumaRows, (blockY + y) * paddedWidth + mcuX + blockX, block, y * 8, 8);
+                    }
+                    lastDcY = encodeBlock(lumaDivisors, lastDcY, dcLumaCodes, dcLumaSizes, acLumaCodes, acLumaSizes);
+                }
+            }
+            subsample(cbRows, mcuX);
+            lastDcCb = encodeBlock(chromaDivisors, lastDcCb, dcChromaCodes, dcChromaSizes,
+                    acChromaCodes, acChromaSizes);
+            subsample(crRows, mcuX);
+            lastDcCr = encodeBlock(chromaDivisors, lastDcCr, dcChromaCodes, dcChromaSizes,
+                    acChromaCodes, acChromaSizes);
+        }
+    }
+
+    private void subsample(float[] rows, int mcuX) {
+        for (int y = 0; y < 8; y++) {
+            int top = (y * 2) * paddedWidth + mcuX;
+            int bottom = top + paddedWidth;
+            for (int x = 0; x < 8; x++) {
+                int column = x * 2;
+                block[y * 8 + x] = (rows[top + column] + rows[top + column + 1]
+                        + rows[bottom + column] + rows[bottom + column + 1]) * 0.25f;
+            }
+        }
+    }
+
+    // ============================================================================
+    // BLOCKS
+    // ============================================================================
+
+    // Transforms, quantizes and codes block, returns its DC for the next difference
+    private int encodeBlock(float[] divisors, int lastDc, int[] dcCodes, int[] dcSizes,
+                            int[] acCodes, int[] acSizes) throws IOException {
+        forwardDct(block);
+        for (int i = 0; i < 64; i++) {
+            quantized[i] = Math.round(block[ZIGZAG[i]] * divisors[ZIGZAG[i]]);
+        }
+
+        int dc = quantized[0];
+        int diff = dc - lastDc;
+        int category = bitLength(diff);
+        writeBits(dcCodes[category], dcSizes[category]);
+        if (category > 0) {
+            writeBits(diff < 0 ? diff - 1 : diff, category);
+        }
+
+        int run = 0;
+        for (int i = 1; i < 64; i++) {
+            int value = quantized[i];
+            if (value == 0) {
+                run++;
+                continue;
+            }
+            while (run > 15) {
+                writeBits(acCodes[0xf0], acSizes[0xf0]);
+                run -= 16;
+            }
+            int size = bitLength(value);
+            int symbol = (run << 4) | size;
+            writeBits(acCodes[symbol], acSizes[symbol]);
+            writeBits(value < 0 ? value - 1 : value, size);
+            run = 0;
+        }
+        if (run > 0) {
+            writeBits(acCodes[0x00], acSizes[0x00]);
+        }
+        return dc;
+    }
+
+    // Float AAN DCT, as libjpeg's jfdctflt. The output is scaled by 8 and the AAN
+    // factors, the divisors undo both.
+    private static void forwardDct(float[] data) {
+        for (int pass = 0; pass < 2; pass++) {
+            // Rows first (step 1 within a row), then columns (step 8)
+            int step = pass == 0 ? 1 : 8;
+            int next = pass == 0 ? 8 : 1;
+            for (int line = 0, base = 0; line < 8; line++, base += next) {
+                float d0 = data[base];
+                float d1 = data[base + step];
+                float d2 = data[base + 2 * step];
+                float d3 = data[base + 3 * step];
+                float d4 = data[base + 4 * step];
+                float d5 = data[base + 5 * step];
+                float d6 = data[base + 6 * step];
+                float d7 = data[base + 7 * step];
+
+                float tmp0 = d0 + d7;
+                float tmp7 = d0 - d7;
+                float tmp1 = d1 + d6;
+                float tmp6 = d1 - d6;
+                float tmp2 = d2 + d5;
+                float tmp5 = d2 - d5;
+                float tmp3 = d3 + d4;
+                float tmp4 = d3 - d4;
+
+                // Even part
+                float tmp10 = tmp0 + tmp3;
+                float tmp13 = tmp0 - tmp3;
+                float tmp11 = tmp1 + tmp2;
+                float tmp12 = tmp1 - tmp2;
+                data[base] = tmp10 + tmp11;
+                data[base + 4 * step] = tmp10 - tmp11;
+                float z1 = (tmp12 + tmp13) * 0.707106781f;
+                data[base + 2 * step] = tmp13 + z1;
+                data[base + 6 * step] = tmp13 - z1;
+
+                // Odd part
+                tmp10 = tmp4 + tmp5;
+                tmp11 = tmp5 + tmp6;
+                tmp12 = tmp6 + tmp7;
+                float z5 = (tmp10 - tmp12) * 0.382683433f;
+                float z2 = 0.541196100f * tmp10 + z5;
+                float z4 = 1.306562965f * tmp12 + z5;
+                float z3 = tmp11 * 0.707106781f;
+                float z11 = tmp7 + z3;
+                float z13 = tmp7 - z3;
+                data[base + 5 * step] = z13 + z2;
+                data[base + 3 * step] = z13 - z2;
+                data[base + step] = z11 + z4;
+                data[base + 7 * step] = z11 - z4;
+            }
+        }
+    }
+
+    private static int bitLength(int value) {
+        return 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+    }
+
+    // ============================================================================
+    // TABLES AND MARKERS
+    // ============================================================================
+
+    private static void scaleTable(int[] base, int scale, int[] zigzagTable, float[] divisors) {
+        for (int i = 0; i < 64; i++) {
+            int value = Math.max(1, Math.min(255, (base[i] * scale + 50) / 100));
+            divisors[i] = (float) (1.0 / (value * AAN_SCALE[i / 8] * AAN_SCALE[i % 8] * 8.0));
+        }
+        for (int i = 0; i < 64; i++) {
+            zigzagTable[i] = Math.max(1, Math.min(255, (base[ZIGZAG[i]] * scale + 50) / 100));
+        }
+    }
+
+    private static void buildCodes(int[] bits, int[] values, int[] codes, int[] sizes) {
+        int code = 0;
+        int k = 0;
+        for (int length = 1; length <= 16; length++) {
+            for (int i = 0; i < bits[length - 1]; i++, k++) {
+                codes[values[k]] = code++;
+                sizes[values[k]] = length;
+            }
+            code <<= 1;
+        }
+    }
+
+    private void writeHeaders() throws IOException {
+        // SOI and a JFIF APP0, 1:1 pixel aspect
+        writeBytes(0xff, 0xd8);
+        writeBytes(0xff, 0xe0, 0, 16, 'J', 'F', 'I', 'F', 0, 1, 1, 0, 0, 1, 0, 1, 0, 0);
+
+        writeBytes(0xff, 0xdb, 0, 2 + 2 * 65);
+        writeByte(0);
+        for (int value : lumaTable) writeByte(value);
+        writeByte(1);
+        for (int value : chromaTable) writeByte(value);
+
+        // Baseline frame: Y sampled 2x2 with table 0, Cb and Cr 1x1 with table 1
+        writeBytes(0xff, 0xc0, 0, 17, 8, height >> 8, height & 0xff, width >> 8, width & 0xff, 3,
+                1, 0x22, 0, 2, 0x11, 1, 3, 0x11, 1);
+
+        writeHuffmanTable(0x00, DC_LUMA_BITS, DC_VALUES);
+        writeHuffmanTable(0x10, AC_LUMA_BITS, AC_LUMA_VALUES);
+        writeHuffmanTable(0x01, DC_CHROMA_BITS, DC_VALUES);
+        writeHuffmanTable(0x11, AC_CHROMA_BITS, AC_CHROMA_VALUES);
+
+        writeBytes(0xff, 0xda, 0, 12, 3, 1, 0x00, 2, 0x11, 3, 0x11, 0, 63, 0);
+    }
+
+    private void writeHuffmanTable(int tableClassAndId, int[] bits, int[] values) throws IOException {
+        int length = 2 + 1 + 16 + values.length;
+        writeBytes(0xff, 0xc4, length >> 8, length & 0xff, tableClassAndId);
+        for (int count : bits) writeByte(count);
+        for (int value : values) writeByte(value);
+    }
+
+    // ============================================================================
+    // OUTPUT
+    // ============================================================================
+
+    // Most significant bit first, 0xff bytes in the entropy coded data get a 0x00
+    private void writeBits(int value, int count) throws IOException {
+        bitBuffer = (bitBuffer << count) | (value & ((1 << count) - 1));
+        bitCount += count;
+        while (bitCount >= 8) {
+            int b = (bitBuffer >> (bitCount - 8)) & 0xff;
+            writeByte(b);
+            if (b == 0xff) writeByte(0);
+            bitCount -= 8;
+        }
+    }
+
+    private void writeBytes(int... bytes) throws IOException {
+        for (int b : bytes) writeByte(b);
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (bufferLength == buffer.length) flushBuffer();
+        buffer[bufferLength++] = (byte) b;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, bufferLength);
+        bufferLength = 0;
+    }
+}
@@ -0,0 +1,204 @@
+package com.editor.core.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Streaming PNG writer: 8-bit RGBA, or RGB for opaque images. Every row is filtered
+// as it arrives with whichever of the five PNG filters gives the smallest sum of
+// absolute differences (the libpng heuristic) and fed to one Deflater; compressed
+// output leaves in IDAT chunks of CHUNK_SIZE bytes.
+public final class PngBandEncoder implements BandEncoder {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    private final boolean alpha;
+    private final int bytesPerPixel;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+
+    // Raw bytes of the previous and current row, then one filtered row per filter
+    // type, each starting with its filter byte
+    private byte[] previous;
+    private byte[] current;
+    private final byte[][] filtered = new byte[5][];
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkLength;
+    private int rowsWritten;
+
+    // level is a Deflater level, 6 is the usual balance of size and speed
+    public PngBandEncoder(OutputStream out, int width, int height, boolean alpha, int level) throws IOException {
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+        this.bytesPerPixel = alpha ? 4 : 3;
+        this.deflater = new Deflater(level);
+        int rowBytes = width * bytesPerPixel;
+        previous = new byte[rowBytes];
+        current = new byte[rowBytes];
+        for (int i = 0; i < filtered.length; i++) {
+            filtered[i] = new byte[rowBytes + 1];
+            filtered[i][0] = (byte) i;
+        }
+
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = (byte) (alpha ? 6 : 2);
+        writeChunk("IHDR", header, header.length);
+    }
+
+    @Override
+    public void writeRows(int[] argb, int offset, int rows) throws IOException {
+        if (rowsWritten + rows > height) throw new IllegalArgumentException("More rows than the image height");
+        for (int row = 0; row < rows; row++, offset += width) {
+            unpack(argb, offset);
+            byte[] best = filter();
+            deflater.setInput(best, 0, best.length);
+            drain(false);
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        rowsWritten += rows;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rowsWritten != height) throw new IllegalStateException(rowsWritten + " of " + height + " rows written");
+        deflater.finish();
+        drain(true);
+        if (chunkLength > 0) {
+            writeChunk("IDAT", chunk, chunkLength);
+            chunkLength = 0;
+        }
+        writeChunk("IEND", chunk, 0);
+        out.flush();
+    }
+
+    // The Deflater's native memory
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    private void unpack(int[] argb, int offset) {
+        byte[] row = current;
+        for (int x = 0, i = 0; x < width; x++) {
+            int color = argb[offset + x];
+            row[i++] = (byte) (color >> 16);
+            row[i++] = (byte) (color >> 8);
+            row[i++] = (byte) color;
+            if (alpha) row[i++] = (byte) (color >>> 24);
+        }
+    }
+
+    // Fills every filtered row and returns the one that should compress best
+    private byte[] filter() {
+        byte[] row = current;
+        byte[] up = previous;
+        int bpp = bytesPerPixel;
+        byte[] none = filtered[0];
+        byte[] sub = filtered[1];
+        byte[] upRow = filtered[2];
+        byte[] average = filtered[3];
+        byte[] paeth = filtered[4];
+        long sumNone = 0;
+        long sumSub = 0;
+        long sumUp = 0;
+        long sumAverage = 0;
+        long sumPaeth = 0;
+        for (int i = 0; i < row.length; i++) {
+            int x = row[i] & 0xff;
+            int a = i >= bpp ? row[i - bpp] & 0xff : 0;
+            int b = up[i] & 0xff;
+            int c = i >= bpp ? up[i - bpp] & 0xff : 0;
+
+            byte vNone = (byte) x;
+            byte vSub = (byte) (x - a);
+            byte vUp = (byte) (x - b);
+            byte vAverage = (byte) (x - ((a + b) >> 1));
+            byte vPaeth = (byte) (x - paethPredictor(a, b, c));
+            none[i + 1] = vNone;
+            sub[i + 1] = vSub;
+            upRow[i + 1] = vUp;
+            average[i + 1] = vAverage;
+            paeth[i + 1] = vPaeth;
+            sumNone += Math.abs(vNone);
+            sumSub += Math.abs(vSub);
+            sumUp += Math.abs(vUp);
+            sumAverage += Math.abs(vAverage);
+            sumPaeth += Math.abs(vPaeth);
+        }
+
+        byte[] best = none;
+        long bestSum = sumNone;
+        if (sumSub < bestSum) {
+            best = sub;
+            bestSum = sumSub;
+        }
+        if (sumUp < bestSum) {
+            best = upRow;
+            bestSum = sumUp;
+        }
+        if (sumAverage < bestSum) {
+            best = average;
+            bestSum = sumAverage;
+        }
+        if (sumPaeth < bestSum) {
+            best = paeth;
+        }
+        return best;
+    }
+
+    private static int paethPredictor(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) return a;
+        return pb <= pc ? b : c;
+    }
+
+    // Moves compressed bytes into IDAT chunks, until the input is used up or, when
+    // finishing, until the stream is complete
+    private void drain(boolean finishing) throws IOException {
+        while (finishing ? !deflater.finished() : !deflater.needsInput()) {
+            chunkLength += deflater.deflate(chunk, chunkLength, CHUNK_SIZE - chunkLength);
+            if (chunkLength == CHUNK_SIZE) {
+                writeChunk("IDAT", chunk, chunkLength);
+                chunkLength = 0;
+            }
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] header = new byte[8];
+        putInt(header, 0, length);
+        for (int i = 0; i < 4; i++) {
+            header[4 + i] = (byte) type.charAt(i);
+        }
+        crc.reset();
+        crc.update(header, 4, 4);
+        crc.update(data, 0, length);
+        out.write(header);
+        out.write(data, 0, length);
+        byte[] trailer = new byte[4];
+        putInt(trailer, 0, (int) crc.getValue());
+        out.write(trailer);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,63 @@
+package com.editor.core.imaging;
+
+// Blurs 8-bit coverage masks with three box passes per axis, close to a gaussian
+// and independent of the radius. Pixels outside the mask count as transparent.
+// Scratch is kept between calls, so one instance must not be shared across threads.
+public final class AlphaBlur {
+    private static final int PASSES = 3;
+
+    private int[] scratch = new int[0];
+    private int[] line = new int[0];
+
+    // radius is the visual radius, about twice the standard deviation
+    public void blur(byte[] mask, int width, int height, int radius) {
+        if (radius < 1 || width < 1 || height < 1) return;
+        int box = Math.max(1, (radius + 1) / 2);
+
+        int size = width * height;
+        if (scratch.length < size) scratch = new int[size];
+        if (line.length < Math.max(width, height)) line = new int[Math.max(width, height)];
+
+        int[] values = scratch;
+        for (int i = 0; i < size; i++) {
+            values[i] = mask[i] & 0xff;
+        }
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (int y = 0; y < height; y++) {
+                boxLine(values, y * width, 1, width, box);
+            }
+        }
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (int x = 0; x < width; x++) {
+                boxLine(values, x, width, height, box);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            mask[i] = (byte) values[i];
+        }
+    }
+
+    // Running sum over one row or column, read through a line buffer so the
+    // window never sees values already written by this pass
+    private void boxLine(int[] values, int offset, int stride, int length, int box) {
+        int[] src = line;
+        for (int i = 0, p = offset; i < length; i++, p += stride) {
+            src[i] = values[p];
+        }
+
+        int window = box * 2 + 1;
+        // sum * multiplier >> 16 == sum / window, values stay within 8 bits
+        int multiplier = ((1 << 16) + window - 1) / window;
+        int sum = 0;
+        for (int i = 0; i <= box && i < length; i++) {
+            sum += src[i];
+        }
+        for (int i = 0, p = offset; i < length; i++, p += stride) {
+            values[p] = Math.min(255, (sum * multiplier) >>> 16);
+            int enter = i + box + 1;
+            int leave = i - box;
+            if (enter < length) sum += src[enter];
+            if (leave >= 0) sum -= src[leave];
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.editor.core.imaging;
+
+// Lays a solid color over unpremultiplied ARGB pixels with a blend mode. The blend
+// color's alpha mixes the result with the original, the pixel alpha is kept, so
+// the blend never shows outside the image. With a constant color the separable
+// modes only depend on the backdrop channel: they are baked into one 256 entry
+// table per channel and the pass is three lookups per pixel. Stateless, safe to
+// call from any thread.
+public final class BlendKernel {
+
+    private BlendKernel() {
+    }
+
+    // src and dst may be the same buffer
+    public static void apply(PixelBuffer src, PixelBuffer dst, int color, BlendMode mode) {
+        if (src.width != dst.width || src.height != dst.height) {
+            throw new IllegalArgumentException("Size mismatch " + src.width + "x" + src.height
+                    + " vs " + dst.width + "x" + dst.height);
+        }
+        int length = src.width * src.height;
+        if (mode.isSeparable()) {
+            applySeparable(src.pixels, dst.pixels, length, color, mode);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst.pixels[i] = blend(src.pixels[i], color, mode);
+            }
+        }
+    }
+
+    // One pixel, for solid fills
+    public static int blend(int backdrop, int color, BlendMode mode) {
+        int alpha = color >>> 24;
+        int br = (backdrop >> 16) & 0xff;
+        int bg = (backdrop >> 8) & 0xff;
+        int bb = backdrop & 0xff;
+        int r;
+        int g;
+        int b;
+        if (mode.isSeparable()) {
+            r = blendChannel(br, (color >> 16) & 0xff, mode);
+            g = blendChannel(bg, (color >> 8) & 0xff, mode);
+            b = blendChannel(bb, color & 0xff, mode);
+        } else {
+            int blended = blendNonSeparable(br, bg, bb, color, mode);
+            r = (blended >> 16) & 0xff;
+            g = (blended >> 8) & 0xff;
+            b = blended & 0xff;
+        }
+        return (backdrop & 0xff000000)
+                | mix(br, r, alpha) << 16
+                | mix(bg, g, alpha) << 8
+                | mix(bb, b, alpha);
+    }
+
+    private static void applySeparable(int[] in, int[] out, int length, int color, BlendMode mode) {
+        int alpha = color >>> 24;
+        int[] red = new int[256];
+        int[] green = new int[256];
+        int[] blue = new int[256];
+        for (int v = 0; v < 256; v++) {
+            red[v] = mix(v, blendChannel(v, (color >> 16) & 0xff, mode), alpha) << 16;
+            green[v] = mix(v, blendChannel(v, (color >> 8) & 0xff, mode), alpha) << 8;
+            blue[v] = mix(v, blendChannel(v, color & 0xff, mode), alpha);
+        }
+        for (int i = 0; i < length; i++) {
+            int p = in[i];
+            out[i] = (p & 0xff000000) | red[(p >> 16) & 0xff] | green[(p >> 8) & 0xff] | blue[p & 0xff];
+        }
+    }
+
+    // b is the backdrop, s the blend color, both 0-255
+    private static int blendChannel(int b, int s, BlendMode mode) {
+        switch (mode) {
+            case MULTIPLY:
+                return div255(b * s);
+            case SCREEN:
+                return b + s - div255(b * s);
+            case OVERLAY:
+                // Hard light with the layers swapped
+                return b < 128 ? div255(2 * b * s) : 255 - div255(2 * (255 - b) * (255 - s));
+            case SOFT_LIGHT: {
+                float cb = b / 255f;
+                float cs = s / 255f;
+                float result;
+                if (cs <= 0.5f) {
+                    result = cb - (1 - 2 * cs) * cb * (1 - cb);
+                } else {
+                    float d = cb <= 0.25f ? ((16 * cb - 12) * cb + 4) * cb : (float) Math.sqrt(cb);
+                    result = cb + (2 * cs - 1) * (d - cb);
+                }
+                return Math.round(result * 255);
+            }
+            default:
+                throw new IllegalArgumentException("Not separable: " + mode);
+        }
+    }
+
+    // COLOR keeps the backdrop luminosity, HUE also keeps its saturation
+    private static int blendNonSeparable(int br, int bg, int bb, int color, BlendMode mode) {
+        float sr = ((color >> 16) & 0xff) / 255f;
+        float sg = ((color >> 8) & 0xff) / 255f;
+        float sb = (color & 0xff) / 255f;
+        float[] c = {sr, sg, sb};
+        if (mode == BlendMode.HUE) {
+            setSaturation(c, saturation(br / 255f, bg / 255f, bb / 255f));
+        }
+        setLuminosity(c, luminosity(br / 255f, bg / 255f, bb / 255f));
+        return toChannel(c[0]) << 16 | toChannel(c[1]) << 8 | toChannel(c[2]);
+    }
+
+    private static int toChannel(float value) {
+        return Math.max(0, Math.min(255, Math.round(value * 255)));
+    }
+
+    private static float luminosity(float r, float g, float b) {
+        return 0.3f * r + 0.59f * g + 0.11f * b;
+    }
+
+    private static float saturation(float r, float g, float b) {
+        return Math.max(r, Math.max(g, b)) - Math.min(r, Math.min(g, b));
+    }
+
+    // Shifts c to the luminosity, then pulls it back into gamut around it
+    private static void setLuminosity(float[] c, float lum) {
+        float d = lum - luminosity(c[0], c[1], c[2]);
+        c[0] += d;
+        c[1] += d;
+        c[2] += d;
+
+        float l = luminosity(c[0], c[1], c[2]);
+        float min = Math.min(c[0], Math.min(c[1], c[2]));
+        float max = Math.max(c[0], Math.max(c[1], c[2]));
+        for (int i = 0; i < 3; i++) {
+            if (min < 0) c[i] = l + (c[i] - l) * l / (l - min);
+            if (max > 1) c[i] = l + (c[i] - l) * (1 - l) / (max - l);
+        }
+    }
+
+    // Keeps the order of the channels, stretches them to the saturation
+    private static void setSaturation(float[] c, float sat) {
+        float min = Math.min(c[0], Math.min(c[1], c[2]));
+        float max = Math.max(c[0], Math.max(c[1], c[2]));
+        for (int i = 0; i < 3; i++) {
+            c[i] = max > min ? (c[i] - min) * sat / (max - min) : 0;
+        }
+    }
+
+    // Alpha mix of the blended channel over the backdrop channel
+    private static int mix(int backdrop, int blended, int alpha) {
+        return backdrop + div255((blended - backdrop) * alpha);
+    }
+
+    // Rounded division by 255 for products of two channels, negative ones included
+    private static int div255(int value) {
+        return value >= 0 ? (value + 128 + ((value + 128) >> 8)) >> 8 : -div255(-value);
+    }
+}
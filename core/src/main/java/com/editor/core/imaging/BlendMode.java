@@ -0,0 +1,11 @@
+package com.editor.core.imaging;
+
+// Blend modes of a color laid over an image, as defined by the W3C compositing
+// spec. The separable modes work per channel, COLOR and HUE on the whole color.
+public enum BlendMode {
+    MULTIPLY, SCREEN, OVERLAY, SOFT_LIGHT, COLOR, HUE;
+
+    public boolean isSeparable() {
+        return this != COLOR && this != HUE;
+    }
+}
@@ -0,0 +1,210 @@
+package com.editor.core.imaging;
+
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Blurs one source image at a time off the caller's thread. Large radii are blurred
+// on a downsampled copy and scaled back up, which looks the same and costs a fraction.
+// Results are cached by (source, radius, output size), so scrubbing back over radii
+// that were already computed returns immediately. Only the newest request is ever
+// computed; older pending requests are dropped and running ones are abandoned
+// between stages.
+public final class BlurEngine<T> {
+    // Radius kept at full output resolution; larger radii are downsampled until
+    // the working radius is about this size
+    private static final int WORKING_RADIUS = 4;
+
+    // Produces the source pixels, called on the worker. Returning an image already
+    // scaled close to the requested size saves a pass over the full image.
+    public interface Source {
+        PixelBuffer load(int width, int height);
+    }
+
+    // Converts finished pixels into what the caller draws with (e.g. a Bitmap)
+    public interface Output<T> {
+        T wrap(PixelBuffer pixels);
+
+        long sizeOf(T value);
+    }
+
+    public interface Callback<T> {
+        void onBlurred(T result, int radius);
+    }
+
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final Output<T> output;
+    private final LruCache<Key, T> cache;
+
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicReference<Request<T>> pending = new AtomicReference<>();
+
+    private volatile String sourceId;
+    private volatile Source source;
+
+    // Worker state, guarded by kernelLock
+    private final Object kernelLock = new Object();
+    private final StackBlur stackBlur = new StackBlur();
+    private final Resampler resampler = new Resampler();
+    private PixelBuffer base;
+    private String baseSourceId;
+    private PixelBuffer working;
+
+    public BlurEngine(Executor worker, Executor callbackExecutor, Output<T> output, long cacheBytes) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+        this.output = output;
+        this.cache = Metrics.cache("blur", new LruCache<>(cacheBytes, output::sizeOf));
+    }
+
+    // Cached results of other sources stay until they are evicted
+    public void setSource(String sourceId, Source source) {
+        if (sourceId.equals(this.sourceId)) return;
+        this.sourceId = sourceId;
+        this.source = source;
+        generation.incrementAndGet();
+    }
+
+    // Radius is in output pixels. The callback runs on the callback executor, or
+    // right away on a cache hit.
+    public void request(int radius, int width, int height, Callback<T> callback) {
+        int requestGeneration = generation.incrementAndGet();
+        String id = sourceId;
+        Source src = source;
+        if (id == null || src == null || radius < 1) return;
+
+        Key key = new Key(id, radius, width, height);
+        T cached = cache.get(key);
+        if (cached != null) {
+            callback.onBlurred(cached, radius);
+            return;
+        }
+
+        Request<T> request = new Request<>(key, src, requestGeneration, callback);
+        if (pending.getAndSet(request) == null) {
+            worker.execute(this::drain);
+        }
+    }
+
+    // Invalidates everything in flight
+    public void cancel() {
+        generation.incrementAndGet();
+        pending.set(null);
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public LruCache<?, T> getCache() {
+        return cache;
+    }
+
+    private boolean isSuperseded(Request<T> request) {
+        return request.generation != generation.get();
+    }
+
+    private void drain() {
+        Request<T> request = pending.getAndSet(null);
+        if (request == null || isSuperseded(request)) return;
+
+        T result = cache.get(request.key);
+        if (result == null) {
+            PixelBuffer pixels;
+            synchronized (kernelLock) {
+                pixels = compute(request);
+            }
+            if (pixels == null) return;
+            result = output.wrap(pixels);
+            cache.put(request.key, result);
+        }
+
+        T finished = result;
+        callbackExecutor.execute(() -> {
+            if (!isSuperseded(request)) {
+                request.callback.onBlurred(finished, request.key.radius);
+            }
+        });
+    }
+
+    // Returns null when the request was superseded part way through
+    private PixelBuffer compute(Request<T> request) {
+        Key key = request.key;
+
+        // The source scaled to the output size is kept for as long as the source and
+        // size stay the same, every radius starts from it
+        if (base == null || !key.sourceId.equals(baseSourceId)
+                || base.width != key.width || base.height != key.height) {
+            PixelBuffer loaded = request.source.load(key.width, key.height);
+            if (loaded == null) return null;
+            PixelBuffer scaled = new PixelBuffer(key.width, key.height);
+            resampler.resize(loaded, scaled);
+            base = scaled;
+            baseSourceId = key.sourceId;
+        }
+        if (isSuperseded(request)) return null;
+
+        int factor = Math.max(1, key.radius / WORKING_RADIUS);
+        int workWidth = Math.max(1, key.width / factor);
+        int workHeight = Math.max(1, key.height / factor);
+        if (working == null || working.width != workWidth || working.height != workHeight) {
+            working = new PixelBuffer(workWidth, workHeight);
+        }
+        resampler.resize(base, working);
+
+        int workRadius = Math.max(1, Math.round(key.radius * (float) workWidth / key.width));
+        stackBlur.blur(working, workRadius);
+        if (isSuperseded(request)) return null;
+
+        PixelBuffer result = new PixelBuffer(key.width, key.height);
+        resampler.resize(working, result);
+        return result;
+    }
+
+    private static final class Request<T> {
+        final Key key;
+        final Source source;
+        final int generation;
+        final Callback<T> callback;
+
+        Request(Key key, Source source, int generation, Callback<T> callback) {
+            this.key = key;
+            this.source = source;
+            this.generation = generation;
+            this.callback = callback;
+        }
+    }
+
+    private static final class Key {
+        final String sourceId;
+        final int radius;
+        final int width;
+        final int height;
+
+        Key(String sourceId, int radius, int width, int height) {
+            this.sourceId = sourceId;
+            this.radius = radius;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return radius == other.radius && width == other.width && height == other.height
+                    && sourceId.equals(other.sourceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceId, radius, width, height);
+        }
+    }
+}
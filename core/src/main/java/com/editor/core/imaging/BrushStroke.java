@@ -0,0 +1,48 @@
+package com.editor.core.imaging;
+
+// Turns pointer samples into evenly spaced dabs, so a fast swipe leaves a solid
+// line instead of a dotted one and a slow one doesn't pile dabs on one spot.
+// The distance left over at the end of a segment carries into the next one.
+public final class BrushStroke {
+
+    public interface DabListener {
+        void onDab(float x, float y);
+    }
+
+    private final DabListener listener;
+    private float spacing = 1f;
+    private float lastX;
+    private float lastY;
+    // Distance travelled since the last dab
+    private float travelled;
+
+    public BrushStroke(DabListener listener) {
+        this.listener = listener;
+    }
+
+    // Starts a stroke with a dab under the pointer
+    public void begin(float x, float y, float spacing) {
+        this.spacing = Math.max(0.5f, spacing);
+        lastX = x;
+        lastY = y;
+        travelled = 0;
+        listener.onDab(x, y);
+    }
+
+    public void lineTo(float x, float y) {
+        float dx = x - lastX;
+        float dy = y - lastY;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) return;
+
+        float position = spacing - travelled;
+        while (position <= length) {
+            float t = position / length;
+            listener.onDab(lastX + dx * t, lastY + dy * t);
+            position += spacing;
+        }
+        travelled = length - (position - spacing);
+        lastX = x;
+        lastY = y;
+    }
+}
@@ -0,0 +1,144 @@
+package com.editor.core.imaging;
+
+import java.util.Objects;
+
+// Non-destructive color settings of an image: a preset effect plus hue,
+// saturation, brightness and contrast. They are all linear in RGB, so the whole
+// stack folds into one color matrix and costs a single pass over the pixels
+// however many are set. Immutable.
+public final class ColorAdjustments {
+    public static final ColorAdjustments NONE = new ColorAdjustments(Effect.NONE, 0, 0, 0, 0);
+
+    public enum Effect {
+        NONE, MONO, SEPIA, VINTAGE, COOL, WARM, FADE
+    }
+
+    private final Effect effect;
+    // Degrees, -180 to 180
+    private final int hue;
+    // -100 to 100, 0 leaves the image as is
+    private final int saturation;
+    private final int brightness;
+    private final int contrast;
+
+    private ColorAdjustments(Effect effect, int hue, int saturation, int brightness, int contrast) {
+        this.effect = effect;
+        this.hue = Math.max(-180, Math.min(180, hue));
+        this.saturation = clamp(saturation);
+        this.brightness = clamp(brightness);
+        this.contrast = clamp(contrast);
+    }
+
+    public Effect getEffect() {
+        return effect;
+    }
+
+    public int getHue() {
+        return hue;
+    }
+
+    public int getSaturation() {
+        return saturation;
+    }
+
+    public int getBrightness() {
+        return brightness;
+    }
+
+    public int getContrast() {
+        return contrast;
+    }
+
+    public ColorAdjustments withEffect(Effect effect) {
+        return new ColorAdjustments(effect, hue, saturation, brightness, contrast);
+    }
+
+    public ColorAdjustments withHue(int hue) {
+        return new ColorAdjustments(effect, hue, saturation, brightness, contrast);
+    }
+
+    public ColorAdjustments withSaturation(int saturation) {
+        return new ColorAdjustments(effect, hue, saturation, brightness, contrast);
+    }
+
+    public ColorAdjustments withBrightness(int brightness) {
+        return new ColorAdjustments(effect, hue, saturation, brightness, contrast);
+    }
+
+    public ColorAdjustments withContrast(int contrast) {
+        return new ColorAdjustments(effect, hue, saturation, brightness, contrast);
+    }
+
+    public boolean isIdentity() {
+        return effect == Effect.NONE && hue == 0 && saturation == 0 && brightness == 0 && contrast == 0;
+    }
+
+    // The fused matrix: effect first, then hue, saturation, contrast and brightness
+    public float[] toMatrix(float[] out) {
+        float[] step = new float[ColorMatrices.LENGTH];
+        effectMatrix(effect, out);
+        if (hue != 0) {
+            ColorMatrices.concat(ColorMatrices.hue(hue, step), out, out);
+        }
+        if (saturation != 0) {
+            ColorMatrices.concat(ColorMatrices.saturation(1f + saturation / 100f, step), out, out);
+        }
+        if (contrast != 0) {
+            // Up to 3x when raised, down to flat gray when lowered
+            float scale = contrast > 0 ? 1f + contrast / 50f : 1f + contrast / 100f;
+            ColorMatrices.concat(ColorMatrices.contrast(scale, step), out, out);
+        }
+        if (brightness != 0) {
+            ColorMatrices.concat(ColorMatrices.brightness(brightness * 1.275f, step), out, out);
+        }
+        return out;
+    }
+
+    private static void effectMatrix(Effect effect, float[] out) {
+        switch (effect) {
+            case MONO:
+                ColorMatrices.saturation(0f, out);
+                break;
+            case SEPIA:
+                ColorMatrices.concat(ColorMatrices.scale(1.07f, 0.74f, 0.43f, 0, 0, 0, new float[ColorMatrices.LENGTH]),
+                        ColorMatrices.saturation(0f, out), out);
+                break;
+            case VINTAGE:
+                ColorMatrices.concat(ColorMatrices.scale(0.9f, 0.85f, 0.72f, 24, 18, 10, new float[ColorMatrices.LENGTH]),
+                        ColorMatrices.saturation(0.6f, out), out);
+                break;
+            case COOL:
+                ColorMatrices.scale(0.9f, 1f, 1.12f, 0, 4, 12, out);
+                break;
+            case WARM:
+                ColorMatrices.scale(1.12f, 1.02f, 0.88f, 12, 4, 0, out);
+                break;
+            case FADE:
+                // Lifted blacks and softened whites
+                ColorMatrices.concat(ColorMatrices.scale(0.8f, 0.8f, 0.8f, 40, 40, 40, new float[ColorMatrices.LENGTH]),
+                        ColorMatrices.saturation(0.8f, out), out);
+                break;
+            default:
+                ColorMatrices.identity(out);
+                break;
+        }
+    }
+
+    private static int clamp(int value) {
+        return Math.max(-100, Math.min(100, value));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ColorAdjustments)) return false;
+        ColorAdjustments other = (ColorAdjustments) o;
+        return effect == other.effect && hue == other.hue && saturation == other.saturation
+                && brightness == other.brightness && contrast == other.contrast;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(effect, hue, saturation, brightness, contrast);
+    }
+}
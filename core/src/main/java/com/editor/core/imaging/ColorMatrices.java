@@ -0,0 +1,122 @@
+package com.editor.core.imaging;
+
+import java.util.Arrays;
+
+// 4x5 color matrices in the row-major layout android.graphics.ColorMatrix uses:
+// each row is [r, g, b, a, offset] for one output channel, offsets in 0-255 units.
+// Every builder writes into a caller supplied float[20].
+public final class ColorMatrices {
+    public static final int LENGTH = 20;
+
+    // Rec. 709 luma weights
+    private static final float LUMA_R = 0.2126f;
+    private static final float LUMA_G = 0.7152f;
+    private static final float LUMA_B = 0.0722f;
+
+    private ColorMatrices() {
+    }
+
+    public static float[] identity(float[] out) {
+        Arrays.fill(out, 0, LENGTH, 0f);
+        out[0] = 1f;
+        out[6] = 1f;
+        out[12] = 1f;
+        out[18] = 1f;
+        return out;
+    }
+
+    public static boolean isIdentity(float[] m) {
+        for (int i = 0; i < LENGTH; i++) {
+            float expected = i % 6 == 0 ? 1f : 0f;
+            if (m[i] != expected) return false;
+        }
+        return true;
+    }
+
+    // out = a * b, the result applies b first and then a. out may alias either input.
+    public static float[] concat(float[] a, float[] b, float[] out) {
+        float[] result = new float[LENGTH];
+        for (int row = 0; row < 4; row++) {
+            int r = row * 5;
+            for (int column = 0; column < 5; column++) {
+                result[r + column] = a[r] * b[column] + a[r + 1] * b[5 + column]
+                        + a[r + 2] * b[10 + column] + a[r + 3] * b[15 + column];
+            }
+            result[r + 4] += a[r + 4];
+        }
+        System.arraycopy(result, 0, out, 0, LENGTH);
+        return out;
+    }
+
+    // amount 1 keeps the colors, 0 is grayscale, 2 doubles the saturation
+    public static float[] saturation(float amount, float[] out) {
+        identity(out);
+        float inverse = 1f - amount;
+        float r = LUMA_R * inverse;
+        float g = LUMA_G * inverse;
+        float b = LUMA_B * inverse;
+        out[0] = r + amount;
+        out[1] = g;
+        out[2] = b;
+        out[5] = r;
+        out[6] = g + amount;
+        out[7] = b;
+        out[10] = r;
+        out[11] = g;
+        out[12] = b + amount;
+        return out;
+    }
+
+    // Rotates hues around the gray axis, keeping luma
+    public static float[] hue(float degrees, float[] out) {
+        identity(out);
+        double radians = Math.toRadians(degrees);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        out[0] = LUMA_R + cos * (1 - LUMA_R) - sin * LUMA_R;
+        out[1] = LUMA_G - cos * LUMA_G - sin * LUMA_G;
+        out[2] = LUMA_B - cos * LUMA_B + sin * (1 - LUMA_B);
+        out[5] = LUMA_R - cos * LUMA_R + sin * 0.143f;
+        out[6] = LUMA_G + cos * (1 - LUMA_G) + sin * 0.140f;
+        out[7] = LUMA_B - cos * LUMA_B - sin * 0.283f;
+        out[10] = LUMA_R - cos * LUMA_R - sin * (1 - LUMA_R);
+        out[11] = LUMA_G - cos * LUMA_G + sin * LUMA_G;
+        out[12] = LUMA_B + cos * (1 - LUMA_B) + sin * LUMA_B;
+        return out;
+    }
+
+    // offset in 0-255 units, added to every channel
+    public static float[] brightness(float offset, float[] out) {
+        identity(out);
+        out[4] = offset;
+        out[9] = offset;
+        out[14] = offset;
+        return out;
+    }
+
+    // Scales every channel around mid gray
+    public static float[] contrast(float scale, float[] out) {
+        identity(out);
+        float offset = 127.5f * (1f - scale);
+        out[0] = scale;
+        out[6] = scale;
+        out[12] = scale;
+        out[4] = offset;
+        out[9] = offset;
+        out[14] = offset;
+        return out;
+    }
+
+    // Per channel gains and offsets, for tints and fades
+    public static float[] scale(float r, float g, float b, float offsetR, float offsetG, float offsetB,
+                                float[] out) {
+        identity(out);
+        out[0] = r;
+        out[6] = g;
+        out[12] = b;
+        out[4] = offsetR;
+        out[9] = offsetG;
+        out[14] = offsetB;
+        return out;
+    }
+}
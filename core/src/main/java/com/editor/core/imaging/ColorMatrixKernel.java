@@ -0,0 +1,50 @@
+package com.editor.core.imaging;
+
+// Applies a 4x5 color matrix to unpremultiplied ARGB pixels in one pass, with
+// coefficients in 12-bit fixed point. Alpha is copied unless the matrix changes
+// it. Stateless, safe to call from any thread.
+public final class ColorMatrixKernel {
+    private static final int SHIFT = 12;
+    private static final float ONE = 1 << SHIFT;
+    private static final int ROUND = 1 << (SHIFT - 1);
+
+    private ColorMatrixKernel() {
+    }
+
+    // src and dst may be the same buffer
+    public static void apply(PixelBuffer src, PixelBuffer dst, float[] matrix) {
+        if (src.width != dst.width || src.height != dst.height) {
+            throw new IllegalArgumentException("Size mismatch " + src.width + "x" + src.height
+                    + " vs " + dst.width + "x" + dst.height);
+        }
+        int[] m = new int[ColorMatrices.LENGTH];
+        for (int i = 0; i < ColorMatrices.LENGTH; i++) {
+            // Offsets are in 0-255 units, same scale as the channels
+            m[i] = Math.round(matrix[i] * ONE);
+        }
+        boolean keepAlpha = matrix[15] == 0 && matrix[16] == 0 && matrix[17] == 0
+                && matrix[18] == 1 && matrix[19] == 0;
+
+        int[] in = src.pixels;
+        int[] out = dst.pixels;
+        int length = src.width * src.height;
+        for (int i = 0; i < length; i++) {
+            int color = in[i];
+            int a = color >>> 24;
+            int r = (color >> 16) & 0xff;
+            int g = (color >> 8) & 0xff;
+            int b = color & 0xff;
+
+            int nr = (m[0] * r + m[1] * g + m[2] * b + m[3] * a + m[4] + ROUND) >> SHIFT;
+            int ng = (m[5] * r + m[6] * g + m[7] * b + m[8] * a + m[9] + ROUND) >> SHIFT;
+            int nb = (m[10] * r + m[11] * g + m[12] * b + m[13] * a + m[14] + ROUND) >> SHIFT;
+            int na = keepAlpha ? a : (m[15] * r + m[16] * g + m[17] * b + m[18] * a + m[19] + ROUND) >> SHIFT;
+
+            out[i] = clamp(na) << 24 | clamp(nr) << 16 | clamp(ng) << 8 | clamp(nb);
+        }
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : value > 255 ? 255 : value;
+    }
+}
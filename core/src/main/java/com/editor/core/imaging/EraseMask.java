@@ -0,0 +1,174 @@
+package com.editor.core.imaging;
+
+import java.util.Arrays;
+
+// Sparse coverage mask split into square tiles, 255 keeps a pixel and 0 erases it.
+// A tile is only allocated once a brush touches it and is dropped again when it
+// goes back to fully kept, so an image that was barely erased costs a few tiles.
+// Edge tiles are padded to the full tile size. Not thread safe.
+public final class EraseMask {
+    public static final int TILE_SIZE = 128;
+    private static final int KEEP = 255;
+    // Brush falloff samples, indexed by squared distance over squared radius
+    private static final int PROFILE_SIZE = 256;
+
+    // Lets the caller snapshot a tile before a dab changes it and refresh it after
+    public interface TileObserver {
+        void beforeWrite(int tileX, int tileY);
+
+        void afterWrite(int tileX, int tileY);
+    }
+
+    private final int width;
+    private final int height;
+    private final int columns;
+    private final int rows;
+    private final byte[][] tiles;
+    private int tileCount;
+    // Bumped by every write, lets callers skip copying a mask that hasn't changed
+    private int generation;
+
+    // Erase amount by squared distance, rebuilt when the hardness changes
+    private final int[] profile = new int[PROFILE_SIZE + 1];
+    private float profileHardness = -1;
+
+    public EraseMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.tiles = new byte[columns * rows][];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    // True while nothing is erased
+    public boolean isEmpty() {
+        return tileCount == 0;
+    }
+
+    // Null for a tile that was never erased (fully kept)
+    public byte[] getTile(int tileX, int tileY) {
+        return tiles[tileY * columns + tileX];
+    }
+
+    public void readTile(int tileX, int tileY, int[] out) {
+        byte[] tile = getTile(tileX, tileY);
+        int length = TILE_SIZE * TILE_SIZE;
+        if (tile == null) {
+            Arrays.fill(out, 0, length, KEEP);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out[i] = tile[i] & 0xff;
+        }
+    }
+
+    public void writeTile(int tileX, int tileY, int[] values) {
+        generation++;
+        int length = TILE_SIZE * TILE_SIZE;
+        boolean kept = true;
+        for (int i = 0; i < length && kept; i++) {
+            kept = values[i] == KEEP;
+        }
+        if (kept) {
+            setTile(tileX, tileY, null);
+            return;
+        }
+        byte[] tile = obtainTile(tileX, tileY);
+        for (int i = 0; i < length; i++) {
+            tile[i] = (byte) values[i];
+        }
+    }
+
+    // Erases a round dab. hardness is the fraction of the radius erased fully,
+    // the rest fades out. Repeated dabs accumulate.
+    public void dab(float centerX, float centerY, float radius, float hardness, TileObserver observer) {
+        if (radius <= 0) return;
+        updateProfile(hardness);
+
+        int left = Math.max(0, (int) Math.floor(centerX - radius));
+        int top = Math.max(0, (int) Math.floor(centerY - radius));
+        int right = Math.min(width, (int) Math.ceil(centerX + radius));
+        int bottom = Math.min(height, (int) Math.ceil(centerY + radius));
+        if (left >= right || top >= bottom) return;
+        generation++;
+
+        float radiusSquared = radius * radius;
+        float profileScale = PROFILE_SIZE / radiusSquared;
+        for (int tileY = top / TILE_SIZE; tileY <= (bottom - 1) / TILE_SIZE; tileY++) {
+            for (int tileX = left / TILE_SIZE; tileX <= (right - 1) / TILE_SIZE; tileX++) {
+                if (observer != null) observer.beforeWrite(tileX, tileY);
+                byte[] tile = obtainTile(tileX, tileY);
+                int originX = tileX * TILE_SIZE;
+                int originY = tileY * TILE_SIZE;
+                int x0 = Math.max(left, originX);
+                int x1 = Math.min(right, originX + TILE_SIZE);
+                int y0 = Math.max(top, originY);
+                int y1 = Math.min(bottom, originY + TILE_SIZE);
+                for (int y = y0; y < y1; y++) {
+                    float dy = y + 0.5f - centerY;
+                    int row = (y - originY) * TILE_SIZE - originX;
+                    for (int x = x0; x < x1; x++) {
+                        float dx = x + 0.5f - centerX;
+                        float distanceSquared = dx * dx + dy * dy;
+                        if (distanceSquared >= radiusSquared) continue;
+                        int erase = profile[(int) (distanceSquared * profileScale)];
+                        int keep = tile[row + x] & 0xff;
+                        tile[row + x] = (byte) (keep * (KEEP - erase) / KEEP);
+                    }
+                }
+                if (observer != null) observer.afterWrite(tileX, tileY);
+            }
+        }
+    }
+
+    private byte[] obtainTile(int tileX, int tileY) {
+        byte[] tile = getTile(tileX, tileY);
+        if (tile == null) {
+            tile = new byte[TILE_SIZE * TILE_SIZE];
+            Arrays.fill(tile, (byte) KEEP);
+            setTile(tileX, tileY, tile);
+        }
+        return tile;
+    }
+
+    private void setTile(int tileX, int tileY, byte[] tile) {
+        int index = tileY * columns + tileX;
+        if (tiles[index] == null && tile != null) tileCount++;
+        if (tiles[index] != null && tile == null) tileCount--;
+        tiles[index] = tile;
+    }
+
+    // Smoothstep from the hard core to the edge, over distance rather than squared distance
+    private void updateProfile(float hardness) {
+        hardness = Math.max(0f, Math.min(1f, hardness));
+        if (hardness == profileHardness) return;
+        profileHardness = hardness;
+        for (int i = 0; i <= PROFILE_SIZE; i++) {
+            float distance = (float) Math.sqrt((double) i / PROFILE_SIZE);
+            float t = hardness >= 1f ? (distance < 1f ? 0f : 1f)
+                    : Math.max(0f, Math.min(1f, (distance - hardness) / (1f - hardness)));
+            float amount = 1f - t * t * (3f - 2f * t);
+            profile[i] = Math.round(amount * KEEP);
+        }
+    }
+}
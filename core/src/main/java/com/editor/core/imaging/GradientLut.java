@@ -0,0 +1,51 @@
+package com.editor.core.imaging;
+
+import java.util.Arrays;
+
+// A gradient baked into a table of ARGB colors, so per-color work (e.g. a blend
+// mode that isn't separable) can be done on the table instead of only the stops.
+// Immutable once built, safe to share across threads.
+public final class GradientLut {
+    // The table feeds shader stops that are interpolated again, no visible banding
+    public static final int SIZE = 256;
+
+    private final int[] table;
+
+    // Colors are spread evenly
+    public GradientLut(int[] colors, int size) {
+        if (colors.length == 0) throw new IllegalArgumentException("No colors");
+        if (size < 2) throw new IllegalArgumentException("Size must be at least 2");
+
+        table = new int[size];
+        if (colors.length == 1) {
+            Arrays.fill(table, colors[0]);
+            return;
+        }
+
+        int last = colors.length - 1;
+        for (int i = 0; i < size; i++) {
+            float t = (float) i / (size - 1) * last;
+            int stop = Math.min(last - 1, (int) t);
+            table[i] = lerp(colors[stop], colors[stop + 1], t - stop);
+        }
+    }
+
+    public int size() {
+        return table.length;
+    }
+
+    // The table itself, callers must not modify it
+    public int[] table() {
+        return table;
+    }
+
+    private static int lerp(int from, int to, float f) {
+        int w = (int) (f * 256 + 0.5f);
+        int iw = 256 - w;
+        int a = ((from >>> 24) * iw + (to >>> 24) * w) >> 8;
+        int r = (((from >> 16) & 0xff) * iw + ((to >> 16) & 0xff) * w) >> 8;
+        int g = (((from >> 8) & 0xff) * iw + ((to >> 8) & 0xff) * w) >> 8;
+        int b = ((from & 0xff) * iw + (to & 0xff) * w) >> 8;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
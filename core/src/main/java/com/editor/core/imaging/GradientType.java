@@ -0,0 +1,7 @@
+package com.editor.core.imaging;
+
+// Geometry of a gradient fill. The angle of a fill rotates the LINEAR direction
+// and the SWEEP start, RADIAL ignores it.
+public enum GradientType {
+    LINEAR, RADIAL, SWEEP
+}
@@ -0,0 +1,25 @@
+package com.editor.core.imaging;
+
+// ARGB_8888 pixels in row-major order, the layout Bitmap.getPixels() produces
+public final class PixelBuffer {
+    public final int width;
+    public final int height;
+    public final int[] pixels;
+
+    public PixelBuffer(int width, int height) {
+        this(width, height, new int[width * height]);
+    }
+
+    public PixelBuffer(int width, int height, int[] pixels) {
+        if (pixels.length < width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels, got " + pixels.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    public long getByteCount() {
+        return (long) width * height * 4;
+    }
+}
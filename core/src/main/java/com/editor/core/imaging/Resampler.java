@@ -0,0 +1,143 @@
+package com.editor.core.imaging;
+
+import java.util.Arrays;
+
+// Resizes pixel buffers: area averaging when shrinking, bilinear when enlarging.
+// Scratch buffers are kept between calls, one instance per thread.
+public final class Resampler {
+    private int[] xStart = new int[0];
+    private int[] xEnd = new int[0];
+    private long[] rowSums = new long[0];
+
+    private int[] xIndex = new int[0];
+    private int[] xFraction = new int[0];
+
+    public void resize(PixelBuffer src, PixelBuffer dst) {
+        if (src.width == dst.width && src.height == dst.height) {
+            System.arraycopy(src.pixels, 0, dst.pixels, 0, src.width * src.height);
+        } else if (dst.width <= src.width && dst.height <= src.height) {
+            downsample(src, dst);
+        } else {
+            bilinear(src, dst);
+        }
+    }
+
+    // Every destination pixel is the mean of the source pixels it covers
+    public void downsample(PixelBuffer src, PixelBuffer dst) {
+        int sw = src.width;
+        int sh = src.height;
+        int dw = dst.width;
+        int dh = dst.height;
+        ensureDownsample(dw);
+
+        for (int dx = 0; dx < dw; dx++) {
+            xStart[dx] = (int) ((long) dx * sw / dw);
+            xEnd[dx] = Math.max(xStart[dx] + 1, (int) ((long) (dx + 1) * sw / dw));
+        }
+
+        int[] in = src.pixels;
+        int[] out = dst.pixels;
+        long[] sums = rowSums;
+        for (int dy = 0; dy < dh; dy++) {
+            int y0 = (int) ((long) dy * sh / dh);
+            int y1 = Math.max(y0 + 1, (int) ((long) (dy + 1) * sh / dh));
+            Arrays.fill(sums, 0, dw * 4, 0L);
+
+            for (int y = y0; y < y1; y++) {
+                int row = y * sw;
+                for (int dx = 0; dx < dw; dx++) {
+                    long a = 0, r = 0, g = 0, b = 0;
+                    for (int x = xStart[dx], end = xEnd[dx]; x < end; x++) {
+                        int p = in[row + x];
+                        a += p >>> 24;
+                        r += (p >> 16) & 0xff;
+                        g += (p >> 8) & 0xff;
+                        b += p & 0xff;
+                    }
+                    int s = dx * 4;
+                    sums[s] += a;
+                    sums[s + 1] += r;
+                    sums[s + 2] += g;
+                    sums[s + 3] += b;
+                }
+            }
+
+            int rows = y1 - y0;
+            int row = dy * dw;
+            for (int dx = 0; dx < dw; dx++) {
+                long count = (long) rows * (xEnd[dx] - xStart[dx]);
+                long half = count / 2;
+                int s = dx * 4;
+                out[row + dx] = (int) ((sums[s] + half) / count) << 24
+                        | (int) ((sums[s + 1] + half) / count) << 16
+                        | (int) ((sums[s + 2] + half) / count) << 8
+                        | (int) ((sums[s + 3] + half) / count);
+            }
+        }
+    }
+
+    // Samples at pixel centers with 8 bit fixed point weights
+    public void bilinear(PixelBuffer src, PixelBuffer dst) {
+        int sw = src.width;
+        int sh = src.height;
+        int dw = dst.width;
+        int dh = dst.height;
+        ensureBilinear(dw);
+
+        for (int dx = 0; dx < dw; dx++) {
+            int fx = (int) (((dx + 0.5) * sw / dw - 0.5) * 256);
+            fx = Math.max(0, Math.min(fx, (sw - 1) * 256));
+            xIndex[dx] = fx >> 8;
+            xFraction[dx] = fx & 0xff;
+        }
+
+        int[] in = src.pixels;
+        int[] out = dst.pixels;
+        for (int dy = 0; dy < dh; dy++) {
+            int fy = (int) (((dy + 0.5) * sh / dh - 0.5) * 256);
+            fy = Math.max(0, Math.min(fy, (sh - 1) * 256));
+            int y0 = fy >> 8;
+            int y1 = Math.min(y0 + 1, sh - 1);
+            int wy = fy & 0xff;
+            int row0 = y0 * sw;
+            int row1 = y1 * sw;
+            int row = dy * dw;
+
+            for (int dx = 0; dx < dw; dx++) {
+                int x0 = xIndex[dx];
+                int x1 = Math.min(x0 + 1, sw - 1);
+                int wx = xFraction[dx];
+                int top = lerp(in[row0 + x0], in[row0 + x1], wx);
+                int bottom = lerp(in[row1 + x0], in[row1 + x1], wx);
+                out[row + dx] = lerp(top, bottom, wy);
+            }
+        }
+    }
+
+    private static int lerp(int c0, int c1, int t) {
+        if (c0 == c1) return c0;
+        int inv = 256 - t;
+        int a = ((c0 >>> 24) * inv + (c1 >>> 24) * t) >> 8;
+        int r = (((c0 >> 16) & 0xff) * inv + ((c1 >> 16) & 0xff) * t) >> 8;
+        int g = (((c0 >> 8) & 0xff) * inv + ((c1 >> 8) & 0xff) * t) >> 8;
+        int b = ((c0 & 0xff) * inv + (c1 & 0xff) * t) >> 8;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private void ensureDownsample(int width) {
+        if (xStart.length < width) {
+            xStart = new int[width];
+            xEnd = new int[width];
+        }
+        if (rowSums.length < width * 4) {
+            rowSums = new long[width * 4];
+        }
+    }
+
+    private void ensureBilinear(int width) {
+        if (xIndex.length < width) {
+            xIndex = new int[width];
+            xFraction = new int[width];
+        }
+    }
+}
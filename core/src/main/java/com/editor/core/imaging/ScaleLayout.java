@@ -0,0 +1,96 @@
+package com.editor.core.imaging;
+
+// Places a source image on a canvas. Every scale type is the same affine matrix,
+// a uniform scale followed by a translation:
+//   x' = x * scale + translateX,  y' = y * scale + translateY
+// The type picks the base scale (cover, contain or none) and the edge the image
+// is anchored to; the user scale multiplies the base scale around that anchor.
+public final class ScaleLayout {
+    public static final int DEFAULT_SCALE = 100;
+    public static final int MIN_SCALE = 50;
+    public static final int MAX_SCALE = 300;
+
+    public enum Type {
+        ASPECT_FILL, CENTER, TOP, BOTTOM, LEFT, RIGHT, FIT
+    }
+
+    private float scale = 1f;
+    private float translateX;
+    private float translateY;
+    // Size of the scaled image
+    private float scaledWidth;
+    private float scaledHeight;
+
+    // percent is the user scale, 100 keeps the base scale of the type
+    public ScaleLayout set(Type type, int percent, int sourceWidth, int sourceHeight, float width, float height) {
+        float cover = Math.max(width / sourceWidth, height / sourceHeight);
+        float base;
+        switch (type) {
+            case CENTER:
+                base = 1f;
+                break;
+            case FIT:
+                base = Math.min(width / sourceWidth, height / sourceHeight);
+                break;
+            default:
+                base = cover;
+                break;
+        }
+        scale = base * percent / 100f;
+        scaledWidth = sourceWidth * scale;
+        scaledHeight = sourceHeight * scale;
+
+        // Anchor of the image on each axis: 0 start, 0.5 center, 1 end
+        float anchorX = type == Type.LEFT ? 0f : type == Type.RIGHT ? 1f : 0.5f;
+        float anchorY = type == Type.TOP ? 0f : type == Type.BOTTOM ? 1f : 0.5f;
+        translateX = (width - scaledWidth) * anchorX;
+        translateY = (height - scaledHeight) * anchorY;
+        return this;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public float getTranslateX() {
+        return translateX;
+    }
+
+    public float getTranslateY() {
+        return translateY;
+    }
+
+    // Row-major 3x3 values, as Matrix.setValues expects
+    public float[] toMatrix(float[] out) {
+        out[0] = scale;
+        out[1] = 0;
+        out[2] = translateX;
+        out[3] = 0;
+        out[4] = scale;
+        out[5] = translateY;
+        out[6] = 0;
+        out[7] = 0;
+        out[8] = 1;
+        return out;
+    }
+
+    // Part of the canvas covered by the image, left, top, right, bottom in whole
+    // canvas pixels. Empty when the image is entirely outside.
+    public void getVisibleBounds(float width, float height, int[] out) {
+        out[0] = (int) Math.max(0, Math.floor(translateX));
+        out[1] = (int) Math.max(0, Math.floor(translateY));
+        out[2] = (int) Math.min(Math.ceil(width), Math.ceil(translateX + scaledWidth));
+        out[3] = (int) Math.min(Math.ceil(height), Math.ceil(translateY + scaledHeight));
+        out[2] = Math.max(out[0], out[2]);
+        out[3] = Math.max(out[1], out[3]);
+    }
+
+    // Maps canvas x back to source x
+    public float toSourceX(float x) {
+        return (x - translateX) / scale;
+    }
+
+    public float toSourceY(float y) {
+        return (y - translateY) / scale;
+    }
+}
@@ -0,0 +1,98 @@
+package com.editor.core.imaging;
+
+import com.editor.core.cache.LruCache;
+import com.editor.core.metrics.Metrics;
+
+// Coverage of a layer and its blurred versions, the expensive half of a drop
+// shadow. The mask is captured once per content change, each blur radius is
+// computed once and cached. Color, opacity and offset are applied when drawing
+// and never touch the mask. Large radii are blurred on a downsampled mask and
+// drawn scaled up. Not thread safe.
+public final class ShadowMask<T> {
+    // Radius kept at full resolution; larger radii are downsampled until the
+    // working radius is about this size
+    private static final int WORKING_RADIUS = 4;
+
+    // Converts a finished mask into what the caller draws with (e.g. an ALPHA_8 Bitmap)
+    public interface Output<T> {
+        T wrap(byte[] alpha, int width, int height);
+
+        long sizeOf(T value);
+    }
+
+    private final int width;
+    private final int height;
+    private final byte[] alpha;
+    private final Output<T> output;
+    private final LruCache<Integer, Blurred<T>> blurred;
+    private final AlphaBlur alphaBlur = new AlphaBlur();
+
+    // alpha holds one coverage byte per pixel and is not copied
+    public ShadowMask(int width, int height, byte[] alpha, Output<T> output, long cacheBytes) {
+        if (alpha.length < width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " mask bytes, got " + alpha.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+        this.output = output;
+        this.blurred = Metrics.cache("shadow.blurred", new LruCache<>(cacheBytes, value -> output.sizeOf(value.mask)));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // The mask blurred by radius, computed on the first call for that radius
+    public Blurred<T> get(int radius) {
+        radius = Math.max(0, radius);
+        Blurred<T> result = blurred.get(radius);
+        if (result != null) return result;
+
+        int scale = Math.max(1, radius / WORKING_RADIUS);
+        int w = Math.max(1, width / scale);
+        int h = Math.max(1, height / scale);
+        byte[] working = scale == 1 ? alpha.clone() : downsample(scale, w, h);
+        alphaBlur.blur(working, w, h, Math.round((float) radius / scale));
+
+        result = new Blurred<>(output.wrap(working, w, h), (float) width / w, (float) height / h);
+        blurred.put(radius, result);
+        return result;
+    }
+
+    // Area average, each output pixel covers a scale x scale block
+    private byte[] downsample(int scale, int w, int h) {
+        byte[] out = new byte[w * h];
+        int area = scale * scale;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int sum = 0;
+                for (int sy = 0; sy < scale; sy++) {
+                    int row = (y * scale + sy) * width + x * scale;
+                    for (int sx = 0; sx < scale; sx++) {
+                        sum += alpha[row + sx] & 0xff;
+                    }
+                }
+                out[y * w + x] = (byte) (sum / area);
+            }
+        }
+        return out;
+    }
+
+    // A blurred mask and how much it has to be scaled up to cover the full mask
+    public static final class Blurred<T> {
+        public final T mask;
+        public final float scaleX;
+        public final float scaleY;
+
+        Blurred(T mask, float scaleX, float scaleY) {
+            this.mask = mask;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+    }
+}
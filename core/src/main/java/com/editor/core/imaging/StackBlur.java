@@ -0,0 +1,239 @@
+package com.editor.core.imaging;
+
+// Stack blur: an approximation of a gaussian whose cost doesn't depend on the
+// radius. Channels are blurred independently (unpremultiplied, as Bitmap.getPixels
+// returns them). Scratch buffers are kept between calls, so one instance must not
+// be shared across threads.
+public final class StackBlur {
+    public static final int MAX_RADIUS = 254;
+
+    private int[] alpha = new int[0];
+    private int[] red = new int[0];
+    private int[] green = new int[0];
+    private int[] blue = new int[0];
+    private int[] vmin = new int[0];
+    private int[] stack = new int[0];
+
+    // Lookup for sum / divisor, rebuilt when the radius changes
+    private int[] divide = new int[0];
+    private int divideRadius = -1;
+
+    public void blur(PixelBuffer buffer, int radius) {
+        blur(buffer.pixels, buffer.width, buffer.height, radius);
+    }
+
+    public void blur(int[] pixels, int width, int height, int radius) {
+        radius = Math.min(radius, MAX_RADIUS);
+        if (radius < 1 || width < 1 || height < 1) return;
+
+        int wm = width - 1;
+        int hm = height - 1;
+        int div = radius + radius + 1;
+        int r1 = radius + 1;
+        ensureCapacity(width * height, Math.max(width, height), div);
+        int[] dv = divideTable(radius);
+
+        int[] a = alpha;
+        int[] r = red;
+        int[] g = green;
+        int[] b = blue;
+        int[] stk = stack;
+
+        int yw = 0;
+        int yi = 0;
+
+        // Horizontal pass into the channel planes
+        for (int y = 0; y < height; y++) {
+            int aSum = 0, rSum = 0, gSum = 0, bSum = 0;
+            int aIn = 0, rIn = 0, gIn = 0, bIn = 0;
+            int aOut = 0, rOut = 0, gOut = 0, bOut = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int p = pixels[yi + Math.min(wm, Math.max(i, 0))];
+                int s = (i + radius) * 4;
+                stk[s] = p >>> 24;
+                stk[s + 1] = (p >> 16) & 0xff;
+                stk[s + 2] = (p >> 8) & 0xff;
+                stk[s + 3] = p & 0xff;
+                int weight = r1 - Math.abs(i);
+                aSum += stk[s] * weight;
+                rSum += stk[s + 1] * weight;
+                gSum += stk[s + 2] * weight;
+                bSum += stk[s + 3] * weight;
+                if (i > 0) {
+                    aIn += stk[s];
+                    rIn += stk[s + 1];
+                    gIn += stk[s + 2];
+                    bIn += stk[s + 3];
+                } else {
+                    aOut += stk[s];
+                    rOut += stk[s + 1];
+                    gOut += stk[s + 2];
+                    bOut += stk[s + 3];
+                }
+            }
+
+            int stackPointer = radius;
+            for (int x = 0; x < width; x++) {
+                a[yi] = dv[aSum];
+                r[yi] = dv[rSum];
+                g[yi] = dv[gSum];
+                b[yi] = dv[bSum];
+
+                aSum -= aOut;
+                rSum -= rOut;
+                gSum -= gOut;
+                bSum -= bOut;
+
+                int s = ((stackPointer - radius + div) % div) * 4;
+                aOut -= stk[s];
+                rOut -= stk[s + 1];
+                gOut -= stk[s + 2];
+                bOut -= stk[s + 3];
+
+                if (y == 0) {
+                    vmin[x] = Math.min(x + r1, wm);
+                }
+                int p = pixels[yw + vmin[x]];
+                stk[s] = p >>> 24;
+                stk[s + 1] = (p >> 16) & 0xff;
+                stk[s + 2] = (p >> 8) & 0xff;
+                stk[s + 3] = p & 0xff;
+
+                aIn += stk[s];
+                rIn += stk[s + 1];
+                gIn += stk[s + 2];
+                bIn += stk[s + 3];
+                aSum += aIn;
+                rSum += rIn;
+                gSum += gIn;
+                bSum += bIn;
+
+                stackPointer = (stackPointer + 1) % div;
+                s = stackPointer * 4;
+                aOut += stk[s];
+                rOut += stk[s + 1];
+                gOut += stk[s + 2];
+                bOut += stk[s + 3];
+                aIn -= stk[s];
+                rIn -= stk[s + 1];
+                gIn -= stk[s + 2];
+                bIn -= stk[s + 3];
+
+                yi++;
+            }
+            yw += width;
+        }
+
+        // Vertical pass back into the pixels
+        for (int x = 0; x < width; x++) {
+            int aSum = 0, rSum = 0, gSum = 0, bSum = 0;
+            int aIn = 0, rIn = 0, gIn = 0, bIn = 0;
+            int aOut = 0, rOut = 0, gOut = 0, bOut = 0;
+
+            int yp = -radius * width;
+            for (int i = -radius; i <= radius; i++) {
+                yi = Math.max(0, yp) + x;
+                int s = (i + radius) * 4;
+                stk[s] = a[yi];
+                stk[s + 1] = r[yi];
+                stk[s + 2] = g[yi];
+                stk[s + 3] = b[yi];
+                int weight = r1 - Math.abs(i);
+                aSum += a[yi] * weight;
+                rSum += r[yi] * weight;
+                gSum += g[yi] * weight;
+                bSum += b[yi] * weight;
+                if (i > 0) {
+                    aIn += stk[s];
+                    rIn += stk[s + 1];
+                    gIn += stk[s + 2];
+                    bIn += stk[s + 3];
+                } else {
+                    aOut += stk[s];
+                    rOut += stk[s + 1];
+                    gOut += stk[s + 2];
+                    bOut += stk[s + 3];
+                }
+                if (i < hm) {
+                    yp += width;
+                }
+            }
+
+            yi = x;
+            int stackPointer = radius;
+            for (int y = 0; y < height; y++) {
+                pixels[yi] = (dv[aSum] << 24) | (dv[rSum] << 16) | (dv[gSum] << 8) | dv[bSum];
+
+                aSum -= aOut;
+                rSum -= rOut;
+                gSum -= gOut;
+                bSum -= bOut;
+
+                int s = ((stackPointer - radius + div) % div) * 4;
+                aOut -= stk[s];
+                rOut -= stk[s + 1];
+                gOut -= stk[s + 2];
+                bOut -= stk[s + 3];
+
+                if (x == 0) {
+                    vmin[y] = Math.min(y + r1, hm) * width;
+                }
+                int p = x + vmin[y];
+                stk[s] = a[p];
+                stk[s + 1] = r[p];
+                stk[s + 2] = g[p];
+                stk[s + 3] = b[p];
+
+                aIn += stk[s];
+                rIn += stk[s + 1];
+                gIn += stk[s + 2];
+                bIn += stk[s + 3];
+                aSum += aIn;
+                rSum += rIn;
+                gSum += gIn;
+                bSum += bIn;
+
+                stackPointer = (stackPointer + 1) % div;
+                s = stackPointer * 4;
+                aOut += stk[s];
+                rOut += stk[s + 1];
+                gOut += stk[s + 2];
+                bOut += stk[s + 3];
+                aIn -= stk[s];
+                rIn -= stk[s + 1];
+                gIn -= stk[s + 2];
+                bIn -= stk[s + 3];
+
+                yi += width;
+            }
+        }
+    }
+
+    private void ensureCapacity(int area, int longestSide, int div) {
+        if (red.length < area) {
+            alpha = new int[area];
+            red = new int[area];
+            green = new int[area];
+            blue = new int[area];
+        }
+        if (vmin.length < longestSide) {
+            vmin = new int[longestSide];
+        }
+        if (stack.length < div * 4) {
+            stack = new int[div * 4];
+        }
+    }
+
+    private int[] divideTable(int radius) {
+        if (divideRadius != radius) {
+            int divSum = (radius + 1) * (radius + 1);
+            divide = new int[256 * divSum];
+            for (int i = 0; i < divide.length; i++) {
+                divide[i] = i / divSum;
+            }
+            divideRadius = radius;
+        }
+        return divide;
+    }
+}
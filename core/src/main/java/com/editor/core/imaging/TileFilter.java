@@ -0,0 +1,9 @@
+package com.editor.core.imaging;
+
+// An edit applied to each tile of a tiled image as it is decoded, so large
+// images are never edited as a whole. Called on the decoding thread.
+public interface TileFilter {
+    // tile holds the pixels of one tile at the given mip level, (left, top) is
+    // its origin in source pixels
+    void apply(PixelBuffer tile, int level, int left, int top);
+}
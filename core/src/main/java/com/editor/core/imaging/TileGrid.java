@@ -0,0 +1,92 @@
+package com.editor.core.imaging;
+
+// Tile layout of a large image and its mip pyramid. Level n is the image
+// downsampled by 2^n; its tiles are tileSize pixels after downsampling, so they
+// cover tileSize << n source pixels each. The top level fits in a single tile.
+public final class TileGrid {
+    // Bits per column and row in a tile key, enough for 4096 tiles per side
+    private static final int INDEX_BITS = 12;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    public interface Visitor {
+        // Source pixel bounds of the tile, clipped to the image
+        void visit(int level, int column, int row, int left, int top, int right, int bottom);
+    }
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int levelCount;
+
+    public TileGrid(int width, int height, int tileSize) {
+        if (width < 1 || height < 1 || tileSize < 1) {
+            throw new IllegalArgumentException("Bad grid " + width + "x" + height + " / " + tileSize);
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        int levels = 1;
+        while ((Math.max(width, height) >> (levels - 1)) > tileSize) {
+            levels++;
+        }
+        this.levelCount = levels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    // Coarsest level that still has at least one pixel per output pixel, scale
+    // being output pixels per source pixel
+    public int levelFor(float scale) {
+        int level = 0;
+        while (level < levelCount - 1 && scale * (2 << level) <= 1f) {
+            level++;
+        }
+        return level;
+    }
+
+    public int getColumns(int level) {
+        int span = tileSize << level;
+        return (width + span - 1) / span;
+    }
+
+    public int getRows(int level) {
+        int span = tileSize << level;
+        return (height + span - 1) / span;
+    }
+
+    // Visits the tiles of a level that intersect the source rect, row by row
+    public void visit(int level, int left, int top, int right, int bottom, Visitor visitor) {
+        int span = tileSize << level;
+        int firstColumn = Math.max(0, left / span);
+        int firstRow = Math.max(0, top / span);
+        int lastColumn = Math.min(getColumns(level) - 1, (right - 1) / span);
+        int lastRow = Math.min(getRows(level) - 1, (bottom - 1) / span);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int tileLeft = column * span;
+                int tileTop = row * span;
+                visitor.visit(level, column, row, tileLeft, tileTop,
+                        Math.min(width, tileLeft + span), Math.min(height, tileTop + span));
+            }
+        }
+    }
+
+    // Packs level, column and row into 32 bits
+    public static int key(int level, int column, int row) {
+        return level << (INDEX_BITS * 2) | (column & INDEX_MASK) << INDEX_BITS | (row & INDEX_MASK);
+    }
+}
@@ -0,0 +1,90 @@
+package com.editor.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Durations in microseconds, bucketed the way HdrHistogram does: exact below 64,
+// above that every power of two is split into 32 linear steps, so a bucket is
+// never wider than 1/32 of its values (3%). The buckets are one fixed array,
+// recording is an increment and never allocates. Thread safe.
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // Below this every value has its own bucket
+    private static final int LINEAR = SUB_COUNT * 2;
+    // Longest duration told apart, about 67 s; longer ones land in the last bucket
+    private static final int MAX_EXPONENT = 26;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Lost to a concurrent larger value, retry against it
+        }
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    // Upper end of the bucket holding the value at percentile (0 to 100), 0 when empty
+    public long getPercentile(double percentile) {
+        long count = total.get();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(max.get(), upperBound(i));
+        }
+        return max.get();
+    }
+
+    // Values above micros, to the bucket precision
+    public long countAbove(long micros) {
+        long count = 0;
+        for (int i = indexOf(micros) + 1; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        max.set(0);
+    }
+
+    // Bucket i for i below LINEAR, then SUB_COUNT buckets per power of two
+    static int indexOf(long value) {
+        if (value < LINEAR) return (int) value;
+        int exponent = Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(value));
+        int shift = exponent - SUB_BITS;
+        long sub = Math.min(LINEAR - 1, value >>> shift);
+        return (int) (shift * SUB_COUNT + sub);
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int shift = index / SUB_COUNT - 1;
+        long sub = index - shift * SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,94 @@
+package com.editor.core.metrics;
+
+import com.editor.core.cache.LruCache;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Process-wide registry of named histograms and caches. Registering allocates,
+// recording doesn't: callers keep the histogram they were handed and caches
+// count their own hits. Caches are held weakly and reported summed by name.
+public final class Metrics {
+    private static final Map<String, LatencyHistogram> histograms = new TreeMap<>();
+    private static final Map<String, List<WeakReference<LruCache<?, ?>>>> caches = new TreeMap<>();
+
+    private Metrics() {
+    }
+
+    public static synchronized LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            histograms.put(name, histogram);
+        }
+        return histogram;
+    }
+
+    // Returns the cache, so it can wrap the constructor in a field initializer
+    public static synchronized <C extends LruCache<?, ?>> C cache(String name, C cache) {
+        List<WeakReference<LruCache<?, ?>>> list = caches.get(name);
+        if (list == null) {
+            list = new ArrayList<>();
+            caches.put(name, list);
+        }
+        // Per-layer caches come and go, drop the collected ones as new ones arrive
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i).get() == null) list.remove(i);
+        }
+        list.add(new WeakReference<>(cache));
+        return cache;
+    }
+
+    public static synchronized void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    // Plain text, one line per histogram and per cache, times in milliseconds
+    public static synchronized void report(StringBuilder out) {
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) continue;
+            out.append(entry.getKey())
+                    .append(" n=").append(histogram.getCount());
+            appendMillis(out.append(" p50="), histogram.getPercentile(50));
+            appendMillis(out.append(" p90="), histogram.getPercentile(90));
+            appendMillis(out.append(" p99="), histogram.getPercentile(99));
+            appendMillis(out.append(" max="), histogram.getMax());
+            out.append('\n');
+        }
+        for (Map.Entry<String, List<WeakReference<LruCache<?, ?>>>> entry : caches.entrySet()) {
+            long hits = 0;
+            long misses = 0;
+            long size = 0;
+            long maxSize = 0;
+            int live = 0;
+            for (WeakReference<LruCache<?, ?>> reference : entry.getValue()) {
+                LruCache<?, ?> cache = reference.get();
+                if (cache == null) continue;
+                hits += cache.hitCount();
+                misses += cache.missCount();
+                size += cache.size();
+                maxSize += cache.maxSize();
+                live++;
+            }
+            if (live == 0) continue;
+            long lookups = hits + misses;
+            out.append(entry.getKey())
+                    .append(" hit=").append(lookups == 0 ? 0 : hits * 100 / lookups).append('%')
+                    .append(" of ").append(lookups)
+                    .append(" size=").append(size).append('/').append(maxSize);
+            if (live > 1) out.append(" x").append(live);
+            out.append('\n');
+        }
+    }
+
+    // One decimal
+    public static void appendMillis(StringBuilder out, long micros) {
+        out.append(micros / 1000).append('.').append(micros % 1000 / 100);
+    }
+}
@@ -0,0 +1,251 @@
+package com.editor.core.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Keeps a project file in step with the editor. The first save, and every save
+// once the journal has grown past MAX_JOURNAL_ENTRIES, writes the whole file to a
+// temporary one and renames it over the old one; only blobs that are still used
+// are carried over. Other saves append the records that changed since the last
+// save and the blobs the file doesn't have yet, then sync, so a crash costs at
+// most the entries being written. One thread at a time.
+public final class ProjectAutosave {
+    private static final int MAX_JOURNAL_ENTRIES = 512;
+
+    private final File file;
+    private final CRC32 crc = new CRC32();
+
+    // What the file holds as of the last save, records with file blob indices
+    private final List<ProjectRecord> saved = new ArrayList<>();
+    private final Map<String, Integer> blobIndices = new HashMap<>();
+    // Valid length of the file, -1 until it has been written or resumed
+    private long length = -1;
+    private int journalEntries;
+
+    public ProjectAutosave(File file) {
+        this.file = file;
+    }
+
+    // Continues a file that was just opened, the next save appends to it
+    public void resume(ProjectReader reader) {
+        saved.clear();
+        for (int i = 0; i < reader.getLayerCount(); i++) {
+            saved.add(reader.readRecord(i, new ProjectRecord()));
+        }
+        blobIndices.clear();
+        for (int i = 0; i < reader.getBlobCount(); i++) {
+            blobIndices.put(ProjectBlob.of(reader, i).getKey(), i);
+        }
+        length = reader.getValidLength();
+        journalEntries = reader.getJournalEntries();
+    }
+
+    // Blob references in records index into blobs
+    public void save(List<ProjectRecord> records, List<ProjectBlob> blobs) throws IOException {
+        if (length < 0 || journalEntries >= MAX_JOURNAL_ENTRIES) {
+            writeFull(records, blobs);
+        } else {
+            append(records, blobs);
+        }
+    }
+
+    // ============================================================================
+    // JOURNAL
+    // ============================================================================
+
+    private void append(List<ProjectRecord> records, List<ProjectBlob> blobs) throws IOException {
+        List<ByteBuffer> entries = new ArrayList<>();
+        Map<String, Integer> added = new HashMap<>();
+        int nextBlob = blobIndices.size();
+        int[] fileIndices = new int[blobs.size()];
+        boolean[] used = usedBlobs(records, blobs.size());
+        for (int i = 0; i < blobs.size(); i++) {
+            if (!used[i]) continue;
+            ProjectBlob blob = blobs.get(i);
+            String key = blob.getKey();
+            Integer index = blobIndices.get(key);
+            if (index == null) index = added.get(key);
+            if (index == null) {
+                index = nextBlob++;
+                added.put(key, index);
+                entries.add(blobEntry(blob));
+            }
+            fileIndices[i] = index;
+        }
+
+        List<ProjectRecord> translated = translate(records, fileIndices);
+        if (translated.size() != saved.size()) {
+            entries.add(layerCountEntry(translated.size()));
+        }
+        for (int i = 0; i < translated.size(); i++) {
+            if (i >= saved.size() || !translated.get(i).equals(saved.get(i))) {
+                entries.add(recordEntry(i, translated.get(i)));
+            }
+        }
+        if (entries.isEmpty()) return;
+
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = out.getChannel();
+            // Drops whatever a crash left after the last intact entry
+            channel.truncate(length);
+            long position = length;
+            for (ByteBuffer entry : entries) {
+                position += writeFully(channel, entry, position);
+            }
+            channel.force(false);
+            length = position;
+        }
+        journalEntries += entries.size();
+        blobIndices.putAll(added);
+        saved.clear();
+        saved.addAll(translated);
+    }
+
+    private ByteBuffer recordEntry(int index, ProjectRecord record) {
+        ByteBuffer entry = ByteBuffer.allocate(8 + ProjectRecord.SIZE + 4);
+        entry.putInt(ProjectFormat.ENTRY_RECORD).putInt(index);
+        record.write(entry);
+        return seal(entry);
+    }
+
+    private ByteBuffer layerCountEntry(int count) {
+        ByteBuffer entry = ByteBuffer.allocate(8 + 4);
+        entry.putInt(ProjectFormat.ENTRY_LAYER_COUNT).putInt(count);
+        return seal(entry);
+    }
+
+    // Header, digest, data and CRC in one buffer; blobs are encoded images of a
+    // few megabytes at most
+    private ByteBuffer blobEntry(ProjectBlob blob) {
+        ByteBuffer entry = ByteBuffer.allocate(8 + ProjectFormat.DIGEST_SIZE + blob.getLength() + 4);
+        entry.putInt(ProjectFormat.ENTRY_BLOB).putInt(blob.getLength());
+        entry.put(blob.getDigest());
+        entry.put(blob.getData());
+        return seal(entry);
+    }
+
+    // Adds the CRC of everything before it, the buffer must have exactly 4 bytes left
+    private ByteBuffer seal(ByteBuffer entry) {
+        crc.reset();
+        crc.update(entry.array(), 0, entry.capacity() - 4);
+        entry.putInt((int) crc.getValue());
+        return ByteBuffer.wrap(entry.array());
+    }
+
+    // ============================================================================
+    // FULL WRITE
+    // ============================================================================
+
+    private void writeFull(List<ProjectRecord> records, List<ProjectBlob> blobs) throws IOException {
+        // Only blobs that records use are written, each once
+        List<ProjectBlob> kept = new ArrayList<>();
+        Map<String, Integer> keptIndices = new HashMap<>();
+        int[] fileIndices = new int[blobs.size()];
+        boolean[] used = usedBlobs(records, blobs.size());
+        for (int i = 0; i < blobs.size(); i++) {
+            if (!used[i]) continue;
+            String key = blobs.get(i).getKey();
+            Integer index = keptIndices.get(key);
+            if (index == null) {
+                index = kept.size();
+                kept.add(blobs.get(i));
+                keptIndices.put(key, index);
+            }
+            fileIndices[i] = index;
+        }
+        List<ProjectRecord> translated = translate(records, fileIndices);
+
+        long layerTable = ProjectFormat.HEADER_SIZE;
+        long blobTable = layerTable + (long) translated.size() * ProjectRecord.SIZE;
+        long dataStart = blobTable + (long) kept.size() * ProjectFormat.BLOB_ENTRY_SIZE;
+        long end = dataStart;
+        for (ProjectBlob blob : kept) {
+            end += blob.getLength();
+        }
+
+        ByteBuffer head = ByteBuffer.allocate((int) dataStart);
+        head.putInt(ProjectFormat.OFFSET_MAGIC, ProjectFormat.MAGIC);
+        head.putInt(ProjectFormat.OFFSET_VERSION, ProjectFormat.VERSION);
+        head.putInt(ProjectFormat.OFFSET_LAYER_COUNT, translated.size());
+        head.putInt(ProjectFormat.OFFSET_RECORD_SIZE, ProjectRecord.SIZE);
+        head.putLong(ProjectFormat.OFFSET_LAYER_TABLE, layerTable);
+        head.putLong(ProjectFormat.OFFSET_BLOB_TABLE, blobTable);
+        head.putInt(ProjectFormat.OFFSET_BLOB_COUNT, kept.size());
+        head.putLong(ProjectFormat.OFFSET_JOURNAL, end);
+
+        ByteBuffer tables = ByteBuffer.wrap(head.array(), (int) layerTable, (int) (dataStart - layerTable));
+        for (ProjectRecord record : translated) {
+            record.write(tables);
+        }
+        long offset = dataStart;
+        for (ProjectBlob blob : kept) {
+            tables.put(blob.getDigest()).putLong(offset).putLong(blob.getLength());
+            offset += blob.getLength();
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            FileChannel channel = out.getChannel();
+            channel.truncate(0);
+            long position = writeFully(channel, ByteBuffer.wrap(head.array()), 0);
+            for (ProjectBlob blob : kept) {
+                position += writeFully(channel, blob.getData(), position);
+            }
+            channel.force(true);
+        }
+        // rename() replaces the old file atomically, readers of it keep their mapping
+        if (!temp.renameTo(file)) {
+            throw new IOException("Can't replace " + file);
+        }
+
+        length = end;
+        journalEntries = 0;
+        blobIndices.clear();
+        blobIndices.putAll(keptIndices);
+        saved.clear();
+        saved.addAll(translated);
+    }
+
+    // ============================================================================
+    // HELPERS
+    // ============================================================================
+
+    private static boolean[] usedBlobs(List<ProjectRecord> records, int blobCount) {
+        boolean[] used = new boolean[blobCount];
+        for (ProjectRecord record : records) {
+            for (int b = 0; b < ProjectRecord.BLOBS; b++) {
+                if (record.getBlob(b) != ProjectRecord.NO_BLOB) used[record.getBlob(b)] = true;
+            }
+        }
+        return used;
+    }
+
+    private static List<ProjectRecord> translate(List<ProjectRecord> records, int[] fileIndices) {
+        List<ProjectRecord> translated = new ArrayList<>(records.size());
+        for (ProjectRecord record : records) {
+            ProjectRecord copy = record.copy();
+            for (int b = 0; b < ProjectRecord.BLOBS; b++) {
+                int index = record.getBlob(b);
+                if (index != ProjectRecord.NO_BLOB) copy.putBlob(b, fileIndices[index]);
+            }
+            translated.add(copy);
+        }
+        return translated;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,57 @@
+package com.editor.core.project;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Image or font bytes addressed by their SHA-256, so a blob is stored once however
+// many layers use it and a save never writes bytes the file already has.
+public final class ProjectBlob {
+    private final byte[] digest;
+    private final ByteBuffer data;
+
+    private ProjectBlob(byte[] digest, ByteBuffer data) {
+        this.digest = digest;
+        this.data = data;
+    }
+
+    public static ProjectBlob of(byte[] data) {
+        return new ProjectBlob(ProjectFormat.digest(data), ByteBuffer.wrap(data).asReadOnlyBuffer());
+    }
+
+    // A blob of an opened project, still backed by its mapping
+    public static ProjectBlob of(ProjectReader reader, int index) {
+        return new ProjectBlob(reader.getBlobDigest(index), reader.getBlob(index));
+    }
+
+    public int getLength() {
+        return data.remaining();
+    }
+
+    // A fresh read-only view each time
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    byte[] getDigest() {
+        return digest;
+    }
+
+    // Hex digest, usable as a file name
+    public String getKey() {
+        StringBuilder key = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ProjectBlob && Arrays.equals(digest, ((ProjectBlob) o).digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(digest);
+    }
+}
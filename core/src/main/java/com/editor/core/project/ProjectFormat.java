@@ -0,0 +1,53 @@
+package com.editor.core.project;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Layout of a project file, all numbers big endian:
+//
+//   header      HEADER_SIZE bytes
+//                 magic, version, layer count, record size,
+//                 layer table offset, blob table offset, blob count, journal offset
+//   layer table layer count * ProjectRecord.SIZE
+//   blob table  blob count * (SHA-256 digest, data offset, data length)
+//   blob data   image and font bytes, each stored once per digest
+//   journal     entries appended by autosave, each ending with a CRC32 of itself
+//
+// Journal entries replace a layer record, add a blob or change the layer count.
+// A reader replays them in order and stops at the first entry that is truncated
+// or fails its CRC, which is where a crash during an append left the file.
+final class ProjectFormat {
+    static final int MAGIC = 0x51544544; // "QTED"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    static final int DIGEST_SIZE = 32;
+    static final int BLOB_ENTRY_SIZE = DIGEST_SIZE + 8 + 8;
+
+    // Journal entry kinds
+    static final int ENTRY_RECORD = 1;
+    static final int ENTRY_BLOB = 2;
+    static final int ENTRY_LAYER_COUNT = 3;
+
+    // Header field offsets
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_LAYER_COUNT = 8;
+    static final int OFFSET_RECORD_SIZE = 12;
+    static final int OFFSET_LAYER_TABLE = 16;
+    static final int OFFSET_BLOB_TABLE = 24;
+    static final int OFFSET_BLOB_COUNT = 32;
+    static final int OFFSET_JOURNAL = 40;
+
+    private ProjectFormat() {
+    }
+
+    static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.editor.core.project;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Opens a project file by mapping it. Opening reads the header, the blob table and
+// the journal entry headers only; records are decoded when asked for and blobs are
+// handed out as read-only views of the mapping, nothing is copied. The views stay
+// valid after close(), the mapping lives until they are collected.
+public final class ProjectReader implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer map;
+
+    private int layerCount;
+    // Where the newest version of each layer record starts, table or journal
+    private int[] recordOffsets;
+    private int blobCount;
+    // Blobs from the table have their digest there, journal blobs right before the data
+    private int blobTable;
+    private int headerBlobCount;
+    private int[] blobOffsets;
+    private int[] blobLengths;
+    private int journalEntries;
+    // End of the last intact journal entry, appends go there
+    private long validLength;
+
+    private ProjectReader(RandomAccessFile file, MappedByteBuffer map) {
+        this.file = file;
+        this.map = map;
+    }
+
+    public static ProjectReader open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            long size = file.length();
+            if (size > Integer.MAX_VALUE) throw new IOException("Project too large: " + size);
+            MappedByteBuffer map = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ProjectReader reader = new ProjectReader(file, map);
+            reader.readHeader();
+            reader.replayJournal();
+            return reader;
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        } catch (RuntimeException e) {
+            // Offsets pointing outside the file
+            file.close();
+            throw new IOException("Corrupt project " + path, e);
+        }
+    }
+
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    public ProjectRecord readRecord(int index, ProjectRecord out) {
+        out.read(map, recordOffsets[index]);
+        return out;
+    }
+
+    public int getBlobCount() {
+        return blobCount;
+    }
+
+    // Read-only view of the blob bytes
+    public ByteBuffer getBlob(int index) {
+        ByteBuffer view = map.asReadOnlyBuffer();
+        // Through Buffer, the covariant ByteBuffer overloads are missing on older Android
+        ((Buffer) view).limit(blobOffsets[index] + blobLengths[index]);
+        ((Buffer) view).position(blobOffsets[index]);
+        return view.slice();
+    }
+
+    public byte[] getBlobDigest(int index) {
+        byte[] digest = new byte[ProjectFormat.DIGEST_SIZE];
+        int offset = blobOffsets[index] - ProjectFormat.DIGEST_SIZE;
+        if (index < headerBlobCount) {
+            offset = blobTable + index * ProjectFormat.BLOB_ENTRY_SIZE;
+        }
+        for (int i = 0; i < digest.length; i++) {
+            digest[i] = map.get(offset + i);
+        }
+        return digest;
+    }
+
+    int getJournalEntries() {
+        return journalEntries;
+    }
+
+    long getValidLength() {
+        return validLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    // ============================================================================
+    // PARSING
+    // ============================================================================
+
+    private void readHeader() throws IOException {
+        if (map.capacity() < ProjectFormat.HEADER_SIZE || map.getInt(ProjectFormat.OFFSET_MAGIC) != ProjectFormat.MAGIC) {
+            throw new IOException("Not a project file");
+        }
+        int version = map.getInt(ProjectFormat.OFFSET_VERSION);
+        if (version > ProjectFormat.VERSION) throw new IOException("Unsupported project version " + version);
+        int recordSize = map.getInt(ProjectFormat.OFFSET_RECORD_SIZE);
+        if (recordSize != ProjectRecord.SIZE) throw new IOException("Unexpected record size " + recordSize);
+
+        layerCount = map.getInt(ProjectFormat.OFFSET_LAYER_COUNT);
+        int layerTable = (int) map.getLong(ProjectFormat.OFFSET_LAYER_TABLE);
+        recordOffsets = new int[Math.max(4, layerCount)];
+        for (int i = 0; i < layerCount; i++) {
+            recordOffsets[i] = layerTable + i * ProjectRecord.SIZE;
+        }
+
+        blobCount = map.getInt(ProjectFormat.OFFSET_BLOB_COUNT);
+        headerBlobCount = blobCount;
+        blobTable = (int) map.getLong(ProjectFormat.OFFSET_BLOB_TABLE);
+        blobOffsets = new int[Math.max(4, blobCount)];
+        blobLengths = new int[blobOffsets.length];
+        for (int i = 0; i < blobCount; i++) {
+            int entry = blobTable + i * ProjectFormat.BLOB_ENTRY_SIZE + ProjectFormat.DIGEST_SIZE;
+            blobOffsets[i] = (int) map.getLong(entry);
+            blobLengths[i] = (int) map.getLong(entry + 8);
+        }
+        validLength = map.getLong(ProjectFormat.OFFSET_JOURNAL);
+    }
+
+    private void replayJournal() {
+        CRC32 crc = new CRC32();
+        byte[] scratch = new byte[8192];
+        int position = (int) validLength;
+        int end = map.capacity();
+        while (end - position >= 8) {
+            int kind = map.getInt(position);
+            int length = entryLength(kind, map.getInt(position + 4), end - position);
+            if (length < 0) break;
+
+            crc.reset();
+            for (int i = position, crcEnd = position + length - 4; i < crcEnd; i += scratch.length) {
+                int count = Math.min(scratch.length, crcEnd - i);
+                for (int j = 0; j < count; j++) {
+                    scratch[j] = map.get(i + j);
+                }
+                crc.update(scratch, 0, count);
+            }
+            if ((int) crc.getValue() != map.getInt(position + length - 4)) break;
+
+            apply(kind, position);
+            position += length;
+            validLength = position;
+            journalEntries++;
+        }
+    }
+
+    // Length of the whole entry including its CRC, -1 when it can't be complete
+    private static int entryLength(int kind, int argument, int available) {
+        long length;
+        switch (kind) {
+            case ProjectFormat.ENTRY_RECORD:
+                length = 8 + ProjectRecord.SIZE + 4;
+                break;
+            case ProjectFormat.ENTRY_BLOB:
+                if (argument < 0) return -1;
+                length = 8L + ProjectFormat.DIGEST_SIZE + argument + 4;
+                break;
+            case ProjectFormat.ENTRY_LAYER_COUNT:
+                length = 8 + 4;
+                break;
+            default:
+                return -1;
+        }
+        return length <= available ? (int) length : -1;
+    }
+
+    private void apply(int kind, int position) {
+        int argument = map.getInt(position + 4);
+        switch (kind) {
+            case ProjectFormat.ENTRY_RECORD:
+                if (argument >= recordOffsets.length) {
+                    recordOffsets = Arrays.copyOf(recordOffsets, Math.max(argument + 1, recordOffsets.length * 2));
+                }
+                recordOffsets[argument] = position + 8;
+                break;
+            case ProjectFormat.ENTRY_BLOB:
+                if (blobCount == blobOffsets.length) {
+                    blobOffsets = Arrays.copyOf(blobOffsets, blobCount * 2);
+                    blobLengths = Arrays.copyOf(blobLengths, blobCount * 2);
+                }
+                blobOffsets[blobCount] = position + 8 + ProjectFormat.DIGEST_SIZE;
+                blobLengths[blobCount] = argument;
+                blobCount++;
+                break;
+            case ProjectFormat.ENTRY_LAYER_COUNT:
+                layerCount = argument;
+                break;
+        }
+    }
+}
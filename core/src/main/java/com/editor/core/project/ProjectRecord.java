@@ -0,0 +1,121 @@
+package com.editor.core.project;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// One layer of a project as a fixed-width record: a type, a stable id, BLOBS blob
+// references and SLOTS 32-bit slots holding ints or floats. Fixed width lets a
+// reader seek straight to any layer and lets autosave rewrite a single layer by
+// appending its record. What each slot and blob means is up to the layer type.
+public final class ProjectRecord {
+    public static final int BLOBS = 4;
+    public static final int SLOTS = 28;
+    public static final int SIZE = 8 + BLOBS * 4 + SLOTS * 4;
+    public static final int NO_BLOB = -1;
+
+    private int type;
+    private int id;
+    // Blob indices: into the blob list passed to a save, or the file's blobs when read
+    private final int[] blobs = new int[BLOBS];
+    private final int[] slots = new int[SLOTS];
+
+    public ProjectRecord() {
+        Arrays.fill(blobs, NO_BLOB);
+    }
+
+    public ProjectRecord(int type, int id) {
+        this();
+        this.type = type;
+        this.id = id;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getBlob(int which) {
+        return blobs[which];
+    }
+
+    public ProjectRecord putBlob(int which, int index) {
+        blobs[which] = index;
+        return this;
+    }
+
+    public int getInt(int slot) {
+        return slots[slot];
+    }
+
+    public float getFloat(int slot) {
+        return Float.intBitsToFloat(slots[slot]);
+    }
+
+    public boolean getFlag(int slot, int bit) {
+        return (slots[slot] & (1 << bit)) != 0;
+    }
+
+    public ProjectRecord putInt(int slot, int value) {
+        slots[slot] = value;
+        return this;
+    }
+
+    public ProjectRecord putFloat(int slot, float value) {
+        slots[slot] = Float.floatToRawIntBits(value);
+        return this;
+    }
+
+    public ProjectRecord putFlag(int slot, int bit, boolean value) {
+        slots[slot] = value ? slots[slot] | (1 << bit) : slots[slot] & ~(1 << bit);
+        return this;
+    }
+
+    // Absolute reads, the buffer position is left alone
+    void read(ByteBuffer buffer, int offset) {
+        type = buffer.getInt(offset);
+        id = buffer.getInt(offset + 4);
+        offset += 8;
+        for (int i = 0; i < BLOBS; i++, offset += 4) {
+            blobs[i] = buffer.getInt(offset);
+        }
+        for (int i = 0; i < SLOTS; i++, offset += 4) {
+            slots[i] = buffer.getInt(offset);
+        }
+    }
+
+    // Appends SIZE bytes at the buffer's position
+    void write(ByteBuffer buffer) {
+        buffer.putInt(type);
+        buffer.putInt(id);
+        for (int i = 0; i < BLOBS; i++) {
+            buffer.putInt(blobs[i]);
+        }
+        for (int i = 0; i < SLOTS; i++) {
+            buffer.putInt(slots[i]);
+        }
+    }
+
+    public ProjectRecord copy() {
+        ProjectRecord copy = new ProjectRecord(type, id);
+        System.arraycopy(blobs, 0, copy.blobs, 0, BLOBS);
+        System.arraycopy(slots, 0, copy.slots, 0, SLOTS);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProjectRecord)) return false;
+        ProjectRecord other = (ProjectRecord) o;
+        return type == other.type && id == other.id && Arrays.equals(blobs, other.blobs)
+                && Arrays.equals(slots, other.slots);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * type + id) + Arrays.hashCode(blobs)) + Arrays.hashCode(slots);
+    }
+}
@@ -0,0 +1,87 @@
+package com.editor.core.text;
+
+// Bends shaped text into concentric circular arcs. Only glyph positions are
+// computed, so a curve change costs a few trig calls per cluster.
+public final class ArcLayout {
+    // Bends the longest line into a full circle
+    public static final int MAX_CURVE = 100;
+    // Floats per cluster in placements: x, y of the baseline center, rotation in degrees
+    public static final int STRIDE = 3;
+
+    private ArcLayout() {
+    }
+
+    // Positive curves arch the text up, negative ones bend it into a smile. bounds
+    // receives left, top, right, bottom of all glyph boxes. placements needs
+    // STRIDE floats per cluster.
+    public static void layout(ShapedText text, int curve, float[] placements, float[] bounds) {
+        int count = text.getClusterCount();
+        if (placements.length < count * STRIDE) {
+            throw new IllegalArgumentException("Expected " + count * STRIDE + " placements, got " + placements.length);
+        }
+
+        curve = Math.max(-MAX_CURVE, Math.min(MAX_CURVE, curve));
+        float centerX = text.width * 0.5f;
+        float sweep = (float) (Math.PI * 2) * Math.abs(curve) / MAX_CURVE;
+        float radius = sweep > 0 ? Math.max(1f, text.getMaxLineWidth()) / sweep : 0;
+        int direction = curve >= 0 ? 1 : -1;
+        float firstBaseline = text.getLineCount() > 0 ? text.baselines[0] : 0;
+
+        bounds[0] = Float.MAX_VALUE;
+        bounds[1] = Float.MAX_VALUE;
+        bounds[2] = -Float.MAX_VALUE;
+        bounds[3] = -Float.MAX_VALUE;
+
+        for (int line = 0; line < text.getLineCount(); line++) {
+            float baseline = text.baselines[line];
+            // Lines share the circle's center, so lines nearer to it get a smaller radius
+            float lineRadius = Math.max(1f, radius - direction * (baseline - firstBaseline));
+            float x = text.lineLefts[line];
+
+            for (int i = text.lineStarts[line]; i < text.lineStarts[line + 1]; i++) {
+                float advance = text.advances[i];
+                float center = x + advance * 0.5f;
+                x += advance;
+
+                float px = center;
+                float py = baseline;
+                float rotation = 0;
+                float sin = 0;
+                float cos = 1;
+                if (sweep > 0) {
+                    float angle = (center - centerX) / lineRadius;
+                    sin = (float) Math.sin(angle);
+                    cos = (float) Math.cos(angle);
+                    px = centerX + lineRadius * sin;
+                    py = baseline + direction * lineRadius * (1 - cos);
+                    rotation = direction * (float) Math.toDegrees(angle);
+                    sin *= direction;
+                }
+                int o = i * STRIDE;
+                placements[o] = px;
+                placements[o + 1] = py;
+                placements[o + 2] = rotation;
+                include(bounds, px, py, cos, sin, advance * 0.5f, text.ascent, text.descent);
+            }
+        }
+
+        if (bounds[0] > bounds[2]) {
+            bounds[0] = bounds[1] = bounds[2] = bounds[3] = 0;
+        }
+    }
+
+    // Grows bounds by the corners of a rotated glyph box
+    private static void include(float[] bounds, float x, float y, float cos, float sin, float halfAdvance,
+                                float ascent, float descent) {
+        for (int corner = 0; corner < 4; corner++) {
+            float cx = (corner & 1) == 0 ? -halfAdvance : halfAdvance;
+            float cy = (corner & 2) == 0 ? ascent : descent;
+            float bx = x + cx * cos - cy * sin;
+            float by = y + cx * sin + cy * cos;
+            bounds[0] = Math.min(bounds[0], bx);
+            bounds[1] = Math.min(bounds[1], by);
+            bounds[2] = Math.max(bounds[2], bx);
+            bounds[3] = Math.max(bounds[3], by);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.editor.core.text;
+
+import java.text.BreakIterator;
+
+// Word based paragraph layout split into stages that are redone only when their
+// inputs change:
+//   text / font      measure words (through the Measurer, which caches per word)
+//   letter spacing   rescale word advances, re-break lines
+//   width            re-break lines
+//   line spacing     shift baselines
+//   alignment        re-place words on their lines
+// Words are measured without letter spacing, spacing adds the same amount to
+// every grapheme cluster, so it is applied arithmetically. Main thread only.
+public final class ParagraphLayout {
+
+    public interface Measurer {
+        // Advance of text[start, end) without letter spacing
+        float measure(String text, int start, int end);
+    }
+
+    public enum Alignment {
+        LEFT, CENTER, RIGHT, JUSTIFY
+    }
+
+    // Text and measurements, one entry per word. A paragraph without words gets
+    // an empty word so it still produces a line.
+    private String text = "";
+    private int wordCount;
+    private int[] wordStarts = new int[0];
+    private int[] wordEnds = new int[0];
+    private float[] wordAdvances = new float[0];
+    private int[] wordClusters = new int[0];
+    // Spaces between the previous word of the paragraph and this one, -1 for the
+    // first word of a paragraph
+    private int[] spacesBefore = new int[0];
+    private float spaceAdvance;
+    private float textSize;
+    private float ascent;
+    private float descent;
+
+    private float letterSpacing;
+    private float width;
+    private float lineSpacing = 1f;
+    private Alignment alignment = Alignment.LEFT;
+
+    // Lines: words [lineFirstWords[i], lineFirstWords[i + 1])
+    private int lineCount;
+    private int[] lineFirstWords = new int[1];
+    private float[] lineWidths = new float[0];
+    private boolean[] paragraphEnds = new boolean[0];
+    private float[] lineLefts = new float[0];
+    private float[] wordX = new float[0];
+
+    private boolean breaksDirty = true;
+    private boolean placesDirty = true;
+
+    // ============================================================================
+    // INPUTS
+    // ============================================================================
+
+    // ascent is negative, as in font metrics
+    public void setText(String text, Measurer measurer, float textSize, float ascent, float descent) {
+        this.text = text;
+        this.textSize = textSize;
+        this.ascent = ascent;
+        this.descent = descent;
+        spaceAdvance = measurer.measure(" ", 0, 1);
+        measureWords(measurer);
+        breaksDirty = true;
+    }
+
+    // In ems, like Paint.setLetterSpacing
+    public void setLetterSpacing(float letterSpacing) {
+        if (this.letterSpacing == letterSpacing) return;
+        this.letterSpacing = letterSpacing;
+        breaksDirty = true;
+    }
+
+    public void setWidth(float width) {
+        if (this.width == width) return;
+        this.width = width;
+        breaksDirty = true;
+    }
+
+    // Baselines are computed on the fly, nothing to invalidate
+    public void setLineSpacing(float lineSpacing) {
+        this.lineSpacing = lineSpacing;
+    }
+
+    public void setAlignment(Alignment alignment) {
+        if (this.alignment == alignment) return;
+        this.alignment = alignment;
+        placesDirty = true;
+    }
+
+    // ============================================================================
+    // RESULTS
+    // ============================================================================
+
+    public String getText() {
+        return text;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public int getLineCount() {
+        update();
+        return lineCount;
+    }
+
+    public float getHeight() {
+        update();
+        return lineCount == 0 ? 0 : getLineHeight() * (lineCount - 1) + descent - ascent;
+    }
+
+    public float getLineBaseline(int line) {
+        return -ascent + line * getLineHeight();
+    }
+
+    public float getLineLeft(int line) {
+        update();
+        return lineLefts[line];
+    }
+
+    // Char offsets of the first word and the end of the last one, trailing spaces excluded
+    public int getLineStart(int line) {
+        update();
+        return wordStarts[lineFirstWords[line]];
+    }
+
+    public int getLineVisibleEnd(int line) {
+        update();
+        return wordEnds[lineFirstWords[line + 1] - 1];
+    }
+
+    public int getLineFirstWord(int line) {
+        update();
+        return lineFirstWords[line];
+    }
+
+    // Exclusive
+    public int getLineEndWord(int line) {
+        update();
+        return lineFirstWords[line + 1];
+    }
+
+    public int getWordStart(int word) {
+        return wordStarts[word];
+    }
+
+    public int getWordEnd(int word) {
+        return wordEnds[word];
+    }
+
+    public float getWordX(int word) {
+        update();
+        return wordX[word];
+    }
+
+    // ============================================================================
+    // STAGES
+    // ============================================================================
+
+    // Words are the segments between line break opportunities, so text without
+    // spaces (CJK) still wraps between characters
+    private void measureWords(Measurer measurer) {
+        // Every segment and every empty paragraph can add a word
+        int capacity = text.length() + 1;
+        if (wordStarts.length < capacity) {
+            wordStarts = new int[capacity];
+            wordEnds = new int[capacity];
+            wordAdvances = new float[capacity];
+            wordClusters = new int[capacity];
+            spacesBefore = new int[capacity];
+        }
+
+        BreakIterator segments = BreakIterator.getLineInstance();
+        segments.setText(text);
+        BreakIterator clusters = BreakIterator.getCharacterInstance();
+        clusters.setText(text);
+
+        int count = 0;
+        int spaces = -1;
+        boolean paragraphEmpty = true;
+        int start = segments.first();
+        for (int end = segments.next(); end != BreakIterator.DONE; start = end, end = segments.next()) {
+            boolean hardBreak = false;
+            int wordEnd = end;
+            while (wordEnd > start && isBreak(text.charAt(wordEnd - 1))) {
+                hardBreak |= text.charAt(wordEnd - 1) == '\n';
+                wordEnd--;
+            }
+            int wordStart = start;
+            while (wordStart < wordEnd && isBreak(text.charAt(wordStart))) {
+                wordStart++;
+            }
+
+            if (wordStart < wordEnd) {
+                int clusterCount = 0;
+                for (int i = wordStart; i < wordEnd; i = clusters.following(i)) {
+                    clusterCount++;
+                }
+                int before = spaces < 0 ? -1 : spaces + wordStart - start;
+                count = addWord(count, wordStart, wordEnd, measurer.measure(text, wordStart, wordEnd),
+                        clusterCount, before);
+                spaces = end - wordEnd - (hardBreak ? 1 : 0);
+                paragraphEmpty = false;
+            } else if (spaces >= 0) {
+                spaces += end - start;
+            }
+
+            if (hardBreak) {
+                // An empty paragraph still needs a line
+                if (paragraphEmpty) {
+                    count = addWord(count, wordStart, wordStart, 0, 0, -1);
+                }
+                spaces = -1;
+                paragraphEmpty = true;
+            }
+        }
+        if (paragraphEmpty) {
+            count = addWord(count, text.length(), text.length(), 0, 0, -1);
+        }
+        wordCount = count;
+    }
+
+    private int addWord(int index, int start, int end, float advance, int clusters, int spaces) {
+        wordStarts[index] = start;
+        wordEnds[index] = end;
+        wordAdvances[index] = advance;
+        wordClusters[index] = clusters;
+        spacesBefore[index] = spaces;
+        return index + 1;
+    }
+
+    private static boolean isBreak(char c) {
+        return c == ' ' || c == '\t' || c == '\n';
+    }
+
+    private void update() {
+        if (breaksDirty) {
+            breakLines();
+            breaksDirty = false;
+            placesDirty = true;
+        }
+        if (placesDirty) {
+            placeWords();
+            placesDirty = false;
+        }
+    }
+
+    // Greedy, a word wider than the paragraph gets a line of its own
+    private void breakLines() {
+        if (lineFirstWords.length < wordCount + 1) {
+            lineFirstWords = new int[wordCount + 1];
+            lineWidths = new float[wordCount];
+            paragraphEnds = new boolean[wordCount];
+            lineLefts = new float[wordCount];
+        }
+        if (wordX.length < wordCount) {
+            wordX = new float[wordCount];
+        }
+
+        float spacing = letterSpacing * textSize;
+        float space = spaceAdvance + spacing;
+        int lines = 0;
+        float x = 0;
+        for (int word = 0; word < wordCount; word++) {
+            float advance = advanceOf(word, spacing);
+            int spaces = spacesBefore[word];
+            float next = x + spaces * space + advance;
+            if (spaces < 0 || next > width && word > lineFirstWords[lines - 1]) {
+                if (lines > 0) {
+                    paragraphEnds[lines - 1] = spaces < 0;
+                }
+                lineFirstWords[lines] = word;
+                lineWidths[lines] = advance;
+                lines++;
+                x = advance;
+            } else {
+                lineWidths[lines - 1] = next;
+                x = next;
+            }
+        }
+        if (lines > 0) {
+            paragraphEnds[lines - 1] = true;
+        }
+        lineFirstWords[lines] = wordCount;
+        lineCount = lines;
+    }
+
+    private void placeWords() {
+        float spacing = letterSpacing * textSize;
+        float space = spaceAdvance + spacing;
+        for (int line = 0; line < lineCount; line++) {
+            int first = lineFirstWords[line];
+            int end = lineFirstWords[line + 1];
+            float slack = Math.max(0, width - lineWidths[line]);
+
+            float left;
+            float extra = 0;
+            switch (alignment) {
+                case CENTER:
+                    left = slack / 2;
+                    break;
+                case RIGHT:
+                    left = slack;
+                    break;
+                case JUSTIFY:
+                    left = 0;
+                    // The last line of a paragraph stays ragged
+                    if (!paragraphEnds[line] && end - first > 1) {
+                        extra = slack / (end - first - 1);
+                    }
+                    break;
+                default:
+                    left = 0;
+                    break;
+            }
+            lineLefts[line] = left;
+
+            float x = left;
+            for (int word = first; word < end; word++) {
+                if (word > first) {
+                    x += spacesBefore[word] * space + extra;
+                }
+                wordX[word] = x;
+                x += advanceOf(word, spacing);
+            }
+        }
+    }
+
+    private float advanceOf(int word, float spacing) {
+        return wordAdvances[word] + wordClusters[word] * spacing;
+    }
+
+    private float getLineHeight() {
+        return (descent - ascent) * lineSpacing;
+    }
+}
@@ -0,0 +1,63 @@
+package com.editor.core.text;
+
+// Text broken into lines and grapheme clusters and measured once. Anything that
+// only moves glyphs around (curving) works from this, the string is never
+// measured again until its content or font changes.
+public final class ShapedText {
+    // Char range of every cluster, trailing whitespace of a line is left out
+    public final int[] clusterStarts;
+    public final int[] clusterEnds;
+    public final float[] advances;
+    // First cluster of every line, plus the cluster count
+    public final int[] lineStarts;
+    // Start of every line and its baseline in the straight layout
+    public final float[] lineLefts;
+    public final float[] baselines;
+    // Font metrics, ascent is negative
+    public final float ascent;
+    public final float descent;
+    public final float width;
+
+    private final float maxLineWidth;
+
+    public ShapedText(int[] clusterStarts, int[] clusterEnds, float[] advances, int[] lineStarts,
+                      float[] lineLefts, float[] baselines, float ascent, float descent, float width) {
+        if (clusterStarts.length != advances.length || clusterEnds.length != advances.length) {
+            throw new IllegalArgumentException("Cluster arrays don't match");
+        }
+        if (lineStarts.length != lineLefts.length + 1 || baselines.length != lineLefts.length) {
+            throw new IllegalArgumentException("Line arrays don't match");
+        }
+        this.clusterStarts = clusterStarts;
+        this.clusterEnds = clusterEnds;
+        this.advances = advances;
+        this.lineStarts = lineStarts;
+        this.lineLefts = lineLefts;
+        this.baselines = baselines;
+        this.ascent = ascent;
+        this.descent = descent;
+        this.width = width;
+
+        float max = 0;
+        for (int line = 0; line < lineLefts.length; line++) {
+            float lineWidth = 0;
+            for (int i = lineStarts[line]; i < lineStarts[line + 1]; i++) {
+                lineWidth += advances[i];
+            }
+            max = Math.max(max, lineWidth);
+        }
+        maxLineWidth = max;
+    }
+
+    public int getClusterCount() {
+        return advances.length;
+    }
+
+    public int getLineCount() {
+        return lineLefts.length;
+    }
+
+    public float getMaxLineWidth() {
+        return maxLineWidth;
+    }
+}
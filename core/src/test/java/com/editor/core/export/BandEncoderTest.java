@@ -0,0 +1,116 @@
+package com.editor.core.export;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Both encoders are checked by decoding their output with ImageIO
+public class BandEncoderTest {
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 29;
+
+    @Test
+    public void pngIsLossless() throws IOException {
+        int[] argb = gradient(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PngBandEncoder encoder = new PngBandEncoder(out, WIDTH, HEIGHT, true, 6);
+        writeInBands(encoder, argb);
+
+        BufferedImage image = decode(out);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(argb[y * WIDTH + x], image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void opaquePngDropsAlpha() throws IOException {
+        int[] argb = gradient(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInBands(new PngBandEncoder(out, WIDTH, HEIGHT, false, 1), argb);
+
+        BufferedImage image = decode(out);
+        assertTrue(!image.getColorModel().hasAlpha());
+        assertEquals(argb[5 * WIDTH + 7], image.getRGB(7, 5));
+    }
+
+    @Test
+    public void jpegIsClose() throws IOException {
+        int[] argb = gradient(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInBands(new JpegBandEncoder(out, WIDTH, HEIGHT, 90), argb);
+
+        BufferedImage image = decode(out);
+        long error = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int expected = argb[y * WIDTH + x];
+                int actual = image.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    error += Math.abs(((expected >> shift) & 0xff) - ((actual >> shift) & 0xff));
+                }
+            }
+        }
+        assertTrue(error / (WIDTH * HEIGHT * 3.0) < 4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void finishNeedsEveryRow() throws IOException {
+        try (PngBandEncoder encoder = new PngBandEncoder(new ByteArrayOutputStream(), WIDTH, HEIGHT, true, 6)) {
+            encoder.writeRows(gradient(true), 0, HEIGHT - 1);
+            encoder.finish();
+        }
+    }
+
+    @Test
+    public void closeLeavesTheStreamOpen() throws IOException {
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        new PngBandEncoder(out, WIDTH, HEIGHT, true, 6).close();
+        new JpegBandEncoder(out, WIDTH, HEIGHT, 90).close();
+        assertFalse(closed[0]);
+    }
+
+    // Uneven bands, as the exporter's last band is usually short
+    private static void writeInBands(BandEncoder encoder, int[] argb) throws IOException {
+        try (BandEncoder closing = encoder) {
+            for (int row = 0; row < HEIGHT; row += 10) {
+                closing.writeRows(argb, row * WIDTH, Math.min(10, HEIGHT - row));
+            }
+            closing.finish();
+        }
+    }
+
+    private static int[] gradient(boolean alpha) {
+        int[] argb = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int a = alpha ? 255 - x * 4 : 255;
+                argb[y * WIDTH + x] = a << 24 | (x * 6) << 16 | (y * 8) << 8 | 0x80;
+            }
+        }
+        return argb;
+    }
+
+    private static BufferedImage decode(ByteArrayOutputStream out) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(WIDTH, image.getWidth());
+        assertEquals(HEIGHT, image.getHeight());
+        return image;
+    }
+}
@@ -0,0 +1,65 @@
+package com.editor.core.imaging;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlendKernelTest {
+    private static final int[] BACKDROPS = {0xff000000, 0xffffffff, 0x80336699, 0xffc08040, 0x00ffffff};
+
+    @Test
+    public void keepsThePixelAlpha() {
+        for (BlendMode mode : BlendMode.values()) {
+            for (int backdrop : BACKDROPS) {
+                int result = BlendKernel.blend(backdrop, 0xff20a0e0, mode);
+                assertEquals(mode.name(), backdrop >>> 24, result >>> 24);
+            }
+        }
+    }
+
+    @Test
+    public void transparentColorChangesNothing() {
+        for (BlendMode mode : BlendMode.values()) {
+            for (int backdrop : BACKDROPS) {
+                assertEquals(mode.name(), backdrop, BlendKernel.blend(backdrop, 0x00ff0000, mode));
+            }
+        }
+    }
+
+    @Test
+    public void neutralColorsAreIdentity() {
+        for (int backdrop : BACKDROPS) {
+            assertEquals(backdrop, BlendKernel.blend(backdrop, 0xffffffff, BlendMode.MULTIPLY));
+            assertEquals(backdrop, BlendKernel.blend(backdrop, 0xff000000, BlendMode.SCREEN));
+        }
+    }
+
+    @Test
+    public void multiplyDarkensAndScreenLightens() {
+        int backdrop = 0xff808080;
+        int multiplied = BlendKernel.blend(backdrop, 0xff808080, BlendMode.MULTIPLY);
+        assertEquals(0x40, (multiplied >> 16) & 0xff, 1);
+        int screened = BlendKernel.blend(backdrop, 0xff808080, BlendMode.SCREEN);
+        assertEquals(0xc0, (screened >> 16) & 0xff, 1);
+    }
+
+    @Test
+    public void applyMatchesBlendPerPixel() {
+        PixelBuffer src = new PixelBuffer(BACKDROPS.length, 1, BACKDROPS.clone());
+        for (BlendMode mode : BlendMode.values()) {
+            PixelBuffer dst = new PixelBuffer(src.width, 1);
+            BlendKernel.apply(src, dst, 0xc0e05020, mode);
+            for (int i = 0; i < BACKDROPS.length; i++) {
+                int expected = BlendKernel.blend(BACKDROPS[i], 0xc0e05020, mode);
+                assertChannels(mode.name(), expected, dst.pixels[i]);
+            }
+        }
+    }
+
+    // The table and the direct path may round differently by one
+    private static void assertChannels(String message, int expected, int actual) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            assertEquals(message, (expected >> shift) & 0xff, (actual >> shift) & 0xff, 1);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.editor.core.imaging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BlurEngineTest {
+
+    private final BlurEngine.Output<PixelBuffer> output = new BlurEngine.Output<PixelBuffer>() {
+        @Override
+        public PixelBuffer wrap(PixelBuffer pixels) {
+            return pixels;
+        }
+
+        @Override
+        public long sizeOf(PixelBuffer value) {
+            return value.getByteCount();
+        }
+    };
+
+    @Test
+    public void deliversABlurOfTheRequestedSize() {
+        BlurEngine<PixelBuffer> engine = new BlurEngine<>(Runnable::run, Runnable::run, output, 1 << 20);
+        int[] loads = new int[1];
+        engine.setSource("a", (width, height) -> {
+            loads[0]++;
+            return solid(width * 2, height * 2, 0xff808080);
+        });
+
+        List<PixelBuffer> results = new ArrayList<>();
+        engine.request(12, 50, 40, (result, radius) -> results.add(result));
+        assertEquals(1, results.size());
+        assertEquals(50, results.get(0).width);
+        assertEquals(40, results.get(0).height);
+        assertEquals(0xff808080, results.get(0).pixels[20 * 50 + 25]);
+
+        // Same radius again comes from the cache, another radius reuses the scaled source
+        engine.request(12, 50, 40, (result, radius) -> results.add(result));
+        assertSame(results.get(0), results.get(1));
+        engine.request(3, 50, 40, (result, radius) -> results.add(result));
+        assertEquals(3, results.size());
+        assertEquals(1, loads[0]);
+    }
+
+    @Test
+    public void dropsRequestsSupersededBeforeTheyRun() {
+        List<Runnable> queued = new ArrayList<>();
+        BlurEngine<PixelBuffer> engine = new BlurEngine<>(queued::add, Runnable::run, output, 1 << 20);
+        engine.setSource("a", (width, height) -> solid(width, height, 0xffffffff));
+
+        List<Integer> radii = new ArrayList<>();
+        engine.request(2, 20, 20, (result, radius) -> radii.add(radius));
+        engine.request(5, 20, 20, (result, radius) -> radii.add(radius));
+        for (Runnable task : queued) {
+            task.run();
+        }
+        assertEquals(Arrays.asList(5), radii);
+    }
+
+    private static PixelBuffer solid(int width, int height, int color) {
+        PixelBuffer buffer = new PixelBuffer(width, height);
+        Arrays.fill(buffer.pixels, color);
+        return buffer;
+    }
+}
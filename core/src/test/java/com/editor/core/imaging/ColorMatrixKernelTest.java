@@ -0,0 +1,47 @@
+package com.editor.core.imaging;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColorMatrixKernelTest {
+    private static final int[] PIXELS = {0xff000000, 0xffffffff, 0x80336699, 0xffc08040, 0x00123456};
+
+    @Test
+    public void identityKeepsEveryPixel() {
+        PixelBuffer src = new PixelBuffer(PIXELS.length, 1, PIXELS.clone());
+        PixelBuffer dst = new PixelBuffer(PIXELS.length, 1);
+        ColorMatrixKernel.apply(src, dst, ColorMatrices.identity(new float[ColorMatrices.LENGTH]));
+        assertArrayEquals(PIXELS, dst.pixels);
+    }
+
+    @Test
+    public void noAdjustmentsIsIdentity() {
+        float[] matrix = ColorAdjustments.NONE.toMatrix(new float[ColorMatrices.LENGTH]);
+        assertTrue(ColorMatrices.isIdentity(matrix));
+    }
+
+    @Test
+    public void zeroSaturationGivesGray() {
+        PixelBuffer buffer = new PixelBuffer(PIXELS.length, 1, PIXELS.clone());
+        ColorMatrixKernel.apply(buffer, buffer, ColorMatrices.saturation(0, new float[ColorMatrices.LENGTH]));
+        for (int i = 0; i < PIXELS.length; i++) {
+            int pixel = buffer.pixels[i];
+            assertEquals(PIXELS[i] >>> 24, pixel >>> 24);
+            assertEquals((pixel >> 16) & 0xff, (pixel >> 8) & 0xff, 1);
+            assertEquals((pixel >> 8) & 0xff, pixel & 0xff, 1);
+        }
+    }
+
+    @Test
+    public void clampsOffsets() {
+        float[] matrix = ColorMatrices.brightness(300, new float[ColorMatrices.LENGTH]);
+        PixelBuffer buffer = new PixelBuffer(PIXELS.length, 1, PIXELS.clone());
+        ColorMatrixKernel.apply(buffer, buffer, matrix);
+        for (int i = 0; i < PIXELS.length; i++) {
+            assertEquals((PIXELS[i] & 0xff000000) | 0xffffff, buffer.pixels[i]);
+        }
+    }
+}
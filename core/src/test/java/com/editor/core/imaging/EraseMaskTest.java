@@ -0,0 +1,96 @@
+package com.editor.core.imaging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EraseMaskTest {
+    private static final int SIZE = EraseMask.TILE_SIZE;
+
+    @Test
+    public void startsEmptyWithoutTiles() {
+        EraseMask mask = new EraseMask(300, 200);
+        assertTrue(mask.isEmpty());
+        assertEquals(3, mask.getColumns());
+        assertEquals(2, mask.getRows());
+        assertNull(mask.getTile(2, 1));
+    }
+
+    @Test
+    public void hardDabErasesInsideAndKeepsOutside() {
+        EraseMask mask = new EraseMask(300, 200);
+        mask.dab(64, 64, 10, 1f, null);
+        assertFalse(mask.isEmpty());
+        int[] values = new int[SIZE * SIZE];
+        mask.readTile(0, 0, values);
+        assertEquals(0, values[64 * SIZE + 64]);
+        assertEquals(255, values[64 * SIZE + 80]);
+        assertNull(mask.getTile(1, 0));
+    }
+
+    @Test
+    public void softDabFadesOut() {
+        EraseMask mask = new EraseMask(SIZE, SIZE);
+        mask.dab(64, 64, 20, 0f, null);
+        int[] values = new int[SIZE * SIZE];
+        mask.readTile(0, 0, values);
+        int near = values[64 * SIZE + 66];
+        int far = values[64 * SIZE + 80];
+        assertTrue(near < far);
+        assertTrue(far < 255);
+    }
+
+    @Test
+    public void dabAcrossTilesReportsEachOne() {
+        EraseMask mask = new EraseMask(300, 300);
+        List<String> touched = new ArrayList<>();
+        mask.dab(SIZE, SIZE, 8, 1f, new EraseMask.TileObserver() {
+            @Override
+            public void beforeWrite(int tileX, int tileY) {
+                touched.add(tileX + "," + tileY);
+            }
+
+            @Override
+            public void afterWrite(int tileX, int tileY) {
+            }
+        });
+        assertEquals(Arrays.asList("0,0", "1,0", "0,1", "1,1"), touched);
+        assertNotNull(mask.getTile(1, 1));
+    }
+
+    @Test
+    public void writingAFullyKeptTileDropsIt() {
+        EraseMask mask = new EraseMask(SIZE, SIZE);
+        int[] before = new int[SIZE * SIZE];
+        mask.readTile(0, 0, before);
+        mask.dab(10, 10, 5, 1f, null);
+        mask.writeTile(0, 0, before);
+        assertNull(mask.getTile(0, 0));
+        assertTrue(mask.isEmpty());
+    }
+
+    @Test
+    public void generationChangesWithEveryWrite() {
+        EraseMask mask = new EraseMask(300, 200);
+        int start = mask.getGeneration();
+        mask.dab(-50, -50, 10, 1f, null);
+        assertEquals(start, mask.getGeneration());
+
+        mask.dab(64, 64, 10, 1f, null);
+        int dabbed = mask.getGeneration();
+        assertTrue(dabbed != start);
+
+        int[] kept = new int[SIZE * SIZE];
+        Arrays.fill(kept, 255);
+        mask.writeTile(0, 0, kept);
+        assertTrue(mask.getGeneration() != dabbed);
+    }
+}
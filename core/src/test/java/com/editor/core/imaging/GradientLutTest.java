@@ -0,0 +1,40 @@
+package com.editor.core.imaging;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GradientLutTest {
+
+    @Test
+    public void endsAreTheFirstAndLastColor() {
+        GradientLut lut = new GradientLut(new int[]{0xffff0000, 0xff00ff00, 0xff0000ff}, GradientLut.SIZE);
+        assertEquals(GradientLut.SIZE, lut.size());
+        assertEquals(0xffff0000, lut.table()[0]);
+        assertEquals(0xff0000ff, lut.table()[GradientLut.SIZE - 1]);
+    }
+
+    @Test
+    public void interpolatesBetweenStops() {
+        int middle = new GradientLut(new int[]{0xff000000, 0x00ffffff}, 3).table()[1];
+        assertEquals(0x80, middle >>> 24, 1);
+        assertEquals(0x80, middle & 0xff, 1);
+    }
+
+    @Test
+    public void spreadsStopsEvenly() {
+        GradientLut lut = new GradientLut(new int[]{0xff000000, 0xffffffff, 0xff000000}, 5);
+        assertEquals(0xffffffff, lut.table()[2]);
+        // Halfway to the middle stop on both sides
+        assertEquals(0x80, lut.table()[1] & 0xff, 1);
+        assertEquals(0x80, lut.table()[3] & 0xff, 1);
+    }
+
+    @Test
+    public void singleColorFillsTheTable() {
+        GradientLut lut = new GradientLut(new int[]{0xff123456}, 4);
+        for (int color : lut.table()) {
+            assertEquals(0xff123456, color);
+        }
+    }
+}
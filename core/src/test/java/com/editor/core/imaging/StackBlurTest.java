@@ -0,0 +1,62 @@
+package com.editor.core.imaging;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StackBlurTest {
+
+    @Test
+    public void solidImageStaysTheSame() {
+        PixelBuffer buffer = new PixelBuffer(40, 30);
+        Arrays.fill(buffer.pixels, 0xff336699);
+        new StackBlur().blur(buffer, 7);
+        for (int pixel : buffer.pixels) {
+            assertEquals(0xff336699, pixel);
+        }
+    }
+
+    @Test
+    public void spreadsASinglePointSymmetrically() {
+        PixelBuffer buffer = new PixelBuffer(41, 41);
+        Arrays.fill(buffer.pixels, 0xff000000);
+        buffer.pixels[20 * 41 + 20] = 0xffffffff;
+        new StackBlur().blur(buffer, 5);
+
+        int center = red(buffer, 20, 20);
+        assertTrue(center > 0 && center < 255);
+        assertEquals(red(buffer, 17, 20), red(buffer, 23, 20));
+        assertEquals(red(buffer, 20, 17), red(buffer, 20, 23));
+        assertTrue(red(buffer, 22, 20) < center);
+        // Outside the radius nothing changes
+        assertEquals(0, red(buffer, 20, 27));
+    }
+
+    @Test
+    public void keepsTheMeanOfTheImage() {
+        Random random = new Random(3);
+        PixelBuffer buffer = new PixelBuffer(64, 64);
+        for (int i = 0; i < buffer.pixels.length; i++) {
+            buffer.pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        double before = meanGreen(buffer);
+        new StackBlur().blur(buffer, 4);
+        assertEquals(before, meanGreen(buffer), 2.0);
+    }
+
+    private static int red(PixelBuffer buffer, int x, int y) {
+        return (buffer.pixels[y * buffer.width + x] >> 16) & 0xff;
+    }
+
+    private static double meanGreen(PixelBuffer buffer) {
+        long sum = 0;
+        for (int pixel : buffer.pixels) {
+            sum += (pixel >> 8) & 0xff;
+        }
+        return (double) sum / buffer.pixels.length;
+    }
+}
@@ -0,0 +1,162 @@
+package com.editor.core.project;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Saves through ProjectAutosave and reads back through ProjectReader, which
+// replays the journal on open
+public class ProjectAutosaveTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private List<ProjectRecord> records;
+    private List<ProjectBlob> blobs;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile("design.qp");
+        records = new ArrayList<>();
+        blobs = new ArrayList<>();
+        blobs.add(ProjectBlob.of(bytes(100, 1)));
+        blobs.add(ProjectBlob.of(bytes(300, 2)));
+        for (int i = 0; i < 3; i++) {
+            records.add(new ProjectRecord(1 + i, i).putInt(0, i * 7).putFloat(1, i * 0.5f).putFlag(2, 3, true));
+        }
+        records.get(0).putBlob(0, 0);
+        records.get(2).putBlob(1, 1);
+    }
+
+    @Test
+    public void fullWriteReadsBack() throws IOException {
+        new ProjectAutosave(file).save(records, blobs);
+        assertProject();
+    }
+
+    @Test
+    public void journalReplaysChangedRecordsAndNewBlobs() throws IOException {
+        ProjectAutosave autosave = new ProjectAutosave(file);
+        autosave.save(records, blobs);
+        long fullLength = file.length();
+
+        records.get(1).putFloat(1, 42f);
+        blobs.add(ProjectBlob.of(bytes(50, 3)));
+        records.add(new ProjectRecord(2, 3).putBlob(0, 2));
+        autosave.save(records, blobs);
+        assertTrue(file.length() > fullLength);
+        assertProject();
+
+        // Nothing changed, nothing is appended
+        long length = file.length();
+        autosave.save(records, blobs);
+        assertEquals(length, file.length());
+
+        records.remove(3);
+        autosave.save(records, blobs);
+        assertProject();
+    }
+
+    @Test
+    public void resumedFileKeepsAppending() throws IOException {
+        new ProjectAutosave(file).save(records, blobs);
+
+        ProjectAutosave autosave = new ProjectAutosave(file);
+        try (ProjectReader reader = ProjectReader.open(file)) {
+            autosave.resume(reader);
+        }
+        records.get(0).putInt(5, 99);
+        autosave.save(records, blobs);
+        assertProject();
+    }
+
+    @Test
+    public void sharedBlobsAreStoredOnce() throws IOException {
+        blobs.add(ProjectBlob.of(bytes(100, 1)));
+        records.get(1).putBlob(0, 2);
+        new ProjectAutosave(file).save(records, blobs);
+        try (ProjectReader reader = ProjectReader.open(file)) {
+            assertEquals(2, reader.getBlobCount());
+            assertEquals(0, reader.readRecord(1, new ProjectRecord()).getBlob(0));
+        }
+    }
+
+    @Test
+    public void tornEntryIsIgnoredAndOverwritten() throws IOException {
+        ProjectAutosave autosave = new ProjectAutosave(file);
+        autosave.save(records, blobs);
+        records.get(2).putInt(4, 11);
+        autosave.save(records, blobs);
+
+        // A crash in the middle of the last entry
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(out.length() - 10);
+        }
+        try (ProjectReader reader = ProjectReader.open(file)) {
+            assertEquals(0, reader.readRecord(2, new ProjectRecord()).getInt(4));
+            autosave = new ProjectAutosave(file);
+            autosave.resume(reader);
+        }
+        autosave.save(records, blobs);
+        assertProject();
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.write(bytes(200, 9));
+        }
+        ProjectReader.open(file).close();
+    }
+
+    // Blob indices in the file may differ from the list, so blobs are compared by content
+    private void assertProject() throws IOException {
+        try (ProjectReader reader = ProjectReader.open(file)) {
+            assertEquals(records.size(), reader.getLayerCount());
+            for (int i = 0; i < records.size(); i++) {
+                ProjectRecord expected = records.get(i);
+                ProjectRecord actual = reader.readRecord(i, new ProjectRecord());
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getId(), actual.getId());
+                for (int slot = 0; slot < ProjectRecord.SLOTS; slot++) {
+                    assertEquals(expected.getInt(slot), actual.getInt(slot));
+                }
+                for (int b = 0; b < ProjectRecord.BLOBS; b++) {
+                    int index = expected.getBlob(b);
+                    if (index == ProjectRecord.NO_BLOB) {
+                        assertEquals(ProjectRecord.NO_BLOB, actual.getBlob(b));
+                    } else {
+                        assertArrayEquals(toArray(blobs.get(index).getData()), toArray(reader.getBlob(actual.getBlob(b))));
+                        assertEquals(blobs.get(index), ProjectBlob.of(reader, actual.getBlob(b)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) seed);
+        data[0] = (byte) length;
+        return data;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return data;
+    }
+}
@@ -0,0 +1,64 @@
+package com.editor.core.text;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArcLayoutTest {
+
+    // One line of four 10 wide clusters
+    private static ShapedText line() {
+        return new ShapedText(new int[]{0, 1, 2, 3}, new int[]{1, 2, 3, 4}, new float[]{10, 10, 10, 10},
+                new int[]{0, 4}, new float[]{0}, new float[]{16}, -16, 4, 40);
+    }
+
+    @Test
+    public void zeroCurveKeepsTheBaseline() {
+        float[] placements = new float[4 * ArcLayout.STRIDE];
+        float[] bounds = new float[4];
+        ArcLayout.layout(line(), 0, placements, bounds);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i * 10 + 5, placements[i * ArcLayout.STRIDE], 0.001f);
+            assertEquals(16, placements[i * ArcLayout.STRIDE + 1], 0.001f);
+            assertEquals(0, placements[i * ArcLayout.STRIDE + 2], 0.001f);
+        }
+        assertEquals(0, bounds[0], 0.001f);
+        assertEquals(0, bounds[1], 0.001f);
+        assertEquals(40, bounds[2], 0.001f);
+        assertEquals(20, bounds[3], 0.001f);
+    }
+
+    @Test
+    public void curveIsSymmetricAroundTheCenter() {
+        float[] placements = new float[4 * ArcLayout.STRIDE];
+        ArcLayout.layout(line(), 40, placements, new float[4]);
+        int first = 0;
+        int last = 3 * ArcLayout.STRIDE;
+        assertEquals(20 - placements[first], placements[last] - 20, 0.001f);
+        assertEquals(placements[first + 1], placements[last + 1], 0.001f);
+        assertEquals(-placements[first + 2], placements[last + 2], 0.001f);
+        // Arched up: the ends drop below the middle and lean outwards
+        assertTrue(placements[first + 1] > placements[ArcLayout.STRIDE + 1]);
+        assertTrue(placements[first + 2] < 0);
+    }
+
+    @Test
+    public void negativeCurveMirrorsVertically() {
+        float[] up = new float[4 * ArcLayout.STRIDE];
+        float[] down = new float[4 * ArcLayout.STRIDE];
+        ArcLayout.layout(line(), 60, up, new float[4]);
+        ArcLayout.layout(line(), -60, down, new float[4]);
+        for (int i = 0; i < 4; i++) {
+            int o = i * ArcLayout.STRIDE;
+            assertEquals(up[o], down[o], 0.001f);
+            assertEquals(up[o + 1] - 16, 16 - down[o + 1], 0.001f);
+            assertEquals(up[o + 2], -down[o + 2], 0.001f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortPlacements() {
+        ArcLayout.layout(line(), 10, new float[3], new float[4]);
+    }
+}
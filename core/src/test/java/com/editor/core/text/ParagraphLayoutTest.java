@@ -0,0 +1,93 @@
+package com.editor.core.text;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParagraphLayoutTest {
+    // Every char is 10 wide, spaces included
+    private static final ParagraphLayout.Measurer MONOSPACE = (text, start, end) -> (end - start) * 10f;
+
+    private ParagraphLayout layout;
+
+    @Before
+    public void setUp() {
+        layout = new ParagraphLayout();
+    }
+
+    @Test
+    public void wrapsGreedilyAtTheWidth() {
+        layout.setText("aaa bbb ccc", MONOSPACE, 20, -16, 4);
+        layout.setWidth(70);
+        assertEquals(2, layout.getLineCount());
+        assertEquals(0, layout.getLineStart(0));
+        assertEquals(7, layout.getLineVisibleEnd(0));
+        assertEquals(8, layout.getLineStart(1));
+
+        layout.setWidth(1000);
+        assertEquals(1, layout.getLineCount());
+    }
+
+    @Test
+    public void wordWiderThanTheWidthGetsItsOwnLine() {
+        layout.setText("a bbbbbbbbbb c", MONOSPACE, 20, -16, 4);
+        layout.setWidth(50);
+        assertEquals(3, layout.getLineCount());
+        assertEquals(2, layout.getLineStart(1));
+        assertEquals(12, layout.getLineVisibleEnd(1));
+    }
+
+    @Test
+    public void hardBreaksAndEmptyParagraphsMakeLines() {
+        layout.setText("ab\n\ncd", MONOSPACE, 20, -16, 4);
+        layout.setWidth(1000);
+        assertEquals(3, layout.getLineCount());
+        assertEquals(4, layout.getLineStart(2));
+    }
+
+    @Test
+    public void alignsWithinTheWidth() {
+        layout.setText("ab cd", MONOSPACE, 20, -16, 4);
+        layout.setWidth(100);
+        assertEquals(0, layout.getWordX(0), 0.001f);
+        assertEquals(30, layout.getWordX(1), 0.001f);
+
+        layout.setAlignment(ParagraphLayout.Alignment.CENTER);
+        assertEquals(25, layout.getWordX(0), 0.001f);
+        layout.setAlignment(ParagraphLayout.Alignment.RIGHT);
+        assertEquals(50, layout.getWordX(0), 0.001f);
+    }
+
+    @Test
+    public void justifyStretchesAllButTheLastLine() {
+        layout.setText("aa bb cc dd", MONOSPACE, 20, -16, 4);
+        layout.setWidth(90);
+        layout.setAlignment(ParagraphLayout.Alignment.JUSTIFY);
+        assertEquals(2, layout.getLineCount());
+        // First line "aa bb cc" is 80 wide, the word ends at the right edge
+        int last = layout.getLineEndWord(0) - 1;
+        assertEquals(70, layout.getWordX(last), 0.001f);
+        // The last line stays ragged
+        assertEquals(0, layout.getWordX(layout.getLineFirstWord(1)), 0.001f);
+    }
+
+    @Test
+    public void letterSpacingWidensWordsAndSpaces() {
+        layout.setText("ab cd", MONOSPACE, 20, -16, 4);
+        layout.setWidth(1000);
+        layout.setLetterSpacing(0.5f);
+        // "ab" is 20 + 2 * 10, the space 10 + 10
+        assertEquals(60, layout.getWordX(1), 0.001f);
+    }
+
+    @Test
+    public void linesAreSpacedByTheFontHeight() {
+        layout.setText("ab\ncd", MONOSPACE, 20, -16, 4);
+        layout.setWidth(1000);
+        layout.setLineSpacing(1.5f);
+        assertEquals(16, layout.getLineBaseline(0), 0.001f);
+        assertEquals(46, layout.getLineBaseline(1), 0.001f);
+        assertEquals(50, layout.getHeight(), 0.001f);
+    }
+}